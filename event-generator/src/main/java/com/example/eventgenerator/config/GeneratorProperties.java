@@ -7,6 +7,8 @@ public class GeneratorProperties {
     private String ingestUrl = "http://localhost:8080/ingest/event";
     private int ratePerSecond = 1;
     private boolean seedDatabase = true;
+    private int payloadFormat = 1;
+    private String replayProtection = "nonce";
 
     // DB
     private String dbUrl;
@@ -37,6 +39,22 @@ public class GeneratorProperties {
         this.seedDatabase = seedDatabase;
     }
 
+    public int getPayloadFormat() {
+        return payloadFormat;
+    }
+
+    public void setPayloadFormat(int payloadFormat) {
+        this.payloadFormat = payloadFormat;
+    }
+
+    public String getReplayProtection() {
+        return replayProtection;
+    }
+
+    public void setReplayProtection(String replayProtection) {
+        this.replayProtection = replayProtection;
+    }
+
     public String getDbUrl() {
         return dbUrl;
     }
@@ -3,31 +3,63 @@ package com.example.eventgenerator.core;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.Signature;
 import java.time.Instant;
 import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class EventPayloadBuilder {
+    /** Legacy canonical form: fields joined with '|'. */
+    public static final int FORMAT_V1 = 1;
+    /** Canonical form v2: version byte 0x02, then each field as u32 big-endian length + UTF-8 bytes. */
+    public static final int FORMAT_V2 = 2;
+    /** Canonical form v3 (sequence checkpoints): version byte 0x03, the v2 fields, then the sequence as i64 big-endian. */
+    public static final int FORMAT_V3 = 3;
+
     private final String checkpointCode;
     private final String issuerCode;
     private final String userCode;
     private final KeyPair checkpointKeyPair;
     private final KeyPair issuerKeyPair;
+    private final int payloadFormat;
+    // Per-checkpoint sequence numbers (used by checkpoints with replay_protection = sequence). Seeded from
+    // the clock in microseconds so they keep increasing across generator restarts
+    private final Map<String, AtomicLong> sequences = new ConcurrentHashMap<>();
+    private final Map<String, Long> replaySequences = new ConcurrentHashMap<>();
 
     public EventPayloadBuilder(String checkpointCode,
                                String issuerCode,
                                String userCode,
                                KeyPair checkpointKeyPair,
                                KeyPair issuerKeyPair) {
+        this(checkpointCode, issuerCode, userCode, checkpointKeyPair, issuerKeyPair, FORMAT_V1);
+    }
+
+    public EventPayloadBuilder(String checkpointCode,
+                               String issuerCode,
+                               String userCode,
+                               KeyPair checkpointKeyPair,
+                               KeyPair issuerKeyPair,
+                               int payloadFormat) {
+        if (payloadFormat != FORMAT_V1 && payloadFormat != FORMAT_V2 && payloadFormat != FORMAT_V3) {
+            throw new IllegalArgumentException("Unsupported payload format: " + payloadFormat);
+        }
         this.checkpointCode = checkpointCode;
         this.issuerCode = issuerCode;
         this.userCode = userCode;
         this.checkpointKeyPair = checkpointKeyPair;
         this.issuerKeyPair = issuerKeyPair;
+        this.payloadFormat = payloadFormat;
     }
 
     public String valid(String fromZone, String toZone) {
@@ -64,6 +96,10 @@ public class EventPayloadBuilder {
             timestamp = timestamp.replaceAll("\\+00:00$", "Z");
         }
         String eventId = fixedEventId != null ? fixedEventId : UUID.randomUUID().toString();
+        // A replay repeats the sequence number as well as the eventId
+        long sequence = fixedEventId != null
+            ? replaySequences.computeIfAbsent(fixedEventId, id -> nextSequence(checkpointCode))
+            : nextSequence(checkpointCode);
         String userToken = Jwts.builder()
             .issuer(issuerCode)
             .subject(userCode)
@@ -71,7 +107,7 @@ public class EventPayloadBuilder {
             .expiration(Date.from(Instant.now().plusSeconds(3600)))
             .signWith(issuerKeyPair.getPrivate()).compact();
 
-        String canonical = String.join("|", checkpointCode, timestamp, fromZone == null ? "OUT" : fromZone, toZone == null ? "OUT" : toZone, userToken);
+        byte[] canonical = canonical(payloadFormat, checkpointCode, timestamp, fromZone == null ? "OUT" : fromZone, toZone == null ? "OUT" : toZone, userToken, sequence);
         String signatureBase64 = signCorrectly ? sign(canonical) : Base64.getEncoder().encodeToString("bad".getBytes(StandardCharsets.UTF_8));
 
         // Normalize zones: null -> "OUT"
@@ -85,15 +121,47 @@ public class EventPayloadBuilder {
             quote("fromZone") + ":" + quote(fromZoneNormalized) + "," +
             quote("toZone") + ":" + quote(toZoneNormalized) + "," +
             quote("userToken") + ":" + quote(userToken) + "," +
-            quote("signature") + ":" + quote(signatureBase64) +
+            quote("signature") + ":" + quote(signatureBase64) + "," +
+            quote("sequence") + ":" + sequence +
             "}";
     }
 
-    private String sign(String canonical) {
+    private long nextSequence(String checkpointCode) {
+        return sequences.computeIfAbsent(checkpointCode, code -> new AtomicLong(System.currentTimeMillis() * 1000))
+            .incrementAndGet();
+    }
+
+    /**
+     * Canonical bytes the checkpoint signs; must match the server's CanonicalPayloadBuilder.
+     */
+    static byte[] canonical(int format, String checkpointCode, String timestamp, String fromZone, String toZone, String userToken,
+                            long sequence) {
+        if (format == FORMAT_V1) {
+            return String.join("|", checkpointCode, timestamp, fromZone, toZone, userToken).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 + userToken.length());
+            DataOutputStream out = new DataOutputStream(buffer);
+            out.writeByte(format);
+            for (String field : new String[] {checkpointCode, timestamp, fromZone, toZone, userToken}) {
+                byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            if (format == FORMAT_V3) {
+                out.writeLong(sequence);
+            }
+            return buffer.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String sign(byte[] canonical) {
         try {
             Signature sig = Signature.getInstance("SHA256withRSA");
             sig.initSign(checkpointKeyPair.getPrivate());
-            sig.update(canonical.getBytes(StandardCharsets.UTF_8));
+            sig.update(canonical);
             byte[] bytes = sig.sign();
             return Base64.getEncoder().encodeToString(bytes);
         } catch (Exception e) {
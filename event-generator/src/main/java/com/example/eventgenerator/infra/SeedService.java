@@ -64,7 +64,7 @@ public class SeedService {
                 int updated = jdbcTemplate.update(
                     "insert into checkpoint_keys (id, checkpoint_code, public_key_pem, key_type, updated_at) " +
                     "values (?, ?, ?, ?, NOW()) " +
-                    "on conflict (checkpoint_code) do update set public_key_pem = excluded.public_key_pem, " +
+                    "on conflict (checkpoint_code, kid) do update set public_key_pem = excluded.public_key_pem, " +
                     "key_type = excluded.key_type, updated_at = NOW()",
                     UUID.randomUUID(), checkpoint, cpPem, "RSA"
                 );
@@ -76,7 +76,7 @@ public class SeedService {
             int updatedIssuer = jdbcTemplate.update(
                 "insert into issuer_keys (id, issuer_code, public_key_pem, key_type, algorithm, updated_at) " +
                 "values (?, ?, ?, ?, ?, NOW()) " +
-                "on conflict (issuer_code) do update set public_key_pem = excluded.public_key_pem, " +
+                "on conflict (issuer_code, kid) do update set public_key_pem = excluded.public_key_pem, " +
                 "key_type = excluded.key_type, algorithm = excluded.algorithm, updated_at = NOW()",
                 UUID.randomUUID(), issuerCode, issuerPem, "RSA", "RS256"
             );
@@ -142,7 +142,7 @@ public class SeedService {
             jdbcTemplate.update(
                 "insert into checkpoint_keys (id, checkpoint_code, public_key_pem, key_type) " +
                 "values (?, ?, ?, ?) " +
-                "on conflict (checkpoint_code) do update set public_key_pem = excluded.public_key_pem, key_type = excluded.key_type",
+                "on conflict (checkpoint_code, kid) do update set public_key_pem = excluded.public_key_pem, key_type = excluded.key_type",
                 UUID.randomUUID(), checkpoint, cpPem, "RSA"
             );
             logger.info("Created/updated checkpoint key: checkpoint={}", checkpoint);
@@ -257,6 +257,26 @@ public class SeedService {
         }
     }
 
+    /**
+     * Switches the seeded checkpoints to the canonical payload format the generator signs with.
+     */
+    public void applyPayloadFormat(int payloadFormat) {
+        for (String code : SeededData.getAvailableCheckpoints()) {
+            jdbcTemplate.update("update checkpoints set payload_format = ? where code = ?", payloadFormat, code);
+        }
+        logger.info("Seeded checkpoints use canonical payload format {}", payloadFormat);
+    }
+
+    /**
+     * Switches the seeded checkpoints to the given replay protection scheme ({@code nonce} or {@code sequence}).
+     */
+    public void applyReplayProtection(String scheme) {
+        for (String code : SeededData.getAvailableCheckpoints()) {
+            jdbcTemplate.update("update checkpoints set replay_protection = ? where code = ?", scheme, code);
+        }
+        logger.info("Seeded checkpoints use replay protection '{}'", scheme);
+    }
+
     private void ensureCheckpoint(String code, UUID fromZoneId, UUID toZoneId) {
         jdbcTemplate.update(connection -> {
             PreparedStatement ps = connection.prepareStatement(
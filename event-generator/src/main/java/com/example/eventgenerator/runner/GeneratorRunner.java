@@ -53,15 +53,21 @@ public class GeneratorRunner implements ApplicationRunner {
                 .build();
             SeedService seeder = new SeedService(ds);
             data = seeder.seedIfNeeded();
+            seeder.applyPayloadFormat(props.getPayloadFormat());
+            seeder.applyReplayProtection(props.getReplayProtection());
         } else {
             // Without seeding we cannot sign correctly; exit quietly
             return;
         }
 
-        // Create payload builder with default values (will be overridden per event)
+        // Create payload builder with default values (will be overridden per event).
+        // Sequence checkpoints always sign format 3, which covers the sequence number
+        int payloadFormat = "sequence".equals(props.getReplayProtection())
+            ? EventPayloadBuilder.FORMAT_V3
+            : props.getPayloadFormat();
         EventPayloadBuilder payloads = new EventPayloadBuilder(
             data.checkpointCode(), data.issuerCode(), data.userCode(),
-            data.checkpointKeyPair(), data.issuerKeyPair()
+            data.checkpointKeyPair(), data.issuerKeyPair(), payloadFormat
         );
 
         // Create user state tracker to track user positions
@@ -2,10 +2,15 @@ package com.example.eventgenerator.core;
 
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.util.HexFormat;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class EventPayloadBuilderTest {
     @Test
@@ -23,7 +28,50 @@ class EventPayloadBuilderTest {
         assertThat(json).contains("\"userToken\":");
         assertThat(json).contains("\"signature\":");
     }
-}
 
+    @Test
+    void canonicalFormats_matchServerTestVectors() {
+        byte[] v1 = EventPayloadBuilder.canonical(EventPayloadBuilder.FORMAT_V1,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123", 42L);
+        assertThat(new String(v1, StandardCharsets.UTF_8)).isEqualTo("cp-1|2025-01-01T12:00:00Z|zone-a|zone-b|token123");
+
+        // Same vector as the server's CanonicalPayloadBuilderTest
+        byte[] v2 = EventPayloadBuilder.canonical(EventPayloadBuilder.FORMAT_V2,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123", 42L);
+        assertThat(HexFormat.of().formatHex(v2)).isEqualTo(
+            "020000000463702d3100000014323032352d30312d30315431323a30303a30305a"
+                + "000000067a6f6e652d61000000067a6f6e652d6200000008746f6b656e313233");
+        byte[] v3 = EventPayloadBuilder.canonical(EventPayloadBuilder.FORMAT_V3,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123", 42L);
+        assertThat(HexFormat.of().formatHex(v3)).isEqualTo(
+            "030000000463702d3100000014323032352d30312d30315431323a30303a30305a"
+                + "000000067a6f6e652d61000000067a6f6e652d6200000008746f6b656e313233000000000000002a");
+    }
 
+    @Test
+    void unknownPayloadFormat_isRejected() {
+        assertThatThrownBy(() -> new EventPayloadBuilder("cp-1", "issuer-1", "user-123", null, null, 4))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
 
+    @Test
+    void sequences_increasePerCheckpointAndRepeatOnReplay() throws Exception {
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+        gen.initialize(2048);
+        EventPayloadBuilder builder = new EventPayloadBuilder("cp-1", "issuer-1", "user-123",
+            gen.generateKeyPair(), gen.generateKeyPair());
+
+        long first = sequenceOf(builder.valid("zone-a", "zone-b"));
+        long second = sequenceOf(builder.valid("zone-a", "zone-b"));
+        long replayed = sequenceOf(builder.replay("zone-a", "zone-b", "fixed-id"));
+
+        assertThat(second).isGreaterThan(first);
+        assertThat(sequenceOf(builder.replay("zone-a", "zone-b", "fixed-id"))).isEqualTo(replayed);
+    }
+
+    private static long sequenceOf(String json) {
+        Matcher matcher = Pattern.compile("\"sequence\":(\\d+)").matcher(json);
+        assertThat(matcher.find()).isTrue();
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.ReachabilityRequest;
+import com.example.accesssystem.api.dto.ReachabilityResponse;
+import com.example.accesssystem.service.AccessWhatIfService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+
+/**
+ * Read-only access planning queries evaluated in memory ({@link AccessWhatIfService}).
+ * <p>
+ * {@code POST /reachability} answers "which of these users could reach these zones" as NDJSON, one line
+ * per user in request order, streamed while the rest is still being evaluated.
+ */
+@RestController
+@RequestMapping("/admin/access-planning")
+public class AccessPlanningController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final AccessWhatIfService whatIfService;
+    private final ObjectWriter lineWriter;
+
+    public AccessPlanningController(AccessWhatIfService whatIfService, ObjectMapper objectMapper) {
+        this.whatIfService = whatIfService;
+        this.lineWriter = objectMapper.writerFor(ReachabilityResponse.class);
+    }
+
+    @PostMapping(path = "/reachability", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> reachability(@Valid @RequestBody ReachabilityRequest request) {
+        if (!whatIfService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        // Resolved before streaming starts, so an unknown zone is still a 400
+        AccessWhatIfService.Evaluation evaluation = whatIfService.prepare(
+            request.userCodes(), request.zoneCodes(), request.at() != null ? request.at() : Instant.now());
+        StreamingResponseBody body = out -> {
+            OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+            try {
+                // Flushed per chunk, so the client gets each chunk while the next one is evaluated
+                evaluation.run(result -> writeLine(buffered, new ReachabilityResponse(
+                    result.userCode(), result.knownUser(), result.reachableZoneCodes())), () -> flush(buffered));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(OutputStream out, ReachabilityResponse line) {
+        try {
+            out.write(lineWriter.writeValueAsBytes(line));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,57 +1,80 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.api.dto.AccessRuleImportResponse;
 import com.example.accesssystem.api.dto.AccessRuleResponse;
 import com.example.accesssystem.api.dto.CreateAccessRuleRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateAccessRuleRequest;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleImportRepository.ImportResult;
+import com.example.accesssystem.service.AccessRuleImportService;
 import com.example.accesssystem.service.AccessRuleRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Admin controller for access rule CRUD operations.
+ * Admin controller for access rule CRUD operations and bulk import.
+ * After each change the in-memory access matrix (if enabled) reloads the affected user.
  */
 @RestController
 @RequestMapping("/admin/access-rules")
 public class AccessRuleAdminController {
     
     private final AccessRuleRepository accessRuleRepository;
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
+    private final AccessRuleImportService importService;
     
-    public AccessRuleAdminController(AccessRuleRepository accessRuleRepository) {
+    public AccessRuleAdminController(AccessRuleRepository accessRuleRepository,
+                                     ObjectProvider<AccessMatrixEvaluator> accessMatrix,
+                                     AccessRuleImportService importService) {
         this.accessRuleRepository = accessRuleRepository;
+        this.accessMatrix = accessMatrix;
+        this.importService = importService;
     }
     
     @PostMapping
     public ResponseEntity<AccessRuleResponse> createAccessRule(@Valid @RequestBody CreateAccessRuleRequest request) {
-        UUID id = accessRuleRepository.create(request.userId(), request.toZoneId());
+        UUID id = accessRuleRepository.create(request.userId(), request.toZoneId(), request.scheduleId());
+        refreshMatrix(request.userId());
         AccessRuleRepository.AccessRuleRecord record = accessRuleRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Access rule not found after creation"));
         return ResponseEntity.status(HttpStatus.CREATED)
-            .body(new AccessRuleResponse(
-                record.id(), 
-                record.userId(), 
-                record.toZoneId(), 
-                record.createdAt()
-            ));
+            .body(toResponse(record));
+    }
+    
+    /**
+     * Imports CSV rows {@code user_code,zone_code} streamed in the request body.
+     */
+    @PostMapping(path = "/import", consumes = "text/csv")
+    public ResponseEntity<AccessRuleImportResponse> importCsv(
+            InputStream body,
+            @RequestParam(defaultValue = "true") boolean header) {
+        long started = System.nanoTime();
+        return ResponseEntity.ok(toResponse(importService.importCsv(body, header), started));
+    }
+    
+    /**
+     * Imports NDJSON rows {@code {"userCode": ..., "zoneCode": ...}} streamed in the request body.
+     */
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ResponseEntity<AccessRuleImportResponse> importNdjson(InputStream body) {
+        long started = System.nanoTime();
+        return ResponseEntity.ok(toResponse(importService.importNdjson(body), started));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<AccessRuleResponse> getAccessRule(@PathVariable UUID id) {
         return accessRuleRepository.findById(id)
-            .map(record -> ResponseEntity.ok(
-                new AccessRuleResponse(
-                    record.id(), 
-                    record.userId(), 
-                    record.toZoneId(), 
-                    record.createdAt()
-                )
-            ))
+            .map(record -> ResponseEntity.ok(toResponse(record)))
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -64,12 +87,7 @@ public class AccessRuleAdminController {
             ? accessRuleRepository.findByUserId(userId, offset, limit)
             : accessRuleRepository.findAll(offset, limit);
         var responses = records.stream()
-            .map(record -> new AccessRuleResponse(
-                record.id(), 
-                record.userId(), 
-                record.toZoneId(), 
-                record.createdAt()
-            ))
+            .map(this::toResponse)
             .toList();
         long total = userId != null
             ? accessRuleRepository.countByUserId(userId)
@@ -81,26 +99,52 @@ public class AccessRuleAdminController {
     public ResponseEntity<AccessRuleResponse> updateAccessRule(
             @PathVariable UUID id,
             @Valid @RequestBody UpdateAccessRuleRequest request) {
-        boolean updated = accessRuleRepository.update(id, request.toZoneId());
+        boolean updated = accessRuleRepository.update(id, request.toZoneId(), request.scheduleId());
         if (!updated) {
             return ResponseEntity.notFound().build();
         }
         AccessRuleRepository.AccessRuleRecord record = accessRuleRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Access rule not found after update"));
-        return ResponseEntity.ok(new AccessRuleResponse(
-            record.id(), 
-            record.userId(), 
-            record.toZoneId(), 
-            record.createdAt()
-        ));
+        refreshMatrix(record.userId());
+        return ResponseEntity.ok(toResponse(record));
     }
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteAccessRule(@PathVariable UUID id) {
+        var existing = accessRuleRepository.findById(id);
         boolean deleted = accessRuleRepository.deleteById(id);
+        existing.ifPresent(record -> refreshMatrix(record.userId()));
         return deleted 
             ? ResponseEntity.noContent().build()
             : ResponseEntity.notFound().build();
     }
+    
+    private AccessRuleResponse toResponse(AccessRuleRepository.AccessRuleRecord record) {
+        return new AccessRuleResponse(
+            record.id(),
+            record.userId(),
+            record.toZoneId(),
+            record.scheduleId(),
+            record.createdAt()
+        );
+    }
+    
+    private AccessRuleImportResponse toResponse(ImportResult result, long startedNanos) {
+        return new AccessRuleImportResponse(
+            result.rows(),
+            result.created(),
+            result.duplicates(),
+            result.invalidRows(),
+            result.unknownUserRows(),
+            result.unknownZoneRows(),
+            result.unknownUserCodes(),
+            result.unknownZoneCodes(),
+            (System.nanoTime() - startedNanos) / 1_000_000
+        );
+    }
+    
+    private void refreshMatrix(UUID userId) {
+        accessMatrix.ifAvailable(matrix -> matrix.refreshUsers(List.of(userId)));
+    }
 }
 
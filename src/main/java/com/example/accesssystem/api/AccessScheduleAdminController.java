@@ -0,0 +1,112 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.CreateScheduleRequest;
+import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.ScheduleResponse;
+import com.example.accesssystem.api.dto.ScheduleWindowDto;
+import com.example.accesssystem.api.dto.UpdateScheduleRequest;
+import com.example.accesssystem.service.AccessScheduleIndex;
+import com.example.accesssystem.service.AccessScheduleRepository;
+import com.example.accesssystem.service.WeeklySchedule;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.DayOfWeek;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Admin controller for weekly access schedules.
+ * After each change the compiled schedule bitmaps are refreshed, so rules using the schedule follow
+ * the new windows without recompiling the access matrix.
+ */
+@RestController
+@RequestMapping("/admin/schedules")
+public class AccessScheduleAdminController {
+
+    private final AccessScheduleRepository scheduleRepository;
+    private final AccessScheduleIndex scheduleIndex;
+
+    public AccessScheduleAdminController(AccessScheduleRepository scheduleRepository,
+                                         AccessScheduleIndex scheduleIndex) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleIndex = scheduleIndex;
+    }
+
+    @PostMapping
+    public ResponseEntity<ScheduleResponse> createSchedule(@Valid @RequestBody CreateScheduleRequest request) {
+        UUID id = scheduleRepository.create(request.code(), toWindows(request.windows()));
+        scheduleIndex.refresh(List.of(id));
+        AccessScheduleRepository.ScheduleRecord record = scheduleRepository.findById(id)
+            .orElseThrow(() -> new IllegalStateException("Schedule not found after creation"));
+        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(record));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ScheduleResponse> getSchedule(@PathVariable UUID id) {
+        return scheduleRepository.findById(id)
+            .map(record -> ResponseEntity.ok(toResponse(record)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public ResponseEntity<PageResponse<ScheduleResponse>> listSchedules(
+            @RequestParam(defaultValue = "0") @Min(0) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        var responses = scheduleRepository.findAll(offset, limit).stream()
+            .map(this::toResponse)
+            .toList();
+        long total = scheduleRepository.count();
+        return ResponseEntity.ok(new PageResponse<>(responses, total, offset, limit));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<ScheduleResponse> updateSchedule(
+            @PathVariable UUID id,
+            @Valid @RequestBody UpdateScheduleRequest request) {
+        boolean updated = scheduleRepository.update(id, request.code(), toWindows(request.windows()));
+        if (!updated) {
+            return ResponseEntity.notFound().build();
+        }
+        scheduleIndex.refresh(List.of(id));
+        AccessScheduleRepository.ScheduleRecord record = scheduleRepository.findById(id)
+            .orElseThrow(() -> new IllegalStateException("Schedule not found after update"));
+        return ResponseEntity.ok(toResponse(record));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable UUID id) {
+        boolean deleted = scheduleRepository.deleteById(id);
+        scheduleIndex.refresh(List.of(id));
+        return deleted
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    private static List<WeeklySchedule.Window> toWindows(List<ScheduleWindowDto> windows) {
+        return windows.stream()
+            .map(window -> new WeeklySchedule.Window(
+                window.dayOfWeek().getValue(), toMinute(window.from()), toMinute(window.to())))
+            .toList();
+    }
+
+    private ScheduleResponse toResponse(AccessScheduleRepository.ScheduleRecord record) {
+        List<ScheduleWindowDto> windows = record.windows().stream()
+            .map(window -> new ScheduleWindowDto(
+                DayOfWeek.of(window.dayOfWeek()), toTime(window.startMinute()), toTime(window.endMinute())))
+            .toList();
+        return new ScheduleResponse(record.id(), record.code(), windows, record.createdAt());
+    }
+
+    private static int toMinute(String time) {
+        return Integer.parseInt(time, 0, 2, 10) * 60 + Integer.parseInt(time, 3, 5, 10);
+    }
+
+    private static String toTime(int minute) {
+        return String.format("%02d:%02d", minute / 60, minute % 60);
+    }
+}
@@ -2,9 +2,16 @@ package com.example.accesssystem.api;
 
 import com.example.accesssystem.api.dto.CheckpointResponse;
 import com.example.accesssystem.api.dto.CreateCheckpointRequest;
+import com.example.accesssystem.api.dto.HmacKeyRequest;
 import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.PayloadFormatRequest;
+import com.example.accesssystem.api.dto.ReplayProtectionRequest;
 import com.example.accesssystem.api.dto.UpdateCheckpointRequest;
+import com.example.accesssystem.service.CachingEventRepository;
+import com.example.accesssystem.service.CheckpointHmacKeyService;
 import com.example.accesssystem.service.CheckpointRepository;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.ZoneTopology;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -22,14 +29,25 @@ import java.util.UUID;
 public class CheckpointAdminController {
     
     private final CheckpointRepository checkpointRepository;
+    private final CheckpointHmacKeyService hmacKeyService;
+    private final CachingEventRepository codeCache;
+    private final ZoneTopology zoneTopology;
     
-    public CheckpointAdminController(CheckpointRepository checkpointRepository) {
+    public CheckpointAdminController(CheckpointRepository checkpointRepository,
+                                     CheckpointHmacKeyService hmacKeyService,
+                                     CachingEventRepository codeCache,
+                                     ZoneTopology zoneTopology) {
         this.checkpointRepository = checkpointRepository;
+        this.hmacKeyService = hmacKeyService;
+        this.codeCache = codeCache;
+        this.zoneTopology = zoneTopology;
     }
     
     @PostMapping
     public ResponseEntity<CheckpointResponse> createCheckpoint(@Valid @RequestBody CreateCheckpointRequest request) {
         UUID id = checkpointRepository.create(request.code(), request.fromZoneId(), request.toZoneId());
+        codeCache.invalidate(Kind.CHECKPOINTS, id);
+        zoneTopology.refresh();
         CheckpointRepository.CheckpointRecord record = checkpointRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Checkpoint not found after creation"));
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -38,7 +56,9 @@ public class CheckpointAdminController {
                 record.code(), 
                 record.fromZoneId(), 
                 record.toZoneId(), 
-                record.createdAt()
+                record.createdAt(),
+                record.payloadFormat(),
+                record.replayProtection()
             ));
     }
     
@@ -51,7 +71,9 @@ public class CheckpointAdminController {
                     record.code(), 
                     record.fromZoneId(), 
                     record.toZoneId(), 
-                    record.createdAt()
+                    record.createdAt(),
+                    record.payloadFormat(),
+                    record.replayProtection()
                 )
             ))
             .orElse(ResponseEntity.notFound().build());
@@ -68,7 +90,9 @@ public class CheckpointAdminController {
                 record.code(), 
                 record.fromZoneId(), 
                 record.toZoneId(), 
-                record.createdAt()
+                record.createdAt(),
+                record.payloadFormat(),
+                record.replayProtection()
             ))
             .toList();
         long total = checkpointRepository.count();
@@ -83,6 +107,8 @@ public class CheckpointAdminController {
         if (!updated) {
             return ResponseEntity.notFound().build();
         }
+        codeCache.invalidate(Kind.CHECKPOINTS, id);
+        zoneTopology.refresh();
         CheckpointRepository.CheckpointRecord record = checkpointRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Checkpoint not found after update"));
         return ResponseEntity.ok(new CheckpointResponse(
@@ -90,16 +116,61 @@ public class CheckpointAdminController {
             record.code(), 
             record.fromZoneId(), 
             record.toZoneId(), 
-            record.createdAt()
+            record.createdAt(),
+            record.payloadFormat(),
+            record.replayProtection()
         ));
     }
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCheckpoint(@PathVariable UUID id) {
         boolean deleted = checkpointRepository.deleteById(id);
+        codeCache.invalidate(Kind.CHECKPOINTS, id);
+        zoneTopology.refresh();
         return deleted 
             ? ResponseEntity.noContent().build()
             : ResponseEntity.notFound().build();
     }
+    
+    /**
+     * Switches the canonical payload format the checkpoint signs with (1 = legacy, 2 = length-prefixed binary).
+     */
+    @PutMapping("/{id}/payload-format")
+    public ResponseEntity<CheckpointResponse> putPayloadFormat(
+            @PathVariable UUID id,
+            @Valid @RequestBody PayloadFormatRequest request) {
+        if (!checkpointRepository.updatePayloadFormat(id, request.version())) {
+            return ResponseEntity.notFound().build();
+        }
+        return getCheckpoint(id);
+    }
+    
+    /**
+     * Selects the replay protection scheme of the checkpoint ({@code nonce} or {@code sequence}).
+     */
+    @PutMapping("/{id}/replay-protection")
+    public ResponseEntity<CheckpointResponse> putReplayProtection(
+            @PathVariable UUID id,
+            @Valid @RequestBody ReplayProtectionRequest request) {
+        if (!checkpointRepository.updateReplayProtection(id, request.scheme())) {
+            return ResponseEntity.notFound().build();
+        }
+        return getCheckpoint(id);
+    }
+    
+    /**
+     * Opts a checkpoint into symmetric HMAC-SHA256 authentication by creating or replacing key {@code kid}.
+     */
+    @PutMapping("/{id}/hmac-keys/{kid}")
+    public ResponseEntity<Void> putHmacKey(
+            @PathVariable UUID id,
+            @PathVariable String kid,
+            @Valid @RequestBody HmacKeyRequest request) {
+        return checkpointRepository.findById(id)
+            .map(record -> {
+                hmacKeyService.provision(record.code(), kid, request.secret());
+                return ResponseEntity.noContent().<Void>build();
+            })
+            .orElse(ResponseEntity.notFound().build());
+    }
 }
-
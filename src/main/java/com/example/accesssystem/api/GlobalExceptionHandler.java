@@ -1,5 +1,8 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.service.CryptoPoolSaturatedException;
+import com.example.accesssystem.service.NonceStoreUnavailableException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -31,5 +34,24 @@ public class GlobalExceptionHandler {
                 "message", e.getMessage()
             ));
     }
+    
+    @ExceptionHandler(CryptoPoolSaturatedException.class)
+    public ResponseEntity<Map<String, Object>> handleCryptoPoolSaturated(CryptoPoolSaturatedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of(
+                "error", "Service Unavailable",
+                "message", e.getMessage()
+            ));
+    }
+    
+    @ExceptionHandler(NonceStoreUnavailableException.class)
+    public ResponseEntity<Map<String, Object>> handleNonceStoreUnavailable(NonceStoreUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of(
+                "error", "Service Unavailable",
+                "message", e.getMessage()
+            ));
+    }
 }
-
@@ -0,0 +1,195 @@
+package com.example.accesssystem.api;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Пакетная выгрузка событий, накопленных пропускным пунктом офлайн.
+ * Пункт подписывает один раз корень дерева Меркла над eventId и каноническими формами событий:
+ * - checkpointId: идентификатор пропускного пункта
+ * - keyId: (необязательно) kid ключа пункта
+ * - treeSize: число листьев дерева (событий в исходном пакете)
+ * - merkleRoot: base64 корня дерева (SHA-256)
+ * - signature: base64 подписи канонической формы корня (см. Docs/crypto.md)
+ * - events: события пакета (все или часть, например при повторной выгрузке) с доказательствами включения
+ */
+public class IngestBatchRequest {
+
+    @NotBlank
+    private String checkpointId;
+
+    @Size(max = 64)
+    private String keyId;
+
+    @NotNull
+    @Min(1)
+    private Long treeSize;
+
+    @NotBlank
+    private String merkleRoot;
+
+    @NotBlank
+    private String signature;
+
+    @NotEmpty
+    @Valid
+    private List<Event> events = new ArrayList<>();
+
+    public String getCheckpointId() {
+        return checkpointId;
+    }
+
+    public void setCheckpointId(String checkpointId) {
+        this.checkpointId = checkpointId;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Long getTreeSize() {
+        return treeSize;
+    }
+
+    public void setTreeSize(Long treeSize) {
+        this.treeSize = treeSize;
+    }
+
+    public String getMerkleRoot() {
+        return merkleRoot;
+    }
+
+    public void setMerkleRoot(String merkleRoot) {
+        this.merkleRoot = merkleRoot;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<Event> events) {
+        this.events = events;
+    }
+
+    /**
+     * Событие пакета: поля как в {@link IngestEventRequest} без подписи и keyId, плюс
+     * - leafIndex: номер листа в дереве (с нуля)
+     * - proof: base64 хешей-соседей от листа к корню (audit path по RFC 6962)
+     */
+    public static class Event {
+
+        @NotBlank
+        private String eventId;
+
+        @NotBlank
+        @Pattern(
+            regexp = "^\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}(?:\\.\\d{1,9})?Z$",
+            message = "timestamp must be ISO-8601 UTC with 'Z' (e.g. 2025-01-01T12:00:00Z)"
+        )
+        private String timestamp;
+
+        @NotBlank
+        private String fromZone;
+
+        @NotBlank
+        private String toZone;
+
+        @NotBlank
+        private String userToken;
+
+        @Min(0)
+        private Long sequence;
+
+        @NotNull
+        @Min(0)
+        private Long leafIndex;
+
+        @NotNull
+        @Size(max = 64)
+        private List<String> proof = new ArrayList<>();
+
+        public String getEventId() {
+            return eventId;
+        }
+
+        public void setEventId(String eventId) {
+            this.eventId = eventId;
+        }
+
+        public String getTimestamp() {
+            return timestamp;
+        }
+
+        public void setTimestamp(String timestamp) {
+            this.timestamp = timestamp;
+        }
+
+        public String getFromZone() {
+            return fromZone;
+        }
+
+        public void setFromZone(String fromZone) {
+            this.fromZone = fromZone;
+        }
+
+        public String getToZone() {
+            return toZone;
+        }
+
+        public void setToZone(String toZone) {
+            this.toZone = toZone;
+        }
+
+        public String getUserToken() {
+            return userToken;
+        }
+
+        public void setUserToken(String userToken) {
+            this.userToken = userToken;
+        }
+
+        public Long getSequence() {
+            return sequence;
+        }
+
+        public void setSequence(Long sequence) {
+            this.sequence = sequence;
+        }
+
+        public Long getLeafIndex() {
+            return leafIndex;
+        }
+
+        public void setLeafIndex(Long leafIndex) {
+            this.leafIndex = leafIndex;
+        }
+
+        public List<String> getProof() {
+            return proof;
+        }
+
+        public void setProof(List<String> proof) {
+            this.proof = proof;
+        }
+    }
+}
@@ -6,12 +6,19 @@ import com.example.accesssystem.domain.PassageModels.SignedPayload;
 import com.example.accesssystem.domain.contracts.SecurityContracts;
 import com.example.accesssystem.service.AntiReplayService;
 import com.example.accesssystem.service.CanonicalPayloadBuilder;
+import com.example.accesssystem.service.CheckpointPayloadFormats;
+import com.example.accesssystem.service.CryptoPoolSaturatedException;
+import com.example.accesssystem.service.CryptoVerificationExecutor;
 import com.example.accesssystem.service.DenialRepository;
 import com.example.accesssystem.service.IssuerTokenVerificationService;
+import com.example.accesssystem.service.MerkleTree;
+import com.example.accesssystem.service.NonceStoreUnavailableException;
 import com.example.accesssystem.service.TransactionalEventProcessingService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import io.micrometer.core.annotation.Timed;
@@ -22,7 +29,11 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -33,23 +44,38 @@ public class IngestController {
     
     private final SecurityContracts.CheckpointMessageVerifier checkpointMessageVerifier;
     private final CanonicalPayloadBuilder canonicalBuilder;
+    private final CheckpointPayloadFormats payloadFormats;
     private final IssuerTokenVerificationService tokenVerificationService;
     private final AntiReplayService antiReplayService;
     private final TransactionalEventProcessingService transactionalEventProcessingService;
     private final DenialRepository denialRepository;
+    private final CryptoVerificationExecutor cryptoExecutor;
+    private final int batchMaxEvents;
+    private final long batchMaxEventAgeSeconds;
+    private final long timestampSkewSeconds;
     
     public IngestController(SecurityContracts.CheckpointMessageVerifier checkpointMessageVerifier,
                            CanonicalPayloadBuilder canonicalBuilder,
+                           CheckpointPayloadFormats payloadFormats,
                            IssuerTokenVerificationService tokenVerificationService,
                            AntiReplayService antiReplayService,
                            TransactionalEventProcessingService transactionalEventProcessingService,
-                           DenialRepository denialRepository) {
+                           DenialRepository denialRepository,
+                           CryptoVerificationExecutor cryptoExecutor,
+                           @Value("${access-system.ingest.batch.max-events:1000}") int batchMaxEvents,
+                           @Value("${access-system.ingest.batch.max-event-age-seconds:86400}") long batchMaxEventAgeSeconds,
+                           @Value("${access-system.anti-replay.timestamp-skew-seconds:300}") long timestampSkewSeconds) {
         this.checkpointMessageVerifier = checkpointMessageVerifier;
         this.canonicalBuilder = canonicalBuilder;
+        this.payloadFormats = payloadFormats;
         this.tokenVerificationService = tokenVerificationService;
         this.antiReplayService = antiReplayService;
         this.transactionalEventProcessingService = transactionalEventProcessingService;
         this.denialRepository = denialRepository;
+        this.cryptoExecutor = cryptoExecutor;
+        this.batchMaxEvents = batchMaxEvents;
+        this.batchMaxEventAgeSeconds = batchMaxEventAgeSeconds;
+        this.timestampSkewSeconds = timestampSkewSeconds;
     }
 
     @PostMapping("/event")
@@ -66,40 +92,41 @@ public class IngestController {
             request.getSignature() != null ? request.getSignature().length() : 0
         );
 
-        // Anti-replay protection: validate timestamp and check for duplicate eventId
-        AntiReplayService.ValidationResult antiReplayResult = antiReplayService.validateEvent(
+        // Shed load early; the eventId is claimed only after verification, so a rejected event can be retried
+        if (!cryptoExecutor.hasCapacity()) {
+            throw new CryptoPoolSaturatedException("Crypto verification pool is saturated");
+        }
+
+        EventFields event = new EventFields(
+            request.getCheckpointId(),
             request.getEventId(),
+            request.getTimestamp(),
+            request.getFromZone(),
+            request.getToZone(),
+            request.getUserToken(),
+            request.getSequence()
+        );
+
+        // Stateless anti-replay checks (timestamp window, sequence present) before any crypto work
+        AntiReplayService.ValidationResult precheck = antiReplayService.precheckEvent(
             request.getCheckpointId(),
-            request.getTimestamp()
+            request.getTimestamp(),
+            timestampSkewSeconds,
+            request.getSequence()
         );
-        
-        if (!antiReplayResult.isAccepted()) {
-            log.warn("Anti-replay validation failed for checkpoint {}: {} - {}", 
-                request.getCheckpointId(), antiReplayResult.getReason(), antiReplayResult.getDetails());
-            
-            // Record denial
-            denialRepository.recordDenial(
-                request.getCheckpointId(),
-                DenialReason.REPLAY,
-                String.format("Anti-replay validation failed: %s - %s", 
-                    antiReplayResult.getReason(), antiReplayResult.getDetails())
-            );
-            
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
-                "status", "rejected",
-                "reason", antiReplayResult.getReason(),
-                "checkpointId", request.getCheckpointId(),
-                "details", antiReplayResult.getDetails()
-            ));
+        if (!precheck.isAccepted()) {
+            return rejectReplay(event, precheck);
         }
 
-        // Build canonical payload
+        // Build canonical payload in the format this checkpoint signs (sequence checkpoints sign the sequence too)
         byte[] canonicalPayload = canonicalBuilder.buildCanonicalPayload(
+            payloadFormats.formatOf(request.getCheckpointId()),
             request.getCheckpointId(),
             request.getTimestamp(),
             request.getFromZone(),
             request.getToZone(),
-            request.getUserToken()
+            request.getUserToken(),
+            request.getSequence()
         );
         
         // Create signed payload: base64(canonical) + "|" + base64(signature)
@@ -107,10 +134,11 @@ public class IngestController {
         String signedPayloadString = canonicalBase64 + "|" + request.getSignature();
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        // Verify signature
+        // Verify signature (CPU-bound, runs on the crypto pool)
         CheckpointId checkpointId = new CheckpointId(request.getCheckpointId());
-        SecurityContracts.VerificationResult verification = checkpointMessageVerifier.verifyCheckpointMessage(
-            checkpointId, signedPayload
+        SecurityContracts.VerificationResult verification = cryptoExecutor.verify(
+            "checkpoint signature",
+            () -> checkpointMessageVerifier.verifyCheckpointMessage(checkpointId, request.getKeyId(), signedPayload)
         );
         
         if (!verification.valid()) {
@@ -131,17 +159,220 @@ public class IngestController {
             ));
         }
 
-        // Verify user token (JWT/JWS)
-        IssuerTokenVerificationService.TokenVerificationResult tokenResult = 
-            tokenVerificationService.verifyAndDecodeToken(request.getUserToken());
+        return verifyTokenAndProcess(event, timestampSkewSeconds, null);
+    }
+
+    /**
+     * Offline backlog upload: one checkpoint signature over the Merkle root of the batch, then a
+     * hash-only inclusion check per event. Each event then goes through the same anti-replay, token
+     * and processing steps as {@code /ingest/event}; results are reported per event. The eventId or
+     * sequence of an event is claimed only after its inclusion proof and user token have been verified.
+     * If the crypto pool or the nonce store gives up mid-batch, that event and the rest get status
+     * {@code retry} (with {@code Retry-After}) instead of failing the whole request, whose earlier
+     * events are already processed.
+     */
+    @PostMapping("/batch")
+    @Timed(value = "ingest_batch_latency", description = "Batch ingest endpoint latency")
+    public ResponseEntity<Map<String, Object>> ingestBatch(@Valid @RequestBody IngestBatchRequest request) {
+        List<IngestBatchRequest.Event> events = request.getEvents();
+        if (events.size() > batchMaxEvents) {
+            throw new IllegalArgumentException("Batch must not contain more than " + batchMaxEvents + " events");
+        }
+        if (request.getTreeSize() < events.size()) {
+            throw new IllegalArgumentException("treeSize must not be smaller than the number of events");
+        }
+        byte[] merkleRoot = decodeHash(request.getMerkleRoot(), "merkleRoot");
+        log.debug("Ingest batch received: checkpointId={}, treeSize={}, events={}",
+            request.getCheckpointId(), request.getTreeSize(), events.size());
+
+        if (!cryptoExecutor.hasCapacity()) {
+            throw new CryptoPoolSaturatedException("Crypto verification pool is saturated");
+        }
+
+        // The only asymmetric checkpoint operation of the whole batch
+        byte[] rootPayload = canonicalBuilder.buildBatchRootPayload(
+            request.getCheckpointId(), request.getTreeSize(), merkleRoot);
+        SignedPayload signedRoot = new SignedPayload((Base64.getEncoder().encodeToString(rootPayload) + "|"
+            + request.getSignature()).getBytes(StandardCharsets.UTF_8));
+        CheckpointId checkpointId = new CheckpointId(request.getCheckpointId());
+        SecurityContracts.VerificationResult verification = cryptoExecutor.verify(
+            "checkpoint batch signature",
+            () -> checkpointMessageVerifier.verifyCheckpointMessage(checkpointId, request.getKeyId(), signedRoot)
+        );
+        if (!verification.valid()) {
+            log.warn("Batch root signature verification failed for checkpoint {}: {}",
+                request.getCheckpointId(), verification.reason());
+            denialRepository.recordDenial(
+                request.getCheckpointId(),
+                DenialReason.SIGNATURE_INVALID,
+                "Batch root signature verification failed: " + verification.reason()
+            );
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                "status", "rejected",
+                "reason", "signature_verification_failed",
+                "checkpointId", request.getCheckpointId()
+            ));
+        }
+
+        int payloadFormat = payloadFormats.formatOf(request.getCheckpointId());
+        List<Map<String, Object>> results = new ArrayList<>(events.size());
+        Map<String, IssuerTokenVerificationService.TokenVerificationResult> tokenResults = new HashMap<>();
+        int accepted = 0;
+        int retry = 0;
+        // Set once the crypto pool or the nonce store gives up; the rest of the batch is not attempted
+        String unavailable = null;
+        for (IngestBatchRequest.Event item : events) {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("eventId", item.getEventId());
+            if (unavailable == null) {
+                EventFields event = new EventFields(
+                    request.getCheckpointId(),
+                    item.getEventId(),
+                    item.getTimestamp(),
+                    item.getFromZone(),
+                    item.getToZone(),
+                    item.getUserToken(),
+                    item.getSequence()
+                );
+                try {
+                    Map<String, Object> body = processBatchEvent(
+                        event, item, payloadFormat, request.getTreeSize(), merkleRoot, tokenResults).getBody();
+                    result.put("status", body.get("status"));
+                    if ("accepted".equals(body.get("status"))) {
+                        accepted++;
+                    } else {
+                        result.put("reason", body.get("reason"));
+                    }
+                    results.add(result);
+                    continue;
+                } catch (CryptoPoolSaturatedException e) {
+                    unavailable = "crypto_pool_saturated";
+                } catch (NonceStoreUnavailableException e) {
+                    unavailable = "nonce_store_unavailable";
+                }
+                log.warn("Batch interrupted: checkpoint={}, eventId={}, reason={}",
+                    request.getCheckpointId(), item.getEventId(), unavailable);
+            }
+            // Not claimed: earlier events keep their results and these can be uploaded again
+            result.put("status", "retry");
+            result.put("reason", unavailable);
+            retry++;
+            results.add(result);
+        }
+
+        log.info("Batch processed: checkpoint={}, treeSize={}, events={}, accepted={}, retry={}",
+            request.getCheckpointId(), request.getTreeSize(), events.size(), accepted, retry);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (retry > 0) {
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        return response.body(Map.of(
+            "checkpointId", request.getCheckpointId(),
+            "accepted", accepted,
+            "rejected", events.size() - accepted - retry,
+            "retry", retry,
+            "results", results
+        ));
+    }
+
+    private ResponseEntity<Map<String, Object>> processBatchEvent(
+            EventFields event,
+            IngestBatchRequest.Event item,
+            int payloadFormat,
+            long treeSize,
+            byte[] merkleRoot,
+            Map<String, IssuerTokenVerificationService.TokenVerificationResult> tokenResults) {
+        // Offline events may be older than the regular skew window
+        AntiReplayService.ValidationResult precheck = antiReplayService.precheckEvent(
+            event.checkpointId(), event.timestamp(), batchMaxEventAgeSeconds, event.sequence());
+        if (!precheck.isAccepted()) {
+            return rejectReplay(event, precheck);
+        }
+
+        // Inclusion proof: hashing only, no signature operation per event. The leaf covers the eventId,
+        // so a signed batch cannot be replayed under fresh eventIds while its events are still in the age window
+        byte[] leaf = MerkleTree.leafHash(canonicalBuilder.buildBatchLeafPayload(event.eventId(),
+            canonicalBuilder.buildCanonicalPayload(payloadFormat, event.checkpointId(), event.timestamp(),
+                event.fromZone(), event.toZone(), event.userToken(), event.sequence())));
+        List<byte[]> proof = new ArrayList<>(item.getProof().size());
+        try {
+            for (String sibling : item.getProof()) {
+                proof.add(decodeHash(sibling, "proof"));
+            }
+        } catch (IllegalArgumentException e) {
+            proof = null;
+        }
+        if (proof == null || !MerkleTree.verifyInclusion(leaf, item.getLeafIndex(), treeSize, proof, merkleRoot)) {
+            log.warn("Merkle inclusion proof invalid: checkpoint={}, eventId={}, leafIndex={}",
+                event.checkpointId(), event.eventId(), item.getLeafIndex());
+            denialRepository.recordDenial(
+                event.checkpointId(),
+                DenialReason.SIGNATURE_INVALID,
+                "Merkle inclusion proof invalid for event " + event.eventId()
+            );
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                "status", "rejected",
+                "reason", "inclusion_proof_invalid",
+                "checkpointId", event.checkpointId()
+            ));
+        }
+
+        return verifyTokenAndProcess(event, batchMaxEventAgeSeconds, tokenResults);
+    }
+
+    private ResponseEntity<Map<String, Object>> rejectReplay(
+            EventFields event, AntiReplayService.ValidationResult antiReplayResult) {
+        log.warn("Anti-replay validation failed for checkpoint {}: {} - {}", 
+            event.checkpointId(), antiReplayResult.getReason(), antiReplayResult.getDetails());
+        
+        // Record denial
+        denialRepository.recordDenial(
+            event.checkpointId(),
+            DenialReason.REPLAY,
+            String.format("Anti-replay validation failed: %s - %s", 
+                antiReplayResult.getReason(), antiReplayResult.getDetails())
+        );
+        
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+            "status", "rejected",
+            "reason", antiReplayResult.getReason(),
+            "checkpointId", event.checkpointId(),
+            "details", antiReplayResult.getDetails()
+        ));
+    }
+
+    /**
+     * Steps after the checkpoint has been authenticated: user token, anti-replay claim, timestamp,
+     * transactional processing. The eventId (or sequence) is claimed only after the last crypto pool
+     * task, so a 503 from a saturated pool never uses it up and the checkpoint can retry the event.
+     *
+     * @param maxAgeSeconds how far in the past the event timestamp may be
+     * @param tokenResults verification results reused within one batch (null for single events)
+     */
+    private ResponseEntity<Map<String, Object>> verifyTokenAndProcess(
+            EventFields event,
+            long maxAgeSeconds,
+            Map<String, IssuerTokenVerificationService.TokenVerificationResult> tokenResults) {
+        // Verify user token (JWT/JWS) on the crypto pool
+        IssuerTokenVerificationService.TokenVerificationResult tokenResult =
+            tokenResults != null ? tokenResults.get(event.userToken()) : null;
+        if (tokenResult == null) {
+            tokenResult = cryptoExecutor.verify(
+                "user token",
+                () -> tokenVerificationService.verifyAndDecodeToken(event.userToken())
+            );
+            if (tokenResults != null) {
+                tokenResults.put(event.userToken(), tokenResult);
+            }
+        }
         
         if (!tokenResult.isValid()) {
             log.warn("Token verification failed for checkpoint {}: {}", 
-                request.getCheckpointId(), tokenResult.getReason());
+                event.checkpointId(), tokenResult.getReason());
             
             // Record denial
             denialRepository.recordDenial(
-                request.getCheckpointId(),
+                event.checkpointId(),
                 DenialReason.TOKEN_INVALID,
                 "Token verification failed: " + tokenResult.getReason()
             );
@@ -149,11 +380,18 @@ public class IngestController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                 "status", "rejected",
                 "reason", "token_verification_failed",
-                "checkpointId", request.getCheckpointId(),
+                "checkpointId", event.checkpointId(),
                 "token_error", tokenResult.getReason()
             ));
         }
 
+        // Anti-replay claim of the eventId (or sequence): the event is authenticated and needs no more crypto work
+        AntiReplayService.ValidationResult antiReplayResult = antiReplayService.validateEvent(
+            event.eventId(), event.checkpointId(), event.timestamp(), maxAgeSeconds, event.sequence());
+        if (!antiReplayResult.isAccepted()) {
+            return rejectReplay(event, antiReplayResult);
+        }
+
         // Extract user ID from token
         String userCode = tokenResult.getUserId()
             .map(u -> u.value())
@@ -162,53 +400,53 @@ public class IngestController {
         // Parse timestamp
         Instant eventTimestamp;
         try {
-            eventTimestamp = Instant.parse(request.getTimestamp());
+            eventTimestamp = Instant.parse(event.timestamp());
         } catch (Exception e) {
-            log.warn("Invalid timestamp format: {}", request.getTimestamp());
+            log.warn("Invalid timestamp format: {}", event.timestamp());
             
             // Record denial
             denialRepository.recordDenial(
-                request.getCheckpointId(),
+                event.checkpointId(),
                 DenialReason.INTERNAL_ERROR,
-                "Invalid timestamp format: " + request.getTimestamp() + " - " + e.getMessage()
+                "Invalid timestamp format: " + event.timestamp() + " - " + e.getMessage()
             );
             
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of(
                 "status", "rejected",
                 "reason", "invalid_timestamp",
-                "checkpointId", request.getCheckpointId()
+                "checkpointId", event.checkpointId()
             ));
         }
         
         // Process event transactionally: access check -> update user_state -> write events
         TransactionalEventProcessingService.ProcessingResult processingResult = 
             transactionalEventProcessingService.processEvent(
-                request.getEventId(),
-                request.getCheckpointId(),
+                event.eventId(),
+                event.checkpointId(),
                 userCode,
-                request.getFromZone(),
-                request.getToZone(),
+                event.fromZone(),
+                event.toZone(),
                 eventTimestamp
             );
         
         if (!processingResult.isAllowed()) {
             log.warn("Event processing failed: checkpoint={}, eventId={}, reason={}, details={}",
-                request.getCheckpointId(), request.getEventId(), 
+                event.checkpointId(), event.eventId(), 
                 processingResult.getReason(), processingResult.getDetails());
             
             // Record denial - denial is already recorded in TransactionalEventProcessingService
             // but we record it here as well with full context in case transaction was rolled back
             try {
                 denialRepository.recordDenial(
-                    request.getEventId(),
+                    event.eventId(),
                     null, // checkpointId resolved in service
-                    request.getCheckpointId(),
+                    event.checkpointId(),
                     null, // userId resolved in service
                     userCode, // userCode already defined above
                     null, // fromZoneId resolved in service
-                    request.getFromZone(),
+                    event.fromZone(),
                     null, // toZoneId resolved in service
-                    request.getToZone(),
+                    event.toZone(),
                     mapReasonToDenialReason(processingResult.getReason()),
                     processingResult.getDetails()
                 );
@@ -219,22 +457,35 @@ public class IngestController {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
                 "status", "rejected",
                 "reason", processingResult.getReason(),
-                "checkpointId", request.getCheckpointId(),
+                "checkpointId", event.checkpointId(),
                 "details", processingResult.getDetails() != null ? processingResult.getDetails() : ""
             ));
         }
 
         log.info("Event accepted and processed: checkpoint={}, eventId={}, user={}, from={}, to={}", 
-            request.getCheckpointId(), request.getEventId(), userCode, 
-            request.getFromZone(), request.getToZone());
+            event.checkpointId(), event.eventId(), userCode, 
+            event.fromZone(), event.toZone());
         return ResponseEntity.accepted().body(Map.of(
             "status", "accepted",
-            "checkpointId", request.getCheckpointId(),
-            "eventId", request.getEventId(),
+            "checkpointId", event.checkpointId(),
+            "eventId", event.eventId(),
             "userId", userCode
         ));
     }
     
+    private static byte[] decodeHash(String base64, String field) {
+        byte[] hash;
+        try {
+            hash = Base64.getDecoder().decode(base64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(field + " must be base64-encoded");
+        }
+        if (hash.length != 32) {
+            throw new IllegalArgumentException(field + " must be a SHA-256 hash (32 bytes)");
+        }
+        return hash;
+    }
+    
     /**
      * Maps processing result reason to DenialReason enum.
      */
@@ -250,6 +501,11 @@ public class IngestController {
             default -> DenialReason.INTERNAL_ERROR;
         };
     }
+    
+    /**
+     * Event fields shared by single and batch ingest.
+     */
+    private record EventFields(String checkpointId, String eventId, String timestamp,
+                               String fromZone, String toZone, String userToken, Long sequence) {
+    }
 }
-
-
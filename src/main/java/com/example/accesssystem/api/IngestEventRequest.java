@@ -1,7 +1,9 @@
 package com.example.accesssystem.api;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 /**
  * Запрос события от пропускного пункта.
@@ -12,6 +14,9 @@ import jakarta.validation.constraints.Pattern;
  * - userToken: шифротекст идентификатора пользователя
  * - signature: подпись сообщения (подтверждение от пункта)
  * - eventId: уникальный идентификатор события (nonce) для защиты от replay-атак
+ * - keyId: (необязательно) kid ключа пункта, которым подписано сообщение
+ * - sequence: (необязательно) возрастающий номер события пункта; обязателен для пунктов
+ *   с защитой от повторов по номеру (replay_protection = sequence)
  */
 public class IngestEventRequest {
 
@@ -40,6 +45,12 @@ public class IngestEventRequest {
     @NotBlank
     private String eventId;
 
+    @Size(max = 64)
+    private String keyId;
+
+    @Min(0)
+    private Long sequence;
+
     public String getCheckpointId() {
         return checkpointId;
     }
@@ -95,6 +106,20 @@ public class IngestEventRequest {
     public void setEventId(String eventId) {
         this.eventId = eventId;
     }
-}
 
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public void setKeyId(String keyId) {
+        this.keyId = keyId;
+    }
+
+    public Long getSequence() {
+        return sequence;
+    }
 
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.OfflineSnapshotSummaryResponse;
+import com.example.accesssystem.api.dto.SnapshotSigningKeyResponse;
+import com.example.accesssystem.service.OfflineSnapshot;
+import com.example.accesssystem.service.OfflineSnapshotService;
+import com.example.accesssystem.service.OfflineSnapshotService.Download;
+import com.example.accesssystem.service.OfflineSnapshotService.DownloadType;
+import com.example.accesssystem.service.OfflineSnapshotSigner;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Signed offline decision snapshots for checkpoints ({@link OfflineSnapshotService}).
+ * <p>
+ * {@code GET /checkpoints/{code}} returns the binary snapshot with its version as a strong ETag. Readers
+ * revalidate with {@code If-None-Match} (304 when unchanged) and ask for a delta with
+ * {@code ?since=<version>}; a full snapshot is returned when that version is no longer retained.
+ * The {@code X-Snapshot-Type} header tells which one was sent.
+ */
+@RestController
+@RequestMapping("/offline-snapshots")
+public class OfflineSnapshotController {
+
+    static final String SNAPSHOT_TYPE_HEADER = "X-Snapshot-Type";
+
+    private final OfflineSnapshotService snapshotService;
+    private final OfflineSnapshotSigner signer;
+
+    public OfflineSnapshotController(OfflineSnapshotService snapshotService, OfflineSnapshotSigner signer) {
+        this.snapshotService = snapshotService;
+        this.signer = signer;
+    }
+
+    @GetMapping(path = "/checkpoints/{code}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> snapshot(@PathVariable String code,
+                                           @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false)
+                                           String ifNoneMatch,
+                                           @RequestParam(required = false) String since) {
+        if (!snapshotService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        Long sinceVersion = since != null ? OfflineSnapshot.parseVersionTag(since) : null;
+        return snapshotService.download(code, cachedVersions(ifNoneMatch), sinceVersion)
+            .map(OfflineSnapshotController::toResponse)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/checkpoints")
+    public ResponseEntity<List<OfflineSnapshotSummaryResponse>> summaries() {
+        if (!snapshotService.isAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(snapshotService.summaries().stream()
+            .map(summary -> new OfflineSnapshotSummaryResponse(summary.checkpointCode(),
+                OfflineSnapshot.versionTag(summary.version()), summary.exit(), summary.users(),
+                Instant.ofEpochMilli(summary.generatedAt())))
+            .toList());
+    }
+
+    @GetMapping("/signing-key")
+    public ResponseEntity<SnapshotSigningKeyResponse> signingKey() {
+        if (!signer.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(new SnapshotSigningKeyResponse(signer.keyId(), "Ed25519",
+            Base64.getEncoder().encodeToString(signer.publicKey())));
+    }
+
+    private static ResponseEntity<byte[]> toResponse(Download download) {
+        String etag = "\"" + OfflineSnapshot.versionTag(download.version()) + "\"";
+        if (download.type() == DownloadType.NOT_MODIFIED) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .header(SNAPSHOT_TYPE_HEADER, download.type() == DownloadType.DELTA ? "delta" : "full")
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .body(download.body());
+    }
+
+    // Versions listed in If-None-Match; weak and malformed tags are ignored
+    private static Set<Long> cachedVersions(String ifNoneMatch) {
+        Set<Long> versions = new HashSet<>();
+        if (ifNoneMatch == null) {
+            return versions;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.length() == 18 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                try {
+                    versions.add(OfflineSnapshot.parseVersionTag(tag.substring(1, 17)));
+                } catch (IllegalArgumentException ignored) {
+                    // Not one of ours
+                }
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.TopologyResponse;
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import com.example.accesssystem.service.ZoneGraph;
+import com.example.accesssystem.service.ZoneTopology;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of the in-memory zone topology (the snapshot event processing validates against).
+ */
+@RestController
+@RequestMapping("/admin/topology")
+public class TopologyController {
+
+    private static final String OUT_ZONE_CODE = "OUT";
+
+    private final ZoneTopology zoneTopology;
+
+    public TopologyController(ZoneTopology zoneTopology) {
+        this.zoneTopology = zoneTopology;
+    }
+
+    @GetMapping
+    public TopologyResponse topology() {
+        ZoneGraph graph = zoneTopology.current();
+        List<TopologyResponse.ZoneNode> zones = new ArrayList<>();
+        for (Entry zone : graph.zones()) {
+            zones.add(new TopologyResponse.ZoneNode(zone.id(), zone.code()));
+        }
+        zones.add(new TopologyResponse.ZoneNode(null, OUT_ZONE_CODE));
+
+        List<TopologyResponse.CheckpointLink> checkpoints = new ArrayList<>();
+        for (CheckpointEdge edge : graph.checkpoints()) {
+            checkpoints.add(new TopologyResponse.CheckpointLink(
+                edge.id(),
+                edge.code(),
+                edge.fromZoneId() != null ? graph.zoneCode(edge.fromZoneId()) : OUT_ZONE_CODE,
+                edge.toZoneId() != null ? graph.zoneCode(edge.toZoneId()) : OUT_ZONE_CODE
+            ));
+        }
+        return new TopologyResponse(zones, checkpoints);
+    }
+}
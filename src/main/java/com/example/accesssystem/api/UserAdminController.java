@@ -1,35 +1,60 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.api.dto.BulkUserAccessRequest;
 import com.example.accesssystem.api.dto.CreateUserRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateUserRequest;
+import com.example.accesssystem.api.dto.UserAccessRequest;
+import com.example.accesssystem.api.dto.UserAccessSyncResponse;
 import com.example.accesssystem.api.dto.UserResponse;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleRepository;
+import com.example.accesssystem.service.AccessRuleRepository.SyncResult;
+import com.example.accesssystem.service.CachingEventRepository;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
 import com.example.accesssystem.service.UserRepository;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
- * Admin controller for user CRUD operations.
+ * Admin controller for user CRUD operations and desired-state access sync.
+ * <p>
+ * {@code PUT /{id}/access} and {@code PUT /access} take the full list of zones each user may enter and
+ * apply only the difference to {@code access_rules}; the access matrix (if enabled) then reloads only
+ * the users whose rules changed.
  */
 @RestController
 @RequestMapping("/admin/users")
 public class UserAdminController {
     
     private final UserRepository userRepository;
+    private final CachingEventRepository codeCache;
+    private final AccessRuleRepository accessRuleRepository;
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
     
-    public UserAdminController(UserRepository userRepository) {
+    public UserAdminController(UserRepository userRepository, CachingEventRepository codeCache,
+                               AccessRuleRepository accessRuleRepository,
+                               ObjectProvider<AccessMatrixEvaluator> accessMatrix) {
         this.userRepository = userRepository;
+        this.codeCache = codeCache;
+        this.accessRuleRepository = accessRuleRepository;
+        this.accessMatrix = accessMatrix;
     }
     
     @PostMapping
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request) {
         UUID id = userRepository.create(request.code());
+        codeCache.invalidate(Kind.USERS, id);
         UserRepository.UserRecord record = userRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("User not found after creation"));
         return ResponseEntity.status(HttpStatus.CREATED)
@@ -65,6 +90,7 @@ public class UserAdminController {
         if (!updated) {
             return ResponseEntity.notFound().build();
         }
+        codeCache.invalidate(Kind.USERS, id);
         UserRepository.UserRecord record = userRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("User not found after update"));
         return ResponseEntity.ok(new UserResponse(record.id(), record.code(), record.createdAt()));
@@ -73,9 +99,38 @@ public class UserAdminController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable UUID id) {
         boolean deleted = userRepository.deleteById(id);
+        codeCache.invalidate(Kind.USERS, id);
         return deleted 
             ? ResponseEntity.noContent().build()
             : ResponseEntity.notFound().build();
     }
+    
+    @PutMapping("/{id}/access")
+    public ResponseEntity<UserAccessSyncResponse> syncUserAccess(
+            @PathVariable UUID id,
+            @Valid @RequestBody UserAccessRequest request) {
+        if (userRepository.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(sync(Map.of(id, request.zoneIds())));
+    }
+    
+    @PutMapping("/access")
+    public ResponseEntity<UserAccessSyncResponse> syncUsersAccess(
+            @Valid @RequestBody BulkUserAccessRequest request) {
+        Map<UUID, Set<UUID>> desiredZones = new LinkedHashMap<>();
+        for (BulkUserAccessRequest.Entry entry : request.users()) {
+            if (desiredZones.put(entry.userId(), entry.zoneIds()) != null) {
+                throw new IllegalArgumentException("User " + entry.userId() + " is listed more than once");
+            }
+        }
+        return ResponseEntity.ok(sync(desiredZones));
+    }
+    
+    private UserAccessSyncResponse sync(Map<UUID, Set<UUID>> desiredZones) {
+        SyncResult result = accessRuleRepository.syncUserZones(desiredZones);
+        accessMatrix.ifAvailable(matrix -> matrix.refreshUsers(result.changedUserIds()));
+        return new UserAccessSyncResponse(
+            desiredZones.size(), result.added(), result.removed(), result.changedUserIds());
+    }
 }
-
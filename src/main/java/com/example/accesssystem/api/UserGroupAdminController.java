@@ -0,0 +1,178 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.AddGroupMembersRequest;
+import com.example.accesssystem.api.dto.AddGroupMembersResponse;
+import com.example.accesssystem.api.dto.CreateGroupRequest;
+import com.example.accesssystem.api.dto.CreateGroupRuleRequest;
+import com.example.accesssystem.api.dto.GroupMemberResponse;
+import com.example.accesssystem.api.dto.GroupResponse;
+import com.example.accesssystem.api.dto.GroupRuleResponse;
+import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.UpdateGroupRequest;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.UserGroupRepository;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Admin controller for user groups, their members and their access rules.
+ * After each change the in-memory access matrix (if enabled) recompiles the affected members.
+ */
+@RestController
+@RequestMapping("/admin/groups")
+public class UserGroupAdminController {
+
+    private final UserGroupRepository userGroupRepository;
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
+
+    public UserGroupAdminController(UserGroupRepository userGroupRepository,
+                                    ObjectProvider<AccessMatrixEvaluator> accessMatrix) {
+        this.userGroupRepository = userGroupRepository;
+        this.accessMatrix = accessMatrix;
+    }
+
+    @PostMapping
+    public ResponseEntity<GroupResponse> createGroup(@Valid @RequestBody CreateGroupRequest request) {
+        UUID id = userGroupRepository.create(request.code());
+        UserGroupRepository.GroupRecord record = userGroupRepository.findById(id)
+            .orElseThrow(() -> new IllegalStateException("Group not found after creation"));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .body(new GroupResponse(record.id(), record.code(), record.createdAt()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<GroupResponse> getGroup(@PathVariable UUID id) {
+        return userGroupRepository.findById(id)
+            .map(record -> ResponseEntity.ok(
+                new GroupResponse(record.id(), record.code(), record.createdAt())
+            ))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public ResponseEntity<PageResponse<GroupResponse>> listGroups(
+            @RequestParam(defaultValue = "0") @Min(0) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        var records = userGroupRepository.findAll(offset, limit);
+        var responses = records.stream()
+            .map(record -> new GroupResponse(record.id(), record.code(), record.createdAt()))
+            .toList();
+        long total = userGroupRepository.count();
+        return ResponseEntity.ok(new PageResponse<>(responses, total, offset, limit));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<GroupResponse> updateGroup(
+            @PathVariable UUID id,
+            @Valid @RequestBody UpdateGroupRequest request) {
+        boolean updated = userGroupRepository.update(id, request.code());
+        if (!updated) {
+            return ResponseEntity.notFound().build();
+        }
+        UserGroupRepository.GroupRecord record = userGroupRepository.findById(id)
+            .orElseThrow(() -> new IllegalStateException("Group not found after update"));
+        return ResponseEntity.ok(new GroupResponse(record.id(), record.code(), record.createdAt()));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteGroup(@PathVariable UUID id) {
+        List<UUID> members = userGroupRepository.findMemberIds(List.of(id));
+        boolean deleted = userGroupRepository.deleteById(id);
+        refreshUsers(members);
+        return deleted
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/{id}/members")
+    public ResponseEntity<AddGroupMembersResponse> addMembers(
+            @PathVariable UUID id,
+            @Valid @RequestBody AddGroupMembersRequest request) {
+        if (userGroupRepository.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        int added = userGroupRepository.addMembers(id, request.userIds());
+        refreshUsers(request.userIds());
+        return ResponseEntity.ok(new AddGroupMembersResponse(added));
+    }
+
+    @GetMapping("/{id}/members")
+    public ResponseEntity<PageResponse<GroupMemberResponse>> listMembers(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") @Min(0) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        if (userGroupRepository.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        var responses = userGroupRepository.findMembers(id, offset, limit).stream()
+            .map(record -> new GroupMemberResponse(record.userId(), record.createdAt()))
+            .toList();
+        long total = userGroupRepository.countMembers(id);
+        return ResponseEntity.ok(new PageResponse<>(responses, total, offset, limit));
+    }
+
+    @DeleteMapping("/{id}/members/{userId}")
+    public ResponseEntity<Void> removeMember(@PathVariable UUID id, @PathVariable UUID userId) {
+        boolean removed = userGroupRepository.removeMember(id, userId);
+        refreshUsers(List.of(userId));
+        return removed
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    @PostMapping("/{id}/rules")
+    public ResponseEntity<GroupRuleResponse> createRule(
+            @PathVariable UUID id,
+            @Valid @RequestBody CreateGroupRuleRequest request) {
+        if (userGroupRepository.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        UUID ruleId = userGroupRepository.createRule(id, request.toZoneId());
+        refreshGroup(id);
+        return userGroupRepository.findRules(id).stream()
+            .filter(record -> record.id().equals(ruleId))
+            .findFirst()
+            .map(record -> ResponseEntity.status(HttpStatus.CREATED).body(toResponse(record)))
+            .orElseThrow(() -> new IllegalStateException("Group access rule not found after creation"));
+    }
+
+    @GetMapping("/{id}/rules")
+    public ResponseEntity<List<GroupRuleResponse>> listRules(@PathVariable UUID id) {
+        if (userGroupRepository.findById(id).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(userGroupRepository.findRules(id).stream().map(this::toResponse).toList());
+    }
+
+    @DeleteMapping("/{id}/rules/{ruleId}")
+    public ResponseEntity<Void> deleteRule(@PathVariable UUID id, @PathVariable UUID ruleId) {
+        boolean deleted = userGroupRepository.deleteRule(id, ruleId);
+        if (deleted) {
+            refreshGroup(id);
+        }
+        return deleted
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    private GroupRuleResponse toResponse(UserGroupRepository.GroupRuleRecord record) {
+        return new GroupRuleResponse(record.id(), record.groupId(), record.toZoneId(), record.createdAt());
+    }
+
+    private void refreshUsers(Collection<UUID> userIds) {
+        accessMatrix.ifAvailable(matrix -> matrix.refreshUsers(userIds));
+    }
+
+    private void refreshGroup(UUID groupId) {
+        accessMatrix.ifAvailable(matrix -> matrix.refreshGroups(List.of(groupId)));
+    }
+}
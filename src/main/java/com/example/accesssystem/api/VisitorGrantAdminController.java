@@ -0,0 +1,101 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.CreateVisitorGrantRequest;
+import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.VisitorGrantResponse;
+import com.example.accesssystem.service.VisitorGrantRepository;
+import com.example.accesssystem.service.VisitorGrantStore;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Admin controller for temporary visitor grants.
+ * Grants are enforced from memory and expire on their own; the database keeps the audit trail only,
+ * so issuing and revoking do not touch {@code access_rules}.
+ */
+@RestController
+@RequestMapping("/admin/visitor-grants")
+public class VisitorGrantAdminController {
+
+    private final VisitorGrantRepository visitorGrantRepository;
+    private final VisitorGrantStore visitorGrantStore;
+    private final Duration maxDuration;
+
+    public VisitorGrantAdminController(VisitorGrantRepository visitorGrantRepository,
+                                       VisitorGrantStore visitorGrantStore,
+                                       @Value("${access-system.visitor-grants.max-duration-hours:24}")
+                                       long maxDurationHours) {
+        this.visitorGrantRepository = visitorGrantRepository;
+        this.visitorGrantStore = visitorGrantStore;
+        this.maxDuration = Duration.ofHours(maxDurationHours);
+    }
+
+    @PostMapping
+    public ResponseEntity<VisitorGrantResponse> createGrant(@Valid @RequestBody CreateVisitorGrantRequest request) {
+        Instant now = Instant.now();
+        Instant validFrom = request.validFrom() != null ? request.validFrom() : now;
+        if (!request.validUntil().isAfter(validFrom) || !request.validUntil().isAfter(now)) {
+            throw new IllegalArgumentException("Valid until must be after valid from and in the future");
+        }
+        if (Duration.between(validFrom, request.validUntil()).compareTo(maxDuration) > 0) {
+            throw new IllegalArgumentException(
+                "Visitor grant must not last longer than " + maxDuration.toHours() + " hours");
+        }
+        UUID id = visitorGrantRepository.create(
+            request.userId(), request.toZoneId(), validFrom, request.validUntil());
+        visitorGrantStore.refresh(List.of(id));
+        VisitorGrantRepository.VisitorGrantRecord record = visitorGrantRepository.findById(id)
+            .orElseThrow(() -> new IllegalStateException("Visitor grant not found after creation"));
+        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(record));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<VisitorGrantResponse> getGrant(@PathVariable UUID id) {
+        return visitorGrantRepository.findById(id)
+            .map(record -> ResponseEntity.ok(toResponse(record)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping
+    public ResponseEntity<PageResponse<VisitorGrantResponse>> listActiveGrants(
+            @RequestParam(defaultValue = "0") @Min(0) int offset,
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        Instant now = Instant.now();
+        var responses = visitorGrantRepository.findActive(now, offset, limit).stream()
+            .map(this::toResponse)
+            .toList();
+        long total = visitorGrantRepository.countActive(now);
+        return ResponseEntity.ok(new PageResponse<>(responses, total, offset, limit));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> revokeGrant(@PathVariable UUID id) {
+        boolean revoked = visitorGrantRepository.revoke(id);
+        visitorGrantStore.refresh(List.of(id));
+        return revoked
+            ? ResponseEntity.noContent().build()
+            : ResponseEntity.notFound().build();
+    }
+
+    private VisitorGrantResponse toResponse(VisitorGrantRepository.VisitorGrantRecord record) {
+        return new VisitorGrantResponse(
+            record.id(),
+            record.userId(),
+            record.toZoneId(),
+            record.validFrom(),
+            record.validUntil(),
+            record.issuedAt(),
+            record.revokedAt()
+        );
+    }
+}
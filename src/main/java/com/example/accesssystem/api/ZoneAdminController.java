@@ -3,8 +3,13 @@ package com.example.accesssystem.api;
 import com.example.accesssystem.api.dto.CreateZoneRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateZoneRequest;
+import com.example.accesssystem.api.dto.ZoneParentRequest;
 import com.example.accesssystem.api.dto.ZoneResponse;
+import com.example.accesssystem.service.CachingEventRepository;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.ZoneHierarchyIndex;
 import com.example.accesssystem.service.ZoneRepository;
+import com.example.accesssystem.service.ZoneTopology;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -12,36 +17,45 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
- * Admin controller for zone CRUD operations.
+ * Admin controller for zone CRUD operations and the zone hierarchy.
  */
 @RestController
 @RequestMapping("/admin/zones")
 public class ZoneAdminController {
     
     private final ZoneRepository zoneRepository;
+    private final CachingEventRepository codeCache;
+    private final ZoneTopology zoneTopology;
+    private final ZoneHierarchyIndex zoneHierarchy;
     
-    public ZoneAdminController(ZoneRepository zoneRepository) {
+    public ZoneAdminController(ZoneRepository zoneRepository, CachingEventRepository codeCache,
+                               ZoneTopology zoneTopology, ZoneHierarchyIndex zoneHierarchy) {
         this.zoneRepository = zoneRepository;
+        this.codeCache = codeCache;
+        this.zoneTopology = zoneTopology;
+        this.zoneHierarchy = zoneHierarchy;
     }
     
     @PostMapping
     public ResponseEntity<ZoneResponse> createZone(@Valid @RequestBody CreateZoneRequest request) {
-        UUID id = zoneRepository.create(request.code());
+        UUID id = zoneRepository.create(request.code(), request.parentZoneId());
+        codeCache.invalidate(Kind.ZONES, id);
+        zoneTopology.refresh();
+        zoneHierarchy.refresh(List.of(id));
         ZoneRepository.ZoneRecord record = zoneRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Zone not found after creation"));
         return ResponseEntity.status(HttpStatus.CREATED)
-            .body(new ZoneResponse(record.id(), record.code(), record.createdAt()));
+            .body(toResponse(record));
     }
     
     @GetMapping("/{id}")
     public ResponseEntity<ZoneResponse> getZone(@PathVariable UUID id) {
         return zoneRepository.findById(id)
-            .map(record -> ResponseEntity.ok(
-                new ZoneResponse(record.id(), record.code(), record.createdAt())
-            ))
+            .map(record -> ResponseEntity.ok(toResponse(record)))
             .orElse(ResponseEntity.notFound().build());
     }
     
@@ -51,7 +65,7 @@ public class ZoneAdminController {
             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
         var records = zoneRepository.findAll(offset, limit);
         var responses = records.stream()
-            .map(record -> new ZoneResponse(record.id(), record.code(), record.createdAt()))
+            .map(this::toResponse)
             .toList();
         long total = zoneRepository.count();
         return ResponseEntity.ok(new PageResponse<>(responses, total, offset, limit));
@@ -65,17 +79,41 @@ public class ZoneAdminController {
         if (!updated) {
             return ResponseEntity.notFound().build();
         }
+        codeCache.invalidate(Kind.ZONES, id);
+        zoneTopology.refresh();
         ZoneRepository.ZoneRecord record = zoneRepository.findById(id)
             .orElseThrow(() -> new IllegalStateException("Zone not found after update"));
-        return ResponseEntity.ok(new ZoneResponse(record.id(), record.code(), record.createdAt()));
+        return ResponseEntity.ok(toResponse(record));
+    }
+    
+    /**
+     * Moves the zone below another zone ({@code null} makes it top-level); rules on the new ancestors
+     * apply to the zone and its subtree from now on.
+     */
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<ZoneResponse> putParent(
+            @PathVariable UUID id,
+            @Valid @RequestBody ZoneParentRequest request) {
+        if (!zoneRepository.updateParent(id, request.parentZoneId())) {
+            return ResponseEntity.notFound().build();
+        }
+        zoneHierarchy.refresh(List.of(id));
+        return getZone(id);
     }
     
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteZone(@PathVariable UUID id) {
         boolean deleted = zoneRepository.deleteById(id);
+        // Before the dictionary drops the zone, so that its former children are found
+        zoneHierarchy.refresh(List.of(id));
+        codeCache.invalidate(Kind.ZONES, id);
+        zoneTopology.refresh();
         return deleted 
             ? ResponseEntity.noContent().build()
             : ResponseEntity.notFound().build();
     }
+    
+    private ZoneResponse toResponse(ZoneRepository.ZoneRecord record) {
+        return new ZoneResponse(record.id(), record.code(), record.parentZoneId(), record.createdAt());
+    }
 }
-
@@ -0,0 +1,19 @@
+package com.example.accesssystem.api.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for a bulk access rule import.
+ * Unknown code lists are samples (at most 100 distinct codes each).
+ */
+public record AccessRuleImportResponse(
+    long rows,
+    long created,
+    long duplicates,
+    long invalidRows,
+    long unknownUserRows,
+    long unknownZoneRows,
+    List<String> unknownUserCodes,
+    List<String> unknownZoneCodes,
+    long durationMs
+) {}
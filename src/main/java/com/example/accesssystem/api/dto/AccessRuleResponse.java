@@ -10,6 +10,6 @@ public record AccessRuleResponse(
     UUID id,
     UUID userId,
     UUID toZoneId,
+    UUID scheduleId,
     Instant createdAt
 ) {}
-
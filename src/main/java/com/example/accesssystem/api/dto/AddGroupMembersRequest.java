@@ -0,0 +1,17 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request DTO for adding users to a group.
+ */
+public record AddGroupMembersRequest(
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 1000, message = "At most 1000 users per request")
+    List<@NotNull(message = "User ID must not be null") UUID> userIds
+) {}
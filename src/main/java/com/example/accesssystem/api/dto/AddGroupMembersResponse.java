@@ -0,0 +1,10 @@
+package com.example.accesssystem.api.dto;
+
+/**
+ * Response DTO for adding users to a group.
+ *
+ * @param added users that were not members before
+ */
+public record AddGroupMembersResponse(
+    int added
+) {}
@@ -0,0 +1,32 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Request DTO for setting the full list of zones of many users at once.
+ */
+public record BulkUserAccessRequest(
+    @NotEmpty(message = "Users are required")
+    @Size(max = 1000, message = "At most 1000 users per request")
+    List<@Valid @NotNull(message = "User entry must not be null") Entry> users
+) {
+
+    /**
+     * Desired zones of one user.
+     */
+    public record Entry(
+        @NotNull(message = "User ID is required")
+        UUID userId,
+
+        @NotNull(message = "Zone IDs are required")
+        @Size(max = 1000, message = "At most 1000 zones per user")
+        Set<@NotNull(message = "Zone ID must not be null") UUID> zoneIds
+    ) {}
+}
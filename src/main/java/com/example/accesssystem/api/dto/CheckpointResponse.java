@@ -11,6 +11,8 @@ public record CheckpointResponse(
     String code,
     UUID fromZoneId,
     UUID toZoneId,
-    Instant createdAt
+    Instant createdAt,
+    int payloadFormat,
+    String replayProtection
 ) {}
 
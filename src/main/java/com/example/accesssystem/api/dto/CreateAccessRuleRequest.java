@@ -6,12 +6,18 @@ import java.util.UUID;
 
 /**
  * Request DTO for creating an access rule.
+ * {@code scheduleId} is optional; without it the rule applies at any time.
  */
 public record CreateAccessRuleRequest(
     @NotNull(message = "User ID is required")
     UUID userId,
 
     @NotNull(message = "Destination zone ID is required")
-    UUID toZoneId
-) {}
+    UUID toZoneId,
 
+    UUID scheduleId
+) {
+    public CreateAccessRuleRequest(UUID userId, UUID toZoneId) {
+        this(userId, toZoneId, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for creating a group access rule.
+ */
+public record CreateGroupRuleRequest(
+    @NotNull(message = "Destination zone ID is required")
+    UUID toZoneId
+) {}
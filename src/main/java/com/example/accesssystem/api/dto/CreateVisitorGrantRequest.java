@@ -0,0 +1,23 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Request DTO for issuing a temporary visitor grant.
+ * {@code validFrom} defaults to now; {@code validUntil} is exclusive.
+ */
+public record CreateVisitorGrantRequest(
+    @NotNull(message = "User ID is required")
+    UUID userId,
+
+    @NotNull(message = "Destination zone ID is required")
+    UUID toZoneId,
+
+    Instant validFrom,
+
+    @NotNull(message = "Valid until is required")
+    Instant validUntil
+) {}
@@ -3,12 +3,19 @@ package com.example.accesssystem.api.dto;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
+import java.util.UUID;
+
 /**
  * Request DTO for creating a zone.
+ * {@code parentZoneId} is optional; a rule on the parent also grants the new zone.
  */
 public record CreateZoneRequest(
     @NotBlank(message = "Code is required")
     @Size(max = 128, message = "Code must not exceed 128 characters")
-    String code
-) {}
-
+    String code,
+    UUID parentZoneId
+) {
+    public CreateZoneRequest(String code) {
+        this(code, null);
+    }
+}
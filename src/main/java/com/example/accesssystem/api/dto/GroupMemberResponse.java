@@ -0,0 +1,12 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO for a group membership.
+ */
+public record GroupMemberResponse(
+    UUID userId,
+    Instant createdAt
+) {}
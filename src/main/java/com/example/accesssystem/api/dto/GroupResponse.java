@@ -0,0 +1,13 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO for user group operations.
+ */
+public record GroupResponse(
+    UUID id,
+    String code,
+    Instant createdAt
+) {}
@@ -0,0 +1,14 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO for group access rule operations.
+ */
+public record GroupRuleResponse(
+    UUID id,
+    UUID groupId,
+    UUID toZoneId,
+    Instant createdAt
+) {}
@@ -0,0 +1,14 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for provisioning an HMAC-SHA256 checkpoint key.
+ * The secret is base64-encoded and must decode to at least 32 bytes.
+ */
+public record HmacKeyRequest(
+    @NotBlank(message = "Secret is required")
+    @Size(max = 1024, message = "Secret must not exceed 1024 characters")
+    String secret
+) {}
@@ -0,0 +1,19 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+
+/**
+ * Current offline snapshot of one checkpoint.
+ *
+ * @param version     snapshot version, also its ETag (16 hex digits)
+ * @param exit        true for checkpoints to OUT, which let everyone through
+ * @param users       users in the snapshot
+ * @param generatedAt when this version was generated
+ */
+public record OfflineSnapshotSummaryResponse(
+    String checkpointCode,
+    String version,
+    boolean exit,
+    int users,
+    Instant generatedAt
+) {}
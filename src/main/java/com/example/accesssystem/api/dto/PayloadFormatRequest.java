@@ -0,0 +1,15 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Request DTO for selecting the canonical payload format of a checkpoint.
+ */
+public record PayloadFormatRequest(
+    @NotNull(message = "Version is required")
+    @Min(value = 1, message = "Version must be 1 or 2")
+    @Max(value = 2, message = "Version must be 1 or 2")
+    Integer version
+) {}
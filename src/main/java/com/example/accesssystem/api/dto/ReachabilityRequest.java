@@ -0,0 +1,25 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Request DTO for a what-if reachability evaluation.
+ *
+ * @param at time the rules are evaluated at (schedules, visitor grants); {@code null} means now
+ */
+public record ReachabilityRequest(
+    @NotEmpty(message = "User codes are required")
+    @Size(max = 100000, message = "At most 100000 users per request")
+    List<@NotBlank(message = "User code must not be blank") String> userCodes,
+
+    @NotEmpty(message = "Zone codes are required")
+    @Size(max = 256, message = "At most 256 target zones per request")
+    List<@NotBlank(message = "Zone code must not be blank") String> zoneCodes,
+
+    Instant at
+) {}
@@ -0,0 +1,15 @@
+package com.example.accesssystem.api.dto;
+
+import java.util.List;
+
+/**
+ * One NDJSON line of a what-if reachability evaluation.
+ *
+ * @param knownUser          false if no user has this code
+ * @param reachableZoneCodes target zones the user can reach from OUT, in request order
+ */
+public record ReachabilityResponse(
+    String userCode,
+    boolean knownUser,
+    List<String> reachableZoneCodes
+) {}
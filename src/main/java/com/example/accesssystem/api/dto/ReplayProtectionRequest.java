@@ -0,0 +1,13 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+/**
+ * Request DTO for selecting the replay protection scheme of a checkpoint.
+ */
+public record ReplayProtectionRequest(
+    @NotNull(message = "Scheme is required")
+    @Pattern(regexp = "nonce|sequence", message = "Scheme must be 'nonce' or 'sequence'")
+    String scheme
+) {}
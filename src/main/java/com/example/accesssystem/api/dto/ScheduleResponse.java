@@ -0,0 +1,15 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for access schedule operations.
+ */
+public record ScheduleResponse(
+    UUID id,
+    String code,
+    List<ScheduleWindowDto> windows,
+    Instant createdAt
+) {}
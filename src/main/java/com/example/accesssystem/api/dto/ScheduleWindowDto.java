@@ -0,0 +1,23 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+
+import java.time.DayOfWeek;
+
+/**
+ * Weekly window of an access schedule in site local time, {@code to} exclusive.
+ * {@code to} may be {@code 24:00} for a window that lasts until midnight.
+ */
+public record ScheduleWindowDto(
+    @NotNull(message = "Day of week is required")
+    DayOfWeek dayOfWeek,
+
+    @NotNull(message = "Start time is required")
+    @Pattern(regexp = "([01]\\d|2[0-3]):[0-5]\\d", message = "Start time must be HH:mm")
+    String from,
+
+    @NotNull(message = "End time is required")
+    @Pattern(regexp = "([01]\\d|2[0-3]):[0-5]\\d|24:00", message = "End time must be HH:mm or 24:00")
+    String to
+) {}
@@ -0,0 +1,14 @@
+package com.example.accesssystem.api.dto;
+
+/**
+ * Public key checkpoints verify offline snapshots with.
+ *
+ * @param keyId     key id carried by every snapshot signed with this key
+ * @param algorithm signature algorithm ({@code Ed25519})
+ * @param publicKey raw 32-byte public key, base64
+ */
+public record SnapshotSigningKeyResponse(
+    String keyId,
+    String algorithm,
+    String publicKey
+) {}
@@ -0,0 +1,25 @@
+package com.example.accesssystem.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for the zone topology: zones as nodes (OUT has no id), checkpoints as edges between zone codes.
+ */
+public record TopologyResponse(
+    List<ZoneNode> zones,
+    List<CheckpointLink> checkpoints
+) {
+
+    public record ZoneNode(
+        UUID id,
+        String code
+    ) {}
+
+    public record CheckpointLink(
+        UUID id,
+        String code,
+        String fromZoneCode,
+        String toZoneCode
+    ) {}
+}
@@ -6,9 +6,15 @@ import java.util.UUID;
 
 /**
  * Request DTO for updating an access rule.
+ * A missing {@code scheduleId} makes the rule apply at any time.
  */
 public record UpdateAccessRuleRequest(
     @NotNull(message = "Destination zone ID is required")
-    UUID toZoneId
-) {}
+    UUID toZoneId,
 
+    UUID scheduleId
+) {
+    public UpdateAccessRuleRequest(UUID toZoneId) {
+        this(toZoneId, null);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Request DTO for updating a user group.
+ */
+public record UpdateGroupRequest(
+    @NotBlank(message = "Code is required")
+    @Size(max = 128, message = "Code must not exceed 128 characters")
+    String code
+) {}
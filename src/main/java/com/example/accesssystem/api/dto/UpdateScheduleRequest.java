@@ -0,0 +1,21 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for replacing an access schedule's code and windows.
+ */
+public record UpdateScheduleRequest(
+    @NotBlank(message = "Code is required")
+    @Size(max = 128, message = "Code must not exceed 128 characters")
+    String code,
+
+    @NotEmpty(message = "At least one window is required")
+    @Size(max = 512, message = "Too many windows")
+    List<@Valid ScheduleWindowDto> windows
+) {}
@@ -0,0 +1,16 @@
+package com.example.accesssystem.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Request DTO for setting the full list of zones a user may enter.
+ */
+public record UserAccessRequest(
+    @NotNull(message = "Zone IDs are required")
+    @Size(max = 1000, message = "At most 1000 zones per user")
+    Set<@NotNull(message = "Zone ID must not be null") UUID> zoneIds
+) {}
@@ -0,0 +1,19 @@
+package com.example.accesssystem.api.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response DTO for a desired-state access sync.
+ *
+ * @param users          users in the request
+ * @param added          access rules created
+ * @param removed        access rules deleted
+ * @param changedUserIds users that got or lost at least one rule
+ */
+public record UserAccessSyncResponse(
+    int users,
+    int added,
+    int removed,
+    List<UUID> changedUserIds
+) {}
@@ -0,0 +1,17 @@
+package com.example.accesssystem.api.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Response DTO for visitor grant operations.
+ */
+public record VisitorGrantResponse(
+    UUID id,
+    UUID userId,
+    UUID toZoneId,
+    Instant validFrom,
+    Instant validUntil,
+    Instant issuedAt,
+    Instant revokedAt
+) {}
@@ -0,0 +1,10 @@
+package com.example.accesssystem.api.dto;
+
+import java.util.UUID;
+
+/**
+ * Request DTO for moving a zone in the hierarchy; a null {@code parentZoneId} makes it top-level.
+ */
+public record ZoneParentRequest(
+    UUID parentZoneId
+) {}
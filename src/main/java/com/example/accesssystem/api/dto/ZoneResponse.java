@@ -9,6 +9,6 @@ import java.util.UUID;
 public record ZoneResponse(
     UUID id,
     String code,
+    UUID parentZoneId,
     Instant createdAt
 ) {}
-
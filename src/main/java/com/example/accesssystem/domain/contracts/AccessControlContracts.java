@@ -3,6 +3,8 @@ package com.example.accesssystem.domain.contracts;
 import com.example.accesssystem.domain.Identifiers.ZoneId;
 import com.example.accesssystem.domain.Identifiers.UserId;
 
+import java.time.Instant;
+
 /**
  * Contracts for evaluating access rules and maintaining user state.
  */
@@ -10,6 +12,14 @@ public interface AccessControlContracts {
 
     interface AccessRuleEvaluator {
         AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone);
+
+        /**
+         * Decision at the given moment; time-scheduled rules only apply inside their windows.
+         * Evaluators without schedules ignore the time.
+         */
+        default AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone, Instant at) {
+            return canTransit(userId, fromZone, toZone);
+        }
     }
 
     interface UserStateService {
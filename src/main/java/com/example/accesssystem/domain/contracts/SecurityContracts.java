@@ -14,6 +14,13 @@ public interface SecurityContracts {
 
     interface CheckpointMessageVerifier {
         VerificationResult verifyCheckpointMessage(CheckpointId checkpointId, SignedPayload payload);
+
+        /**
+         * Verifies with a specific key of the checkpoint's key ring; a null keyId means "any key".
+         */
+        default VerificationResult verifyCheckpointMessage(CheckpointId checkpointId, String keyId, SignedPayload payload) {
+            return verifyCheckpointMessage(checkpointId, payload);
+        }
     }
 
     interface IssuerTokenDecoder {
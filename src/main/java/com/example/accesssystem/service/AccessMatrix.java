@@ -0,0 +1,204 @@
+package com.example.accesssystem.service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of all access rules: one zone bitset per user.
+ * <p>
+ * Rows are indexed by the user's dense id and bits by the zone's dense id from {@link ReferenceDictionary},
+ * so a check is a bounds check and a bit test on primitive arrays (or, with a {@link ZoneHierarchy}, an AND
+ * with the zone's ancestor bitset). Time-scheduled grants are kept apart as (zone, schedule) pairs per
+ * user and checked against the compiled {@link WeeklySchedule} bitmaps only when no unscheduled grant
+ * matches. Updates return a new snapshot that shares every unchanged row with the old one, so readers
+ * never lock and never see a half-applied change. Rows are kept in chunks of 1024 users, so an update
+ * copies only the chunks of the users it changes, not a pointer per user.
+ */
+public final class AccessMatrix {
+
+    // Rows per chunk; an update copies only the chunks of the users it changes
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_USERS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_USERS - 1;
+
+    private static final AccessMatrix EMPTY = new AccessMatrix(new long[0][][], new int[0][][], 0, 0);
+
+    // Per chunk of users (null: no grants in the chunk), per user in the chunk: zone bitset
+    private final long[][][] rows;
+    // Per chunk, per user: zone0, schedule0, zone1, schedule1, ...
+    private final int[][][] scheduledRows;
+    // Every user with a row is below this id
+    private final int length;
+    private final int userCount;
+
+    private AccessMatrix(long[][][] rows, int[][][] scheduledRows, int length, int userCount) {
+        this.rows = rows;
+        this.scheduledRows = scheduledRows;
+        this.length = length;
+        this.userCount = userCount;
+    }
+
+    public static AccessMatrix empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Whether the user may enter the zone; negative ids (unknown codes) are never allowed.
+     */
+    public boolean allows(int user, int zone) {
+        if (user < 0 || zone < 0 || user >= length) {
+            return false;
+        }
+        long[] zones = rowOf(user);
+        int word = zone >>> 6;
+        return zones != null && word < zones.length && (zones[word] & (1L << zone)) != 0;
+    }
+
+    /**
+     * Whether the user may enter the zone at the given minute of the week: an unscheduled grant, or a
+     * scheduled grant whose schedule is open, on the zone or one of its ancestors.
+     */
+    public boolean allows(int user, int zone, ZoneHierarchy hierarchy, WeeklySchedule[] schedules,
+                          int minuteOfWeek) {
+        if (user < 0 || user >= length) {
+            return false;
+        }
+        if (hierarchy.covers(rowOf(user), zone)) {
+            return true;
+        }
+        int[][] chunk = scheduledRows[user >>> CHUNK_SHIFT];
+        int[] scheduled = chunk == null ? null : chunk[user & CHUNK_MASK];
+        if (scheduled == null) {
+            return false;
+        }
+        for (int i = 0; i < scheduled.length; i += 2) {
+            int schedule = scheduled[i + 1];
+            if (hierarchy.covers(scheduled[i], zone)
+                    && schedule < schedules.length && schedules[schedule].isOpen(minuteOfWeek)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a snapshot in which the given users may enter exactly the given zones.
+     *
+     * @param zonesByUser user id to zone ids; an empty array removes the user's row
+     */
+    public AccessMatrix withRows(Map<Integer, int[]> zonesByUser) {
+        return withRows(zonesByUser, Map.of());
+    }
+
+    /**
+     * Returns a snapshot in which the given users may enter exactly the given zones, and the given
+     * zones under the given schedules.
+     *
+     * @param zonesByUser user id to zone ids; an empty array removes the user's unscheduled grants
+     * @param scheduledByUser user id to (zone id, schedule id) pairs flattened into one array; an empty
+     *                        array removes the user's scheduled grants
+     */
+    public AccessMatrix withRows(Map<Integer, int[]> zonesByUser, Map<Integer, int[]> scheduledByUser) {
+        int newLength = length;
+        for (int user : zonesByUser.keySet()) {
+            newLength = Math.max(newLength, user + 1);
+        }
+        for (int user : scheduledByUser.keySet()) {
+            newLength = Math.max(newLength, user + 1);
+        }
+        int chunks = (newLength + CHUNK_MASK) >>> CHUNK_SHIFT;
+        long[][][] newRows = Arrays.copyOf(rows, chunks);
+        int[][][] newScheduledRows = Arrays.copyOf(scheduledRows, chunks);
+        // Chunks already copied by this update
+        boolean[] owned = new boolean[chunks];
+        int newUserCount = userCount;
+        Set<Integer> users = new HashSet<>(zonesByUser.keySet());
+        users.addAll(scheduledByUser.keySet());
+        for (int user : users) {
+            int chunk = user >>> CHUNK_SHIFT;
+            int index = user & CHUNK_MASK;
+            if (!owned[chunk]) {
+                owned[chunk] = true;
+                newRows[chunk] = newRows[chunk] == null ? new long[CHUNK_USERS][] : newRows[chunk].clone();
+                newScheduledRows[chunk] = newScheduledRows[chunk] == null
+                    ? new int[CHUNK_USERS][]
+                    : newScheduledRows[chunk].clone();
+            }
+            long[][] rowChunk = newRows[chunk];
+            int[][] scheduledChunk = newScheduledRows[chunk];
+            boolean hadGrants = rowChunk[index] != null || scheduledChunk[index] != null;
+            if (zonesByUser.containsKey(user)) {
+                rowChunk[index] = bitset(zonesByUser.get(user));
+            }
+            if (scheduledByUser.containsKey(user)) {
+                int[] pairs = scheduledByUser.get(user);
+                scheduledChunk[index] = pairs.length == 0 ? null : pairs.clone();
+            }
+            boolean hasGrants = rowChunk[index] != null || scheduledChunk[index] != null;
+            if (!hadGrants && hasGrants) {
+                newUserCount++;
+            } else if (hadGrants && !hasGrants) {
+                newUserCount--;
+            }
+        }
+        return new AccessMatrix(newRows, newScheduledRows, newLength, newUserCount);
+    }
+
+    /**
+     * Users with an unscheduled grant on the zone or one of its ancestors, in ascending id order.
+     * Scheduled grants are not included.
+     */
+    public int[] usersCovering(int zone, ZoneHierarchy hierarchy) {
+        if (zone < 0) {
+            return new int[0];
+        }
+        int count = 0;
+        int[] users = new int[16];
+        for (int chunk = 0; chunk < rows.length; chunk++) {
+            long[][] rowChunk = rows[chunk];
+            if (rowChunk == null) {
+                continue;
+            }
+            for (int index = 0; index < rowChunk.length; index++) {
+                if (rowChunk[index] != null && hierarchy.covers(rowChunk[index], zone)) {
+                    if (count == users.length) {
+                        users = Arrays.copyOf(users, count * 2);
+                    }
+                    users[count++] = chunk << CHUNK_SHIFT | index;
+                }
+            }
+        }
+        return Arrays.copyOf(users, count);
+    }
+
+    /**
+     * Users with at least one grant.
+     */
+    public int userCount() {
+        return userCount;
+    }
+
+    private long[] rowOf(int user) {
+        long[][] chunk = rows[user >>> CHUNK_SHIFT];
+        return chunk == null ? null : chunk[user & CHUNK_MASK];
+    }
+
+    private static long[] bitset(int[] zones) {
+        int maxZone = -1;
+        for (int zone : zones) {
+            maxZone = Math.max(maxZone, zone);
+        }
+        if (maxZone < 0) {
+            return null;
+        }
+        long[] words = new long[(maxZone >>> 6) + 1];
+        for (int zone : zones) {
+            if (zone >= 0) {
+                words[zone >>> 6] |= 1L << zone;
+            }
+        }
+        return words;
+    }
+}
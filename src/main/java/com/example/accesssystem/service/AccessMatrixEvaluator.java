@@ -0,0 +1,303 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.domain.contracts.AccessControlContracts;
+import com.example.accesssystem.service.AccessRuleRepository.ScheduledGrant;
+import com.example.accesssystem.service.AccessRuleRepository.UserGrants;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
+
+/**
+ * AccessRuleEvaluator backed by an in-memory {@link AccessMatrix}.
+ * <p>
+ * Codes are resolved to dense ids by {@link ReferenceDictionary}; renamed users and zones keep their
+ * ids, so only rule changes touch the matrix. Each user's row is compiled from the user's own rules and
+ * the rules of the user's groups; a group rule change recompiles only that group's members. Grants on a
+ * parent zone cover its descendants through the ancestor bitsets of {@link ZoneHierarchyIndex}, so
+ * hierarchy changes never touch the rows. Scheduled rules are checked against the weekly bitmaps of
+ * {@link AccessScheduleIndex} at the event time; schedule edits replace the bitmap, not the rows.
+ * Temporary visitor grants live outside the matrix in {@link VisitorGrantStore} and are checked when no
+ * rule matches. The matrix is loaded on startup and republished as a new immutable snapshot on every
+ * change: {@code AccessRuleAdminController} refreshes the affected user
+ * right after its write, and the reference data change feed delivers changes made elsewhere (other
+ * nodes, direct SQL). Decisions are the same as {@link AccessRuleEvaluatorImpl}, without a query per
+ * event.
+ * <p>
+ * Active unless {@code access-system.access-rules.evaluator} is {@code database}.
+ */
+@Component
+@Primary
+@ConditionalOnProperty(
+    name = "access-system.access-rules.evaluator",
+    havingValue = "matrix",
+    matchIfMissing = true
+)
+public class AccessMatrixEvaluator implements AccessControlContracts.AccessRuleEvaluator, ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessMatrixEvaluator.class);
+
+    private final AccessRuleRepository accessRuleRepository;
+    private final UserGroupRepository userGroupRepository;
+    private final ReferenceDictionary dictionary;
+    private final ZoneHierarchyIndex zoneHierarchy;
+    private final AccessScheduleIndex scheduleIndex;
+    private final VisitorGrantStore visitorGrants;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Object updateLock = new Object();
+    private volatile AccessMatrix matrix = AccessMatrix.empty();
+
+    AccessMatrixEvaluator(AccessRuleRepository accessRuleRepository, UserGroupRepository userGroupRepository,
+                          ReferenceDictionary dictionary, ZoneHierarchyIndex zoneHierarchy,
+                          AccessScheduleIndex scheduleIndex, VisitorGrantStore visitorGrants,
+                          ReferenceDataChangeFeed changeFeed, MeterRegistry meterRegistry) {
+        this.accessRuleRepository = accessRuleRepository;
+        this.userGroupRepository = userGroupRepository;
+        this.dictionary = dictionary;
+        this.zoneHierarchy = zoneHierarchy;
+        this.scheduleIndex = scheduleIndex;
+        this.visitorGrants = visitorGrants;
+        this.changeFeed = changeFeed;
+        Gauge.builder("access_matrix_users", this, evaluator -> evaluator.matrix.userCount())
+            .description("Users with at least one access rule in the in-memory access matrix")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    @Override
+    public AccessControlContracts.AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone) {
+        return canTransit(userId, fromZone, toZone, Instant.now());
+    }
+
+    @Override
+    public AccessControlContracts.AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone,
+                                                            Instant at) {
+        if (toZone == null) {
+            return ALLOW;
+        }
+        changeFeed.ensureFresh();
+        int user = dictionary.snapshot(Kind.USERS).idOf(userId.value());
+        int zone = dictionary.snapshot(Kind.ZONES).idOf(toZone.value());
+        ZoneHierarchy hierarchy = zoneHierarchy.snapshot();
+        boolean allowed =
+            matrix.allows(user, zone, hierarchy, scheduleIndex.snapshot(), scheduleIndex.minuteOfWeek(at))
+            || visitorGrants.allows(user, zone, hierarchy, at);
+        return allowed ? ALLOW : DENY;
+    }
+
+    /**
+     * Decisions at the given time over one consistent set of snapshots, for bulk evaluation by dense id
+     * (see {@link ReferenceDictionary}). The view never changes; it is safe to share between threads.
+     */
+    public AccessView view(Instant at) {
+        changeFeed.ensureFresh();
+        return new AccessView(matrix, zoneHierarchy.snapshot(), scheduleIndex.snapshot(),
+            scheduleIndex.minuteOfWeek(at), visitorGrants, at);
+    }
+
+    /**
+     * Recompiles the rows of the given users (own and group rules) and publishes a new snapshot.
+     */
+    public void refreshUsers(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        synchronized (updateLock) {
+            matrix = compile(
+                matrix,
+                accessRuleRepository.findUserGrantsByUserIds(userIds),
+                accessRuleRepository.findScheduledGrantsByUserIds(userIds),
+                userIds
+            );
+        }
+    }
+
+    // Users and zones created a moment ago may not have reached the dictionary through the feed yet
+    private AccessMatrix compile(AccessMatrix base, List<UserGrants> grants, List<ScheduledGrant> scheduled,
+                                 Collection<UUID> refreshedUsers) {
+        Set<UUID> unknownUsers = new HashSet<>();
+        Set<UUID> unknownZones = new HashSet<>();
+        CodeDictionary users = dictionary.snapshot(Kind.USERS);
+        CodeDictionary zones = dictionary.snapshot(Kind.ZONES);
+        for (UserGrants userGrants : grants) {
+            if (users.idOf(userGrants.userId()) < 0) {
+                unknownUsers.add(userGrants.userId());
+            }
+            for (UUID zoneId : userGrants.zoneIds()) {
+                if (zones.idOf(zoneId) < 0) {
+                    unknownZones.add(zoneId);
+                }
+            }
+        }
+        for (ScheduledGrant grant : scheduled) {
+            if (users.idOf(grant.userId()) < 0) {
+                unknownUsers.add(grant.userId());
+            }
+            if (zones.idOf(grant.zoneId()) < 0) {
+                unknownZones.add(grant.zoneId());
+            }
+        }
+        if (!unknownUsers.isEmpty() || !unknownZones.isEmpty()) {
+            dictionary.refresh(Kind.USERS, unknownUsers);
+            dictionary.refresh(Kind.ZONES, unknownZones);
+            users = dictionary.snapshot(Kind.USERS);
+            zones = dictionary.snapshot(Kind.ZONES);
+        }
+
+        // Every refreshed user starts without grants, so removed rules disappear
+        Map<Integer, int[]> rows = new HashMap<>();
+        Map<Integer, int[]> scheduledRows = new HashMap<>();
+        for (UUID userId : refreshedUsers) {
+            int user = users.idOf(userId);
+            if (user >= 0) {
+                rows.put(user, new int[0]);
+                scheduledRows.put(user, new int[0]);
+            }
+        }
+        for (UserGrants userGrants : grants) {
+            int user = users.idOf(userGrants.userId());
+            if (user < 0) {
+                continue;
+            }
+            int[] zoneIds = new int[userGrants.zoneIds().size()];
+            for (int i = 0; i < zoneIds.length; i++) {
+                zoneIds[i] = zones.idOf(userGrants.zoneIds().get(i));
+            }
+            rows.put(user, zoneIds);
+        }
+
+        Set<UUID> scheduleUuids = new HashSet<>();
+        scheduled.forEach(grant -> scheduleUuids.add(grant.scheduleId()));
+        Map<UUID, Integer> scheduleIds = scheduleIndex.idsOf(scheduleUuids);
+        Map<Integer, List<int[]>> pairsByUser = new HashMap<>();
+        for (ScheduledGrant grant : scheduled) {
+            int user = users.idOf(grant.userId());
+            int zone = zones.idOf(grant.zoneId());
+            int schedule = scheduleIds.getOrDefault(grant.scheduleId(), -1);
+            if (user >= 0 && zone >= 0 && schedule >= 0) {
+                pairsByUser.computeIfAbsent(user, key -> new ArrayList<>()).add(new int[] {zone, schedule});
+            }
+        }
+        pairsByUser.forEach((user, pairs) -> {
+            int[] flat = new int[pairs.size() * 2];
+            for (int i = 0; i < pairs.size(); i++) {
+                flat[2 * i] = pairs.get(i)[0];
+                flat[2 * i + 1] = pairs.get(i)[1];
+            }
+            scheduledRows.put(user, flat);
+        });
+        return base.withRows(rows, scheduledRows);
+    }
+
+    @Override
+    public String name() {
+        return "access_matrix";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("access_rules", "user_group_members", "group_access_rules");
+    }
+
+    @Override
+    public void reloadAll() {
+        synchronized (updateLock) {
+            matrix = compile(
+                AccessMatrix.empty(),
+                accessRuleRepository.findAllUserGrants(),
+                accessRuleRepository.findAllScheduledGrants(),
+                List.of()
+            );
+        }
+        log.info("Access matrix loaded: {} users", matrix.userCount());
+    }
+
+    /**
+     * Recompiles the rows of the members of the given groups.
+     */
+    public void refreshGroups(Collection<UUID> groupIds) {
+        refreshUsers(userGroupRepository.findMemberIds(groupIds));
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        List<UUID> ids = keys.stream().map(UUID::fromString).toList();
+        if ("group_access_rules".equals(table)) {
+            refreshGroups(ids);
+        } else {
+            refreshUsers(ids);
+        }
+    }
+
+    /**
+     * Immutable access decisions at a fixed time.
+     */
+    public static final class AccessView {
+
+        private final AccessMatrix matrix;
+        private final ZoneHierarchy hierarchy;
+        private final WeeklySchedule[] schedules;
+        private final int minuteOfWeek;
+        private final VisitorGrantStore visitorGrants;
+        private final Instant at;
+
+        private AccessView(AccessMatrix matrix, ZoneHierarchy hierarchy, WeeklySchedule[] schedules,
+                           int minuteOfWeek, VisitorGrantStore visitorGrants, Instant at) {
+            this.matrix = matrix;
+            this.hierarchy = hierarchy;
+            this.schedules = schedules;
+            this.minuteOfWeek = minuteOfWeek;
+            this.visitorGrants = visitorGrants;
+            this.at = at;
+        }
+
+        /**
+         * Same decision as {@link #canTransit} for dense user and zone ids.
+         */
+        public boolean allows(int user, int zone) {
+            return matrix.allows(user, zone, hierarchy, schedules, minuteOfWeek)
+                || visitorGrants.allows(user, zone, hierarchy, at);
+        }
+
+        /**
+         * Users with an unscheduled rule (own or through a group) on the zone or one of its ancestors,
+         * by ascending dense id. Time-bound access (schedules, visitor grants) is not included.
+         */
+        public int[] usersWithStandingAccess(int zone) {
+            return matrix.usersCovering(zone, hierarchy);
+        }
+
+        /**
+         * Whether both views have the same standing access: same rules and zone hierarchy.
+         */
+        public boolean sameStandingAccess(AccessView other) {
+            return other != null && matrix == other.matrix && hierarchy == other.hierarchy;
+        }
+    }
+}
@@ -5,28 +5,51 @@ import com.example.accesssystem.domain.Identifiers.ZoneId;
 import com.example.accesssystem.domain.contracts.AccessControlContracts;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.List;
+
 import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
 import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
 
 /**
  * Implementation of AccessRuleEvaluator that checks access rules from the database.
  * Returns ALLOW if a matching access rule exists, DENY otherwise.
+ * Rules on ancestor zones count as well; the ancestors come from the precompiled
+ * {@link ZoneHierarchyIndex}, so the query needs no recursion. Scheduled rules count
+ * when one of their windows contains the event time in the site time zone. Temporary
+ * visitor grants are checked in memory ({@link VisitorGrantStore}) when no rule matches.
  */
 @Component
 public class AccessRuleEvaluatorImpl implements AccessControlContracts.AccessRuleEvaluator {
     
     private final AccessRuleRepository accessRuleRepository;
+    private final ZoneHierarchyIndex zoneHierarchy;
+    private final AccessScheduleIndex scheduleIndex;
+    private final VisitorGrantStore visitorGrants;
     
-    AccessRuleEvaluatorImpl(AccessRuleRepository accessRuleRepository) {
+    AccessRuleEvaluatorImpl(AccessRuleRepository accessRuleRepository, ZoneHierarchyIndex zoneHierarchy,
+                            AccessScheduleIndex scheduleIndex, VisitorGrantStore visitorGrants) {
         this.accessRuleRepository = accessRuleRepository;
+        this.zoneHierarchy = zoneHierarchy;
+        this.scheduleIndex = scheduleIndex;
+        this.visitorGrants = visitorGrants;
     }
     
     @Override
     public AccessControlContracts.AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone) {
+        return canTransit(userId, fromZone, toZone, Instant.now());
+    }
+    
+    @Override
+    public AccessControlContracts.AccessDecision canTransit(UserId userId, ZoneId fromZone, ZoneId toZone,
+                                                            Instant at) {
         String userCode = userId.value();
-        String toZoneCode = toZone != null ? toZone.value() : null;
+        List<String> toZoneCodes = toZone != null
+            ? zoneHierarchy.selfAndAncestorCodes(toZone.value())
+            : List.of();
         
-        boolean hasAccess = accessRuleRepository.hasAccess(userCode, toZoneCode);
+        boolean hasAccess = accessRuleRepository.hasAccess(userCode, toZoneCodes, scheduleIndex.minuteOfWeek(at))
+            || toZone != null && visitorGrants.allows(userCode, toZone.value(), at);
         
         return hasAccess ? ALLOW : DENY;
     }
@@ -0,0 +1,57 @@
+package com.example.accesssystem.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk import of access rules by user and zone code.
+ */
+public interface AccessRuleImportRepository {
+    
+    /**
+     * Streams CSV rows {@code user_code,zone_code} into a staging table with {@code COPY} and merges them
+     * into {@code access_rules} in one transaction. Existing rules and repeated rows are skipped; rows with
+     * unknown codes are reported, not imported.
+     * 
+     * @param header whether the first CSV line is a header
+     * @param rows writes the CSV rows
+     * @return the import summary
+     * @throws IllegalArgumentException if the CSV is malformed
+     */
+    ImportResult importRules(boolean header, CsvRows rows);
+    
+    /**
+     * Source of CSV rows written into the {@code COPY} stream.
+     */
+    @FunctionalInterface
+    interface CsvRows {
+        void writeTo(OutputStream out) throws IOException;
+    }
+    
+    /**
+     * Summary of an import.
+     * 
+     * @param rows rows read
+     * @param created rules created
+     * @param duplicates valid rows whose rule already existed or appeared earlier in the import
+     * @param invalidRows rows with an empty user or zone code
+     * @param unknownUserRows rows whose user code does not exist
+     * @param unknownZoneRows rows whose zone code does not exist
+     * @param unknownUserCodes sample of the unknown user codes
+     * @param unknownZoneCodes sample of the unknown zone codes
+     * @param affectedUserIds users that got new rules
+     */
+    record ImportResult(
+        long rows,
+        long created,
+        long duplicates,
+        long invalidRows,
+        long unknownUserRows,
+        long unknownZoneRows,
+        List<String> unknownUserCodes,
+        List<String> unknownZoneCodes,
+        List<UUID> affectedUserIds
+    ) {}
+}
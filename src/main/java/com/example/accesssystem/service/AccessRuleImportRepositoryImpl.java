@@ -0,0 +1,164 @@
+package com.example.accesssystem.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Implementation of AccessRuleImportRepository using the PostgreSQL {@code COPY} protocol.
+ * <p>
+ * Rows go into a temporary staging table that is dropped at commit, then one set-based
+ * {@code INSERT ... SELECT ... ON CONFLICT DO NOTHING} resolves codes with joins and merges them. Each
+ * inserted rule still fires the {@code access_rules} change feed trigger, so other nodes catch up as usual.
+ */
+@Repository
+public class AccessRuleImportRepositoryImpl implements AccessRuleImportRepository {
+    
+    private static final int COPY_BUFFER_BYTES = 64 * 1024;
+    private static final int UNKNOWN_CODES_SAMPLE = 100;
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    AccessRuleImportRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    @Transactional
+    public ImportResult importRules(boolean header, CsvRows rows) {
+        return jdbcTemplate.execute((ConnectionCallback<ImportResult>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(
+                    "CREATE TEMP TABLE access_rule_import (user_code TEXT, zone_code TEXT) ON COMMIT DROP");
+            }
+            copy(connection, header, rows);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE access_rule_import");
+            }
+            return merge(connection);
+        });
+    }
+    
+    private void copy(Connection connection, boolean header, CsvRows rows) throws SQLException {
+        String sql = "COPY access_rule_import (user_code, zone_code) FROM STDIN (FORMAT csv, HEADER "
+            + header + ")";
+        PGCopyOutputStream out = new PGCopyOutputStream(
+            connection.unwrap(PGConnection.class), sql, COPY_BUFFER_BYTES);
+        try {
+            rows.writeTo(out);
+            out.endCopy();
+        } catch (IOException e) {
+            cancel(out);
+            // Errors reported by the server while rows are still being sent
+            if (e.getCause() instanceof SQLException sqlException && isDataError(sqlException)) {
+                throw new IllegalArgumentException("Malformed import: " + sqlException.getMessage(), e);
+            }
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            cancel(out);
+            if (isDataError(e)) {
+                throw new IllegalArgumentException("Malformed import: " + e.getMessage(), e);
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            cancel(out);
+            throw e;
+        }
+    }
+    
+    private static void cancel(PGCopyOutputStream out) throws SQLException {
+        if (out.isActive()) {
+            out.cancelCopy();
+        }
+    }
+    
+    private ImportResult merge(Connection connection) throws SQLException {
+        long rows;
+        long invalid;
+        long unknownUserRows;
+        long unknownZoneRows;
+        long resolved;
+        String statsSql = """
+            SELECT COUNT(*) AS total,
+                   COUNT(*) FILTER (WHERE i.user_code IS NULL OR i.user_code = ''
+                                       OR i.zone_code IS NULL OR i.zone_code = '') AS invalid,
+                   COUNT(*) FILTER (WHERE i.user_code <> '' AND u.id IS NULL) AS unknown_users,
+                   COUNT(*) FILTER (WHERE i.zone_code <> '' AND z.id IS NULL) AS unknown_zones,
+                   COUNT(*) FILTER (WHERE u.id IS NOT NULL AND z.id IS NOT NULL) AS resolved
+            FROM access_rule_import i
+            LEFT JOIN users u ON u.code = i.user_code
+            LEFT JOIN zones z ON z.code = i.zone_code
+            """;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(statsSql)) {
+            rs.next();
+            rows = rs.getLong("total");
+            invalid = rs.getLong("invalid");
+            unknownUserRows = rs.getLong("unknown_users");
+            unknownZoneRows = rs.getLong("unknown_zones");
+            resolved = rs.getLong("resolved");
+        }
+        List<String> unknownUsers = unknownCodes(connection, "user_code", "users");
+        List<String> unknownZones = unknownCodes(connection, "zone_code", "zones");
+        
+        String insertSql = """
+            INSERT INTO access_rules (user_id, from_zone_id, to_zone_id)
+            SELECT DISTINCT u.id, NULL::uuid, z.id
+            FROM access_rule_import i
+            JOIN users u ON u.code = i.user_code
+            JOIN zones z ON z.code = i.zone_code
+            ON CONFLICT (user_id, to_zone_id) WHERE to_zone_id IS NOT NULL DO NOTHING
+            RETURNING user_id
+            """;
+        long created = 0;
+        Set<UUID> affectedUsers = new LinkedHashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(insertSql)) {
+            while (rs.next()) {
+                created++;
+                affectedUsers.add(rs.getObject(1, UUID.class));
+            }
+        }
+        return new ImportResult(rows, created, resolved - created, invalid, unknownUserRows, unknownZoneRows,
+            unknownUsers, unknownZones, new ArrayList<>(affectedUsers));
+    }
+    
+    // Table and column names are constants of this class
+    private List<String> unknownCodes(Connection connection, String column, String table) throws SQLException {
+        String sql = "SELECT DISTINCT i." + column + " FROM access_rule_import i"
+            + " WHERE i." + column + " <> ''"
+            + " AND NOT EXISTS (SELECT 1 FROM " + table + " t WHERE t.code = i." + column + ")"
+            + " ORDER BY 1 LIMIT ?";
+        List<String> codes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, UNKNOWN_CODES_SAMPLE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    codes.add(rs.getString(1));
+                }
+            }
+        }
+        return codes;
+    }
+    
+    // Class 22: data exception (malformed CSV, value too long, ...)
+    private static boolean isDataError(SQLException e) {
+        return e.getSQLState() != null && e.getSQLState().startsWith("22");
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.AccessRuleImportRepository.ImportResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bulk import of access rules from CSV or NDJSON.
+ * <p>
+ * CSV bodies are passed to {@code COPY} byte for byte; NDJSON rows are converted to CSV while streaming.
+ * Neither is held in memory. The in-memory access matrix (if enabled) recompiles the users that got new
+ * rules once, after the import has committed.
+ */
+@Service
+public class AccessRuleImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessRuleImportService.class);
+
+    private final AccessRuleImportRepository importRepository;
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    AccessRuleImportService(AccessRuleImportRepository importRepository,
+                            ObjectProvider<AccessMatrixEvaluator> accessMatrix,
+                            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.importRepository = importRepository;
+        this.accessMatrix = accessMatrix;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Imports CSV rows {@code user_code,zone_code}.
+     *
+     * @throws IllegalArgumentException if the CSV is malformed
+     */
+    public ImportResult importCsv(InputStream csv, boolean header) {
+        return run(importRepository.importRules(header, csv::transferTo));
+    }
+
+    /**
+     * Imports NDJSON rows {@code {"userCode": "...", "zoneCode": "..."}}.
+     *
+     * @throws IllegalArgumentException if a line is not a JSON object
+     */
+    public ImportResult importNdjson(InputStream ndjson) {
+        return run(importRepository.importRules(false, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            try (MappingIterator<ImportRow> rows = objectMapper.readerFor(ImportRow.class).readValues(ndjson)) {
+                while (rows.hasNextValue()) {
+                    ImportRow row = rows.nextValue();
+                    writeField(writer, row.userCode());
+                    writer.write(',');
+                    writeField(writer, row.zoneCode());
+                    writer.write('\n');
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Malformed NDJSON: " + e.getOriginalMessage(), e);
+            } catch (RuntimeJsonMappingException e) {
+                throw new IllegalArgumentException("Malformed NDJSON: " + e.getMessage(), e);
+            }
+            writer.flush();
+        }));
+    }
+
+    private ImportResult run(ImportResult result) {
+        AccessMatrixEvaluator matrix = accessMatrix.getIfAvailable();
+        if (matrix != null) {
+            matrix.refreshUsers(result.affectedUserIds());
+        }
+        count("created", result.created());
+        count("duplicate", result.duplicates());
+        count("rejected", result.invalidRows() + result.unknownUserRows() + result.unknownZoneRows());
+        log.info("Access rules imported: {} rows, {} created, {} duplicates, {} invalid, {} unknown user, "
+                + "{} unknown zone", result.rows(), result.created(), result.duplicates(), result.invalidRows(),
+            result.unknownUserRows(), result.unknownZoneRows());
+        return result;
+    }
+
+    private void count(String outcome, long rows) {
+        meterRegistry.counter("access_rule_import_rows_total", "result", outcome).increment(rows);
+    }
+
+    // CSV field: NULL for a missing value, quoted when it contains a delimiter, quote or line break
+    private static void writeField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.isEmpty();
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private record ImportRow(String userCode, String zoneCode) {}
+}
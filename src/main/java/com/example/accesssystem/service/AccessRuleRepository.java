@@ -1,7 +1,9 @@
 package com.example.accesssystem.service;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,22 +14,27 @@ import java.util.UUID;
 public interface AccessRuleRepository {
     
     /**
-     * Checks if a user is allowed to enter a destination zone.
+     * Checks if a user is allowed to enter a destination zone, by an own rule or a rule of one of their groups
+     * on the zone or on one of its ancestors.
      *
-     * @param userCode   the user code (UserId.value)
-     * @param toZoneCode the destination zone code (ZoneId.value), {@code null} represents exit to outside (OUT)
-     * @return true if the access rule exists or exit is permitted, false otherwise
+     * @param userCode    the user code (UserId.value)
+     * @param toZoneCodes the destination zone code (ZoneId.value) followed by the codes of its ancestors;
+     *                    empty represents exit to outside (OUT)
+     * @param minuteOfWeek minute of the week in the site time zone (Monday 00:00 = 0); scheduled rules
+     *                     match only if one of their windows contains it
+     * @return true if a matching access rule exists or exit is permitted, false otherwise
      */
-    boolean hasAccess(String userCode, String toZoneCode);
+    boolean hasAccess(String userCode, List<String> toZoneCodes, int minuteOfWeek);
     
     /**
      * Creates a new access rule.
      * 
      * @param userId the user ID
      * @param toZoneId the destination zone ID (must not be {@code null})
+     * @param scheduleId the schedule limiting when the rule applies, or {@code null} for any time
      * @return the created access rule's ID
      */
-    UUID create(UUID userId, UUID toZoneId);
+    UUID create(UUID userId, UUID toZoneId, UUID scheduleId);
     
     /**
      * Finds an access rule by ID.
@@ -72,13 +79,14 @@ public interface AccessRuleRepository {
     long countByUserId(UUID userId);
     
     /**
-     * Updates an access rule with a new destination zone.
+     * Updates an access rule with a new destination zone and schedule.
      *
      * @param id the access rule ID
      * @param newToZoneId the new destination zone ID (must not be {@code null})
+     * @param scheduleId the new schedule, or {@code null} for any time
      * @return true if updated, false if not found
      */
-    boolean update(UUID id, UUID newToZoneId);
+    boolean update(UUID id, UUID newToZoneId, UUID scheduleId);
     
     /**
      * Deletes an access rule by ID.
@@ -88,9 +96,66 @@ public interface AccessRuleRepository {
      */
     boolean deleteById(UUID id);
     
+    /**
+     * Brings the given users' access rules to the desired destination zones in one statement: rules on
+     * zones outside the desired set are deleted and missing ones are created without a schedule. Rules
+     * already on a desired zone are left as they are (schedule included), so unchanged users cost no writes.
+     *
+     * @param desiredZones user ID to the zones the user must have rules for; an empty set removes all
+     *                     of the user's rules
+     * @return the rules created and deleted
+     * @throws IllegalArgumentException if a user or zone does not exist
+     */
+    SyncResult syncUserZones(Map<UUID, ? extends Collection<UUID>> desiredZones);
+    
+    /**
+     * Lists the destination zones of every user that has at least one unscheduled access rule, own or
+     * through a group.
+     *
+     * @return one entry per user with rules
+     */
+    List<UserGrants> findAllUserGrants();
+    
+    /**
+     * Lists the destination zones of the given users' unscheduled rules, own and through their groups.
+     *
+     * @param userIds the user IDs
+     * @return one entry per user with rules; users without rules are omitted
+     */
+    List<UserGrants> findUserGrantsByUserIds(Collection<UUID> userIds);
+    
+    /**
+     * Lists every access rule that has a schedule.
+     */
+    List<ScheduledGrant> findAllScheduledGrants();
+    
+    /**
+     * Lists the given users' access rules that have a schedule.
+     *
+     * @param userIds the user IDs
+     */
+    List<ScheduledGrant> findScheduledGrantsByUserIds(Collection<UUID> userIds);
+    
     /**
      * Access rule record from database.
      */
-    record AccessRuleRecord(UUID id, UUID userId, UUID toZoneId, Instant createdAt) {}
+    record AccessRuleRecord(UUID id, UUID userId, UUID toZoneId, UUID scheduleId, Instant createdAt) {}
+    
+    /**
+     * Outcome of {@link #syncUserZones}.
+     *
+     * @param changedUserIds users that got or lost at least one rule
+     */
+    record SyncResult(int added, int removed, List<UUID> changedUserIds) {}
+    
+    /**
+     * Zones a user may enter.
+     */
+    record UserGrants(UUID userId, List<UUID> zoneIds) {}
+    
+    /**
+     * Zone a user may enter while the schedule is open.
+     */
+    record ScheduledGrant(UUID userId, UUID zoneId, UUID scheduleId) {}
 }
 
@@ -4,7 +4,14 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +19,7 @@ import java.util.UUID;
 /**
  * Implementation of AccessRuleRepository using JdbcTemplate.
  * Performs JOIN with users and zones tables to match codes.
+ * Grants include the rules of the user's groups ({@code group_access_rules} via {@code user_group_members}).
  */
 @Repository
 public class AccessRuleRepositoryImpl implements AccessRuleRepository {
@@ -23,22 +31,50 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
     }
     
     @Override
-    public boolean hasAccess(String userCode, String toZoneCode) {
-        if (toZoneCode == null) {
+    public boolean hasAccess(String userCode, List<String> toZoneCodes, int minuteOfWeek) {
+        if (toZoneCodes.isEmpty()) {
             return true;
         }
 
         String sql = """
-            SELECT COUNT(*) > 0
-            FROM access_rules ar
-            INNER JOIN users u ON ar.user_id = u.id
-            INNER JOIN zones to_zone ON ar.to_zone_id = to_zone.id
-            WHERE u.code = ?
-              AND to_zone.code = ?
+            SELECT EXISTS (
+                SELECT 1
+                FROM access_rules ar
+                INNER JOIN users u ON ar.user_id = u.id
+                INNER JOIN zones to_zone ON ar.to_zone_id = to_zone.id
+                WHERE u.code = ?
+                  AND to_zone.code = ANY(?)
+                  AND (ar.schedule_id IS NULL OR EXISTS (
+                      SELECT 1
+                      FROM access_schedule_windows w
+                      WHERE w.schedule_id = ar.schedule_id
+                        AND w.day_of_week = ?
+                        AND w.start_minute <= ?
+                        AND w.end_minute > ?
+                  ))
+            ) OR EXISTS (
+                SELECT 1
+                FROM user_group_members m
+                INNER JOIN users u ON m.user_id = u.id
+                INNER JOIN group_access_rules gr ON gr.group_id = m.group_id
+                INNER JOIN zones to_zone ON gr.to_zone_id = to_zone.id
+                WHERE u.code = ?
+                  AND to_zone.code = ANY(?)
+            )
             """;
 
         try {
-            Boolean result = jdbcTemplate.queryForObject(sql, Boolean.class, userCode, toZoneCode);
+            Boolean result = jdbcTemplate.query(sql, ps -> {
+                Array codes = ps.getConnection().createArrayOf("varchar", toZoneCodes.toArray());
+                int minuteOfDay = minuteOfWeek % WeeklySchedule.MINUTES_PER_DAY;
+                ps.setString(1, userCode);
+                ps.setArray(2, codes);
+                ps.setInt(3, minuteOfWeek / WeeklySchedule.MINUTES_PER_DAY + 1);
+                ps.setInt(4, minuteOfDay);
+                ps.setInt(5, minuteOfDay);
+                ps.setString(6, userCode);
+                ps.setArray(7, codes);
+            }, rs -> rs.next() && rs.getBoolean(1));
             return Boolean.TRUE.equals(result);
         } catch (org.springframework.dao.DataAccessException e) {
             return false;
@@ -46,28 +82,33 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
     }
     
     @Override
-    public UUID create(UUID userId, UUID toZoneId) {
+    public UUID create(UUID userId, UUID toZoneId, UUID scheduleId) {
         Objects.requireNonNull(toZoneId, "Destination zone ID must be provided");
-        String sql = "INSERT INTO access_rules (user_id, from_zone_id, to_zone_id) VALUES (?, NULL, ?) RETURNING id";
+        String sql = """
+            INSERT INTO access_rules (user_id, from_zone_id, to_zone_id, schedule_id)
+            VALUES (?, NULL, ?, ?)
+            RETURNING id
+            """;
         try {
             UUID id = jdbcTemplate.queryForObject(
                 sql,
                 UUID.class,
                 userId,
-                toZoneId
+                toZoneId,
+                scheduleId
             );
             return id != null ? id : UUID.randomUUID();
         } catch (DataIntegrityViolationException e) {
             if (e.getMessage() != null && e.getMessage().contains("unique")) {
                 throw new IllegalArgumentException("Access rule already exists", e);
             }
-            throw new IllegalArgumentException("Invalid user or zone reference", e);
+            throw new IllegalArgumentException("Invalid user, zone or schedule reference", e);
         }
     }
     
     @Override
     public Optional<AccessRuleRecord> findById(UUID id) {
-        String sql = "SELECT id, user_id, to_zone_id, created_at FROM access_rules WHERE id = ?";
+        String sql = "SELECT id, user_id, to_zone_id, schedule_id, created_at FROM access_rules WHERE id = ?";
         try {
             AccessRuleRecord result = jdbcTemplate.queryForObject(
                 sql,
@@ -75,6 +116,7 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
                     rs.getObject("id", UUID.class),
                     rs.getObject("user_id", UUID.class),
                     rs.getObject("to_zone_id", UUID.class),
+                    rs.getObject("schedule_id", UUID.class),
                     rs.getTimestamp("created_at").toInstant()
                 ),
                 id
@@ -88,7 +130,7 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
     @Override
     public List<AccessRuleRecord> findByUserId(UUID userId, int offset, int limit) {
         String sql = """
-            SELECT id, user_id, to_zone_id, created_at 
+            SELECT id, user_id, to_zone_id, schedule_id, created_at 
             FROM access_rules 
             WHERE user_id = ? 
             ORDER BY created_at DESC 
@@ -100,6 +142,7 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
                 rs.getObject("id", UUID.class),
                 rs.getObject("user_id", UUID.class),
                 rs.getObject("to_zone_id", UUID.class),
+                rs.getObject("schedule_id", UUID.class),
                 rs.getTimestamp("created_at").toInstant()
             ),
             userId,
@@ -111,7 +154,7 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
     @Override
     public List<AccessRuleRecord> findAll(int offset, int limit) {
         String sql = """
-            SELECT id, user_id, to_zone_id, created_at 
+            SELECT id, user_id, to_zone_id, schedule_id, created_at 
             FROM access_rules 
             ORDER BY created_at DESC 
             LIMIT ? OFFSET ?
@@ -122,6 +165,7 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
                 rs.getObject("id", UUID.class),
                 rs.getObject("user_id", UUID.class),
                 rs.getObject("to_zone_id", UUID.class),
+                rs.getObject("schedule_id", UUID.class),
                 rs.getTimestamp("created_at").toInstant()
             ),
             limit,
@@ -144,17 +188,17 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
     }
     
     @Override
-    public boolean update(UUID id, UUID newToZoneId) {
+    public boolean update(UUID id, UUID newToZoneId, UUID scheduleId) {
         Objects.requireNonNull(newToZoneId, "Destination zone ID must be provided");
-        String sql = "UPDATE access_rules SET from_zone_id = NULL, to_zone_id = ? WHERE id = ?";
+        String sql = "UPDATE access_rules SET from_zone_id = NULL, to_zone_id = ?, schedule_id = ? WHERE id = ?";
         try {
-            int rowsAffected = jdbcTemplate.update(sql, newToZoneId, id);
+            int rowsAffected = jdbcTemplate.update(sql, newToZoneId, scheduleId, id);
             return rowsAffected > 0;
         } catch (DataIntegrityViolationException e) {
             if (e.getMessage() != null && e.getMessage().contains("unique")) {
                 throw new IllegalArgumentException("Access rule already exists", e);
             }
-            throw new IllegalArgumentException("Invalid zone reference", e);
+            throw new IllegalArgumentException("Invalid zone or schedule reference", e);
         }
     }
     
@@ -164,5 +208,152 @@ public class AccessRuleRepositoryImpl implements AccessRuleRepository {
         int rowsAffected = jdbcTemplate.update(sql, id);
         return rowsAffected > 0;
     }
+    
+    @Override
+    public SyncResult syncUserZones(Map<UUID, ? extends Collection<UUID>> desiredZones) {
+        if (desiredZones.isEmpty()) {
+            return new SyncResult(0, 0, List.of());
+        }
+        List<UUID> users = new ArrayList<>(desiredZones.keySet());
+        List<UUID> pairUsers = new ArrayList<>();
+        List<UUID> pairZones = new ArrayList<>();
+        desiredZones.forEach((userId, zoneIds) -> zoneIds.forEach(zoneId -> {
+            pairUsers.add(userId);
+            pairZones.add(zoneId);
+        }));
+        // Both modifying CTEs see the rules as they were before the statement; their row sets are disjoint
+        String sql = """
+            WITH synced AS (
+                SELECT user_id FROM unnest(?::uuid[]) AS user_id
+            ), desired AS (
+                SELECT DISTINCT d.user_id, d.zone_id
+                FROM unnest(?::uuid[], ?::uuid[]) AS d(user_id, zone_id)
+            ), removed AS (
+                DELETE FROM access_rules ar
+                USING synced s
+                WHERE ar.user_id = s.user_id
+                  AND NOT EXISTS (
+                      SELECT 1 FROM desired d WHERE d.user_id = ar.user_id AND d.zone_id = ar.to_zone_id
+                  )
+                RETURNING ar.user_id
+            ), added AS (
+                INSERT INTO access_rules (user_id, from_zone_id, to_zone_id)
+                SELECT d.user_id, NULL, d.zone_id
+                FROM desired d
+                WHERE NOT EXISTS (
+                    SELECT 1 FROM access_rules ar WHERE ar.user_id = d.user_id AND ar.to_zone_id = d.zone_id
+                )
+                ON CONFLICT (user_id, to_zone_id) WHERE to_zone_id IS NOT NULL DO NOTHING
+                RETURNING user_id
+            )
+            SELECT 'added' AS change, user_id FROM added
+            UNION ALL
+            SELECT 'removed' AS change, user_id FROM removed
+            """;
+        int[] added = new int[1];
+        int[] removed = new int[1];
+        LinkedHashSet<UUID> changed = new LinkedHashSet<>();
+        try {
+            jdbcTemplate.query(sql, ps -> {
+                ps.setArray(1, ps.getConnection().createArrayOf("uuid", users.toArray()));
+                ps.setArray(2, ps.getConnection().createArrayOf("uuid", pairUsers.toArray()));
+                ps.setArray(3, ps.getConnection().createArrayOf("uuid", pairZones.toArray()));
+            }, rs -> {
+                if ("added".equals(rs.getString("change"))) {
+                    added[0]++;
+                } else {
+                    removed[0]++;
+                }
+                changed.add(rs.getObject("user_id", UUID.class));
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Invalid user or zone reference", e);
+        }
+        return new SyncResult(added[0], removed[0], new ArrayList<>(changed));
+    }
+    
+    @Override
+    public List<UserGrants> findAllUserGrants() {
+        String sql = """
+            SELECT user_id, array_agg(DISTINCT to_zone_id) AS zone_ids
+            FROM (
+                SELECT user_id, to_zone_id FROM access_rules WHERE schedule_id IS NULL
+                UNION ALL
+                SELECT m.user_id, gr.to_zone_id
+                FROM user_group_members m
+                INNER JOIN group_access_rules gr ON gr.group_id = m.group_id
+            ) grants
+            GROUP BY user_id
+            """;
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapUserGrants(rs));
+    }
+    
+    @Override
+    public List<UserGrants> findUserGrantsByUserIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = """
+            SELECT user_id, array_agg(DISTINCT to_zone_id) AS zone_ids
+            FROM (
+                SELECT user_id, to_zone_id FROM access_rules WHERE user_id = ANY(?) AND schedule_id IS NULL
+                UNION ALL
+                SELECT m.user_id, gr.to_zone_id
+                FROM user_group_members m
+                INNER JOIN group_access_rules gr ON gr.group_id = m.group_id
+                WHERE m.user_id = ANY(?)
+            ) grants
+            GROUP BY user_id
+            """;
+        return jdbcTemplate.query(
+            sql,
+            ps -> {
+                Array ids = ps.getConnection().createArrayOf("uuid", userIds.toArray());
+                ps.setArray(1, ids);
+                ps.setArray(2, ids);
+            },
+            (rs, rowNum) -> mapUserGrants(rs)
+        );
+    }
+    
+    @Override
+    public List<ScheduledGrant> findAllScheduledGrants() {
+        return jdbcTemplate.query(
+            "SELECT user_id, to_zone_id, schedule_id FROM access_rules WHERE schedule_id IS NOT NULL",
+            (rs, rowNum) -> mapScheduledGrant(rs)
+        );
+    }
+    
+    @Override
+    public List<ScheduledGrant> findScheduledGrantsByUserIds(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            """
+            SELECT user_id, to_zone_id, schedule_id
+            FROM access_rules
+            WHERE user_id = ANY(?) AND schedule_id IS NOT NULL
+            """,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", userIds.toArray())),
+            (rs, rowNum) -> mapScheduledGrant(rs)
+        );
+    }
+    
+    private static ScheduledGrant mapScheduledGrant(ResultSet rs) throws SQLException {
+        return new ScheduledGrant(
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("to_zone_id", UUID.class),
+            rs.getObject("schedule_id", UUID.class)
+        );
+    }
+    
+    private static UserGrants mapUserGrants(ResultSet rs) throws SQLException {
+        Object[] zoneIds = (Object[]) rs.getArray("zone_ids").getArray();
+        List<UUID> zones = new ArrayList<>(zoneIds.length);
+        for (Object zoneId : zoneIds) {
+            zones.add(zoneId instanceof UUID uuid ? uuid : UUID.fromString(zoneId.toString()));
+        }
+        return new UserGrants(rs.getObject("user_id", UUID.class), zones);
+    }
 }
-
@@ -0,0 +1,171 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.WeeklySchedule.Window;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Access schedules compiled into {@link WeeklySchedule} bitmaps, indexed by a dense schedule id.
+ * <p>
+ * Dense ids are handed out on first sight and never reused, like {@link ReferenceDictionary} ids, so
+ * {@link AccessMatrix} rows can refer to schedules by {@code int}. Changing a schedule's windows replaces
+ * its bitmap only; rules that use it need no recompilation. Kept current by the reference data change
+ * feed (both schedule tables are keyed by schedule id) and by {@code AccessScheduleAdminController}.
+ * <p>
+ * Schedules are evaluated in the site time zone {@code access-system.schedules.time-zone}.
+ */
+@Component
+public class AccessScheduleIndex implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessScheduleIndex.class);
+
+    private final AccessScheduleRepository scheduleRepository;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final ZoneRules siteZone;
+    private final Map<UUID, Integer> ids = new HashMap<>();
+    private final Object updateLock = new Object();
+    private volatile WeeklySchedule[] schedules = new WeeklySchedule[0];
+    private volatile int liveCount;
+
+    AccessScheduleIndex(AccessScheduleRepository scheduleRepository, ReferenceDataChangeFeed changeFeed,
+                        @Value("${access-system.schedules.time-zone:UTC}") String siteTimeZone,
+                        MeterRegistry meterRegistry) {
+        this.scheduleRepository = scheduleRepository;
+        this.changeFeed = changeFeed;
+        this.siteZone = ZoneId.of(siteTimeZone).getRules();
+        Gauge.builder("access_schedules", this, index -> index.liveCount)
+            .description("Access schedules compiled into weekly minute bitmaps")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Minute of the week of the instant in the site time zone.
+     */
+    public int minuteOfWeek(Instant at) {
+        return WeeklySchedule.minuteOfWeek(at, siteZone);
+    }
+
+    /**
+     * Compiled schedules indexed by dense id; callers must not modify the array.
+     */
+    public WeeklySchedule[] snapshot() {
+        return schedules;
+    }
+
+    /**
+     * Dense ids of the given schedules, loading schedules not seen yet (for example created a moment ago).
+     */
+    public Map<UUID, Integer> idsOf(Collection<UUID> scheduleIds) {
+        synchronized (updateLock) {
+            Set<UUID> unknown = new HashSet<>(scheduleIds);
+            unknown.removeAll(ids.keySet());
+            if (!unknown.isEmpty()) {
+                refresh(unknown);
+            }
+            Map<UUID, Integer> result = new HashMap<>();
+            for (UUID scheduleId : scheduleIds) {
+                result.put(scheduleId, idOf(scheduleId));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reloads and recompiles the given schedules; deleted ones stay closed.
+     */
+    public void refresh(Collection<UUID> scheduleIds) {
+        if (scheduleIds.isEmpty()) {
+            return;
+        }
+        synchronized (updateLock) {
+            Map<UUID, List<Window>> loaded = scheduleRepository.findWindows(scheduleIds);
+            Map<UUID, List<Window>> changes = new HashMap<>(loaded);
+            for (UUID scheduleId : scheduleIds) {
+                changes.putIfAbsent(scheduleId, null);
+            }
+            apply(changes);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "access_schedules";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("access_schedules", "access_schedule_windows");
+    }
+
+    @Override
+    public void reloadAll() {
+        synchronized (updateLock) {
+            Map<UUID, List<Window>> changes = new HashMap<>(scheduleRepository.findAllWindows());
+            for (UUID known : ids.keySet()) {
+                changes.putIfAbsent(known, null);
+            }
+            apply(changes);
+        }
+        log.info("Access schedules loaded: {} schedules", liveCount);
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        refresh(keys.stream().map(UUID::fromString).toList());
+    }
+
+    // Caller holds updateLock; a null window list marks a deleted schedule
+    private void apply(Map<UUID, List<Window>> changes) {
+        changes.forEach((scheduleId, windows) -> {
+            if (windows != null) {
+                ids.putIfAbsent(scheduleId, ids.size());
+            }
+        });
+        WeeklySchedule[] updated = Arrays.copyOf(schedules, ids.size());
+        changes.forEach((scheduleId, windows) -> {
+            Integer id = ids.get(scheduleId);
+            if (id != null) {
+                updated[id] = windows != null ? WeeklySchedule.of(windows) : WeeklySchedule.closed();
+            }
+        });
+        int live = 0;
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == null) {
+                updated[i] = WeeklySchedule.closed();
+            } else if (updated[i] != WeeklySchedule.closed()) {
+                live++;
+            }
+        }
+        schedules = updated;
+        liveCount = live;
+    }
+
+    private int idOf(UUID scheduleId) {
+        Integer id = ids.get(scheduleId);
+        return id != null ? id : -1;
+    }
+}
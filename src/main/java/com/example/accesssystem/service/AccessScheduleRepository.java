@@ -0,0 +1,83 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.WeeklySchedule.Window;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for weekly access schedules and their windows.
+ */
+public interface AccessScheduleRepository {
+    
+    /**
+     * Creates a schedule with its windows.
+     * 
+     * @param code the unique schedule code
+     * @param windows the weekly windows
+     * @return the created schedule's ID
+     */
+    UUID create(String code, List<Window> windows);
+    
+    /**
+     * Finds a schedule by ID.
+     * 
+     * @param id the schedule ID
+     * @return the schedule record if found
+     */
+    Optional<ScheduleRecord> findById(UUID id);
+    
+    /**
+     * Lists schedules with pagination.
+     * 
+     * @param offset the offset for pagination
+     * @param limit the maximum number of records to return
+     * @return list of schedule records
+     */
+    List<ScheduleRecord> findAll(int offset, int limit);
+    
+    /**
+     * Counts total number of schedules.
+     * 
+     * @return total count
+     */
+    long count();
+    
+    /**
+     * Replaces the code and all windows of a schedule.
+     * 
+     * @param id the schedule ID
+     * @param code the new code
+     * @param windows the new windows
+     * @return true if updated, false if not found
+     */
+    boolean update(UUID id, String code, List<Window> windows);
+    
+    /**
+     * Deletes a schedule by ID.
+     * 
+     * @param id the schedule ID
+     * @return true if deleted, false if not found
+     * @throws IllegalArgumentException if access rules still use the schedule
+     */
+    boolean deleteById(UUID id);
+    
+    /**
+     * Windows of every schedule, by schedule ID; schedules without windows map to an empty list.
+     */
+    Map<UUID, List<Window>> findAllWindows();
+    
+    /**
+     * Windows of the given schedules; schedules that no longer exist are omitted.
+     */
+    Map<UUID, List<Window>> findWindows(Collection<UUID> ids);
+    
+    /**
+     * Schedule record from database.
+     */
+    record ScheduleRecord(UUID id, String code, List<Window> windows, Instant createdAt) {}
+}
@@ -0,0 +1,175 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.WeeklySchedule.Window;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Implementation of AccessScheduleRepository using JdbcTemplate.
+ * A schedule and its windows are written in one transaction.
+ */
+@Repository
+public class AccessScheduleRepositoryImpl implements AccessScheduleRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    AccessScheduleRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    @Transactional
+    public UUID create(String code, List<Window> windows) {
+        UUID id = UUID.randomUUID();
+        try {
+            jdbcTemplate.update("INSERT INTO access_schedules (id, code) VALUES (?, ?)", id, code);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Schedule with code '" + code + "' already exists", e);
+        }
+        insertWindows(id, windows);
+        return id;
+    }
+    
+    @Override
+    public Optional<ScheduleRecord> findById(UUID id) {
+        List<ScheduleRecord> records = jdbcTemplate.query(
+            "SELECT id, code, created_at FROM access_schedules WHERE id = ?",
+            this::mapRecord,
+            id
+        );
+        return records.stream().findFirst().map(this::withWindows);
+    }
+    
+    @Override
+    public List<ScheduleRecord> findAll(int offset, int limit) {
+        String sql = "SELECT id, code, created_at FROM access_schedules ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, this::mapRecord, limit, offset).stream()
+            .map(this::withWindows)
+            .toList();
+    }
+    
+    @Override
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM access_schedules", Long.class);
+        return count != null ? count : 0L;
+    }
+    
+    @Override
+    @Transactional
+    public boolean update(UUID id, String code, List<Window> windows) {
+        try {
+            if (jdbcTemplate.update("UPDATE access_schedules SET code = ? WHERE id = ?", code, id) == 0) {
+                return false;
+            }
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Schedule with code '" + code + "' already exists", e);
+        }
+        jdbcTemplate.update("DELETE FROM access_schedule_windows WHERE schedule_id = ?", id);
+        insertWindows(id, windows);
+        return true;
+    }
+    
+    @Override
+    public boolean deleteById(UUID id) {
+        try {
+            return jdbcTemplate.update("DELETE FROM access_schedules WHERE id = ?", id) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Schedule is used by access rules", e);
+        }
+    }
+    
+    @Override
+    public Map<UUID, List<Window>> findAllWindows() {
+        Map<UUID, List<Window>> result = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT id FROM access_schedules",
+            rs -> { result.put(rs.getObject("id", UUID.class), new ArrayList<>()); });
+        jdbcTemplate.query(
+            "SELECT schedule_id, day_of_week, start_minute, end_minute FROM access_schedule_windows",
+            rs -> { addWindow(result, rs); }
+        );
+        return result;
+    }
+    
+    @Override
+    public Map<UUID, List<Window>> findWindows(Collection<UUID> ids) {
+        Map<UUID, List<Window>> result = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        Object[] array = ids.toArray();
+        jdbcTemplate.query(
+            "SELECT id FROM access_schedules WHERE id = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", array)),
+            rs -> { result.put(rs.getObject("id", UUID.class), new ArrayList<>()); }
+        );
+        jdbcTemplate.query(
+            """
+            SELECT schedule_id, day_of_week, start_minute, end_minute
+            FROM access_schedule_windows
+            WHERE schedule_id = ANY(?)
+            """,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", array)),
+            rs -> { addWindow(result, rs); }
+        );
+        return result;
+    }
+    
+    private void insertWindows(UUID scheduleId, List<Window> windows) {
+        String sql = """
+            INSERT INTO access_schedule_windows (schedule_id, day_of_week, start_minute, end_minute)
+            VALUES (?, ?, ?, ?)
+            """;
+        jdbcTemplate.batchUpdate(sql, windows, windows.size(), (ps, window) -> {
+            ps.setObject(1, scheduleId);
+            ps.setInt(2, window.dayOfWeek());
+            ps.setInt(3, window.startMinute());
+            ps.setInt(4, window.endMinute());
+        });
+    }
+    
+    private ScheduleRecord withWindows(ScheduleRecord record) {
+        List<Window> windows = jdbcTemplate.query(
+            """
+            SELECT day_of_week, start_minute, end_minute
+            FROM access_schedule_windows
+            WHERE schedule_id = ?
+            ORDER BY day_of_week, start_minute
+            """,
+            (rs, rowNum) -> mapWindow(rs),
+            record.id()
+        );
+        return new ScheduleRecord(record.id(), record.code(), windows, record.createdAt());
+    }
+    
+    private ScheduleRecord mapRecord(ResultSet rs, int rowNum) throws SQLException {
+        return new ScheduleRecord(
+            rs.getObject("id", UUID.class),
+            rs.getString("code"),
+            List.of(),
+            rs.getTimestamp("created_at").toInstant()
+        );
+    }
+    
+    private static void addWindow(Map<UUID, List<Window>> result, ResultSet rs) throws SQLException {
+        List<Window> windows = result.get(rs.getObject("schedule_id", UUID.class));
+        if (windows != null) {
+            windows.add(mapWindow(rs));
+        }
+    }
+    
+    private static Window mapWindow(ResultSet rs) throws SQLException {
+        return new Window(rs.getInt("day_of_week"), rs.getInt("start_minute"), rs.getInt("end_minute"));
+    }
+}
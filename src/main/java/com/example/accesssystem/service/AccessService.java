@@ -40,7 +40,7 @@ public class AccessService {
         // Сейчас принимаем userId как уже известный из попытки (для компиляции и демонстрации контрактов)
 
         AccessDecision decision = accessRuleEvaluator.canTransit(
-                attempt.userId(), attempt.fromZone(), attempt.toZone()
+                attempt.userId(), attempt.fromZone(), attempt.toZone(), attempt.occurredAt()
         );
 
         if (decision == ALLOW) {
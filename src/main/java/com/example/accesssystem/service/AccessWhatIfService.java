@@ -0,0 +1,253 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.AccessMatrixEvaluator.AccessView;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Read-only "what if" reachability: which of the given users can reach which target zones from OUT
+ * through the configured checkpoints under the current access rules.
+ * <p>
+ * Everything is evaluated in memory against one {@link AccessView} of the access matrix and a
+ * {@link ZoneReachability} compiled from the zone topology (recompiled only when the topology changes).
+ * Users are split across a dedicated fork/join pool ({@code access-system.what-if.parallelism}), never
+ * the crypto pool or request threads of the ingest path, and results are handed out in input order one
+ * chunk at a time, so a caller can stream them without holding the whole answer.
+ */
+@Service
+public class AccessWhatIfService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AccessWhatIfService.class);
+
+    static final int CHUNK_USERS = 1024;
+    // Users per fork/join leaf task
+    private static final int LEAF_USERS = 64;
+
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
+    private final ZoneTopology zoneTopology;
+    private final ReferenceDictionary dictionary;
+    private final ForkJoinPool pool;
+    private final Timer duration;
+    private final Counter evaluatedUsers;
+    private final Object compileLock = new Object();
+    private volatile Compiled compiled;
+
+    AccessWhatIfService(ObjectProvider<AccessMatrixEvaluator> accessMatrix, ZoneTopology zoneTopology,
+                        ReferenceDictionary dictionary,
+                        @Value("${access-system.what-if.parallelism:0}") int parallelism,
+                        MeterRegistry meterRegistry) {
+        this.accessMatrix = accessMatrix;
+        this.zoneTopology = zoneTopology;
+        this.dictionary = dictionary;
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("what-if-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.duration = Timer.builder("access_what_if_duration")
+            .description("Time to evaluate a what-if reachability request")
+            .register(meterRegistry);
+        this.evaluatedUsers = Counter.builder("access_what_if_users_total")
+            .description("Users evaluated by what-if reachability requests")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether what-if evaluation is available: it needs the in-memory access matrix
+     * ({@code access-system.access-rules.evaluator: matrix}).
+     */
+    public boolean isAvailable() {
+        return accessMatrix.getIfAvailable() != null;
+    }
+
+    /**
+     * Resolves the request against the current snapshots. Evaluation starts with {@link Evaluation#run}.
+     *
+     * @param at time the rules are evaluated at (schedules, visitor grants)
+     * @throws IllegalArgumentException if a target zone does not exist
+     * @throws IllegalStateException if the access matrix is disabled
+     */
+    public Evaluation prepare(List<String> userCodes, List<String> zoneCodes, Instant at) {
+        AccessMatrixEvaluator matrix = accessMatrix.getIfAvailable();
+        if (matrix == null) {
+            throw new IllegalStateException("What-if evaluation needs the in-memory access matrix");
+        }
+        AccessView view = matrix.view(at);
+        ZoneReachability reachability = reachability();
+        CodeDictionary zones = dictionary.get(Kind.ZONES);
+        List<String> targetCodes = new ArrayList<>(new LinkedHashSet<>(zoneCodes));
+        int[] targets = new int[targetCodes.size()];
+        for (int i = 0; i < targets.length; i++) {
+            targets[i] = zones.idOf(targetCodes.get(i));
+            if (targets[i] < 0) {
+                throw new IllegalArgumentException("Unknown zone: " + targetCodes.get(i));
+            }
+        }
+        CodeDictionary users = dictionary.get(Kind.USERS);
+        int[] userIds = new int[userCodes.size()];
+        for (int i = 0; i < userIds.length; i++) {
+            userIds[i] = users.idOf(userCodes.get(i));
+        }
+        return new Evaluation(List.copyOf(userCodes), userIds, targetCodes, targets, view, reachability);
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private ZoneReachability reachability() {
+        ZoneGraph graph = zoneTopology.current();
+        Compiled current = compiled;
+        if (current != null && current.graph() == graph) {
+            return current.reachability();
+        }
+        synchronized (compileLock) {
+            current = compiled;
+            if (current != null && current.graph() == graph) {
+                return current.reachability();
+            }
+            // Zones created a moment ago may not have reached the dictionary through the feed yet
+            CodeDictionary known = dictionary.snapshot(Kind.ZONES);
+            Set<UUID> unknown = new HashSet<>();
+            graph.checkpoints().forEach(edge -> {
+                if (edge.fromZoneId() != null && known.idOf(edge.fromZoneId()) < 0) {
+                    unknown.add(edge.fromZoneId());
+                }
+                if (edge.toZoneId() != null && known.idOf(edge.toZoneId()) < 0) {
+                    unknown.add(edge.toZoneId());
+                }
+            });
+            if (!unknown.isEmpty()) {
+                dictionary.refresh(Kind.ZONES, unknown);
+            }
+            CodeDictionary zones = dictionary.snapshot(Kind.ZONES);
+            ZoneReachability reachability = ZoneReachability.compile(graph.checkpoints(), zones::idOf);
+            compiled = new Compiled(graph, reachability);
+            log.info("What-if reachability compiled: {} zones, {} checkpoints",
+                reachability.zoneCount(), graph.checkpoints().size());
+            return reachability;
+        }
+    }
+
+    /**
+     * Reachable target zones of one user; unknown users reach nothing.
+     */
+    public record UserReachability(String userCode, boolean knownUser, List<String> reachableZoneCodes) {}
+
+    /**
+     * A prepared what-if request.
+     */
+    public final class Evaluation {
+
+        private final List<String> userCodes;
+        private final int[] userIds;
+        private final List<String> targetCodes;
+        private final int[] targets;
+        private final AccessView view;
+        private final ZoneReachability reachability;
+
+        private Evaluation(List<String> userCodes, int[] userIds, List<String> targetCodes, int[] targets,
+                           AccessView view, ZoneReachability reachability) {
+            this.userCodes = userCodes;
+            this.userIds = userIds;
+            this.targetCodes = targetCodes;
+            this.targets = targets;
+            this.view = view;
+            this.reachability = reachability;
+        }
+
+        /**
+         * Evaluates every user and hands the results to the sink in input order, one chunk of
+         * {@value AccessWhatIfService#CHUNK_USERS} users at a time, on the calling thread.
+         */
+        public void run(Consumer<UserReachability> sink) {
+            run(sink, () -> {});
+        }
+
+        /**
+         * Like {@link #run(Consumer)}, calling {@code chunkEnd} after the last result of each chunk,
+         * before the next chunk is evaluated (e.g. to flush a streamed response).
+         */
+        public void run(Consumer<UserReachability> sink, Runnable chunkEnd) {
+            long started = System.nanoTime();
+            boolean[][] results = new boolean[Math.min(CHUNK_USERS, userIds.length)][];
+            for (int from = 0; from < userIds.length; from += CHUNK_USERS) {
+                int to = Math.min(from + CHUNK_USERS, userIds.length);
+                pool.invoke(new SearchTask(from, to, from, results));
+                for (int i = from; i < to; i++) {
+                    sink.accept(toResult(i, results[i - from]));
+                }
+                chunkEnd.run();
+            }
+            evaluatedUsers.increment(userIds.length);
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+
+        private UserReachability toResult(int index, boolean[] reached) {
+            List<String> codes = new ArrayList<>();
+            if (reached != null) {
+                for (int t = 0; t < reached.length; t++) {
+                    if (reached[t]) {
+                        codes.add(targetCodes.get(t));
+                    }
+                }
+            }
+            return new UserReachability(userCodes.get(index), userIds[index] >= 0, codes);
+        }
+
+        private final class SearchTask extends RecursiveAction {
+
+            private final int from;
+            private final int to;
+            private final int chunkStart;
+            private final boolean[][] results;
+
+            private SearchTask(int from, int to, int chunkStart, boolean[][] results) {
+                this.from = from;
+                this.to = to;
+                this.chunkStart = chunkStart;
+                this.results = results;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from > LEAF_USERS) {
+                    int middle = (from + to) >>> 1;
+                    invokeAll(new SearchTask(from, middle, chunkStart, results),
+                        new SearchTask(middle, to, chunkStart, results));
+                    return;
+                }
+                ZoneReachability.Search search = reachability.search(targets);
+                for (int i = from; i < to; i++) {
+                    int user = userIds[i];
+                    results[i - chunkStart] = user < 0 ? null : search.reachable(user, view::allows);
+                }
+            }
+        }
+    }
+
+    private record Compiled(ZoneGraph graph, ZoneReachability reachability) {}
+}
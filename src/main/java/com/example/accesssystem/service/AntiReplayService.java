@@ -12,23 +12,34 @@ import java.time.format.DateTimeParseException;
  * Service for anti-replay protection:
  * - Validates event timestamp within allowed skew window
  * - Prevents duplicate eventId/nonce usage
+ * 
+ * A nonce is kept while an event with the same timestamp could still pass the timestamp check on any
+ * ingest endpoint: event timestamp + the widest past window (batch max age, capped by the nonce TTL),
+ * whichever endpoint claimed it and whether the event was stamped in the past or in the future.
+ * See {@link EventNonceCache}.
  */
 @Service
 public class AntiReplayService {
     
     private static final Logger log = LoggerFactory.getLogger(AntiReplayService.class);
     
-    private final EventNonceRepository eventNonceRepository;
+    private final EventNonceCache nonceCache;
+    private final CheckpointSequenceWindows sequenceWindows;
     private final long timestampSkewSeconds;
     private final long eventNonceTtlSeconds;
+    private final long nonceRetentionSeconds;
     
     AntiReplayService(
-            EventNonceRepository eventNonceRepository,
+            EventNonceCache nonceCache,
+            CheckpointSequenceWindows sequenceWindows,
             @Value("${access-system.anti-replay.timestamp-skew-seconds:300}") long timestampSkewSeconds,
-            @Value("${access-system.anti-replay.event-nonce-ttl-seconds:86400}") long eventNonceTtlSeconds) {
-        this.eventNonceRepository = eventNonceRepository;
+            @Value("${access-system.anti-replay.event-nonce-ttl-seconds:86400}") long eventNonceTtlSeconds,
+            @Value("${access-system.ingest.batch.max-event-age-seconds:86400}") long batchMaxEventAgeSeconds) {
+        this.nonceCache = nonceCache;
+        this.sequenceWindows = sequenceWindows;
         this.timestampSkewSeconds = timestampSkewSeconds;
         this.eventNonceTtlSeconds = eventNonceTtlSeconds;
+        this.nonceRetentionSeconds = Math.max(timestampSkewSeconds, Math.min(batchMaxEventAgeSeconds, eventNonceTtlSeconds));
     }
     
     /**
@@ -40,6 +51,91 @@ public class AntiReplayService {
      * @return ValidationResult with validation status
      */
     public ValidationResult validateEvent(String eventId, String checkpointId, String timestampIso8601) {
+        return validateEvent(eventId, checkpointId, timestampIso8601, timestampSkewSeconds);
+    }
+    
+    /**
+     * Validates an event that may have been recorded earlier than the usual skew window allows
+     * (offline backlog uploads). Events from the future are still limited by the skew; the past
+     * window is capped by the nonce TTL, otherwise a replay could outlive its stored nonce.
+     * 
+     * @param eventId the unique event identifier (nonce)
+     * @param checkpointId the checkpoint identifier
+     * @param timestampIso8601 the event timestamp in ISO-8601 format
+     * @param maxAgeSeconds how far in the past the event timestamp may be
+     * @return ValidationResult with validation status
+     */
+    public ValidationResult validateEvent(String eventId, String checkpointId, String timestampIso8601,
+                                          long maxAgeSeconds) {
+        return validateEvent(eventId, checkpointId, timestampIso8601, maxAgeSeconds, null);
+    }
+    
+    /**
+     * Validates an event of a checkpoint that may use sequence-based replay protection
+     * ({@code checkpoints.replay_protection = 'sequence'}): for such checkpoints the sequence number
+     * is checked against the checkpoint's sliding window instead of storing the eventId.
+     * <p>
+     * Claims the eventId or sequence number: call only after the event has been authenticated, an
+     * unauthenticated request must not be able to use up a nonce or advance a sequence window.
+     * 
+     * @param eventId the unique event identifier (nonce)
+     * @param checkpointId the checkpoint identifier
+     * @param timestampIso8601 the event timestamp in ISO-8601 format
+     * @param maxAgeSeconds how far in the past the event timestamp may be
+     * @param sequence the checkpoint's sequence number of the event (null if not sent)
+     * @return ValidationResult with validation status
+     */
+    public ValidationResult validateEvent(String eventId, String checkpointId, String timestampIso8601,
+                                          long maxAgeSeconds, Long sequence) {
+        TimestampCheck check = checkTimestamp(timestampIso8601, maxAgeSeconds);
+        if (check.rejection() != null) {
+            return check.rejection();
+        }
+        
+        if (sequenceWindows.usesSequence(checkpointId)) {
+            return validateSequence(checkpointId, sequence);
+        }
+        
+        // Claim eventId (replay detection); after expiresAt the timestamp check of every endpoint alone
+        // rejects a replay, so the expiry must not depend on this endpoint's window or the skew direction
+        Instant eventTimestamp = check.eventTimestamp();
+        Instant expiresAt = eventTimestamp.plusSeconds(nonceRetentionSeconds + 1);
+        if (!nonceCache.claim(eventId, checkpointId, eventTimestamp, expiresAt)) {
+            log.warn("Duplicate eventId detected: {} from checkpoint {}", eventId, checkpointId);
+            return ValidationResult.rejected("duplicate_event_id", 
+                "Event ID already used (possible replay attack): " + eventId);
+        }
+        
+        log.debug("Event validated successfully. EventId: {}, Checkpoint: {}, Timestamp: {}", 
+            eventId, checkpointId, eventTimestamp);
+        
+        return ValidationResult.accepted();
+    }
+    
+    /**
+     * Checks of {@link #validateEvent(String, String, String, long, Long)} that need no state: the
+     * timestamp window and, for sequence checkpoints, the presence of a sequence number. Nothing is
+     * claimed, so ingest runs this before signature verification to reject stale events cheaply.
+     * 
+     * @param checkpointId the checkpoint identifier
+     * @param timestampIso8601 the event timestamp in ISO-8601 format
+     * @param maxAgeSeconds how far in the past the event timestamp may be
+     * @param sequence the checkpoint's sequence number of the event (null if not sent)
+     * @return ValidationResult with validation status
+     */
+    public ValidationResult precheckEvent(String checkpointId, String timestampIso8601,
+                                          long maxAgeSeconds, Long sequence) {
+        TimestampCheck check = checkTimestamp(timestampIso8601, maxAgeSeconds);
+        if (check.rejection() != null) {
+            return check.rejection();
+        }
+        if (sequence == null && sequenceWindows.usesSequence(checkpointId)) {
+            return missingSequence(checkpointId);
+        }
+        return ValidationResult.accepted();
+    }
+    
+    private TimestampCheck checkTimestamp(String timestampIso8601, long maxAgeSeconds) {
         // Parse timestamp using Instant.parse() which correctly handles ISO-8601 format
         // from Instant.toString() (supports variable precision: 0-9 digits for fractional seconds)
         Instant eventTimestamp;
@@ -47,38 +143,54 @@ public class AntiReplayService {
             eventTimestamp = Instant.parse(timestampIso8601);
         } catch (DateTimeParseException e) {
             log.warn("Failed to parse timestamp: {}", timestampIso8601);
-            return ValidationResult.rejected("invalid_timestamp", 
-                "Invalid timestamp format: " + e.getMessage());
+            return TimestampCheck.rejected(ValidationResult.rejected("invalid_timestamp", 
+                "Invalid timestamp format: " + e.getMessage()));
         }
         
         // Check timestamp skew
         Instant now = Instant.now();
-        long skewSeconds = Math.abs(java.time.Duration.between(now, eventTimestamp).getSeconds());
+        long offsetSeconds = java.time.Duration.between(now, eventTimestamp).getSeconds();
+        long skewSeconds = Math.abs(offsetSeconds);
+        long allowedSeconds = offsetSeconds > 0
+            ? timestampSkewSeconds
+            : Math.max(timestampSkewSeconds, Math.min(maxAgeSeconds, eventNonceTtlSeconds));
         
-        if (skewSeconds > timestampSkewSeconds) {
+        if (skewSeconds > allowedSeconds) {
             log.warn("Event timestamp out of allowed skew window. Event: {}, Now: {}, Skew: {}s", 
                 eventTimestamp, now, skewSeconds);
-            return ValidationResult.rejected("timestamp_out_of_window", 
+            return TimestampCheck.rejected(ValidationResult.rejected("timestamp_out_of_window", 
                 String.format("Event timestamp is outside allowed skew window (max %d seconds). " +
                     "Event timestamp: %s, Current time: %s, Difference: %d seconds", 
-                    timestampSkewSeconds, eventTimestamp, now, skewSeconds));
+                    allowedSeconds, eventTimestamp, now, skewSeconds)));
         }
-        
-        // Check if eventId already exists (replay detection)
-        if (eventNonceRepository.exists(eventId)) {
-            log.warn("Duplicate eventId detected: {} from checkpoint {}", eventId, checkpointId);
-            return ValidationResult.rejected("duplicate_event_id", 
-                "Event ID already used (possible replay attack): " + eventId);
+        return new TimestampCheck(eventTimestamp, null);
+    }
+    
+    private static ValidationResult missingSequence(String checkpointId) {
+        return ValidationResult.rejected("missing_sequence",
+            "Checkpoint " + checkpointId + " uses sequence-based replay protection; sequence is required");
+    }
+    
+    private ValidationResult validateSequence(String checkpointId, Long sequence) {
+        if (sequence == null) {
+            return missingSequence(checkpointId);
+        }
+        return switch (sequenceWindows.accept(checkpointId, sequence)) {
+            case ACCEPTED -> ValidationResult.accepted();
+            case REPLAYED -> {
+                log.warn("Duplicate sequence detected: {} from checkpoint {}", sequence, checkpointId);
+                yield ValidationResult.rejected("duplicate_sequence",
+                    "Sequence already used (possible replay attack): " + sequence);
+            }
+            case TOO_OLD -> ValidationResult.rejected("sequence_too_old",
+                "Sequence is below the replay window of checkpoint " + checkpointId + ": " + sequence);
+        };
+    }
+    
+    private record TimestampCheck(Instant eventTimestamp, ValidationResult rejection) {
+        static TimestampCheck rejected(ValidationResult rejection) {
+            return new TimestampCheck(null, rejection);
         }
-        
-        // Store eventId with TTL
-        Instant expiresAt = now.plusSeconds(eventNonceTtlSeconds);
-        eventNonceRepository.store(eventId, checkpointId, eventTimestamp, expiresAt);
-        
-        log.debug("Event validated successfully. EventId: {}, Checkpoint: {}, Timestamp: {}", 
-            eventId, checkpointId, eventTimestamp);
-        
-        return ValidationResult.accepted();
     }
     
     /**
@@ -0,0 +1,150 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through cache in front of the code lookups of {@link EventRepositoryImpl}.
+ * <p>
+ * Known codes are answered from {@link ReferenceDictionary}, which holds every user, zone and checkpoint
+ * and is kept current by the reference data change feed, so steady-state ingest resolves codes without
+ * a database round trip. A code the dictionary does not know is looked up once in the database (it may
+ * have been created on another node a moment ago); codes that do not exist there either are remembered
+ * as negative entries, so a flood of bogus codes costs one query per code and TTL. A negative entry is
+ * also dropped as soon as the dictionary of its kind changes.
+ * <p>
+ * The admin controllers call {@link #invalidate} after their writes, so a created, renamed or deleted
+ * entity is visible to the next event on this node without waiting for the feed.
+ */
+@Repository
+@Primary
+public class CachingEventRepository implements EventRepository {
+
+    private record Negative(CodeDictionary seenIn, long expiresAtNanos) {}
+
+    private final EventRepositoryImpl delegate;
+    private final ReferenceDictionary dictionary;
+    private final long negativeTtlNanos;
+    private final int negativeMaxEntries;
+    private final Map<Kind, Map<String, Negative>> negatives = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> hits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> negativeHits = new EnumMap<>(Kind.class);
+    private final Map<Kind, Counter> misses = new EnumMap<>(Kind.class);
+
+    CachingEventRepository(
+            EventRepositoryImpl delegate,
+            ReferenceDictionary dictionary,
+            MeterRegistry meterRegistry,
+            @Value("${access-system.reference-data.negative-cache.ttl-ms:10000}") long negativeTtlMs,
+            @Value("${access-system.reference-data.negative-cache.max-entries:10000}") int negativeMaxEntries) {
+        this.delegate = delegate;
+        this.dictionary = dictionary;
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+        this.negativeMaxEntries = negativeMaxEntries;
+        for (Kind kind : Kind.values()) {
+            Map<String, Negative> kindNegatives = new ConcurrentHashMap<>();
+            negatives.put(kind, kindNegatives);
+            hits.put(kind, lookups(meterRegistry, kind, "hit"));
+            negativeHits.put(kind, lookups(meterRegistry, kind, "negative_hit"));
+            misses.put(kind, lookups(meterRegistry, kind, "miss"));
+            Gauge.builder("reference_code_negative_entries", kindNegatives, Map::size)
+                .description("Unknown codes remembered by the code lookup cache")
+                .tag("kind", kind.table())
+                .register(meterRegistry);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, Kind kind, String result) {
+        return Counter.builder("reference_code_lookups_total")
+            .description("Code to id lookups of event processing by cache outcome")
+            .tag("kind", kind.table())
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void recordEvent(
+        String eventId,
+        UUID checkpointId,
+        UUID userId,
+        UUID fromZoneId,
+        UUID toZoneId,
+        Instant eventTimestamp
+    ) {
+        delegate.recordEvent(eventId, checkpointId, userId, fromZoneId, toZoneId, eventTimestamp);
+    }
+
+    @Override
+    public Optional<UUID> findCheckpointIdByCode(String checkpointCode) {
+        return find(Kind.CHECKPOINTS, checkpointCode);
+    }
+
+    @Override
+    public Optional<UUID> findUserIdByCode(String userCode) {
+        return find(Kind.USERS, userCode);
+    }
+
+    @Override
+    public Optional<UUID> findZoneIdByCode(String zoneCode) {
+        if (zoneCode == null) {
+            return Optional.empty();
+        }
+        return find(Kind.ZONES, zoneCode);
+    }
+
+    /**
+     * Reloads the given entity into the dictionary after it was created, renamed or deleted.
+     */
+    public void invalidate(Kind kind, UUID id) {
+        dictionary.refresh(kind, List.of(id));
+        negatives.get(kind).clear();
+    }
+
+    private Optional<UUID> find(Kind kind, String code) {
+        CodeDictionary current = dictionary.get(kind);
+        UUID id = current.uuidOf(current.idOf(code));
+        if (id != null) {
+            hits.get(kind).increment();
+            return Optional.of(id);
+        }
+
+        Map<String, Negative> kindNegatives = negatives.get(kind);
+        Negative negative = kindNegatives.get(code);
+        if (negative != null && negative.seenIn() == current && System.nanoTime() - negative.expiresAtNanos() < 0) {
+            negativeHits.get(kind).increment();
+            return Optional.empty();
+        }
+
+        misses.get(kind).increment();
+        Optional<UUID> loaded = switch (kind) {
+            case USERS -> delegate.findUserIdByCode(code);
+            case ZONES -> delegate.findZoneIdByCode(code);
+            case CHECKPOINTS -> delegate.findCheckpointIdByCode(code);
+        };
+        if (loaded.isPresent()) {
+            kindNegatives.remove(code);
+            dictionary.refresh(kind, List.of(loaded.get()));
+        } else {
+            if (kindNegatives.size() >= negativeMaxEntries) {
+                // Crude but bounded: a flood of distinct bogus codes keeps costing one query each
+                kindNegatives.clear();
+            }
+            kindNegatives.put(code, new Negative(current, System.nanoTime() + negativeTtlNanos));
+        }
+        return loaded;
+    }
+}
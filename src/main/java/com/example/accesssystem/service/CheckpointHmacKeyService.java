@@ -0,0 +1,61 @@
+package com.example.accesssystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Provisions HMAC-SHA256 checkpoint keys: validates the secret, encrypts it and stores it in
+ * {@code checkpoint_keys}. Key rings pick the change up through the reference data change feed.
+ */
+@Service
+public class CheckpointHmacKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckpointHmacKeyService.class);
+
+    static final int MIN_SECRET_BYTES = 32;
+    private static final int MAX_KID_LENGTH = 64;
+
+    private final CheckpointKeyRepository keyRepository;
+    private final CheckpointSecretCipher secretCipher;
+
+    CheckpointHmacKeyService(CheckpointKeyRepository keyRepository, CheckpointSecretCipher secretCipher) {
+        this.keyRepository = keyRepository;
+        this.secretCipher = secretCipher;
+    }
+
+    /**
+     * Creates or replaces the HMAC key {@code kid} of a checkpoint.
+     *
+     * @throws IllegalArgumentException if the secret is invalid or HMAC keys are disabled
+     */
+    public void provision(String checkpointCode, String kid, String secretBase64) {
+        if (!secretCipher.isEnabled()) {
+            throw new IllegalArgumentException("HMAC checkpoint keys are disabled: master key is not configured");
+        }
+        if (kid == null || kid.isBlank() || kid.length() > MAX_KID_LENGTH) {
+            throw new IllegalArgumentException("Key id must be 1-" + MAX_KID_LENGTH + " characters");
+        }
+        byte[] secret;
+        try {
+            secret = Base64.getDecoder().decode(secretBase64);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Secret must be base64-encoded");
+        }
+        try {
+            if (secret.length < MIN_SECRET_BYTES) {
+                throw new IllegalArgumentException("Secret must be at least " + MIN_SECRET_BYTES + " bytes");
+            }
+            keyRepository.upsertHmacKey(checkpointCode, kid, secretCipher.encrypt(secret, checkpointCode, kid));
+            log.info("HMAC key provisioned for checkpoint {} (kid={})", checkpointCode, kid);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to encrypt HMAC secret", e);
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+}
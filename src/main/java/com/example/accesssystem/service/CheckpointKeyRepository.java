@@ -1,27 +1,48 @@
 package com.example.accesssystem.service;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 /**
- * Repository for retrieving checkpoint public keys.
+ * Repository for retrieving checkpoint keys (public keys or encrypted HMAC secrets).
+ * A checkpoint may have several keys (a key ring), distinguished by {@code kid}.
  */
 public interface CheckpointKeyRepository {
     
     /**
-     * Retrieves the public key PEM for a checkpoint by its code.
+     * Retrieves all checkpoint keys (used for the initial key ring load).
      * 
-     * @param checkpointCode the checkpoint code
-     * @return Optional containing the public key PEM if found
+     * @return list of all keys ordered by checkpoint code, newest first
+     */
+    List<CheckpointKeyRecord> findAll();
+    
+    /**
+     * Retrieves all keys of the given checkpoints.
+     * 
+     * @param checkpointCodes the checkpoint codes
+     * @return list of keys ordered by checkpoint code, newest first
      */
-    Optional<String> findPublicKeyByCheckpointCode(String checkpointCode);
+    List<CheckpointKeyRecord> findByCheckpointCodes(Collection<String> checkpointCodes);
     
     /**
-     * Retrieves the key type (RSA or ECDSA) for a checkpoint.
+     * Creates or replaces an HMAC key of a checkpoint.
      * 
      * @param checkpointCode the checkpoint code
-     * @return Optional containing the key type if found
+     * @param kid the key identifier
+     * @param secretCiphertext the secret encrypted by {@link CheckpointSecretCipher}
      */
-    Optional<String> findKeyTypeByCheckpointCode(String checkpointCode);
+    void upsertHmacKey(String checkpointCode, String kid, byte[] secretCiphertext);
+    
+    /**
+     * @param publicKeyPem public key PEM (null for HMAC keys)
+     * @param secretCiphertext encrypted HMAC secret (null for asymmetric keys)
+     */
+    record CheckpointKeyRecord(String checkpointCode, String kid, String publicKeyPem, String keyType, Instant createdAt,
+                               byte[] secretCiphertext) {
+        
+        public CheckpointKeyRecord(String checkpointCode, String kid, String publicKeyPem, String keyType, Instant createdAt) {
+            this(checkpointCode, kid, publicKeyPem, keyType, createdAt, null);
+        }
+    }
 }
-
-
@@ -3,7 +3,11 @@ package com.example.accesssystem.service;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
 
 @Repository
 public class CheckpointKeyRepositoryImpl implements CheckpointKeyRepository {
@@ -15,25 +19,55 @@ public class CheckpointKeyRepositoryImpl implements CheckpointKeyRepository {
     }
     
     @Override
-    public Optional<String> findPublicKeyByCheckpointCode(String checkpointCode) {
-        String sql = "SELECT public_key_pem FROM checkpoint_keys WHERE checkpoint_code = ?";
-        try {
-            String key = jdbcTemplate.queryForObject(sql, String.class, checkpointCode);
-            return Optional.ofNullable(key);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+    public List<CheckpointKeyRecord> findAll() {
+        String sql = """
+            SELECT checkpoint_code, kid, public_key_pem, key_type, created_at, secret_ciphertext
+            FROM checkpoint_keys
+            ORDER BY checkpoint_code, created_at DESC
+            """;
+        return jdbcTemplate.query(sql, this::mapRecord);
     }
     
     @Override
-    public Optional<String> findKeyTypeByCheckpointCode(String checkpointCode) {
-        String sql = "SELECT key_type FROM checkpoint_keys WHERE checkpoint_code = ?";
-        try {
-            String keyType = jdbcTemplate.queryForObject(sql, String.class, checkpointCode);
-            return Optional.ofNullable(keyType);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
+    public List<CheckpointKeyRecord> findByCheckpointCodes(Collection<String> checkpointCodes) {
+        if (checkpointCodes.isEmpty()) {
+            return List.of();
         }
+        String sql = """
+            SELECT checkpoint_code, kid, public_key_pem, key_type, created_at, secret_ciphertext
+            FROM checkpoint_keys
+            WHERE checkpoint_code = ANY (?)
+            ORDER BY checkpoint_code, created_at DESC
+            """;
+        return jdbcTemplate.query(
+            sql,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", checkpointCodes.toArray())),
+            this::mapRecord
+        );
+    }
+    
+    @Override
+    public void upsertHmacKey(String checkpointCode, String kid, byte[] secretCiphertext) {
+        String sql = """
+            INSERT INTO checkpoint_keys (id, checkpoint_code, kid, key_type, secret_ciphertext)
+            VALUES (?, ?, ?, 'HMAC', ?)
+            ON CONFLICT (checkpoint_code, kid) DO UPDATE
+            SET key_type = 'HMAC',
+                public_key_pem = NULL,
+                secret_ciphertext = EXCLUDED.secret_ciphertext,
+                updated_at = NOW()
+            """;
+        jdbcTemplate.update(sql, UUID.randomUUID(), checkpointCode, kid, secretCiphertext);
+    }
+    
+    private CheckpointKeyRecord mapRecord(ResultSet rs, int rowNum) throws SQLException {
+        return new CheckpointKeyRecord(
+            rs.getString("checkpoint_code"),
+            rs.getString("kid"),
+            rs.getString("public_key_pem"),
+            rs.getString("key_type"),
+            rs.getTimestamp("created_at").toInstant(),
+            rs.getBytes("secret_ciphertext")
+        );
     }
 }
-
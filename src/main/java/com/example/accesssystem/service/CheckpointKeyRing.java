@@ -0,0 +1,71 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CheckpointKeyRepository.CheckpointKeyRecord;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Key rings of checkpoints ({@code checkpoint_keys}), kept in memory.
+ * HMAC secrets are decrypted once at load time and held only as prepared {@link HmacKey}s.
+ */
+@Component
+public class CheckpointKeyRing extends KeyRingCache<CheckpointKeyRecord> {
+
+    private final CheckpointKeyRepository keyRepository;
+    private final JcaInstancePool jcaPool;
+    private final CheckpointSecretCipher secretCipher;
+
+    CheckpointKeyRing(CheckpointKeyRepository keyRepository, ReferenceDataChangeFeed changeFeed, JcaInstancePool jcaPool,
+                      CheckpointSecretCipher secretCipher) {
+        super(changeFeed);
+        this.keyRepository = keyRepository;
+        this.jcaPool = jcaPool;
+        this.secretCipher = secretCipher;
+    }
+
+    /**
+     * Number of checkpoints that have at least one HMAC key.
+     */
+    public long hmacCheckpointCount() {
+        return countRings(ring -> ring.entries().stream().anyMatch(e -> e.hmacKey() != null));
+    }
+
+    @Override
+    public String name() {
+        return "checkpoint_keys";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("checkpoint_keys");
+    }
+
+    @Override
+    protected List<CheckpointKeyRecord> loadAll() {
+        return keyRepository.findAll();
+    }
+
+    @Override
+    protected List<CheckpointKeyRecord> loadByCodes(Set<String> codes) {
+        return keyRepository.findByCheckpointCodes(codes);
+    }
+
+    @Override
+    protected String codeOf(CheckpointKeyRecord row) {
+        return row.checkpointCode();
+    }
+
+    @Override
+    protected KeyRing.Entry toEntry(CheckpointKeyRecord row) throws Exception {
+        if (SignatureVerificationService.HMAC.equalsIgnoreCase(row.keyType())) {
+            byte[] secret = secretCipher.decrypt(row.secretCiphertext(), row.checkpointCode(), row.kid());
+            return new KeyRing.Entry(row.kid(), SignatureVerificationService.HMAC, HmacKey.ALGORITHM, null,
+                row.createdAt(), HmacKey.of(secret));
+        }
+        return new KeyRing.Entry(row.kid(), row.keyType(), null,
+            PemKeys.parsePublicKey(row.publicKeyPem(), jcaPool), row.createdAt());
+    }
+}
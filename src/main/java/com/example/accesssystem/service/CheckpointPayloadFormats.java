@@ -0,0 +1,85 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical payload format per checkpoint ({@code checkpoints.payload_format}), kept in memory.
+ * <p>
+ * Only checkpoints that do not use the legacy format are stored; unknown codes resolve to
+ * {@link CanonicalPayloadBuilder#FORMAT_V1}, so ingest never queries the database for the format.
+ * Checkpoints with sequence-based replay protection always sign {@link CanonicalPayloadBuilder#FORMAT_V3},
+ * whatever their {@code payload_format}: the sequence number must be covered by the signature.
+ */
+@Component
+public class CheckpointPayloadFormats implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckpointPayloadFormats.class);
+
+    private final CheckpointRepository checkpointRepository;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final CheckpointSequenceWindows sequenceWindows;
+    private final Map<String, Integer> nonDefault = new ConcurrentHashMap<>();
+
+    CheckpointPayloadFormats(CheckpointRepository checkpointRepository, ReferenceDataChangeFeed changeFeed,
+                             CheckpointSequenceWindows sequenceWindows) {
+        this.checkpointRepository = checkpointRepository;
+        this.changeFeed = changeFeed;
+        this.sequenceWindows = sequenceWindows;
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Canonical payload format the given checkpoint signs with.
+     */
+    public int formatOf(String checkpointCode) {
+        if (sequenceWindows.usesSequence(checkpointCode)) {
+            return CanonicalPayloadBuilder.FORMAT_V3;
+        }
+        return nonDefault.getOrDefault(checkpointCode, CanonicalPayloadBuilder.FORMAT_V1);
+    }
+
+    @Override
+    public String name() {
+        return "checkpoint_payload_formats";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("checkpoints");
+    }
+
+    @Override
+    public void reloadAll() {
+        Map<String, Integer> loaded = checkpointRepository.findAllPayloadFormats();
+        loaded.values().removeIf(format -> format == CanonicalPayloadBuilder.FORMAT_V1);
+        nonDefault.keySet().retainAll(loaded.keySet());
+        nonDefault.putAll(loaded);
+        log.info("Checkpoint payload formats loaded: {} checkpoints on non-default format", loaded.size());
+    }
+
+    @Override
+    public void reload(String table, Set<String> codes) {
+        Map<String, Integer> loaded = checkpointRepository.findPayloadFormatsByCodes(codes);
+        for (String code : codes) {
+            Integer format = loaded.get(code);
+            if (format != null && format != CanonicalPayloadBuilder.FORMAT_V1) {
+                nonDefault.put(code, format);
+            } else {
+                nonDefault.remove(code);
+            }
+        }
+    }
+}
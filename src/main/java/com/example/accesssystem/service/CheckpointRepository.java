@@ -1,7 +1,9 @@
 package com.example.accesssystem.service;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -63,6 +65,44 @@ public interface CheckpointRepository {
      */
     boolean update(UUID id, String newCode, UUID fromZoneId, UUID toZoneId);
     
+    /**
+     * Sets the canonical payload format the checkpoint signs with.
+     * 
+     * @param id the checkpoint ID
+     * @param payloadFormat {@code CanonicalPayloadBuilder.FORMAT_V1} or {@code FORMAT_V2}
+     * @return true if updated, false if not found
+     */
+    boolean updatePayloadFormat(UUID id, int payloadFormat);
+    
+    /**
+     * Returns the payload format of every checkpoint, keyed by code.
+     */
+    Map<String, Integer> findAllPayloadFormats();
+    
+    /**
+     * Returns the payload format of the given checkpoints, keyed by code (unknown codes are absent).
+     */
+    Map<String, Integer> findPayloadFormatsByCodes(Collection<String> codes);
+    
+    /**
+     * Sets the replay protection scheme of the checkpoint.
+     * 
+     * @param id the checkpoint ID
+     * @param scheme {@code nonce} or {@code sequence}
+     * @return true if updated, false if not found
+     */
+    boolean updateReplayProtection(UUID id, String scheme);
+    
+    /**
+     * Returns the replay protection scheme of every checkpoint, keyed by code.
+     */
+    Map<String, String> findAllReplayProtections();
+    
+    /**
+     * Returns the replay protection scheme of the given checkpoints, keyed by code (unknown codes are absent).
+     */
+    Map<String, String> findReplayProtectionsByCodes(Collection<String> codes);
+    
     /**
      * Deletes a checkpoint by ID.
      * 
@@ -74,14 +114,17 @@ public interface CheckpointRepository {
     /**
      * Checkpoint record from database.
      */
-    record CheckpointRecord(UUID id, String code, UUID fromZoneId, UUID toZoneId, Instant createdAt) {}
+    record CheckpointRecord(UUID id, String code, UUID fromZoneId, UUID toZoneId, Instant createdAt, int payloadFormat,
+                            String replayProtection) {}
+
+    /**
+     * Returns the zone edge of every checkpoint, for the in-memory zone topology.
+     */
+    List<CheckpointEdge> findAllEdges();
 
     /**
-     * Checks whether there is at least one checkpoint leading from the specified zone to the outside.
-     *
-     * @param fromZoneId the originating zone ID
-     * @return true if an exit checkpoint exists, false otherwise
+     * Edge of the zone graph: a checkpoint leading from one zone to another (null zone = OUT).
      */
-    boolean hasExit(UUID fromZoneId);
+    record CheckpointEdge(UUID id, String code, UUID fromZoneId, UUID toZoneId) {}
 }
 
@@ -4,7 +4,10 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -37,7 +40,7 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
     
     @Override
     public Optional<CheckpointRecord> findById(UUID id) {
-        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at FROM checkpoints WHERE id = ?";
+        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at, payload_format, replay_protection FROM checkpoints WHERE id = ?";
         try {
             CheckpointRecord result = jdbcTemplate.queryForObject(
                 sql,
@@ -46,7 +49,9 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
                     rs.getString("code"),
                     rs.getObject("from_zone_id", UUID.class),
                     rs.getObject("to_zone_id", UUID.class),
-                    rs.getTimestamp("created_at").toInstant()
+                    rs.getTimestamp("created_at").toInstant(),
+                    rs.getInt("payload_format"),
+                    rs.getString("replay_protection")
                 ),
                 id
             );
@@ -58,7 +63,7 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
     
     @Override
     public Optional<CheckpointRecord> findByCode(String code) {
-        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at FROM checkpoints WHERE code = ?";
+        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at, payload_format, replay_protection FROM checkpoints WHERE code = ?";
         try {
             CheckpointRecord result = jdbcTemplate.queryForObject(
                 sql,
@@ -67,7 +72,9 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
                     rs.getString("code"),
                     rs.getObject("from_zone_id", UUID.class),
                     rs.getObject("to_zone_id", UUID.class),
-                    rs.getTimestamp("created_at").toInstant()
+                    rs.getTimestamp("created_at").toInstant(),
+                    rs.getInt("payload_format"),
+                    rs.getString("replay_protection")
                 ),
                 code
             );
@@ -79,7 +86,7 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
     
     @Override
     public List<CheckpointRecord> findAll(int offset, int limit) {
-        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at FROM checkpoints ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = "SELECT id, code, from_zone_id, to_zone_id, created_at, payload_format, replay_protection FROM checkpoints ORDER BY created_at DESC LIMIT ? OFFSET ?";
         return jdbcTemplate.query(
             sql,
             (rs, rowNum) -> new CheckpointRecord(
@@ -87,7 +94,9 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
                 rs.getString("code"),
                 rs.getObject("from_zone_id", UUID.class),
                 rs.getObject("to_zone_id", UUID.class),
-                rs.getTimestamp("created_at").toInstant()
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getInt("payload_format"),
+                rs.getString("replay_protection")
             ),
             limit,
             offset
@@ -115,6 +124,70 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
         }
     }
     
+    @Override
+    public boolean updatePayloadFormat(UUID id, int payloadFormat) {
+        String sql = "UPDATE checkpoints SET payload_format = ? WHERE id = ?";
+        try {
+            return jdbcTemplate.update(sql, payloadFormat, id) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Unsupported payload format: " + payloadFormat, e);
+        }
+    }
+
+    @Override
+    public Map<String, Integer> findAllPayloadFormats() {
+        Map<String, Integer> result = new HashMap<>();
+        jdbcTemplate.query("SELECT code, payload_format FROM checkpoints",
+            rs -> { result.put(rs.getString("code"), rs.getInt("payload_format")); });
+        return result;
+    }
+
+    @Override
+    public Map<String, Integer> findPayloadFormatsByCodes(Collection<String> codes) {
+        Map<String, Integer> result = new HashMap<>();
+        if (codes.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query(
+            "SELECT code, payload_format FROM checkpoints WHERE code = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", codes.toArray())),
+            rs -> { result.put(rs.getString("code"), rs.getInt("payload_format")); }
+        );
+        return result;
+    }
+    
+    @Override
+    public boolean updateReplayProtection(UUID id, String scheme) {
+        String sql = "UPDATE checkpoints SET replay_protection = ? WHERE id = ?";
+        try {
+            return jdbcTemplate.update(sql, scheme, id) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Unsupported replay protection: " + scheme, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> findAllReplayProtections() {
+        Map<String, String> result = new HashMap<>();
+        jdbcTemplate.query("SELECT code, replay_protection FROM checkpoints",
+            rs -> { result.put(rs.getString("code"), rs.getString("replay_protection")); });
+        return result;
+    }
+
+    @Override
+    public Map<String, String> findReplayProtectionsByCodes(Collection<String> codes) {
+        Map<String, String> result = new HashMap<>();
+        if (codes.isEmpty()) {
+            return result;
+        }
+        jdbcTemplate.query(
+            "SELECT code, replay_protection FROM checkpoints WHERE code = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", codes.toArray())),
+            rs -> { result.put(rs.getString("code"), rs.getString("replay_protection")); }
+        );
+        return result;
+    }
+    
     @Override
     public boolean deleteById(UUID id) {
         String sql = "DELETE FROM checkpoints WHERE id = ?";
@@ -123,19 +196,16 @@ public class CheckpointRepositoryImpl implements CheckpointRepository {
     }
 
     @Override
-    public boolean hasExit(UUID fromZoneId) {
-        if (fromZoneId == null) {
-            return false;
-        }
-        String sql = """
-            SELECT EXISTS (
-                SELECT 1 FROM checkpoints
-                WHERE from_zone_id = ?
-                  AND to_zone_id IS NULL
+    public List<CheckpointEdge> findAllEdges() {
+        return jdbcTemplate.query(
+            "SELECT id, code, from_zone_id, to_zone_id FROM checkpoints ORDER BY created_at, id",
+            (rs, rowNum) -> new CheckpointEdge(
+                rs.getObject("id", UUID.class),
+                rs.getString("code"),
+                rs.getObject("from_zone_id", UUID.class),
+                rs.getObject("to_zone_id", UUID.class)
             )
-            """;
-        Boolean result = jdbcTemplate.queryForObject(sql, Boolean.class, fromZoneId);
-        return Boolean.TRUE.equals(result);
+        );
     }
 }
 
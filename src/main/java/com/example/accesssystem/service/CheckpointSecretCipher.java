@@ -0,0 +1,84 @@
+package com.example.accesssystem.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts checkpoint HMAC secrets at rest ({@code checkpoint_keys.secret_ciphertext}).
+ * <p>
+ * AES-GCM with a master key from {@code access-system.crypto.hmac.master-key} (base64, 16/24/32 bytes).
+ * Stored format: {@code version(1) | iv(12) | ciphertext+tag}. The checkpoint code and kid are bound
+ * as associated data, so a ciphertext copied to another row does not decrypt.
+ * Without a master key HMAC checkpoint keys are disabled.
+ */
+@Component
+public class CheckpointSecretCipher {
+
+    private static final byte VERSION = 1;
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKey masterKey;
+    private final SecureRandom random = new SecureRandom();
+
+    CheckpointSecretCipher(@Value("${access-system.crypto.hmac.master-key:}") String masterKeyBase64) {
+        if (masterKeyBase64 == null || masterKeyBase64.isBlank()) {
+            this.masterKey = null;
+            return;
+        }
+        byte[] raw = Base64.getDecoder().decode(masterKeyBase64.trim());
+        if (raw.length != 16 && raw.length != 24 && raw.length != 32) {
+            throw new IllegalStateException("access-system.crypto.hmac.master-key must be 16, 24 or 32 bytes, got " + raw.length);
+        }
+        this.masterKey = new SecretKeySpec(raw, "AES");
+    }
+
+    /**
+     * Whether HMAC checkpoint keys can be stored and loaded.
+     */
+    public boolean isEnabled() {
+        return masterKey != null;
+    }
+
+    public byte[] encrypt(byte[] secret, String checkpointCode, String kid) throws GeneralSecurityException {
+        requireEnabled();
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, iv));
+        cipher.updateAAD(associatedData(checkpointCode, kid));
+        byte[] sealed = cipher.doFinal(secret);
+        return ByteBuffer.allocate(1 + IV_LENGTH + sealed.length).put(VERSION).put(iv).put(sealed).array();
+    }
+
+    public byte[] decrypt(byte[] ciphertext, String checkpointCode, String kid) throws GeneralSecurityException {
+        requireEnabled();
+        if (ciphertext == null || ciphertext.length <= 1 + IV_LENGTH || ciphertext[0] != VERSION) {
+            throw new GeneralSecurityException("Unsupported HMAC secret format");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, masterKey, new GCMParameterSpec(TAG_BITS, ciphertext, 1, IV_LENGTH));
+        cipher.updateAAD(associatedData(checkpointCode, kid));
+        return cipher.doFinal(ciphertext, 1 + IV_LENGTH, ciphertext.length - 1 - IV_LENGTH);
+    }
+
+    private void requireEnabled() {
+        if (masterKey == null) {
+            throw new IllegalStateException("HMAC checkpoint keys are disabled: access-system.crypto.hmac.master-key is not set");
+        }
+    }
+
+    private static byte[] associatedData(String checkpointCode, String kid) {
+        return (checkpointCode + "|" + kid).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.accesssystem.service;
+
+import java.util.Map;
+
+/**
+ * Repository for the persisted high-water marks of sequence-based replay protection.
+ */
+public interface CheckpointSequenceRepository {
+    
+    /**
+     * Returns the stored high-water mark of every checkpoint, keyed by checkpoint code.
+     */
+    Map<String, Long> findAllHighWaterMarks();
+    
+    /**
+     * Stores high-water marks; a stored mark never moves backwards.
+     * 
+     * @param highWaterMarks highest accepted sequence per checkpoint code
+     */
+    void saveHighWaterMarks(Map<String, Long> highWaterMarks);
+}
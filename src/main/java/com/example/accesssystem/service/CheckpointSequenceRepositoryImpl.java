@@ -0,0 +1,42 @@
+package com.example.accesssystem.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+@Repository
+public class CheckpointSequenceRepositoryImpl implements CheckpointSequenceRepository {
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    CheckpointSequenceRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public Map<String, Long> findAllHighWaterMarks() {
+        Map<String, Long> result = new HashMap<>();
+        jdbcTemplate.query("SELECT checkpoint_code, high_water FROM checkpoint_sequences",
+            rs -> { result.put(rs.getString("checkpoint_code"), rs.getLong("high_water")); });
+        return result;
+    }
+    
+    @Override
+    public void saveHighWaterMarks(Map<String, Long> highWaterMarks) {
+        if (highWaterMarks.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO checkpoint_sequences (checkpoint_code, high_water) VALUES (?, ?) " +
+                     "ON CONFLICT (checkpoint_code) DO UPDATE " +
+                     "SET high_water = GREATEST(checkpoint_sequences.high_water, EXCLUDED.high_water), " +
+                     "updated_at = NOW()";
+        var marks = new ArrayList<>(highWaterMarks.entrySet());
+        jdbcTemplate.batchUpdate(sql, marks, marks.size(), (ps, mark) -> {
+            ps.setString(1, mark.getKey());
+            ps.setLong(2, mark.getValue());
+        });
+    }
+}
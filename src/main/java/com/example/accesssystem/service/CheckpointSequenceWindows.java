@@ -0,0 +1,151 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.SequenceReplayWindow.Verdict;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sequence-based replay protection for checkpoints with {@code checkpoints.replay_protection = 'sequence'}.
+ * <p>
+ * Each such checkpoint gets a {@link SequenceReplayWindow} in memory; accepting an event needs no
+ * database access. Only the high-water mark of each window is written to {@code checkpoint_sequences},
+ * periodically and on shutdown. After a restart a window starts at the stored mark with every lower
+ * sequence counted as used, so at most one persist interval of sequences could be replayed after a
+ * crash, and only while the event timestamp is still inside the skew window. Windows are per process:
+ * the scheme assumes one node (or sticky routing by checkpoint).
+ */
+@Component
+public class CheckpointSequenceWindows implements ReferenceDataListener {
+
+    public static final String SCHEME_SEQUENCE = "sequence";
+
+    private static final Logger log = LoggerFactory.getLogger(CheckpointSequenceWindows.class);
+
+    private final CheckpointRepository checkpointRepository;
+    private final CheckpointSequenceRepository sequenceRepository;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final int windowSize;
+    private final Set<String> sequenceCheckpoints = ConcurrentHashMap.newKeySet();
+    private final Map<String, SequenceReplayWindow> windows = new ConcurrentHashMap<>();
+    private final Map<String, Long> persisted = new ConcurrentHashMap<>();
+    private final Counter persistFailures;
+
+    CheckpointSequenceWindows(
+            CheckpointRepository checkpointRepository,
+            CheckpointSequenceRepository sequenceRepository,
+            ReferenceDataChangeFeed changeFeed,
+            MeterRegistry meterRegistry,
+            @Value("${access-system.anti-replay.sequence.window-size:1024}") int windowSize) {
+        if (windowSize <= 0 || windowSize % 64 != 0) {
+            throw new IllegalStateException("Sequence window size must be a positive multiple of 64: " + windowSize);
+        }
+        this.checkpointRepository = checkpointRepository;
+        this.sequenceRepository = sequenceRepository;
+        this.changeFeed = changeFeed;
+        this.windowSize = windowSize;
+        this.persistFailures = Counter.builder("anti_replay_sequence_persist_failures_total")
+            .description("Failed writes of sequence high-water marks to checkpoint_sequences")
+            .register(meterRegistry);
+        Gauge.builder("anti_replay_sequence_windows", windows, Map::size)
+            .description("Checkpoints with an in-memory sequence replay window")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        persisted.putAll(sequenceRepository.findAllHighWaterMarks());
+        changeFeed.register(this);
+    }
+
+    /**
+     * Whether the given checkpoint uses sequence numbers instead of stored nonces.
+     */
+    public boolean usesSequence(String checkpointCode) {
+        changeFeed.ensureFresh();
+        return sequenceCheckpoints.contains(checkpointCode);
+    }
+
+    /**
+     * Checks a sequence number of the given checkpoint and marks it as used. Call only for authenticated
+     * events (the sequence is signed in canonical payload format 3): an unsigned number near
+     * {@code Long.MAX_VALUE} would otherwise move the window, and the persisted high-water mark, for good.
+     */
+    public Verdict accept(String checkpointCode, long sequence) {
+        SequenceReplayWindow window = windows.computeIfAbsent(checkpointCode,
+            code -> new SequenceReplayWindow(windowSize, persisted.getOrDefault(code, -1L)));
+        return window.accept(sequence);
+    }
+
+    @Scheduled(fixedDelayString = "${access-system.anti-replay.sequence.persist-interval-ms:1000}")
+    void persistHighWaterMarks() {
+        Map<String, Long> changed = new HashMap<>();
+        windows.forEach((code, window) -> {
+            long mark = window.highWaterMark();
+            if (mark > persisted.getOrDefault(code, -1L)) {
+                changed.put(code, mark);
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        try {
+            sequenceRepository.saveHighWaterMarks(changed);
+            persisted.putAll(changed);
+        } catch (DataAccessException e) {
+            persistFailures.increment();
+            log.warn("Failed to persist sequence high-water marks of {} checkpoints: {}", changed.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void flush() {
+        persistHighWaterMarks();
+    }
+
+    @Override
+    public String name() {
+        return "checkpoint_sequence_windows";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("checkpoints");
+    }
+
+    @Override
+    public void reloadAll() {
+        Map<String, String> loaded = checkpointRepository.findAllReplayProtections();
+        loaded.values().removeIf(scheme -> !SCHEME_SEQUENCE.equals(scheme));
+        sequenceCheckpoints.retainAll(loaded.keySet());
+        sequenceCheckpoints.addAll(loaded.keySet());
+        log.info("Checkpoint replay protection loaded: {} checkpoints on sequence numbers", loaded.size());
+    }
+
+    @Override
+    public void reload(String table, Set<String> codes) {
+        Map<String, String> loaded = checkpointRepository.findReplayProtectionsByCodes(codes);
+        for (String code : codes) {
+            if (SCHEME_SEQUENCE.equals(loaded.get(code))) {
+                sequenceCheckpoints.add(code);
+            } else {
+                sequenceCheckpoints.remove(code);
+            }
+        }
+    }
+}
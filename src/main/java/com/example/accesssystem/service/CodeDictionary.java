@@ -0,0 +1,566 @@
+package com.example.accesssystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Immutable dictionary of dense {@code int} ids for the codes of one kind of reference entity
+ * (users, zones or checkpoints).
+ * <p>
+ * Ids are assigned in order of first appearance and never change or get reused: a renamed entity
+ * keeps its id, a deleted one leaves a hole. Consumers can therefore index primitive arrays and
+ * bitsets by id. Codes are stored UTF-8 encoded back to back in append-only byte pages; code → id and
+ * UUID → id lookups go through open-addressing {@code int} tables. An entry costs about
+ * {@code 40 bytes + code length}, against roughly 200 bytes for a {@code HashMap<String, Integer>}
+ * plus a {@code HashMap<UUID, Integer>}. Lookups of ASCII codes do not allocate.
+ * <p>
+ * Updates return a new snapshot; readers never lock. Updates are incremental: per-id data lives in
+ * chunks of {@value #CHUNK_IDS} ids that are copied only when one of their ids changes, new codes are
+ * appended to the last page, and new table entries are inserted in place. Only the newest snapshot of
+ * a line of updates may write to the shared pages and tables, and only where older snapshots do not
+ * look: past their last code byte, and into empty table slots, whose ids older snapshots do not know.
+ * Updating an older snapshot copies the shared parts first. Renamed and deleted entries leave stale
+ * bytes and table entries behind; both are dropped by an occasional rebuild, so a single update costs
+ * O(changed entries) amortized instead of O(size).
+ */
+public final class CodeDictionary {
+
+    /**
+     * Entity as loaded from the database.
+     */
+    public record Entry(UUID id, String code) {}
+
+    public static final int NOT_FOUND = -1;
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_IDS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_IDS - 1;
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_BYTES = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_BYTES - 1;
+
+    private static final CodeDictionary EMPTY = new CodeDictionary(null, 0, new byte[0][], 0, 0, 0,
+        new int[0][], new int[0][], new long[0][], 0, 0, new int[4], 0, new int[4], 0);
+
+    // Line of updates sharing pages and tables; head = revision of its newest snapshot (null: never shared)
+    private final Lineage lineage;
+    private final long revision;
+    // Code bytes; a position is page << PAGE_SHIFT | offset, codes never cross a page
+    private final byte[][] pages;
+    private final int bytesEnd;
+    private final long appendedBytes;
+    private final long liveBytes;
+    // Per id, in chunks of CHUNK_IDS: position and length of the code; position -1 = deleted
+    private final int[][] codeOffsets;
+    private final int[][] codeLengths;
+    // Per id, in chunks: most and least significant bits of the UUID
+    private final long[][] uuids;
+    private final int size;
+    private final int live;
+    // Open addressing, value = id + 1, 0 = empty slot; may hold stale ids, checked on lookup
+    private final int[] byCode;
+    private final int byCodeEntries;
+    private final int[] byUuid;
+    private final int byUuidEntries;
+
+    private CodeDictionary(Lineage lineage, long revision, byte[][] pages, int bytesEnd, long appendedBytes,
+                           long liveBytes, int[][] codeOffsets, int[][] codeLengths, long[][] uuids, int size,
+                           int live, int[] byCode, int byCodeEntries, int[] byUuid, int byUuidEntries) {
+        this.lineage = lineage;
+        this.revision = revision;
+        this.pages = pages;
+        this.bytesEnd = bytesEnd;
+        this.appendedBytes = appendedBytes;
+        this.liveBytes = liveBytes;
+        this.codeOffsets = codeOffsets;
+        this.codeLengths = codeLengths;
+        this.uuids = uuids;
+        this.size = size;
+        this.live = live;
+        this.byCode = byCode;
+        this.byCodeEntries = byCodeEntries;
+        this.byUuid = byUuid;
+        this.byUuidEntries = byUuidEntries;
+    }
+
+    public static CodeDictionary empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Id of the entity with the given code, or {@link #NOT_FOUND}.
+     */
+    public int idOf(String code) {
+        if (code == null) {
+            return NOT_FOUND;
+        }
+        byte[] utf8 = isAscii(code) ? null : code.getBytes(StandardCharsets.UTF_8);
+        int hash = utf8 == null ? hashAscii(code) : hashBytes(utf8, 0, utf8.length);
+        int mask = byCode.length - 1;
+        for (int slot = hash & mask; byCode[slot] != 0; slot = (slot + 1) & mask) {
+            int id = byCode[slot] - 1;
+            // Ids at or above size were added by a newer snapshot
+            if (id < size && (utf8 == null ? equalsAscii(id, code) : equalsBytes(id, utf8))) {
+                return id;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Id of the entity with the given database id, or {@link #NOT_FOUND}.
+     */
+    public int idOf(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int mask = byUuid.length - 1;
+        for (int slot = hashUuid(msb, lsb) & mask; byUuid[slot] != 0; slot = (slot + 1) & mask) {
+            int id = byUuid[slot] - 1;
+            if (id < size && offsetOf(id) >= 0) {
+                long[] chunk = uuids[id >>> CHUNK_SHIFT];
+                int index = 2 * (id & CHUNK_MASK);
+                if (chunk[index] == msb && chunk[index + 1] == lsb) {
+                    return id;
+                }
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Code of the given id, or {@code null} if the id is unknown or deleted.
+     */
+    public String codeOf(int id) {
+        if (id < 0 || id >= size) {
+            return null;
+        }
+        int position = offsetOf(id);
+        if (position < 0) {
+            return null;
+        }
+        return new String(pages[position >>> PAGE_SHIFT], position & PAGE_MASK, lengthOf(id), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Database id of the given id, or {@code null} if the id is unknown or deleted.
+     */
+    public UUID uuidOf(int id) {
+        if (id < 0 || id >= size || offsetOf(id) < 0) {
+            return null;
+        }
+        long[] chunk = uuids[id >>> CHUNK_SHIFT];
+        int index = 2 * (id & CHUNK_MASK);
+        return new UUID(chunk[index], chunk[index + 1]);
+    }
+
+    /**
+     * Number of ids ever assigned: every id is below this value.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of entities that are not deleted.
+     */
+    public int liveCount() {
+        return live;
+    }
+
+    /**
+     * Approximate heap footprint of this snapshot.
+     */
+    public long footprintBytes() {
+        long bytes = 4L * (byCode.length + byUuid.length) + 8L * (pages.length + 3L * codeOffsets.length);
+        for (byte[] page : pages) {
+            bytes += page.length;
+        }
+        for (int chunk = 0; chunk < codeOffsets.length; chunk++) {
+            bytes += 4L * (codeOffsets[chunk].length + codeLengths[chunk].length) + 8L * uuids[chunk].length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Whether the ids of chunk {@code chunk} (ids {@code chunk * CHUNK_IDS} up to the next chunk) have
+     * the same codes here as in {@code other}. True when neither snapshot changed them since the two
+     * parted, so per-id work derived from the other snapshot can be kept for these ids.
+     */
+    boolean sameChunk(CodeDictionary other, int chunk) {
+        return chunk < codeOffsets.length && chunk < other.codeOffsets.length
+            && codeOffsets[chunk] == other.codeOffsets[chunk] && codeLengths[chunk] == other.codeLengths[chunk];
+    }
+
+    /**
+     * Returns a snapshot with the given entities added or renamed and the given database ids deleted.
+     */
+    public CodeDictionary with(Collection<Entry> upserts, Collection<UUID> deletions) {
+        if (upserts.isEmpty() && deletions.isEmpty()) {
+            return this;
+        }
+        Update update = new Update();
+        for (UUID uuid : deletions) {
+            int id = idOf(uuid);
+            if (id >= 0) {
+                update.delete(id);
+            }
+        }
+        Map<UUID, Integer> added = new HashMap<>();
+        for (Entry entry : upserts) {
+            int id = idOf(entry.id());
+            if (id < 0) {
+                id = added.getOrDefault(entry.id(), NOT_FOUND);
+            }
+            byte[] code = entry.code().getBytes(StandardCharsets.UTF_8);
+            if (id < 0) {
+                id = update.add(entry.id(), code);
+                added.put(entry.id(), id);
+            } else {
+                update.put(id, code);
+            }
+        }
+        return update.finish();
+    }
+
+    /**
+     * Returns a snapshot containing exactly the given entities, keeping the ids of known ones.
+     */
+    public CodeDictionary withExactly(Collection<Entry> entries) {
+        Set<UUID> present = new HashSet<>();
+        for (Entry entry : entries) {
+            present.add(entry.id());
+        }
+        Set<UUID> deletions = new HashSet<>();
+        for (int id = 0; id < size; id++) {
+            UUID uuid = uuidOf(id);
+            if (uuid != null && !present.contains(uuid)) {
+                deletions.add(uuid);
+            }
+        }
+        return with(entries, deletions);
+    }
+
+    private int offsetOf(int id) {
+        return codeOffsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+    }
+
+    private int lengthOf(int id) {
+        return codeLengths[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+    }
+
+    private boolean equalsAscii(int id, String code) {
+        int position = offsetOf(id);
+        if (position < 0 || lengthOf(id) != code.length()) {
+            return false;
+        }
+        byte[] page = pages[position >>> PAGE_SHIFT];
+        int offset = position & PAGE_MASK;
+        for (int i = 0; i < code.length(); i++) {
+            if (page[offset + i] != (byte) code.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean equalsBytes(int id, byte[] code) {
+        int position = offsetOf(id);
+        if (position < 0) {
+            return false;
+        }
+        int offset = position & PAGE_MASK;
+        return Arrays.equals(pages[position >>> PAGE_SHIFT], offset, offset + lengthOf(id), code, 0, code.length);
+    }
+
+    private static int tableCapacity(int entries) {
+        // Below half full after a rebuild, rebuilt again above two thirds
+        return Integer.highestOneBit(Math.max(4, entries * 2)) << 1;
+    }
+
+    private static void insert(int[] table, int hash, int id) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = id + 1;
+    }
+
+    private static boolean isAscii(String code) {
+        for (int i = 0; i < code.length(); i++) {
+            if (code.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a over the UTF-8 bytes; for ASCII codes the chars are the bytes
+    private static int hashAscii(String code) {
+        int h = 0x811c9dc5;
+        for (int i = 0; i < code.length(); i++) {
+            h = (h ^ code.charAt(i)) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int hashBytes(byte[] bytes, int offset, int length) {
+        int h = 0x811c9dc5;
+        for (int i = offset; i < offset + length; i++) {
+            h = (h ^ (bytes[i] & 0xff)) * 0x01000193;
+        }
+        return mix(h);
+    }
+
+    private static int hashUuid(long msb, long lsb) {
+        long h = msb * 0x9e3779b97f4a7c15L ^ lsb;
+        return mix((int) (h ^ (h >>> 32)));
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private static final class Lineage {
+        final AtomicLong head = new AtomicLong();
+    }
+
+    /**
+     * Changes on top of this snapshot. Chunks are copied on first write; pages and tables are written in
+     * place when this snapshot is the newest of its lineage, otherwise copied first.
+     */
+    private final class Update {
+
+        private final Lineage lineage;
+        private final long revision;
+        private final boolean inPlace;
+        private boolean changed;
+        private byte[][] pages;
+        private int bytesEnd;
+        private long appendedBytes;
+        private long liveBytes;
+        private int[][] offsets;
+        private int[][] lengths;
+        private long[][] ids;
+        // Chunks already copied by this update
+        private boolean[] owned;
+        private int size;
+        private int live;
+        private int[] byCode;
+        private int byCodeEntries;
+        private int[] byUuid;
+        private int byUuidEntries;
+
+        Update() {
+            Lineage current = CodeDictionary.this.lineage;
+            long currentRevision = CodeDictionary.this.revision;
+            boolean newest = current != null && current.head.compareAndSet(currentRevision, currentRevision + 1);
+            this.inPlace = newest;
+            this.lineage = newest ? current : new Lineage();
+            this.revision = newest ? currentRevision + 1 : 0;
+            this.pages = CodeDictionary.this.pages.clone();
+            this.byCode = newest ? CodeDictionary.this.byCode : CodeDictionary.this.byCode.clone();
+            this.byUuid = newest ? CodeDictionary.this.byUuid : CodeDictionary.this.byUuid.clone();
+            if (!newest && pages.length > 0) {
+                // Another snapshot may append to the last page
+                pages[pages.length - 1] = pages[pages.length - 1].clone();
+            }
+            this.bytesEnd = CodeDictionary.this.bytesEnd;
+            this.appendedBytes = CodeDictionary.this.appendedBytes;
+            this.liveBytes = CodeDictionary.this.liveBytes;
+            this.offsets = codeOffsets.clone();
+            this.lengths = codeLengths.clone();
+            this.ids = uuids.clone();
+            this.owned = new boolean[offsets.length];
+            this.size = CodeDictionary.this.size;
+            this.live = CodeDictionary.this.live;
+            this.byCodeEntries = CodeDictionary.this.byCodeEntries;
+            this.byUuidEntries = CodeDictionary.this.byUuidEntries;
+        }
+
+        void delete(int id) {
+            int position = offsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+            if (position < 0) {
+                return;
+            }
+            own(id);
+            changed = true;
+            liveBytes -= lengths[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+            offsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK] = -1;
+            live--;
+        }
+
+        int add(UUID uuid, byte[] code) {
+            int id = size++;
+            own(id);
+            ids[id >>> CHUNK_SHIFT][2 * (id & CHUNK_MASK)] = uuid.getMostSignificantBits();
+            ids[id >>> CHUNK_SHIFT][2 * (id & CHUNK_MASK) + 1] = uuid.getLeastSignificantBits();
+            offsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK] = -1;
+            put(id, code);
+            return id;
+        }
+
+        void put(int id, byte[] code) {
+            int chunk = id >>> CHUNK_SHIFT;
+            int index = id & CHUNK_MASK;
+            int position = offsets[chunk][index];
+            if (position >= 0 && Arrays.equals(pages[position >>> PAGE_SHIFT], position & PAGE_MASK,
+                    (position & PAGE_MASK) + lengths[chunk][index], code, 0, code.length)) {
+                return;
+            }
+            own(id);
+            changed = true;
+            if (position >= 0) {
+                liveBytes -= lengths[chunk][index];
+            } else {
+                live++;
+                // New or revived: its UUID entry may be missing after a table rebuild
+                insertUuid(id);
+            }
+            // The old bytes of a renamed entry become garbage (see compact below)
+            offsets[chunk][index] = append(code);
+            lengths[chunk][index] = code.length;
+            liveBytes += code.length;
+            insertCode(id, code);
+        }
+
+        CodeDictionary finish() {
+            if (!changed) {
+                // Nothing was written: this snapshot stays the newest of its lineage
+                if (inPlace) {
+                    lineage.head.compareAndSet(revision, revision - 1);
+                }
+                return CodeDictionary.this;
+            }
+            if (appendedBytes > 2 * liveBytes + 1024) {
+                compact();
+            }
+            // The last chunk is kept exactly as long as needed
+            int chunks = (size + CHUNK_MASK) >>> CHUNK_SHIFT;
+            offsets = Arrays.copyOf(offsets, chunks);
+            lengths = Arrays.copyOf(lengths, chunks);
+            ids = Arrays.copyOf(ids, chunks);
+            int tail = size - ((chunks - 1) << CHUNK_SHIFT);
+            if (chunks > 0 && offsets[chunks - 1].length != tail) {
+                offsets[chunks - 1] = Arrays.copyOf(offsets[chunks - 1], tail);
+                lengths[chunks - 1] = Arrays.copyOf(lengths[chunks - 1], tail);
+                ids[chunks - 1] = Arrays.copyOf(ids[chunks - 1], 2 * tail);
+            }
+            return new CodeDictionary(lineage, revision, pages, bytesEnd, appendedBytes, liveBytes,
+                offsets, lengths, ids, size, live, byCode, byCodeEntries, byUuid, byUuidEntries);
+        }
+
+        private void own(int id) {
+            int chunk = id >>> CHUNK_SHIFT;
+            if (chunk >= offsets.length) {
+                int chunks = Math.max(chunk + 1, offsets.length + (offsets.length >> 1));
+                offsets = Arrays.copyOf(offsets, chunks);
+                lengths = Arrays.copyOf(lengths, chunks);
+                ids = Arrays.copyOf(ids, chunks);
+                owned = Arrays.copyOf(owned, chunks);
+            }
+            if (owned[chunk]) {
+                return;
+            }
+            owned[chunk] = true;
+            if (offsets[chunk] == null) {
+                offsets[chunk] = new int[CHUNK_IDS];
+                lengths[chunk] = new int[CHUNK_IDS];
+                ids[chunk] = new long[2 * CHUNK_IDS];
+            } else {
+                offsets[chunk] = Arrays.copyOf(offsets[chunk], CHUNK_IDS);
+                lengths[chunk] = Arrays.copyOf(lengths[chunk], CHUNK_IDS);
+                ids[chunk] = Arrays.copyOf(ids[chunk], 2 * CHUNK_IDS);
+            }
+        }
+
+        private int append(byte[] code) {
+            if (code.length > PAGE_BYTES) {
+                throw new IllegalArgumentException("Code longer than " + PAGE_BYTES + " bytes");
+            }
+            int page = bytesEnd >>> PAGE_SHIFT;
+            int offset = bytesEnd & PAGE_MASK;
+            if (offset + code.length > PAGE_BYTES) {
+                page++;
+                offset = 0;
+            }
+            if (page >= pages.length) {
+                pages = Arrays.copyOf(pages, page + 1);
+                pages[page] = new byte[Math.min(PAGE_BYTES, Math.max(code.length, 64))];
+            } else if (pages[page].length < offset + code.length) {
+                int grown = pages[page].length + (pages[page].length >> 1) + 64;
+                pages[page] = Arrays.copyOf(pages[page], Math.min(PAGE_BYTES, Math.max(offset + code.length, grown)));
+            }
+            System.arraycopy(code, 0, pages[page], offset, code.length);
+            int position = page << PAGE_SHIFT | offset;
+            bytesEnd = position + code.length;
+            appendedBytes += code.length;
+            return position;
+        }
+
+        private void compact() {
+            // Rewrites every live code into fresh pages: offsets of all chunks change
+            byte[][] compacted = new byte[0][];
+            byte[][] old = pages;
+            pages = compacted;
+            bytesEnd = 0;
+            appendedBytes = 0;
+            for (int id = 0; id < size; id++) {
+                int position = offsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+                if (position >= 0) {
+                    int length = lengths[id >>> CHUNK_SHIFT][id & CHUNK_MASK];
+                    own(id);
+                    offsets[id >>> CHUNK_SHIFT][id & CHUNK_MASK] = append(
+                        Arrays.copyOfRange(old[position >>> PAGE_SHIFT], position & PAGE_MASK, (position & PAGE_MASK) + length));
+                }
+            }
+        }
+
+        private void insertCode(int id, byte[] code) {
+            if ((byCodeEntries + 1) * 3 > byCode.length * 2) {
+                byCode = new int[tableCapacity(live)];
+                byCodeEntries = 0;
+                for (int other = 0; other < size; other++) {
+                    int position = offsets[other >>> CHUNK_SHIFT][other & CHUNK_MASK];
+                    if (position >= 0 && other != id) {
+                        insert(byCode, hashBytes(pages[position >>> PAGE_SHIFT], position & PAGE_MASK,
+                            lengths[other >>> CHUNK_SHIFT][other & CHUNK_MASK]), other);
+                        byCodeEntries++;
+                    }
+                }
+            }
+            insert(byCode, hashBytes(code, 0, code.length), id);
+            byCodeEntries++;
+        }
+
+        private void insertUuid(int id) {
+            if ((byUuidEntries + 1) * 3 > byUuid.length * 2) {
+                byUuid = new int[tableCapacity(live)];
+                byUuidEntries = 0;
+                for (int other = 0; other < size; other++) {
+                    if (offsets[other >>> CHUNK_SHIFT][other & CHUNK_MASK] >= 0 && other != id) {
+                        insertUuidEntry(other);
+                    }
+                }
+            }
+            insertUuidEntry(id);
+        }
+
+        private void insertUuidEntry(int id) {
+            long[] chunk = ids[id >>> CHUNK_SHIFT];
+            int index = 2 * (id & CHUNK_MASK);
+            insert(byUuid, hashUuid(chunk[index], chunk[index + 1]), id);
+            byUuidEntries++;
+        }
+    }
+}
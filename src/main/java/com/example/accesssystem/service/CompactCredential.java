@@ -0,0 +1,132 @@
+package com.example.accesssystem.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact binary user credential, an alternative to JWT for {@code userToken}.
+ * <p>
+ * Text form: {@code c1.} + base64url (no padding) of
+ * <pre>
+ *   version    u8   = 1
+ *   algorithm  u8   1 = Ed25519 (64-byte tag)
+ *   issuer     u8 length + UTF-8 issuer code
+ *   kid        u8 length + UTF-8 key id (0 = no kid)
+ *   user       u8 length + UTF-8 user code
+ *   expiresAt  u32  epoch seconds, big endian
+ *   tag        signature over all preceding bytes
+ * </pre>
+ * A typical credential is about 130 characters instead of 400+ for an RS256 JWT, and is read
+ * with a few bounds-checked byte reads: no JSON, no claim maps.
+ */
+public record CompactCredential(
+    int algorithm,
+    String issuer,
+    String keyId,
+    String userCode,
+    long expiresAt,
+    byte[] signingInput,
+    byte[] tag
+) {
+
+    public static final String PREFIX = "c1.";
+    public static final int VERSION = 1;
+    public static final int ALG_ED25519 = 1;
+    static final int ED25519_TAG_LENGTH = 64;
+
+    /**
+     * Whether the token uses the compact format (JWTs start with a base64url JSON header instead).
+     */
+    public static boolean isCompact(String token) {
+        return token != null && token.startsWith(PREFIX);
+    }
+
+    /**
+     * Parses a compact credential without verifying it.
+     *
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static CompactCredential parse(String token) {
+        if (!isCompact(token)) {
+            throw new IllegalArgumentException("not a compact credential");
+        }
+        byte[] raw;
+        try {
+            raw = Base64.getUrlDecoder().decode(token.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("credential is not base64url");
+        }
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        try {
+            int version = Byte.toUnsignedInt(in.get());
+            if (version != VERSION) {
+                throw new IllegalArgumentException("unsupported credential version " + version);
+            }
+            int algorithm = Byte.toUnsignedInt(in.get());
+            if (algorithm != ALG_ED25519) {
+                throw new IllegalArgumentException("unsupported credential algorithm " + algorithm);
+            }
+            String issuer = readString(in);
+            String kid = readString(in);
+            String user = readString(in);
+            long expiresAt = Integer.toUnsignedLong(in.getInt());
+            int signed = in.position();
+            if (raw.length - signed != ED25519_TAG_LENGTH) {
+                throw new IllegalArgumentException("invalid tag length");
+            }
+            return new CompactCredential(algorithm, issuer, kid.isEmpty() ? null : kid, user, expiresAt,
+                Arrays.copyOfRange(raw, 0, signed), Arrays.copyOfRange(raw, signed, raw.length));
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IllegalArgumentException("credential is truncated");
+        }
+    }
+
+    /**
+     * Bytes an issuer signs for a credential (issuer side and tests).
+     */
+    public static byte[] signingInput(String issuer, String keyId, String userCode, long expiresAt) {
+        byte[] issuerBytes = utf8(issuer, "issuer");
+        byte[] kidBytes = utf8(keyId != null ? keyId : "", "kid");
+        byte[] userBytes = utf8(userCode, "user");
+        if (expiresAt < 0 || expiresAt > 0xFFFFFFFFL) {
+            throw new IllegalArgumentException("expiresAt out of range");
+        }
+        return ByteBuffer.allocate(2 + 3 + issuerBytes.length + kidBytes.length + userBytes.length + 4)
+            .put((byte) VERSION)
+            .put((byte) ALG_ED25519)
+            .put((byte) issuerBytes.length).put(issuerBytes)
+            .put((byte) kidBytes.length).put(kidBytes)
+            .put((byte) userBytes.length).put(userBytes)
+            .putInt((int) expiresAt)
+            .array();
+    }
+
+    /**
+     * Text form of a signed credential (issuer side and tests).
+     */
+    public static String format(byte[] signingInput, byte[] tag) {
+        byte[] raw = Arrays.copyOf(signingInput, signingInput.length + tag.length);
+        System.arraycopy(tag, 0, raw, signingInput.length, tag.length);
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Byte.toUnsignedInt(in.get());
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("credential is truncated");
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static byte[] utf8(String value, String field) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException(field + " is longer than 255 bytes");
+        }
+        return bytes;
+    }
+}
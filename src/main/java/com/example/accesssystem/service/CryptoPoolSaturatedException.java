@@ -0,0 +1,16 @@
+package com.example.accesssystem.service;
+
+/**
+ * Thrown when the crypto verification pool cannot accept or complete work in time.
+ * Mapped to 503 Service Unavailable so that callers back off instead of piling up.
+ */
+public class CryptoPoolSaturatedException extends RuntimeException {
+
+    public CryptoPoolSaturatedException(String message) {
+        super(message);
+    }
+
+    public CryptoPoolSaturatedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.accesssystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bulkhead for CPU-bound verification work (checkpoint signatures, issuer tokens).
+ * <p>
+ * Request threads hand verification off to a fixed pool sized to the number of cores and
+ * block until the result is ready. The pool has a bounded queue: when it is full, new work
+ * is rejected immediately with {@link CryptoPoolSaturatedException} instead of tying up
+ * request threads (and, further down the pipeline, DB connections) behind a burst of
+ * forged or replayed traffic.
+ * <p>
+ * Metrics:
+ * <ul>
+ *   <li>{@code executor_*{name="crypto_verification"}} - pool size, active threads, queued tasks</li>
+ *   <li>{@code crypto_pool_rejected_total{reason}} - work shed because the queue was full or timed out</li>
+ *   <li>{@code crypto_pool_queue_wait} - time between hand-off and start of execution</li>
+ * </ul>
+ */
+@Component
+public class CryptoVerificationExecutor implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(CryptoVerificationExecutor.class);
+
+    static final String POOL_NAME = "crypto_verification";
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Timer queueWait;
+
+    CryptoVerificationExecutor(
+            @Value("${access-system.crypto.pool-size:0}") int poolSize,
+            @Value("${access-system.crypto.queue-capacity:256}") int queueCapacity,
+            @Value("${access-system.crypto.timeout-ms:2000}") long timeoutMs,
+            MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("access-system.crypto.queue-capacity must be positive");
+        }
+        this.timeoutMs = timeoutMs;
+        this.executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CryptoThreadFactory(),
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.executor.prestartAllCoreThreads();
+
+        new ExecutorServiceMetrics(executor, POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+        this.rejectedQueueFull = Counter.builder("crypto_pool_rejected_total")
+            .description("Verification tasks shed by the crypto pool")
+            .tag("reason", "queue_full")
+            .register(meterRegistry);
+        this.rejectedTimeout = Counter.builder("crypto_pool_rejected_total")
+            .description("Verification tasks shed by the crypto pool")
+            .tag("reason", "timeout")
+            .register(meterRegistry);
+        this.queueWait = Timer.builder("crypto_pool_queue_wait")
+            .description("Time verification tasks spend queued before a crypto worker picks them up")
+            .register(meterRegistry);
+
+        log.info("Crypto verification pool started: threads={}, queueCapacity={}, timeoutMs={}",
+            threads, queueCapacity, timeoutMs);
+    }
+
+    /**
+     * Cheap pre-check used before side effects (e.g. consuming a nonce): returns false when the
+     * queue is already full. The check is advisory; {@link #verify} may still reject under a race.
+     */
+    public boolean hasCapacity() {
+        return executor.getQueue().remainingCapacity() > 0;
+    }
+
+    /**
+     * Runs the given verification on the crypto pool and waits for its result.
+     *
+     * @throws CryptoPoolSaturatedException if the queue is full or the result is not ready within the timeout
+     */
+    public <T> T verify(String operation, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw new CryptoPoolSaturatedException("Crypto verification pool is saturated (" + operation + ")", e);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejectedTimeout.increment();
+            throw new CryptoPoolSaturatedException("Crypto verification timed out (" + operation + ")", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CryptoPoolSaturatedException("Interrupted while waiting for " + operation, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof Error err) {
+                throw err;
+            }
+            throw new IllegalStateException(operation + " failed", cause);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private static final class CryptoThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "crypto-verify-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
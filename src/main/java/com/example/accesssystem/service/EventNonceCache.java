@@ -0,0 +1,197 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.EventNonceRepository.NonceRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Front of the anti-replay nonce store.
+ * <p>
+ * Used nonces are kept in a {@link TimeBucketedNonceCache} whose buckets are one timestamp-skew window
+ * wide. A nonce only has to be remembered while an event with its timestamp could still pass the
+ * timestamp check of some ingest endpoint; {@link AntiReplayService} derives the expiry from that.
+ * <p>
+ * Modes ({@code access-system.anti-replay.nonce-cache.mode}):
+ * <ul>
+ *   <li>{@code database} (default): the cache answers known replays locally; every new nonce is still
+ *       checked and stored in {@code event_nonces}, which is shared by all nodes, before it is accepted.</li>
+ *   <li>{@code memory}: the cache is authoritative. Accepted nonces are written to {@code event_nonces}
+ *       in batches in the background and loaded back on startup, so a restart loses at most one persist
+ *       interval of replay history. Single-node deployments only: a nonce another node already stored is
+ *       only counted, not rejected. At most {@code persist-max-pending} nonces wait for the database;
+ *       when the queue is full (database down) new nonces are refused with
+ *       {@link NonceStoreUnavailableException} instead of growing the queue.</li>
+ *   <li>{@code mapped}: nonces live in a {@link MappedNonceTable}, an off-heap hash table in a local
+ *       file. Nothing is written to {@code event_nonces} and nothing is loaded on startup: the file
+ *       already holds the replay history. Single-node deployments only.</li>
+ * </ul>
+ */
+@Component
+public class EventNonceCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EventNonceCache.class);
+
+    private final EventNonceRepository eventNonceRepository;
+    private final TimeBucketedNonceCache cache;
+    private final Mode mode;
+    private final MappedNonceTable mappedTable;
+    private final int persistBatchSize;
+    private final long persistMaxPending;
+    private final Queue<NonceRecord> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final Counter persistFailures;
+    private final Counter persistConflicts;
+
+    EventNonceCache(
+            EventNonceRepository eventNonceRepository,
+            MeterRegistry meterRegistry,
+            @Value("${access-system.anti-replay.timestamp-skew-seconds:300}") long timestampSkewSeconds,
+            @Value("${access-system.anti-replay.nonce-cache.mode:database}") String mode,
+            @Value("${access-system.anti-replay.nonce-cache.expected-per-bucket:65536}") int expectedPerBucket,
+            @Value("${access-system.anti-replay.nonce-cache.persist-batch-size:500}") int persistBatchSize,
+            @Value("${access-system.anti-replay.nonce-cache.persist-max-pending:100000}") long persistMaxPending,
+            @Value("${access-system.anti-replay.nonce-cache.mapped.file:data/event-nonces.bin}") String mappedFile,
+            @Value("${access-system.anti-replay.nonce-cache.mapped.capacity:4194304}") int mappedCapacity) {
+        this.eventNonceRepository = eventNonceRepository;
+        this.cache = new TimeBucketedNonceCache(Math.max(1, timestampSkewSeconds), expectedPerBucket);
+        this.mode = switch (mode.trim().toLowerCase()) {
+            case "memory" -> Mode.MEMORY;
+            case "database" -> Mode.DATABASE;
+            case "mapped" -> Mode.MAPPED;
+            default -> throw new IllegalStateException("Unknown anti-replay nonce cache mode: " + mode);
+        };
+        this.mappedTable = this.mode == Mode.MAPPED ? new MappedNonceTable(Path.of(mappedFile), mappedCapacity) : null;
+        this.persistBatchSize = Math.max(1, persistBatchSize);
+        this.persistMaxPending = Math.max(1, persistMaxPending);
+        this.persistFailures = Counter.builder("anti_replay_nonce_persist_failures_total")
+            .description("Failed background writes of nonces to event_nonces")
+            .register(meterRegistry);
+        this.persistConflicts = Counter.builder("anti_replay_nonce_persist_conflicts_total")
+            .description("Nonces accepted by the in-memory cache that event_nonces already held")
+            .register(meterRegistry);
+        Gauge.builder("anti_replay_nonce_cache_entries", cache, TimeBucketedNonceCache::size)
+            .description("Nonces held in the in-memory anti-replay cache")
+            .register(meterRegistry);
+        Gauge.builder("anti_replay_nonce_cache_buckets", cache, TimeBucketedNonceCache::bucketCount)
+            .description("Live expiry buckets of the in-memory anti-replay cache")
+            .register(meterRegistry);
+        Gauge.builder("anti_replay_nonce_persist_pending", pendingCount, AtomicLong::get)
+            .description("Accepted nonces not yet written to event_nonces")
+            .register(meterRegistry);
+        if (mappedTable != null) {
+            Gauge.builder("anti_replay_nonce_mapped_slots_used", mappedTable, MappedNonceTable::occupiedSlots)
+                .description("Used slots (live or expired) of the memory-mapped nonce table")
+                .register(meterRegistry);
+            Gauge.builder("anti_replay_nonce_mapped_slots_capacity", mappedTable, MappedNonceTable::capacity)
+                .description("Slots of the memory-mapped nonce table")
+                .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void warmUp() {
+        if (mode == Mode.MAPPED) {
+            log.info("Anti-replay nonce table mapped: {} of {} slots used",
+                mappedTable.occupiedSlots(), mappedTable.capacity());
+            return;
+        }
+        if (mode == Mode.DATABASE) {
+            return;
+        }
+        long now = Instant.now().getEpochSecond();
+        long[] loaded = {0};
+        eventNonceRepository.forEachActive(nonce -> {
+            cache.add(nonce.eventId(), nonce.expiresAt().getEpochSecond(), now);
+            loaded[0]++;
+        });
+        log.info("Anti-replay nonce cache loaded {} active nonces", loaded[0]);
+    }
+
+    /**
+     * Claims a nonce: returns true if it has not been used before and records it until {@code expiresAt}.
+     *
+     * @throws NonceStoreUnavailableException if the nonce cannot be recorded (memory mode, queue full)
+     */
+    public boolean claim(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt) {
+        long now = Instant.now().getEpochSecond();
+        if (mode == Mode.MAPPED) {
+            return mappedTable.claim(eventId, expiresAt.getEpochSecond(), now);
+        }
+        if (mode == Mode.DATABASE) {
+            if (cache.contains(eventId, now)) {
+                return false;
+            }
+            // Other nodes may have seen it: the shared table decides in one atomic insert
+            boolean claimed = eventNonceRepository.claim(eventId, checkpointId, eventTimestamp, expiresAt);
+            cache.add(eventId, expiresAt.getEpochSecond(), now);
+            return claimed;
+        }
+        if (pendingCount.get() >= persistMaxPending) {
+            // Fail closed: an accepted nonce that can never reach event_nonces would be lost on restart
+            throw new NonceStoreUnavailableException(
+                "Anti-replay nonce store is unavailable: " + pendingCount.get() + " nonces wait for the database");
+        }
+        if (!cache.add(eventId, expiresAt.getEpochSecond(), now)) {
+            return false;
+        }
+        pending.add(new NonceRecord(eventId, checkpointId, eventTimestamp, expiresAt));
+        pendingCount.incrementAndGet();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${access-system.anti-replay.nonce-cache.persist-interval-ms:1000}")
+    void persistPending() {
+        if (mappedTable != null) {
+            mappedTable.force();
+        }
+        while (!pending.isEmpty()) {
+            List<NonceRecord> batch = new ArrayList<>(persistBatchSize);
+            NonceRecord nonce;
+            while (batch.size() < persistBatchSize && (nonce = pending.poll()) != null) {
+                batch.add(nonce);
+            }
+            try {
+                int conflicts = batch.size() - eventNonceRepository.claimAll(batch).size();
+                pendingCount.addAndGet(-batch.size());
+                if (conflicts > 0) {
+                    // Accepted here but already stored: another node writes to the same table
+                    persistConflicts.increment(conflicts);
+                    log.warn("{} anti-replay nonces accepted in memory were already in event_nonces", conflicts);
+                }
+            } catch (DataAccessException e) {
+                // The cache stays authoritative; keep the batch for the next attempt
+                pending.addAll(batch);
+                persistFailures.increment();
+                log.warn("Failed to persist {} anti-replay nonces: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void flush() {
+        persistPending();
+        if (mappedTable != null) {
+            mappedTable.close();
+        }
+    }
+
+    private enum Mode { MEMORY, DATABASE, MAPPED }
+}
@@ -0,0 +1,119 @@
+package com.example.accesssystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes expired anti-replay nonces from {@code event_nonces}.
+ * <p>
+ * On a plain table expired rows are deleted in small batches with a short pause in between, so a
+ * purge never holds locks or generates WAL for long and does not compete with ingest. When the table
+ * is range-partitioned by {@code expires_at} (V15 migration) expiry is a {@code DROP} of whole
+ * partitions; the batched delete then only catches rows that landed in the default partition.
+ */
+@Component
+public class EventNoncePurgeJob {
+
+    private static final Logger log = LoggerFactory.getLogger(EventNoncePurgeJob.class);
+
+    private final EventNonceRepository eventNonceRepository;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long pauseMillis;
+    private final long partitionWidthSeconds;
+    private final long partitionHorizonSeconds;
+    private final Counter purged;
+    private final Counter partitionsDropped;
+    private final Timer duration;
+
+    EventNoncePurgeJob(
+            EventNonceRepository eventNonceRepository,
+            MeterRegistry meterRegistry,
+            @Value("${access-system.anti-replay.timestamp-skew-seconds:300}") long timestampSkewSeconds,
+            @Value("${access-system.anti-replay.event-nonce-ttl-seconds:86400}") long eventNonceTtlSeconds,
+            @Value("${access-system.anti-replay.purge.batch-size:1000}") int batchSize,
+            @Value("${access-system.anti-replay.purge.max-batches-per-run:100}") int maxBatchesPerRun,
+            @Value("${access-system.anti-replay.purge.pause-ms:50}") long pauseMillis,
+            @Value("${access-system.anti-replay.purge.partition-width-seconds:3600}") long partitionWidthSeconds) {
+        this.eventNonceRepository = eventNonceRepository;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxBatchesPerRun = Math.max(1, maxBatchesPerRun);
+        this.pauseMillis = Math.max(0, pauseMillis);
+        this.partitionWidthSeconds = Math.max(60, partitionWidthSeconds);
+        // Latest possible expiry: event up to skew in the future, kept for up to max(ttl, skew) + 1 s
+        this.partitionHorizonSeconds = eventNonceTtlSeconds + 2 * timestampSkewSeconds + this.partitionWidthSeconds;
+        this.purged = Counter.builder("anti_replay_nonces_purged_total")
+            .description("Expired nonces deleted from event_nonces")
+            .register(meterRegistry);
+        this.partitionsDropped = Counter.builder("anti_replay_nonce_partitions_dropped_total")
+            .description("Expired event_nonces partitions dropped")
+            .register(meterRegistry);
+        this.duration = Timer.builder("anti_replay_nonce_purge_duration")
+            .description("Duration of one event_nonces purge run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${access-system.anti-replay.purge.interval-ms:60000}",
+               initialDelayString = "${access-system.anti-replay.purge.interval-ms:60000}")
+    void scheduledPurge() {
+        try {
+            purge();
+        } catch (DataAccessException e) {
+            log.warn("Purge of expired anti-replay nonces failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs one purge pass.
+     *
+     * @return number of nonces deleted row by row (dropped partitions are not counted)
+     */
+    public int purge() {
+        long started = System.nanoTime();
+        try {
+            if (eventNonceRepository.isPartitioned()) {
+                int dropped = eventNonceRepository.maintainPartitions(partitionWidthSeconds, partitionHorizonSeconds);
+                if (dropped > 0) {
+                    partitionsDropped.increment(dropped);
+                    log.info("Dropped {} expired event_nonces partitions", dropped);
+                }
+            }
+            return purgeInBatches();
+        } finally {
+            duration.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private int purgeInBatches() {
+        int total = 0;
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int deleted = eventNonceRepository.purgeExpired(batchSize);
+            total += deleted;
+            purged.increment(deleted);
+            if (deleted < batchSize) {
+                break;
+            }
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        if (total > 0) {
+            log.debug("Purged {} expired anti-replay nonces", total);
+        }
+        return total;
+    }
+}
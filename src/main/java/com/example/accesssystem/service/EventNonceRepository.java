@@ -1,6 +1,9 @@
 package com.example.accesssystem.service;
 
 import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Repository for managing event nonces (eventId) to prevent replay attacks.
@@ -8,22 +11,33 @@ import java.time.Instant;
 public interface EventNonceRepository {
     
     /**
-     * Checks if an eventId already exists in the repository.
-     * 
-     * @param eventId the event identifier to check
-     * @return true if the eventId exists (already used), false otherwise
-     */
-    boolean exists(String eventId);
-    
-    /**
-     * Stores an eventId with expiration time.
+     * Atomically records an eventId unless it is already stored, in one round trip.
+     * The result is authoritative: of concurrent claims of the same eventId exactly one wins, also when
+     * they carry different expiries and {@code event_nonces} is partitioned.
      * 
      * @param eventId the event identifier
      * @param checkpointId the checkpoint identifier
      * @param eventTimestamp the timestamp of the event
      * @param expiresAt the expiration time for this nonce
+     * @return true if the eventId was new and is now claimed, false if it had been used
+     */
+    boolean claim(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt);
+    
+    /**
+     * Claims many nonces in one statement; nonces that already exist are left unchanged. Exclusive
+     * against concurrent claims like {@link #claim}.
+     * 
+     * @param nonces the nonces to claim
+     * @return eventIds that were new and are now claimed
      */
-    void store(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt);
+    Set<String> claimAll(List<NonceRecord> nonces);
+    
+    /**
+     * Streams all nonces that have not expired yet.
+     * 
+     * @param consumer receives each active nonce
+     */
+    void forEachActive(Consumer<NonceRecord> consumer);
     
     /**
      * Cleans up expired nonces from the repository.
@@ -31,5 +45,32 @@ public interface EventNonceRepository {
      * @return number of nonces removed
      */
     int cleanupExpired();
-}
+    
+    /**
+     * Deletes at most {@code batchSize} expired nonces, keeping each delete short.
+     * 
+     * @param batchSize maximum number of nonces to delete
+     * @return number of nonces removed
+     */
+    int purgeExpired(int batchSize);
+    
+    /**
+     * Whether {@code event_nonces} is range-partitioned by {@code expires_at} (see V15 migration).
+     */
+    boolean isPartitioned();
+    
+    /**
+     * Creates partitions ahead of time and drops the ones whose whole range has expired.
+     * Only valid when {@link #isPartitioned()} is true.
+     * 
+     * @param partitionWidthSeconds width of one partition
+     * @param horizonSeconds how far ahead partitions are created
+     * @return number of partitions dropped
+     */
+    int maintainPartitions(long partitionWidthSeconds, long horizonSeconds);
 
+    /**
+     * Stored nonce.
+     */
+    record NonceRecord(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt) {}
+}
@@ -3,7 +3,13 @@ package com.example.accesssystem.service;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Repository
 public class EventNonceRepositoryImpl implements EventNonceRepository {
@@ -15,24 +21,64 @@ public class EventNonceRepositoryImpl implements EventNonceRepository {
     }
     
     @Override
-    public boolean exists(String eventId) {
-        String sql = "SELECT COUNT(*) FROM event_nonces WHERE event_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, eventId);
-        return count != null && count > 0;
+    public boolean claim(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt) {
+        // event_nonces_claim (V22) serialises claims per eventId with an advisory lock, then inserts with
+        // NOT EXISTS: exclusive also on a partitioned table, whose key (event_id, expires_at) is not
+        String sql = "SELECT event_nonces_claim(ARRAY[?]::varchar[], ARRAY[?]::varchar[], " +
+                     "ARRAY[?]::timestamptz[], ARRAY[?]::timestamptz[])";
+        List<String> claimed = jdbcTemplate.queryForList(
+            sql,
+            String.class,
+            eventId,
+            checkpointId,
+            Timestamp.from(eventTimestamp),
+            Timestamp.from(expiresAt)
+        );
+        return !claimed.isEmpty();
     }
     
     @Override
-    public void store(String eventId, String checkpointId, Instant eventTimestamp, Instant expiresAt) {
-        String sql = "INSERT INTO event_nonces (event_id, checkpoint_id, event_timestamp, expires_at) " +
-                     "VALUES (?, ?, ?, ?) " +
-                     "ON CONFLICT (event_id) DO NOTHING";
-        jdbcTemplate.update(
-            sql, 
-            eventId, 
-            checkpointId, 
-            java.sql.Timestamp.from(eventTimestamp), 
-            java.sql.Timestamp.from(expiresAt)
-        );
+    public Set<String> claimAll(List<NonceRecord> nonces) {
+        if (nonces.isEmpty()) {
+            return Set.of();
+        }
+        String sql = "SELECT event_nonces_claim(?::varchar[], ?::varchar[], ?::timestamptz[], ?::timestamptz[])";
+        String[] eventIds = new String[nonces.size()];
+        String[] checkpointIds = new String[nonces.size()];
+        Timestamp[] eventTimestamps = new Timestamp[nonces.size()];
+        Timestamp[] expiries = new Timestamp[nonces.size()];
+        for (int i = 0; i < nonces.size(); i++) {
+            NonceRecord nonce = nonces.get(i);
+            eventIds[i] = nonce.eventId();
+            checkpointIds[i] = nonce.checkpointId();
+            eventTimestamps[i] = Timestamp.from(nonce.eventTimestamp());
+            expiries[i] = Timestamp.from(nonce.expiresAt());
+        }
+        Set<String> claimed = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, con.createArrayOf("varchar", eventIds));
+            ps.setArray(2, con.createArrayOf("varchar", checkpointIds));
+            ps.setArray(3, con.createArrayOf("timestamptz", eventTimestamps));
+            ps.setArray(4, con.createArrayOf("timestamptz", expiries));
+            return ps;
+        }, rs -> {
+            claimed.add(rs.getString(1));
+        });
+        return claimed;
+    }
+    
+    @Override
+    public void forEachActive(Consumer<NonceRecord> consumer) {
+        String sql = "SELECT event_id, checkpoint_id, event_timestamp, expires_at FROM event_nonces WHERE expires_at > NOW()";
+        jdbcTemplate.query(sql, rs -> {
+            consumer.accept(new NonceRecord(
+                rs.getString("event_id"),
+                rs.getString("checkpoint_id"),
+                rs.getTimestamp("event_timestamp").toInstant(),
+                rs.getTimestamp("expires_at").toInstant()
+            ));
+        });
     }
     
     @Override
@@ -40,5 +86,26 @@ public class EventNonceRepositoryImpl implements EventNonceRepository {
         String sql = "DELETE FROM event_nonces WHERE expires_at < NOW()";
         return jdbcTemplate.update(sql);
     }
+    
+    @Override
+    public int purgeExpired(int batchSize) {
+        // ctid is per partition, so the batch is addressed by the primary key columns instead
+        String sql = "DELETE FROM event_nonces WHERE (event_id, expires_at) IN (" +
+                     "SELECT event_id, expires_at FROM event_nonces WHERE expires_at < NOW() LIMIT ?)";
+        return jdbcTemplate.update(sql, batchSize);
+    }
+    
+    @Override
+    public boolean isPartitioned() {
+        String sql = "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'event_nonces'::regclass)";
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(sql, Boolean.class));
+    }
+    
+    @Override
+    public int maintainPartitions(long partitionWidthSeconds, long horizonSeconds) {
+        String sql = "SELECT event_nonces_maintain_partitions(make_interval(secs => ?), make_interval(secs => ?))";
+        Integer dropped = jdbcTemplate.queryForObject(sql, Integer.class, partitionWidthSeconds, horizonSeconds);
+        return dropped != null ? dropped : 0;
+    }
 }
 
@@ -10,6 +10,7 @@ import java.util.UUID;
 /**
  * Implementation of EventRepository using JdbcTemplate.
  * Inserts events into the events table.
+ * Code lookups here always query the database; event processing goes through {@link CachingEventRepository}.
  */
 @Repository
 public class EventRepositoryImpl implements EventRepository {
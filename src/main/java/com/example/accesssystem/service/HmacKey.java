@@ -0,0 +1,69 @@
+package com.example.accesssystem.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * HMAC-SHA256 checkpoint key kept in memory as prepared {@link Mac} instances.
+ * <p>
+ * The key schedule runs once when the ring is loaded; verification borrows an initialised
+ * {@code Mac} (cloned from the prototype when the pool is empty) and compares tags in constant time.
+ */
+public final class HmacKey {
+
+    static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Mac prototype;
+    private final Deque<Mac> idle = new ConcurrentLinkedDeque<>();
+
+    private HmacKey(Mac prototype) {
+        this.prototype = prototype;
+    }
+
+    /**
+     * Prepares a key; the given secret array is wiped afterwards.
+     */
+    static HmacKey of(byte[] secret) throws GeneralSecurityException {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return new HmacKey(mac);
+        } finally {
+            Arrays.fill(secret, (byte) 0);
+        }
+    }
+
+    /**
+     * Checks {@code tag} against HMAC-SHA256 of {@code data} in constant time.
+     */
+    public boolean verify(byte[] data, byte[] tag) {
+        Mac mac = borrow();
+        try {
+            return MessageDigest.isEqual(mac.doFinal(data), tag);
+        } finally {
+            if (idle.size() < MAX_IDLE) {
+                idle.offerFirst(mac);
+            }
+        }
+    }
+
+    private Mac borrow() {
+        Mac mac = idle.pollFirst();
+        if (mac != null) {
+            return mac;
+        }
+        // The prototype is never used for computation, so concurrent clones see a stable state
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            // Every JDK HMAC implementation is cloneable; treat anything else as misconfiguration
+            throw new IllegalStateException("HMAC implementation does not support cloning", e);
+        }
+    }
+}
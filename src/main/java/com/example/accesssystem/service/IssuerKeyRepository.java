@@ -1,35 +1,31 @@
 package com.example.accesssystem.service;
 
-import java.util.Optional;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Repository for retrieving issuer public keys.
  * Issuers are token-issuing centers that sign user tokens.
+ * An issuer may have several keys (a key ring), distinguished by {@code kid}.
  */
 public interface IssuerKeyRepository {
     
     /**
-     * Retrieves the public key PEM for an issuer by its code.
+     * Retrieves all issuer keys (used for the initial key ring load).
      * 
-     * @param issuerCode the issuer code
-     * @return Optional containing the public key PEM if found
+     * @return list of all keys ordered by issuer code, newest first
      */
-    Optional<String> findPublicKeyByIssuerCode(String issuerCode);
+    List<IssuerKeyRecord> findAll();
     
     /**
-     * Retrieves the key type (RSA or ECDSA) for an issuer.
+     * Retrieves all keys of the given issuers.
      * 
-     * @param issuerCode the issuer code
-     * @return Optional containing the key type if found
+     * @param issuerCodes the issuer codes
+     * @return list of keys ordered by issuer code, newest first
      */
-    Optional<String> findKeyTypeByIssuerCode(String issuerCode);
+    List<IssuerKeyRecord> findByIssuerCodes(Collection<String> issuerCodes);
     
-    /**
-     * Retrieves the algorithm (RS256, ES256, etc.) for an issuer.
-     * 
-     * @param issuerCode the issuer code
-     * @return Optional containing the algorithm if found
-     */
-    Optional<String> findAlgorithmByIssuerCode(String issuerCode);
+    record IssuerKeyRecord(String issuerCode, String kid, String publicKeyPem, String keyType,
+                           String algorithm, Instant createdAt) {}
 }
-
@@ -3,7 +3,10 @@ package com.example.accesssystem.service;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public class IssuerKeyRepositoryImpl implements IssuerKeyRepository {
@@ -15,36 +18,41 @@ public class IssuerKeyRepositoryImpl implements IssuerKeyRepository {
     }
     
     @Override
-    public Optional<String> findPublicKeyByIssuerCode(String issuerCode) {
-        String sql = "SELECT public_key_pem FROM issuer_keys WHERE issuer_code = ?";
-        try {
-            String key = jdbcTemplate.queryForObject(sql, String.class, issuerCode);
-            return Optional.ofNullable(key);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+    public List<IssuerKeyRecord> findAll() {
+        String sql = """
+            SELECT issuer_code, kid, public_key_pem, key_type, algorithm, created_at
+            FROM issuer_keys
+            ORDER BY issuer_code, created_at DESC
+            """;
+        return jdbcTemplate.query(sql, this::mapRecord);
     }
     
     @Override
-    public Optional<String> findKeyTypeByIssuerCode(String issuerCode) {
-        String sql = "SELECT key_type FROM issuer_keys WHERE issuer_code = ?";
-        try {
-            String keyType = jdbcTemplate.queryForObject(sql, String.class, issuerCode);
-            return Optional.ofNullable(keyType);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
+    public List<IssuerKeyRecord> findByIssuerCodes(Collection<String> issuerCodes) {
+        if (issuerCodes.isEmpty()) {
+            return List.of();
         }
+        String sql = """
+            SELECT issuer_code, kid, public_key_pem, key_type, algorithm, created_at
+            FROM issuer_keys
+            WHERE issuer_code = ANY (?)
+            ORDER BY issuer_code, created_at DESC
+            """;
+        return jdbcTemplate.query(
+            sql,
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", issuerCodes.toArray())),
+            this::mapRecord
+        );
     }
     
-    @Override
-    public Optional<String> findAlgorithmByIssuerCode(String issuerCode) {
-        String sql = "SELECT algorithm FROM issuer_keys WHERE issuer_code = ?";
-        try {
-            String algorithm = jdbcTemplate.queryForObject(sql, String.class, issuerCode);
-            return Optional.ofNullable(algorithm);
-        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
-            return Optional.empty();
-        }
+    private IssuerKeyRecord mapRecord(ResultSet rs, int rowNum) throws SQLException {
+        return new IssuerKeyRecord(
+            rs.getString("issuer_code"),
+            rs.getString("kid"),
+            rs.getString("public_key_pem"),
+            rs.getString("key_type"),
+            rs.getString("algorithm"),
+            rs.getTimestamp("created_at").toInstant()
+        );
     }
 }
-
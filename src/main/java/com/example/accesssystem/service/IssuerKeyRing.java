@@ -0,0 +1,55 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.IssuerKeyRepository.IssuerKeyRecord;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Key rings of token issuers ({@code issuer_keys}), kept in memory.
+ */
+@Component
+public class IssuerKeyRing extends KeyRingCache<IssuerKeyRecord> {
+
+    private final IssuerKeyRepository keyRepository;
+    private final JcaInstancePool jcaPool;
+
+    IssuerKeyRing(IssuerKeyRepository keyRepository, ReferenceDataChangeFeed changeFeed, JcaInstancePool jcaPool) {
+        super(changeFeed);
+        this.keyRepository = keyRepository;
+        this.jcaPool = jcaPool;
+    }
+
+    @Override
+    public String name() {
+        return "issuer_keys";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("issuer_keys");
+    }
+
+    @Override
+    protected List<IssuerKeyRecord> loadAll() {
+        return keyRepository.findAll();
+    }
+
+    @Override
+    protected List<IssuerKeyRecord> loadByCodes(Set<String> codes) {
+        return keyRepository.findByIssuerCodes(codes);
+    }
+
+    @Override
+    protected String codeOf(IssuerKeyRecord row) {
+        return row.issuerCode();
+    }
+
+    @Override
+    protected KeyRing.Entry toEntry(IssuerKeyRecord row) throws Exception {
+        return new KeyRing.Entry(row.kid(), row.keyType(), row.algorithm(),
+            PemKeys.parsePublicKey(row.publicKeyPem(), jcaPool), row.createdAt());
+    }
+}
@@ -2,31 +2,22 @@ package com.example.accesssystem.service;
 
 import com.example.accesssystem.domain.Identifiers.IssuerId;
 import com.example.accesssystem.domain.Identifiers.UserId;
-import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
-import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.io.StringReader;
-import java.security.PublicKey;
-import java.security.interfaces.ECPublicKey;
-import java.security.interfaces.RSAPublicKey;
+import java.io.ByteArrayOutputStream;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.SignatureException;
 import java.time.Instant;
-import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.JwtException;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
-
 /**
- * Service for verifying issuer tokens (JWT/JWS).
+ * Service for verifying issuer tokens (JWT/JWS or {@link CompactCredential}).
  * Validates token signature, expiration, and extracts user information.
  */
 @Service
@@ -34,99 +25,101 @@ public class IssuerTokenVerificationService {
     
     private static final Logger log = LoggerFactory.getLogger(IssuerTokenVerificationService.class);
     
-    private final IssuerKeyRepository issuerKeyRepository;
+    /** Algorithm value of issuer keys that sign compact credentials. */
+    static final String COMPACT_ED25519_ALGORITHM = "EdDSA";
+    
+    private final IssuerKeyRing issuerKeyRing;
+    private final JwtPreParser jwtPreParser;
+    private final JcaInstancePool jcaPool;
     
-    IssuerTokenVerificationService(IssuerKeyRepository issuerKeyRepository) {
-        this.issuerKeyRepository = issuerKeyRepository;
+    IssuerTokenVerificationService(IssuerKeyRing issuerKeyRing, JwtPreParser jwtPreParser, JcaInstancePool jcaPool) {
+        this.issuerKeyRing = issuerKeyRing;
+        this.jwtPreParser = jwtPreParser;
+        this.jcaPool = jcaPool;
     }
     
     /**
      * Verifies and decodes a JWT token.
+     * <p>
+     * The token is pre-parsed once ({@link JwtPreParser}); expired or not-yet-valid tokens are
+     * rejected before any key lookup or signature math, and the pre-parsed claims become the
+     * verified claims once the signature checks out. The key is taken from the issuer's in-memory
+     * key ring: the one named by the header {@code kid}, or otherwise every key whose algorithm
+     * matches the header, newest first.
      * 
      * @param tokenString the JWT token as string
      * @return TokenVerificationResult containing validation status and extracted data
      */
     public TokenVerificationResult verifyAndDecodeToken(String tokenString) {
+        if (CompactCredential.isCompact(tokenString)) {
+            return verifyCompactCredential(tokenString);
+        }
         try {
-            // First, parse token without verification to extract issuer ID
-            // This allows us to look up the correct public key
-            String issuerId;
-            String algorithm;
-            
+            JwtPreParser.ParsedJwt jwt;
             try {
-                // Parse token to extract issuer and algorithm without verification
-                // Split token into parts
-                String[] parts = tokenString.split("\\.");
-                if (parts.length < 2) {
-                    return TokenVerificationResult.invalid("Invalid token format: missing parts");
-                }
-                
-                // Decode header to get algorithm
-                String headerJson = new String(java.util.Base64.getUrlDecoder().decode(parts[0]));
-                // Simple JSON parsing for "alg"
-                int algStart = headerJson.indexOf("\"alg\"");
-                if (algStart >= 0) {
-                    int colon = headerJson.indexOf(':', algStart);
-                    int quoteStart = headerJson.indexOf('"', colon) + 1;
-                    int quoteEnd = headerJson.indexOf('"', quoteStart);
-                    algorithm = headerJson.substring(quoteStart, quoteEnd);
-                } else {
-                    // Default to RS256 if not specified
-                    algorithm = "RS256";
-                }
-                
-                // Decode payload to get issuer
-                String payloadJson = new String(java.util.Base64.getUrlDecoder().decode(parts[1]));
-                // Simple JSON parsing for "iss"
-                int issStart = payloadJson.indexOf("\"iss\"");
-                if (issStart < 0) {
-                    return TokenVerificationResult.invalid("Token missing 'iss' claim");
-                }
-                int colon = payloadJson.indexOf(':', issStart);
-                int quoteStart = payloadJson.indexOf('"', colon) + 1;
-                int quoteEnd = payloadJson.indexOf('"', quoteStart);
-                issuerId = payloadJson.substring(quoteStart, quoteEnd);
-                
-                if (issuerId == null || issuerId.isBlank()) {
-                    return TokenVerificationResult.invalid("Token 'iss' claim is empty");
-                }
-                
-            } catch (Exception e) {
-                log.warn("Failed to parse token for issuer extraction: {}", e.getMessage());
+                jwt = jwtPreParser.parse(tokenString);
+            } catch (IllegalArgumentException e) {
+                log.warn("Failed to pre-parse token: {}", e.getMessage());
                 return TokenVerificationResult.invalid("Invalid token format: " + e.getMessage());
             }
             
-            // Get public key for issuer
-            Optional<String> publicKeyPemOpt = issuerKeyRepository.findPublicKeyByIssuerCode(issuerId);
-            if (publicKeyPemOpt.isEmpty()) {
-                log.warn("Issuer public key not found: {}", issuerId);
-                return TokenVerificationResult.invalid("Issuer key not found: " + issuerId);
+            String issuerId = jwt.issuer();
+            if (issuerId == null) {
+                return TokenVerificationResult.invalid("Token missing 'iss' claim");
+            }
+            if (issuerId.isBlank()) {
+                return TokenVerificationResult.invalid("Token 'iss' claim is empty");
+            }
+            
+            // Cheap time checks first: no key lookup or signature math for stale tokens
+            long nowSeconds = Instant.now().getEpochSecond();
+            if (jwt.expiresAt() != null && nowSeconds >= jwt.expiresAt()) {
+                log.warn("Token expired: issuer={}, exp={}", issuerId, jwt.expiresAt());
+                return TokenVerificationResult.expired("Token expired");
+            }
+            if (jwt.notBefore() != null && nowSeconds < jwt.notBefore()) {
+                return TokenVerificationResult.invalid("JWT verification failed: token not yet valid");
             }
             
-            // Get expected algorithm from database (fallback to token algorithm)
-            Optional<String> dbAlgorithmOpt = issuerKeyRepository.findAlgorithmByIssuerCode(issuerId);
-            String expectedAlgorithm = dbAlgorithmOpt.orElse(algorithm);
+            // Get public keys for issuer
+            Optional<KeyRing> ring = issuerKeyRing.find(issuerId);
+            List<KeyRing.Entry> candidates = ring.map(r -> r.candidates(jwt.keyId())).orElse(List.of());
+            if (candidates.isEmpty()) {
+                log.warn("Issuer public key not found: {} (kid={})", issuerId, jwt.keyId());
+                return TokenVerificationResult.invalid("Issuer key not found: " + issuerId
+                    + (jwt.keyId() != null ? " (kid=" + jwt.keyId() + ")" : ""));
+            }
             
-            // Parse public key
-            PublicKey publicKey = parsePublicKey(publicKeyPemOpt.get());
+            // The key's configured algorithm is authoritative; the header must agree with it
+            String algorithm = jwt.algorithm();
+            if (algorithm == null || algorithm.isBlank()) {
+                return TokenVerificationResult.invalid("JWT verification failed: header missing 'alg'");
+            }
+            List<KeyRing.Entry> matching = candidates.stream()
+                .filter(key -> algorithm.equals(key.algorithm()))
+                .toList();
+            if (matching.isEmpty()) {
+                log.warn("Token algorithm {} does not match any key of issuer {}", algorithm, issuerId);
+                return TokenVerificationResult.invalid("JWT verification failed: algorithm " + algorithm
+                    + " is not allowed for issuer");
+            }
             
-            // Verify token signature and expiration
-            Claims claims;
+            // Verify token signature over the already-decoded signing input
             try {
-                claims = verifyTokenSignature(tokenString, publicKey, expectedAlgorithm);
-            } catch (ExpiredJwtException e) {
-                log.warn("Token expired: {}", e.getMessage());
-                return TokenVerificationResult.expired("Token expired");
-            } catch (JwtException e) {
+                if (!verifySignature(jwt, matching)) {
+                    log.warn("JWT signature mismatch for issuer {}", issuerId);
+                    return TokenVerificationResult.invalid("JWT verification failed: signature mismatch");
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
                 log.warn("JWT verification failed: {}", e.getMessage());
                 return TokenVerificationResult.invalid("JWT verification failed: " + e.getMessage());
             }
             
             // Extract user ID from token
             // Standard claim: "sub" (subject) or custom "userId"
-            String userIdValue = claims.get("userId", String.class);
+            String userIdValue = jwt.userId();
             if (userIdValue == null) {
-                userIdValue = claims.getSubject(); // fallback to "sub"
+                userIdValue = jwt.subject(); // fallback to "sub"
             }
             if (userIdValue == null || userIdValue.isBlank()) {
                 return TokenVerificationResult.invalid("Token missing user identifier");
@@ -135,9 +128,12 @@ public class IssuerTokenVerificationService {
             UserId userId = new UserId(userIdValue);
             
             // Extract attributes (all other claims except standard ones)
-            Map<String, Object> attributes = claims.entrySet().stream()
-                .filter(e -> !isStandardClaim(e.getKey()))
-                .collect(java.util.stream.Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+            Map<String, Object> attributes = new LinkedHashMap<>();
+            jwt.claims().forEach((name, value) -> {
+                if (!isStandardClaim(name)) {
+                    attributes.put(name, value);
+                }
+            });
             
             log.debug("Token verified successfully. Issuer: {}, User: {}", issuerId, userIdValue);
             return TokenVerificationResult.valid(userId, new IssuerId(issuerId), attributes);
@@ -148,25 +144,156 @@ public class IssuerTokenVerificationService {
         }
     }
     
-    private Claims verifyTokenSignature(String token, PublicKey publicKey, String algorithm) {
-        // jjwt 0.12.x uses different API
-        var builder = Jwts.parser()
-            .verifyWith(publicKey)
-            .build();
-        
-        return builder.parseSignedClaims(token).getPayload();
-    }
-    
-    private PublicKey parsePublicKey(String publicKeyPem) throws IOException {
-        try (PEMParser pemParser = new PEMParser(new StringReader(publicKeyPem))) {
-            Object keyObject = pemParser.readObject();
-            JcaPEMKeyConverter converter = new JcaPEMKeyConverter();
+    /**
+     * Verifies a compact binary credential: fixed layout, no JSON, Ed25519 tag checked against the
+     * issuer's in-memory key ring (keys with algorithm {@code EdDSA}).
+     */
+    private TokenVerificationResult verifyCompactCredential(String tokenString) {
+        try {
+            CompactCredential credential;
+            try {
+                credential = CompactCredential.parse(tokenString);
+            } catch (IllegalArgumentException e) {
+                log.warn("Failed to parse compact credential: {}", e.getMessage());
+                return TokenVerificationResult.invalid("Invalid token format: " + e.getMessage());
+            }
+            
+            String issuerId = credential.issuer();
+            if (issuerId.isBlank()) {
+                return TokenVerificationResult.invalid("Token 'iss' claim is empty");
+            }
+            if (Instant.now().getEpochSecond() >= credential.expiresAt()) {
+                log.warn("Credential expired: issuer={}, exp={}", issuerId, credential.expiresAt());
+                return TokenVerificationResult.expired("Token expired");
+            }
+            
+            List<KeyRing.Entry> candidates = issuerKeyRing.find(issuerId)
+                .map(r -> r.candidates(credential.keyId()))
+                .orElse(List.of());
+            if (candidates.isEmpty()) {
+                log.warn("Issuer public key not found: {} (kid={})", issuerId, credential.keyId());
+                return TokenVerificationResult.invalid("Issuer key not found: " + issuerId
+                    + (credential.keyId() != null ? " (kid=" + credential.keyId() + ")" : ""));
+            }
+            List<KeyRing.Entry> matching = candidates.stream()
+                .filter(key -> COMPACT_ED25519_ALGORITHM.equals(key.algorithm()))
+                .toList();
+            if (matching.isEmpty()) {
+                return TokenVerificationResult.invalid("Credential verification failed: algorithm "
+                    + COMPACT_ED25519_ALGORITHM + " is not allowed for issuer");
+            }
             
-            if (keyObject instanceof SubjectPublicKeyInfo) {
-                return converter.getPublicKey((SubjectPublicKeyInfo) keyObject);
+            try {
+                if (!verifyWithKeys("Ed25519", credential.signingInput(), credential.tag(), matching)) {
+                    log.warn("Compact credential signature mismatch for issuer {}", issuerId);
+                    return TokenVerificationResult.invalid("Credential verification failed: signature mismatch");
+                }
+            } catch (GeneralSecurityException e) {
+                return TokenVerificationResult.invalid("Credential verification failed: " + e.getMessage());
+            }
+            
+            if (credential.userCode().isBlank()) {
+                return TokenVerificationResult.invalid("Token missing user identifier");
             }
+            log.debug("Compact credential verified. Issuer: {}, User: {}", issuerId, credential.userCode());
+            return TokenVerificationResult.valid(new UserId(credential.userCode()), new IssuerId(issuerId), Map.of());
             
-            throw new IllegalArgumentException("Failed to parse public key");
+        } catch (Exception e) {
+            log.error("Error verifying compact credential", e);
+            return TokenVerificationResult.invalid("Token verification error: " + e.getMessage());
+        }
+    }
+    
+    private boolean verifySignature(JwtPreParser.ParsedJwt jwt, List<KeyRing.Entry> keys)
+            throws GeneralSecurityException {
+        JwsAlgorithm alg = JwsAlgorithm.fromHeader(jwt.algorithm());
+        byte[] signature = jwt.signature();
+        if (alg.ecComponentLength > 0) {
+            // JWS carries ECDSA signatures as fixed-length R||S; the JCA expects DER
+            signature = joseToDer(signature, alg.ecComponentLength);
+        }
+        return verifyWithKeys(alg.jcaName, jwt.signingInput(), signature, keys);
+    }
+    
+    private boolean verifyWithKeys(String jcaAlgorithm, byte[] signingInput, byte[] signature, List<KeyRing.Entry> keys)
+            throws GeneralSecurityException {
+        GeneralSecurityException lastError = null;
+        boolean anyCompared = false;
+        for (KeyRing.Entry key : keys) {
+            try {
+                if (jcaPool.verify(jcaAlgorithm, key.publicKey(), signingInput, signature)) {
+                    return true;
+                }
+                anyCompared = true;
+            } catch (SignatureException | InvalidKeyException e) {
+                lastError = e;
+            }
+        }
+        if (!anyCompared && lastError != null) {
+            throw lastError;
+        }
+        return false;
+    }
+    
+    static byte[] joseToDer(byte[] jose, int componentLength) {
+        if (jose.length != 2 * componentLength) {
+            throw new IllegalArgumentException("invalid ECDSA signature length");
+        }
+        byte[] r = derInteger(jose, 0, componentLength);
+        byte[] s = derInteger(jose, componentLength, componentLength);
+        int seqLength = r.length + s.length;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(seqLength + 3);
+        out.write(0x30);
+        if (seqLength >= 128) {
+            out.write(0x81);
+        }
+        out.write(seqLength);
+        out.writeBytes(r);
+        out.writeBytes(s);
+        return out.toByteArray();
+    }
+    
+    private static byte[] derInteger(byte[] src, int offset, int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end - 1 && src[start] == 0) {
+            start++;
+        }
+        boolean pad = (src[start] & 0x80) != 0;
+        int valueLength = end - start + (pad ? 1 : 0);
+        byte[] out = new byte[valueLength + 2];
+        out[0] = 0x02;
+        out[1] = (byte) valueLength;
+        System.arraycopy(src, start, out, 2 + (pad ? 1 : 0), end - start);
+        return out;
+    }
+    
+    /**
+     * JWS algorithms accepted for issuer tokens. "none" and HMAC are deliberately absent.
+     */
+    enum JwsAlgorithm {
+        RS256("SHA256withRSA", 0),
+        RS384("SHA384withRSA", 0),
+        RS512("SHA512withRSA", 0),
+        ES256("SHA256withECDSA", 32),
+        ES384("SHA384withECDSA", 48),
+        ES512("SHA512withECDSA", 66);
+        
+        final String jcaName;
+        final int ecComponentLength;
+        
+        JwsAlgorithm(String jcaName, int ecComponentLength) {
+            this.jcaName = jcaName;
+            this.ecComponentLength = ecComponentLength;
+        }
+        
+        static JwsAlgorithm fromHeader(String alg) {
+            for (JwsAlgorithm candidate : values()) {
+                if (candidate.name().equals(alg)) {
+                    return candidate;
+                }
+            }
+            throw new IllegalArgumentException("unsupported algorithm " + alg);
         }
     }
     
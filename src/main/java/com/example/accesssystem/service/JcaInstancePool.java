@@ -0,0 +1,151 @@
+package com.example.accesssystem.service;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.security.PublicKey;
+import java.security.Security;
+import java.security.Signature;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * Reusable {@link Signature} and {@link KeyFactory} instances with an explicitly pinned JCA provider
+ * per key family.
+ * <p>
+ * {@code getInstance} walks the provider list on every call, and with BouncyCastle on the classpath
+ * the provider that wins is not obvious. Instances are therefore created once from the configured
+ * provider and recycled through lock-free deques. No {@code ThreadLocal}s or monitors are involved,
+ * so the pool behaves the same on platform and virtual threads. A {@code Signature} is re-initialised
+ * with {@code initVerify} on every borrow, so an instance returned after a failure is safe to reuse.
+ * <p>
+ * Providers are configured under {@code access-system.crypto.providers.*} (rsa, ec, eddsa); an empty
+ * value falls back to the default JCA lookup. See {@code SignatureProviderBenchmark} for measurements.
+ */
+@Component
+public class JcaInstancePool {
+
+    private static final Logger log = LoggerFactory.getLogger(JcaInstancePool.class);
+
+    private final Map<KeyFamily, Provider> providers = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Signature>> signatures = new ConcurrentHashMap<>();
+    private final Map<String, Deque<KeyFactory>> keyFactories = new ConcurrentHashMap<>();
+    private final int maxIdlePerAlgorithm;
+
+    JcaInstancePool(
+            @Value("${access-system.crypto.providers.rsa:SunRsaSign}") String rsaProvider,
+            @Value("${access-system.crypto.providers.ec:BC}") String ecProvider,
+            @Value("${access-system.crypto.providers.eddsa:BC}") String eddsaProvider) {
+        this.maxIdlePerAlgorithm = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        pin(KeyFamily.RSA, rsaProvider);
+        pin(KeyFamily.EC, ecProvider);
+        pin(KeyFamily.EDDSA, eddsaProvider);
+    }
+
+    /**
+     * Verifies {@code signature} over {@code data} with a pooled instance of the given JCA algorithm
+     * (e.g. {@code SHA256withRSA}).
+     */
+    public boolean verify(String algorithm, PublicKey publicKey, byte[] data, byte[] signature)
+            throws GeneralSecurityException {
+        Deque<Signature> pool = signatures.computeIfAbsent(algorithm, a -> new ConcurrentLinkedDeque<>());
+        Signature instance = pool.pollFirst();
+        if (instance == null) {
+            instance = newSignature(algorithm);
+        }
+        try {
+            instance.initVerify(publicKey);
+            instance.update(data);
+            return instance.verify(signature);
+        } finally {
+            release(pool, instance);
+        }
+    }
+
+    /**
+     * Decodes an X.509 SubjectPublicKeyInfo with a pooled key factory of the given key algorithm
+     * ({@code RSA}, {@code EC}, {@code Ed25519}).
+     */
+    public PublicKey generatePublic(String keyAlgorithm, byte[] subjectPublicKeyInfo) throws GeneralSecurityException {
+        Deque<KeyFactory> pool = keyFactories.computeIfAbsent(keyAlgorithm, a -> new ConcurrentLinkedDeque<>());
+        KeyFactory factory = pool.pollFirst();
+        if (factory == null) {
+            factory = newKeyFactory(keyAlgorithm);
+        }
+        try {
+            return factory.generatePublic(new X509EncodedKeySpec(subjectPublicKeyInfo));
+        } finally {
+            release(pool, factory);
+        }
+    }
+
+    /**
+     * Provider pinned for the family of the given algorithm, or null for default JCA lookup.
+     */
+    Provider providerFor(String algorithm) {
+        return providers.get(KeyFamily.of(algorithm));
+    }
+
+    private Signature newSignature(String algorithm) throws NoSuchAlgorithmException {
+        Provider provider = providerFor(algorithm);
+        return provider != null ? Signature.getInstance(algorithm, provider) : Signature.getInstance(algorithm);
+    }
+
+    private KeyFactory newKeyFactory(String keyAlgorithm) throws NoSuchAlgorithmException {
+        Provider provider = providerFor(keyAlgorithm);
+        return provider != null ? KeyFactory.getInstance(keyAlgorithm, provider) : KeyFactory.getInstance(keyAlgorithm);
+    }
+
+    private <T> void release(Deque<T> pool, T instance) {
+        // Approximate bound: size() is O(n) on the deque, but n stays tiny
+        if (pool.size() < maxIdlePerAlgorithm) {
+            pool.offerFirst(instance);
+        }
+    }
+
+    private void pin(KeyFamily family, String providerName) {
+        if (providerName == null || providerName.isBlank()) {
+            log.info("JCA provider for {} not pinned, using default lookup", family);
+            return;
+        }
+        Provider provider = Security.getProvider(providerName);
+        if (provider == null && BouncyCastleProvider.PROVIDER_NAME.equals(providerName)) {
+            provider = new BouncyCastleProvider();
+            Security.addProvider(provider);
+        }
+        if (provider == null) {
+            throw new IllegalStateException("JCA provider '" + providerName + "' configured for "
+                + family + " is not installed");
+        }
+        providers.put(family, provider);
+        log.info("JCA provider for {} pinned to {}", family, provider.getName());
+    }
+
+    enum KeyFamily {
+        RSA, EC, EDDSA, OTHER;
+
+        static KeyFamily of(String algorithm) {
+            String upper = algorithm.toUpperCase();
+            if (upper.contains("RSA")) {
+                return RSA;
+            }
+            if (upper.contains("ECDSA") || upper.equals("EC")) {
+                return EC;
+            }
+            if (upper.contains("ED25519") || upper.contains("ED448") || upper.contains("EDDSA")) {
+                return EDDSA;
+            }
+            return OTHER;
+        }
+    }
+}
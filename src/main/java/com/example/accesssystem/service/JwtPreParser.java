@@ -0,0 +1,217 @@
+package com.example.accesssystem.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Single-pass pre-parser for compact JWS tokens ({@code header.payload.signature}).
+ * <p>
+ * Each segment is base64url-decoded exactly once and the header and payload are walked with a
+ * streaming JSON parser, so whitespace and escaped characters are handled correctly. Besides the
+ * fields needed for key selection and early rejection ({@code alg}, {@code kid}, {@code iss},
+ * {@code exp}, {@code nbf}, {@code sub}, {@code userId}), the full claim set is collected in the
+ * same pass and reused after signature verification - nothing is decoded twice.
+ * <p>
+ * The pre-parse does not verify anything; callers must check the signature over
+ * {@link ParsedJwt#signingInput()} before trusting the claims.
+ */
+@Component
+public class JwtPreParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+
+    /**
+     * Parses the token without verifying it.
+     *
+     * @throws IllegalArgumentException if the token is not a well-formed compact JWS
+     */
+    public ParsedJwt parse(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("token is empty");
+        }
+        int firstDot = token.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : token.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0) {
+            throw new IllegalArgumentException("missing parts");
+        }
+        if (token.indexOf('.', secondDot + 1) >= 0) {
+            throw new IllegalArgumentException("unexpected number of parts");
+        }
+
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        byte[] headerBytes = decoder.decode(token.substring(0, firstDot));
+        byte[] payloadBytes = decoder.decode(token.substring(firstDot + 1, secondDot));
+        byte[] signature = decoder.decode(token.substring(secondDot + 1));
+        byte[] signingInput = token.substring(0, secondDot).getBytes(StandardCharsets.US_ASCII);
+
+        Header header = parseHeader(headerBytes);
+        ParsedJwt.Builder builder = new ParsedJwt.Builder(header.algorithm(), header.keyId(), signingInput, signature);
+        parsePayload(payloadBytes, builder);
+        return builder.build();
+    }
+
+    private Header parseHeader(byte[] json) {
+        String algorithm = null;
+        String keyId = null;
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            expectObject(parser, "header");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "alg" -> algorithm = textValue(parser, value, name);
+                    case "kid" -> keyId = textValue(parser, value, name);
+                    case "crit" -> throw new IllegalArgumentException("unsupported critical header parameters");
+                    default -> parser.skipChildren();
+                }
+            }
+            expectEnd(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed header: " + describe(e), e);
+        }
+        return new Header(algorithm, keyId);
+    }
+
+    private void parsePayload(byte[] json, ParsedJwt.Builder builder) {
+        try (JsonParser parser = MAPPER.getFactory().createParser(json)) {
+            expectObject(parser, "payload");
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "iss" -> builder.issuer = textValue(parser, value, name);
+                    case "sub" -> builder.subject = textValue(parser, value, name);
+                    case "exp" -> builder.expiresAt = numericDateValue(parser, value, name);
+                    case "nbf" -> builder.notBefore = numericDateValue(parser, value, name);
+                    case "userId" -> {
+                        // Non-string userId is kept as an attribute but not used as identifier
+                        if (value == JsonToken.VALUE_STRING) {
+                            builder.userId = parser.getText();
+                        }
+                        builder.claims.put(name, parser.readValueAs(Object.class));
+                        continue;
+                    }
+                    default -> {
+                        builder.claims.put(name, parser.readValueAs(Object.class));
+                        continue;
+                    }
+                }
+                builder.claims.put(name, scalarValue(parser, value));
+            }
+            expectEnd(parser);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("malformed payload: " + describe(e), e);
+        }
+    }
+
+    private static String describe(IOException e) {
+        return e instanceof JsonProcessingException jpe ? jpe.getOriginalMessage() : e.getMessage();
+    }
+
+    private static void expectObject(JsonParser parser, String part) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException(part + " is not a JSON object");
+        }
+    }
+
+    private static void expectEnd(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.END_OBJECT || parser.nextToken() != null) {
+            throw new IllegalArgumentException("trailing data after JSON object");
+        }
+    }
+
+    private static String textValue(JsonParser parser, JsonToken token, String name) throws IOException {
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token != JsonToken.VALUE_STRING) {
+            throw new IllegalArgumentException("'" + name + "' must be a string");
+        }
+        return parser.getText();
+    }
+
+    private static Long numericDateValue(JsonParser parser, JsonToken token, String name) throws IOException {
+        if (token == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (long) Math.floor(parser.getDoubleValue());
+        }
+        throw new IllegalArgumentException("'" + name + "' must be a numeric date");
+    }
+
+    private static Object scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        return switch (token) {
+            case VALUE_STRING -> parser.getText();
+            case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+            default -> null;
+        };
+    }
+
+    private record Header(String algorithm, String keyId) {
+    }
+
+    /**
+     * Unverified view of a compact JWS.
+     *
+     * @param algorithm    header {@code alg}
+     * @param keyId        header {@code kid} (may be null)
+     * @param issuer       {@code iss} claim (may be null)
+     * @param subject      {@code sub} claim (may be null)
+     * @param userId       {@code userId} claim when it is a string (may be null)
+     * @param expiresAt    {@code exp} in epoch seconds (may be null)
+     * @param notBefore    {@code nbf} in epoch seconds (may be null)
+     * @param claims       all payload claims in token order
+     * @param signingInput ASCII bytes of {@code header.payload} as covered by the signature
+     * @param signature    decoded signature bytes
+     */
+    public record ParsedJwt(
+        String algorithm,
+        String keyId,
+        String issuer,
+        String subject,
+        String userId,
+        Long expiresAt,
+        Long notBefore,
+        Map<String, Object> claims,
+        byte[] signingInput,
+        byte[] signature
+    ) {
+
+        private static final class Builder {
+            private final String algorithm;
+            private final String keyId;
+            private final byte[] signingInput;
+            private final byte[] signature;
+            private final Map<String, Object> claims = new LinkedHashMap<>();
+            private String issuer;
+            private String subject;
+            private String userId;
+            private Long expiresAt;
+            private Long notBefore;
+
+            private Builder(String algorithm, String keyId, byte[] signingInput, byte[] signature) {
+                this.algorithm = algorithm;
+                this.keyId = keyId;
+                this.signingInput = signingInput;
+                this.signature = signature;
+            }
+
+            private ParsedJwt build() {
+                return new ParsedJwt(algorithm, keyId, issuer, subject, userId, expiresAt, notBefore,
+                    Collections.unmodifiableMap(claims), signingInput, signature);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.accesssystem.service;
+
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable set of parsed keys that belong to one checkpoint or issuer.
+ * Entries are ordered newest first, so during rotation the new key is tried before the old one.
+ */
+public final class KeyRing {
+
+    private final List<Entry> entries;
+
+    KeyRing(List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    /**
+     * All keys of the ring, newest first.
+     */
+    public List<Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Finds a key by its identifier.
+     */
+    public Optional<Entry> find(String kid) {
+        for (Entry entry : entries) {
+            if (entry.kid().equals(kid)) {
+                return Optional.of(entry);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Keys to try for a message: the one named by {@code kid} if given, otherwise all keys newest first.
+     */
+    public List<Entry> candidates(String kid) {
+        if (kid == null || kid.isBlank()) {
+            return entries;
+        }
+        return find(kid).map(List::of).orElse(List.of());
+    }
+
+    /**
+     * @param kid       key identifier within the ring
+     * @param keyType   key type as stored in the database (RSA, ECDSA, HMAC)
+     * @param algorithm signature algorithm (issuer keys only, null for checkpoint keys)
+     * @param publicKey parsed public key (null for HMAC keys)
+     * @param createdAt key creation time
+     * @param hmacKey   prepared symmetric key (HMAC checkpoint keys only)
+     */
+    public record Entry(String kid, String keyType, String algorithm, PublicKey publicKey, Instant createdAt,
+                        HmacKey hmacKey) {
+
+        public Entry(String kid, String keyType, String algorithm, PublicKey publicKey, Instant createdAt) {
+            this(kid, keyType, algorithm, publicKey, createdAt, null);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory key rings keyed by checkpoint/issuer code.
+ * <p>
+ * All keys are loaded and parsed once at startup and then reloaded per code when the change feed
+ * reports a change, so verification never waits for a database round trip or PEM parsing.
+ * Codes without keys are simply absent: unknown senders cannot cause database lookups.
+ *
+ * @param <R> key row type
+ */
+abstract class KeyRingCache<R> implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(KeyRingCache.class);
+
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Map<String, KeyRing> rings = new ConcurrentHashMap<>();
+
+    KeyRingCache(ReferenceDataChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Returns the key ring of the given code, if any keys are configured.
+     */
+    public Optional<KeyRing> find(String code) {
+        changeFeed.ensureFresh();
+        return Optional.ofNullable(rings.get(code));
+    }
+
+    /**
+     * Counts loaded rings matching the predicate (does not wait for the change feed).
+     */
+    protected long countRings(Predicate<KeyRing> predicate) {
+        return rings.values().stream().filter(predicate).count();
+    }
+
+    @Override
+    public void reloadAll() {
+        Map<String, KeyRing> loaded = build(loadAll());
+        rings.keySet().retainAll(loaded.keySet());
+        rings.putAll(loaded);
+        log.info("Key rings '{}' loaded: {} codes", name(), loaded.size());
+    }
+
+    @Override
+    public void reload(String table, Set<String> codes) {
+        Map<String, KeyRing> loaded = build(loadByCodes(codes));
+        for (String code : codes) {
+            KeyRing ring = loaded.get(code);
+            if (ring != null) {
+                rings.put(code, ring);
+            } else {
+                rings.remove(code);
+            }
+        }
+        log.debug("Key rings '{}' reloaded for {}", name(), codes);
+    }
+
+    protected abstract List<R> loadAll();
+
+    protected abstract List<R> loadByCodes(Set<String> codes);
+
+    protected abstract String codeOf(R row);
+
+    protected abstract KeyRing.Entry toEntry(R row) throws Exception;
+
+    private Map<String, KeyRing> build(List<R> rows) {
+        Map<String, List<KeyRing.Entry>> byCode = new LinkedHashMap<>();
+        for (R row : rows) {
+            try {
+                byCode.computeIfAbsent(codeOf(row), c -> new ArrayList<>()).add(toEntry(row));
+            } catch (Exception e) {
+                // A broken key must not take the rest of the ring down
+                log.error("Skipping unparsable key in '{}' for {}: {}", name(), codeOf(row), e.getMessage());
+            }
+        }
+        Map<String, KeyRing> result = new HashMap<>(byCode.size() * 2);
+        byCode.forEach((code, entries) -> result.put(code, new KeyRing(entries)));
+        return result;
+    }
+}
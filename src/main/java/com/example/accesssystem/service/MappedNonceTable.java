@@ -0,0 +1,278 @@
+package com.example.accesssystem.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Set of used nonces in an open-addressing hash table inside a memory-mapped file.
+ * <p>
+ * A slot holds a 128-bit hash of the nonce and its expiry (epoch seconds); the nonce itself is not
+ * stored. The table lives outside the Java heap, so the garbage collector never scans it, and because
+ * it is a file the replay history is still there after a restart, without reloading anything.
+ * <p>
+ * Inserts claim a slot with a compare-and-set on its state word (empty, busy or expiry), so there are
+ * no locks and no allocation per lookup. Expired slots are not cleared: they stay in the probe chain
+ * and are reused by the next insert that passes them. After publishing, an insert re-reads the probe
+ * chain up to the first empty slot and backs out if another live copy of the nonce appeared, so
+ * concurrent claims of one nonce cannot both succeed through different slots. The table has a fixed capacity; it should be
+ * sized for the nonces that can be live at the same time (one skew window of traffic).
+ */
+public final class MappedNonceTable implements AutoCloseable {
+
+    private static final long MAGIC = 0x4e4f4e4345533031L; // "NONCES01"
+    private static final int HEADER_BYTES = 64;
+    private static final int SLOT_BYTES = 24;
+    private static final long EMPTY = 0;
+    private static final long BUSY = -1;
+    // Any expiry in the past: a slot that was used and may be reused
+    private static final long EXPIRED = 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    // VarHandle access modes are signature-polymorphic: the coordinates must be exactly (ByteBuffer, int)
+    private final ByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong occupied = new AtomicLong();
+
+    /**
+     * Opens the table file, creating it if it does not exist.
+     *
+     * @param file table file
+     * @param capacity number of slots, a power of two; must match an existing file
+     */
+    public MappedNonceTable(Path file, int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1
+                || (long) capacity * SLOT_BYTES + HEADER_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Capacity must be a power of two below 2^26: " + capacity);
+        }
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        long size = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            boolean existed = Files.exists(file) && Files.size(file) > 0;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long existing = channel.size();
+            if (existed && existing != size) {
+                channel.close();
+                throw new IllegalStateException("Nonce table " + file + " has " + existing
+                    + " bytes, expected " + size + " for capacity " + capacity);
+            }
+            this.mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open nonce table " + file, e);
+        }
+        this.buffer = mapped;
+        buffer.order(ByteOrder.nativeOrder());
+        if (buffer.getLong(0) == MAGIC) {
+            if (buffer.getLong(8) != capacity) {
+                throw new IllegalStateException("Nonce table " + file + " was created with capacity " + buffer.getLong(8));
+            }
+            long used = 0;
+            for (int slot = 0; slot < capacity; slot++) {
+                int offset = offset(slot);
+                if ((long) LONGS.getVolatile(buffer, offset) == BUSY) {
+                    // Interrupted insert from a crashed process: the nonce was never reported as claimed
+                    LONGS.setVolatile(buffer, offset, EXPIRED);
+                }
+                if ((long) LONGS.getVolatile(buffer, offset) != EMPTY) {
+                    used++;
+                }
+            }
+            occupied.set(used);
+        } else {
+            buffer.putLong(8, capacity);
+            buffer.putLong(0, MAGIC);
+        }
+    }
+
+    /**
+     * Records a nonce unless a live entry for it exists.
+     *
+     * @param nonce the nonce
+     * @param expiresAtEpochSecond when the nonce may be forgotten
+     * @param nowEpochSecond current time; entries with an expiry at or before it are reusable
+     * @return true if the nonce was new, false if it is a replay
+     * @throws IllegalStateException if every slot holds a live nonce
+     */
+    public boolean claim(String nonce, long expiresAtEpochSecond, long nowEpochSecond) {
+        long k1 = hash(nonce, 0x9e3779b97f4a7c15L);
+        long k2 = hash(nonce, 0xc2b2ae3d27d4eb4fL);
+        long expiry = Math.max(expiresAtEpochSecond, nowEpochSecond + 1);
+        int start = (int) (k1 & mask);
+        retry:
+        while (true) {
+            int reusable = -1;
+            long reusableState = EMPTY;
+            int target = -1;
+            for (int probe = 0; probe < capacity; probe++) {
+                int slot = (start + probe) & mask;
+                int offset = offset(slot);
+                long state = awaitState(offset);
+                if (state == EMPTY) {
+                    target = reusable >= 0 ? reusable : slot;
+                    long expected = reusable >= 0 ? reusableState : EMPTY;
+                    if (!publish(offset(target), expected, k1, k2, expiry)) {
+                        continue retry;
+                    }
+                    if (reusable < 0) {
+                        occupied.incrementAndGet();
+                    }
+                    break;
+                }
+                long s1 = (long) LONGS.get(buffer, offset + 8);
+                long s2 = (long) LONGS.get(buffer, offset + 16);
+                if ((long) LONGS.getVolatile(buffer, offset) != state) {
+                    continue retry;
+                }
+                if (state > nowEpochSecond) {
+                    if (s1 == k1 && s2 == k2) {
+                        return false;
+                    }
+                } else if (reusable < 0) {
+                    reusable = slot;
+                    reusableState = state;
+                }
+            }
+            if (target < 0) {
+                if (reusable < 0) {
+                    throw new IllegalStateException("Nonce table is full (" + capacity + " live nonces)");
+                }
+                if (!publish(offset(reusable), reusableState, k1, k2, expiry)) {
+                    continue;
+                }
+                target = reusable;
+            }
+            // Two claimers of one nonce can pick different slots (one reuses an expired slot the other
+            // saw as live, or passed before it was freed). Each publishes first and then looks again:
+            // whoever sees another live copy backs out and retries, so at most one copy survives.
+            if (hasOtherLiveCopy(start, target, k1, k2, nowEpochSecond)) {
+                LONGS.setRelease(buffer, offset(target), EXPIRED);
+                continue;
+            }
+            return true;
+        }
+    }
+
+    private boolean hasOtherLiveCopy(int start, int own, long k1, long k2, long nowEpochSecond) {
+        for (int probe = 0; probe < capacity; probe++) {
+            int slot = (start + probe) & mask;
+            int offset = offset(slot);
+            long state = awaitState(offset);
+            if (state == EMPTY) {
+                return false;
+            }
+            if (slot != own
+                    && state > nowEpochSecond
+                    && (long) LONGS.get(buffer, offset + 8) == k1
+                    && (long) LONGS.get(buffer, offset + 16) == k2
+                    && (long) LONGS.getVolatile(buffer, offset) == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a live entry for the nonce exists.
+     */
+    public boolean contains(String nonce, long nowEpochSecond) {
+        long k1 = hash(nonce, 0x9e3779b97f4a7c15L);
+        long k2 = hash(nonce, 0xc2b2ae3d27d4eb4fL);
+        int start = (int) (k1 & mask);
+        for (int probe = 0; probe < capacity; probe++) {
+            int offset = offset((start + probe) & mask);
+            long state = awaitState(offset);
+            if (state == EMPTY) {
+                return false;
+            }
+            if (state > nowEpochSecond
+                    && (long) LONGS.get(buffer, offset + 8) == k1
+                    && (long) LONGS.get(buffer, offset + 16) == k2
+                    && (long) LONGS.getVolatile(buffer, offset) == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Slots that have ever been used (live or expired-but-not-reused).
+     */
+    public long occupiedSlots() {
+        return occupied.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes dirty pages to the file (otherwise the OS does it eventually; a process crash loses nothing).
+     */
+    public void force() {
+        mapped.force();
+    }
+
+    @Override
+    public void close() {
+        force();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean publish(int offset, long expectedState, long k1, long k2, long expiry) {
+        if (!LONGS.compareAndSet(buffer, offset, expectedState, BUSY)) {
+            return false;
+        }
+        LONGS.set(buffer, offset + 8, k1);
+        LONGS.set(buffer, offset + 16, k2);
+        LONGS.setRelease(buffer, offset, expiry);
+        return true;
+    }
+
+    private long awaitState(int offset) {
+        long state;
+        while ((state = (long) LONGS.getVolatile(buffer, offset)) == BUSY) {
+            Thread.onSpinWait();
+        }
+        return state;
+    }
+
+    private static int offset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    static long hash(String nonce, long seed) {
+        // Seeded multiply-xorshift over the UTF-16 chars, finished with the MurmurHash3 64-bit mixer
+        long h = seed ^ nonce.length();
+        for (int i = 0; i < nonce.length(); i++) {
+            h = (h ^ nonce.charAt(i)) * 0x100000001b3L;
+            h ^= h >>> 29;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
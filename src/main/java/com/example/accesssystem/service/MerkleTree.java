@@ -0,0 +1,124 @@
+package com.example.accesssystem.service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SHA-256 Merkle tree over batch leaf payloads (eventId + canonical event payload), as used by batch uploads.
+ * <p>
+ * Hashing follows RFC 6962/9162: {@code leaf = SHA-256(0x00 || payload)},
+ * {@code node = SHA-256(0x01 || left || right)}, and a tree of {@code n} leaves splits at the largest
+ * power of two below {@code n}. The leaf/node prefixes prevent an inner node from being passed off as
+ * an event. Inclusion proofs are the RFC audit paths (sibling hashes, leaf to root).
+ */
+public final class MerkleTree {
+
+    /** Upper bound on proof length; a 2^64-leaf tree needs 64 hashes. */
+    public static final int MAX_PROOF_LENGTH = 64;
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private MerkleTree() {
+    }
+
+    public static byte[] leafHash(byte[] payload) {
+        MessageDigest digest = sha256();
+        digest.update(LEAF_PREFIX);
+        return digest.digest(payload);
+    }
+
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest digest = sha256();
+        digest.update(NODE_PREFIX);
+        digest.update(left);
+        return digest.digest(right);
+    }
+
+    /**
+     * Root hash over the given leaf hashes (checkpoint side and tests).
+     */
+    public static byte[] root(List<byte[]> leafHashes) {
+        if (leafHashes.isEmpty()) {
+            throw new IllegalArgumentException("Merkle tree must have at least one leaf");
+        }
+        if (leafHashes.size() == 1) {
+            return leafHashes.get(0);
+        }
+        int k = splitPoint(leafHashes.size());
+        return nodeHash(root(leafHashes.subList(0, k)), root(leafHashes.subList(k, leafHashes.size())));
+    }
+
+    /**
+     * Audit path for leaf {@code index}, ordered from the leaf level up (checkpoint side and tests).
+     */
+    public static List<byte[]> proof(List<byte[]> leafHashes, int index) {
+        if (index < 0 || index >= leafHashes.size()) {
+            throw new IllegalArgumentException("Leaf index out of range: " + index);
+        }
+        List<byte[]> path = new ArrayList<>();
+        collectProof(leafHashes, index, path);
+        return path;
+    }
+
+    /**
+     * Checks that {@code leafHash} is leaf {@code index} of a tree of {@code treeSize} leaves with the
+     * given root (RFC 9162, section 2.1.3.2). Costs one hash per proof element.
+     */
+    public static boolean verifyInclusion(byte[] leafHash, long index, long treeSize, List<byte[]> proof, byte[] root) {
+        if (index < 0 || index >= treeSize || proof.size() > MAX_PROOF_LENGTH) {
+            return false;
+        }
+        long fn = index;
+        long sn = treeSize - 1;
+        byte[] r = leafHash;
+        for (byte[] p : proof) {
+            if (sn == 0) {
+                return false;
+            }
+            if ((fn & 1) == 1 || fn == sn) {
+                r = nodeHash(p, r);
+                if ((fn & 1) == 0) {
+                    while ((fn & 1) == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                }
+            } else {
+                r = nodeHash(r, p);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && MessageDigest.isEqual(r, root);
+    }
+
+    private static void collectProof(List<byte[]> leaves, int index, List<byte[]> path) {
+        if (leaves.size() == 1) {
+            return;
+        }
+        int k = splitPoint(leaves.size());
+        if (index < k) {
+            collectProof(leaves.subList(0, k), index, path);
+            path.add(root(leaves.subList(k, leaves.size())));
+        } else {
+            collectProof(leaves.subList(k, leaves.size()), index - k, path);
+            path.add(root(leaves.subList(0, k)));
+        }
+    }
+
+    private static int splitPoint(int n) {
+        // Largest power of two strictly less than n
+        return Integer.highestOneBit(n - 1);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.accesssystem.service;
+
+/**
+ * Thrown when a nonce cannot be recorded safely (e.g. the write-behind queue to the database is full).
+ * The nonce is not claimed; mapped to 503 Service Unavailable so that the checkpoint retries the event later.
+ */
+public class NonceStoreUnavailableException extends RuntimeException {
+
+    public NonceStoreUnavailableException(String message) {
+        super(message);
+    }
+}
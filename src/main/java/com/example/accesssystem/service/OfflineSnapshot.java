@@ -0,0 +1,181 @@
+package com.example.accesssystem.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Binary format of offline decision snapshots: which users a checkpoint may let through while the
+ * server is unreachable.
+ * <p>
+ * A user is identified by {@link #userHash}, the first 8 bytes of SHA-256 of the UTF-8 user code, so a
+ * checkpoint can decide from the credential alone. Entries are sorted as unsigned 64-bit values and
+ * looked up by binary search. Layout (big-endian):
+ * <pre>
+ *  0  magic "AOSS"                     4
+ *  4  format version (1)               1
+ *  5  type: 1 full, 2 delta            1
+ *  6  flags: bit 0 exit (anyone)       1
+ *  7  reserved (0)                     1
+ *  8  checkpoint id                   16
+ * 24  generated at, epoch millis       8
+ * 32  version                          8
+ * 40  base version (delta, else 0)     8
+ * 48  full: entries; delta: added      4
+ * 52  delta: removed, else 0           4
+ * 56  entries, then removed entries    8 each
+ *  .  key id length, key id (UTF-8)    1 + n
+ *  .  Ed25519 signature of all above  64
+ * </pre>
+ * A delta turns the snapshot of {@code base version} into {@code version}.
+ */
+public final class OfflineSnapshot {
+
+    static final byte[] MAGIC = {'A', 'O', 'S', 'S'};
+    static final byte FORMAT_VERSION = 1;
+    static final byte TYPE_FULL = 1;
+    static final byte TYPE_DELTA = 2;
+    static final byte FLAG_EXIT = 1;
+    static final int HEADER_LENGTH = 56;
+
+    private static final long[] NONE = new long[0];
+
+    private OfflineSnapshot() {
+    }
+
+    /**
+     * Snapshot key of a user code.
+     */
+    public static long userHash(String userCode) {
+        return userHash(sha256(), userCode);
+    }
+
+    static long userHash(MessageDigest digest, String userCode) {
+        return ByteBuffer.wrap(digest.digest(userCode.getBytes(StandardCharsets.UTF_8))).getLong();
+    }
+
+    /**
+     * Sorts hashes as unsigned values and drops duplicates, in place; returns the distinct prefix length.
+     */
+    static int sortUnsigned(long[] hashes, int length) {
+        // Flipping the sign bit maps unsigned order onto signed order
+        for (int i = 0; i < length; i++) {
+            hashes[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(hashes, 0, length);
+        int distinct = 0;
+        for (int i = 0; i < length; i++) {
+            if (distinct == 0 || hashes[i] != hashes[distinct - 1]) {
+                hashes[distinct++] = hashes[i];
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            hashes[i] ^= Long.MIN_VALUE;
+        }
+        return distinct;
+    }
+
+    /**
+     * Content version of a checkpoint's snapshot: the same on every node for the same content.
+     */
+    static long version(UUID checkpointId, boolean exit, long[] entries) {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(17 + 8 * 512);
+        buffer.putLong(checkpointId.getMostSignificantBits()).putLong(checkpointId.getLeastSignificantBits());
+        buffer.put(exit ? FLAG_EXIT : 0);
+        for (long entry : entries) {
+            if (!buffer.hasRemaining()) {
+                digest.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putLong(entry);
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        return ByteBuffer.wrap(digest.digest()).getLong();
+    }
+
+    /**
+     * Version as used in ETags and {@code since} parameters: 16 lowercase hex digits.
+     */
+    public static String versionTag(long version) {
+        return HexFormat.of().toHexDigits(version);
+    }
+
+    /**
+     * Parses {@link #versionTag}.
+     *
+     * @throws IllegalArgumentException if the tag is not 16 hex digits
+     */
+    public static long parseVersionTag(String tag) {
+        if (tag.length() != 16) {
+            throw new IllegalArgumentException("Snapshot version must be 16 hex digits");
+        }
+        try {
+            return HexFormat.fromHexDigitsToLong(tag);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Snapshot version must be 16 hex digits", e);
+        }
+    }
+
+    static byte[] encodeFull(UUID checkpointId, boolean exit, long generatedAt, long version, long[] entries,
+                             OfflineSnapshotSigner signer) {
+        return encode(TYPE_FULL, checkpointId, exit, generatedAt, version, 0, entries, NONE, signer);
+    }
+
+    /**
+     * Delta from the sorted entries of {@code baseVersion} to the sorted entries of {@code version}.
+     */
+    static byte[] encodeDelta(UUID checkpointId, boolean exit, long generatedAt, long version, long[] entries,
+                              long baseVersion, long[] baseEntries, OfflineSnapshotSigner signer) {
+        long[] added = new long[entries.length];
+        long[] removed = new long[baseEntries.length];
+        int addedCount = 0;
+        int removedCount = 0;
+        int i = 0;
+        int j = 0;
+        while (i < entries.length || j < baseEntries.length) {
+            int order = i == entries.length ? 1
+                : j == baseEntries.length ? -1
+                : Long.compareUnsigned(entries[i], baseEntries[j]);
+            if (order < 0) {
+                added[addedCount++] = entries[i++];
+            } else if (order > 0) {
+                removed[removedCount++] = baseEntries[j++];
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return encode(TYPE_DELTA, checkpointId, exit, generatedAt, version, baseVersion,
+            Arrays.copyOf(added, addedCount), Arrays.copyOf(removed, removedCount), signer);
+    }
+
+    private static byte[] encode(byte type, UUID checkpointId, boolean exit, long generatedAt, long version,
+                                 long baseVersion, long[] entries, long[] removed, OfflineSnapshotSigner signer) {
+        byte[] keyId = signer.keyId().getBytes(StandardCharsets.UTF_8);
+        int signedLength = HEADER_LENGTH + 8 * (entries.length + removed.length) + 1 + keyId.length;
+        ByteBuffer buffer = ByteBuffer.allocate(signedLength + OfflineSnapshotSigner.SIGNATURE_LENGTH);
+        buffer.put(MAGIC).put(FORMAT_VERSION).put(type).put(exit ? FLAG_EXIT : 0).put((byte) 0);
+        buffer.putLong(checkpointId.getMostSignificantBits()).putLong(checkpointId.getLeastSignificantBits());
+        buffer.putLong(generatedAt).putLong(version).putLong(baseVersion);
+        buffer.putInt(entries.length).putInt(removed.length);
+        buffer.asLongBuffer().put(entries).put(removed);
+        buffer.position(buffer.position() + 8 * (entries.length + removed.length));
+        buffer.put((byte) keyId.length).put(keyId);
+        byte[] bytes = buffer.array();
+        buffer.put(signer.sign(bytes, signedLength));
+        return bytes;
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.AccessMatrixEvaluator.AccessView;
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signed offline decision snapshots, one per checkpoint: the users the checkpoint may let through on its
+ * own while the server is unreachable (see {@link OfflineSnapshot} for the format).
+ * <p>
+ * A checkpoint's snapshot lists the users with standing access to the zone behind it (unscheduled rules,
+ * own or through a group, on the zone or an ancestor); schedules and visitor grants are time-bound and
+ * stay with the server. Exit checkpoints let everyone through.
+ * <p>
+ * Snapshots for all checkpoints are built together, in memory, from one {@link AccessView} and the current
+ * zone topology, on a dedicated fork/join pool ({@code access-system.offline-snapshots.parallelism}):
+ * user hashes are computed once per user dictionary, and the user list once per distinct zone. A
+ * generation is reused until rules, hierarchy, topology or dictionaries change; checkpoints whose content
+ * did not change keep their version, encoding and generation time. The last
+ * {@code access-system.offline-snapshots.retained-versions} versions of each checkpoint are kept so
+ * readers can download deltas.
+ */
+@Service
+public class OfflineSnapshotService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OfflineSnapshotService.class);
+
+    // Users or zones per fork/join leaf task
+    private static final int LEAF_USERS = 4096;
+    private static final int LEAF_ZONES = 4;
+
+    private final ObjectProvider<AccessMatrixEvaluator> accessMatrix;
+    private final ZoneTopology zoneTopology;
+    private final ReferenceDictionary dictionary;
+    private final OfflineSnapshotSigner signer;
+    private final int retainedVersions;
+    private final ForkJoinPool pool;
+    private final Timer generationDuration;
+    private final MeterRegistry meterRegistry;
+    private final Object generationLock = new Object();
+    private volatile Generation generation;
+
+    OfflineSnapshotService(ObjectProvider<AccessMatrixEvaluator> accessMatrix, ZoneTopology zoneTopology,
+                           ReferenceDictionary dictionary, OfflineSnapshotSigner signer,
+                           @Value("${access-system.offline-snapshots.retained-versions:8}") int retainedVersions,
+                           @Value("${access-system.offline-snapshots.parallelism:0}") int parallelism,
+                           MeterRegistry meterRegistry) {
+        this.accessMatrix = accessMatrix;
+        this.zoneTopology = zoneTopology;
+        this.dictionary = dictionary;
+        this.signer = signer;
+        this.retainedVersions = Math.max(1, retainedVersions);
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("offline-snapshot-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.generationDuration = Timer.builder("offline_snapshot_generation_duration")
+            .description("Time to build offline decision snapshots for all checkpoints")
+            .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Whether offline snapshots are available: they need the in-memory access matrix
+     * ({@code access-system.access-rules.evaluator: matrix}) and a signing key.
+     */
+    public boolean isAvailable() {
+        return signer.isEnabled() && accessMatrix.getIfAvailable() != null;
+    }
+
+    /**
+     * Snapshot of one checkpoint for a reader that has one of {@code cachedVersions} (ETags) or
+     * {@code sinceVersion} (the version to build a delta from, may be {@code null}). Returns not-modified
+     * when the reader is current, a delta when the base version is still retained, a full snapshot otherwise.
+     *
+     * @return empty if the checkpoint does not exist
+     * @throws IllegalStateException if offline snapshots are not available
+     */
+    public Optional<Download> download(String checkpointCode, Collection<Long> cachedVersions, Long sinceVersion) {
+        CheckpointSnapshot snapshot = current().checkpoints().get(checkpointCode);
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        Download download;
+        if (cachedVersions.contains(snapshot.version()) || Long.valueOf(snapshot.version()).equals(sinceVersion)) {
+            download = new Download(DownloadType.NOT_MODIFIED, snapshot.version(), null);
+        } else {
+            byte[] delta = sinceVersion == null ? null : snapshot.delta(sinceVersion, signer);
+            download = delta != null
+                ? new Download(DownloadType.DELTA, snapshot.version(), delta)
+                : new Download(DownloadType.FULL, snapshot.version(), snapshot.full(signer));
+        }
+        meterRegistry.counter("offline_snapshot_downloads_total", "type", download.type().tag()).increment();
+        return Optional.of(download);
+    }
+
+    /**
+     * Current version of every checkpoint's snapshot, by checkpoint code.
+     *
+     * @throws IllegalStateException if offline snapshots are not available
+     */
+    public List<Summary> summaries() {
+        return current().checkpoints().values().stream()
+            .map(snapshot -> new Summary(snapshot.code(), snapshot.version(), snapshot.exit(),
+                snapshot.entries().length, snapshot.generatedAt()))
+            .sorted(Comparator.comparing(Summary::checkpointCode))
+            .toList();
+    }
+
+    @Override
+    public void destroy() {
+        pool.shutdownNow();
+    }
+
+    private Generation current() {
+        AccessMatrixEvaluator matrix = accessMatrix.getIfAvailable();
+        if (matrix == null || !signer.isEnabled()) {
+            throw new IllegalStateException("Offline snapshots need the in-memory access matrix and a signing key");
+        }
+        AccessView view = matrix.view(Instant.now());
+        ZoneGraph graph = zoneTopology.current();
+        CodeDictionary users = dictionary.get(Kind.USERS);
+        CodeDictionary zones = dictionary.snapshot(Kind.ZONES);
+        Generation current = generation;
+        if (current != null && current.isCurrent(view, graph, users, zones)) {
+            return current;
+        }
+        synchronized (generationLock) {
+            current = generation;
+            if (current != null && current.isCurrent(view, graph, users, zones)) {
+                return current;
+            }
+            long started = System.nanoTime();
+            Generation next = build(current, view, graph, users, zones);
+            long elapsed = System.nanoTime() - started;
+            generationDuration.record(elapsed, TimeUnit.NANOSECONDS);
+            generation = next;
+            log.info("Offline snapshots generated: {} checkpoints, {} users in {} ms",
+                next.checkpoints().size(), users.liveCount(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            return next;
+        }
+    }
+
+    private Generation build(Generation previous, AccessView view, ZoneGraph graph, CodeDictionary users,
+                             CodeDictionary zones) {
+        long[] userHashes = previous != null && previous.users() == users
+            ? previous.userHashes()
+            : hashUsers(users, previous);
+
+        // Distinct target zones; exits (to OUT) need no user list
+        Map<UUID, Integer> zoneSlots = new LinkedHashMap<>();
+        for (CheckpointEdge edge : graph.checkpoints()) {
+            if (edge.toZoneId() != null) {
+                zoneSlots.putIfAbsent(edge.toZoneId(), zoneSlots.size());
+            }
+        }
+        UUID[] slotZones = zoneSlots.keySet().toArray(new UUID[0]);
+        long[][] entries = new long[slotZones.length][];
+        pool.invoke(new RangeTask(0, slotZones.length, LEAF_ZONES, (from, to) -> {
+            for (int slot = from; slot < to; slot++) {
+                entries[slot] = entriesOf(view.usersWithStandingAccess(zones.idOf(slotZones[slot])), userHashes);
+            }
+        }));
+
+        long now = System.currentTimeMillis();
+        Map<String, CheckpointSnapshot> checkpoints = new HashMap<>();
+        for (CheckpointEdge edge : graph.checkpoints()) {
+            boolean exit = edge.toZoneId() == null;
+            long[] checkpointEntries = exit ? new long[0] : entries[zoneSlots.get(edge.toZoneId())];
+            long version = OfflineSnapshot.version(edge.id(), exit, checkpointEntries);
+            CheckpointSnapshot kept = previous == null ? null : previous.checkpoints().get(edge.code());
+            if (kept != null && kept.id().equals(edge.id()) && kept.version() == version) {
+                checkpoints.put(edge.code(), kept);
+                continue;
+            }
+            Deque<RetainedVersion> history = new ArrayDeque<>();
+            if (kept != null && kept.id().equals(edge.id())) {
+                history.addAll(kept.history());
+                history.addFirst(new RetainedVersion(kept.version(), kept.entries()));
+                while (history.size() > retainedVersions) {
+                    history.removeLast();
+                }
+            }
+            checkpoints.put(edge.code(), new CheckpointSnapshot(edge.id(), edge.code(), exit, checkpointEntries,
+                version, now, List.copyOf(history)));
+        }
+        return new Generation(view, graph, users, zones, userHashes, checkpoints);
+    }
+
+    // Re-hashes only the dictionary chunks whose codes changed since the previous generation
+    private long[] hashUsers(CodeDictionary users, Generation previous) {
+        long[] hashes = previous == null
+            ? new long[users.size()]
+            : Arrays.copyOf(previous.userHashes(), users.size());
+        int chunks = (users.size() + CodeDictionary.CHUNK_IDS - 1) / CodeDictionary.CHUNK_IDS;
+        pool.invoke(new RangeTask(0, chunks, LEAF_USERS / CodeDictionary.CHUNK_IDS, (from, to) -> {
+            MessageDigest digest = OfflineSnapshot.sha256();
+            for (int chunk = from; chunk < to; chunk++) {
+                if (previous != null && users.sameChunk(previous.users(), chunk)) {
+                    continue;
+                }
+                int end = Math.min(users.size(), (chunk + 1) * CodeDictionary.CHUNK_IDS);
+                for (int user = chunk * CodeDictionary.CHUNK_IDS; user < end; user++) {
+                    String code = users.codeOf(user);
+                    // Deleted users get 0; entriesOf skips them by their code
+                    hashes[user] = code == null ? 0 : OfflineSnapshot.userHash(digest, code);
+                }
+            }
+        }));
+        return hashes;
+    }
+
+    private static long[] entriesOf(int[] userIds, long[] userHashes) {
+        long[] entries = new long[userIds.length];
+        int count = 0;
+        for (int user : userIds) {
+            // Users added after the last hash pass are picked up by the next generation
+            if (user < userHashes.length && userHashes[user] != 0) {
+                entries[count++] = userHashes[user];
+            }
+        }
+        int distinct = OfflineSnapshot.sortUnsigned(entries, count);
+        return distinct == entries.length ? entries : Arrays.copyOf(entries, distinct);
+    }
+
+    public enum DownloadType {
+        FULL, DELTA, NOT_MODIFIED;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    /**
+     * Result of {@link #download}; {@code body} is {@code null} when not modified.
+     */
+    public record Download(DownloadType type, long version, byte[] body) {}
+
+    /**
+     * Current snapshot version of a checkpoint.
+     */
+    public record Summary(String checkpointCode, long version, boolean exit, int users, long generatedAt) {}
+
+    private record RetainedVersion(long version, long[] entries) {}
+
+    private record Generation(AccessView view, ZoneGraph graph, CodeDictionary users, CodeDictionary zones,
+                              long[] userHashes, Map<String, CheckpointSnapshot> checkpoints) {
+
+        boolean isCurrent(AccessView otherView, ZoneGraph otherGraph, CodeDictionary otherUsers,
+                          CodeDictionary otherZones) {
+            return view.sameStandingAccess(otherView) && graph == otherGraph && users == otherUsers
+                && zones == otherZones;
+        }
+    }
+
+    /**
+     * One version of a checkpoint's snapshot. Encodings are signed on first download and kept.
+     */
+    private static final class CheckpointSnapshot {
+
+        private final UUID id;
+        private final String code;
+        private final boolean exit;
+        private final long[] entries;
+        private final long version;
+        private final long generatedAt;
+        // Older versions, newest first
+        private final List<RetainedVersion> history;
+        private final Map<Long, byte[]> deltas = new ConcurrentHashMap<>();
+        private volatile byte[] full;
+
+        private CheckpointSnapshot(UUID id, String code, boolean exit, long[] entries, long version,
+                                   long generatedAt, List<RetainedVersion> history) {
+            this.id = id;
+            this.code = code;
+            this.exit = exit;
+            this.entries = entries;
+            this.version = version;
+            this.generatedAt = generatedAt;
+            this.history = history;
+        }
+
+        UUID id() {
+            return id;
+        }
+
+        String code() {
+            return code;
+        }
+
+        boolean exit() {
+            return exit;
+        }
+
+        long[] entries() {
+            return entries;
+        }
+
+        long version() {
+            return version;
+        }
+
+        long generatedAt() {
+            return generatedAt;
+        }
+
+        List<RetainedVersion> history() {
+            return history;
+        }
+
+        byte[] full(OfflineSnapshotSigner signer) {
+            byte[] bytes = full;
+            if (bytes == null) {
+                bytes = OfflineSnapshot.encodeFull(id, exit, generatedAt, version, entries, signer);
+                full = bytes;
+            }
+            return bytes;
+        }
+
+        // Delta from a retained version, or null if that version is not retained
+        byte[] delta(long baseVersion, OfflineSnapshotSigner signer) {
+            for (RetainedVersion base : history) {
+                if (base.version() == baseVersion) {
+                    return deltas.computeIfAbsent(baseVersion, key -> OfflineSnapshot.encodeDelta(id, exit,
+                        generatedAt, version, entries, baseVersion, base.entries(), signer));
+                }
+            }
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RangeBody {
+        void run(int from, int to);
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final int leaf;
+        private final RangeBody body;
+
+        private RangeTask(int from, int to, int leaf, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > leaf) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(from, middle, leaf, body), new RangeTask(middle, to, leaf, body));
+                return;
+            }
+            body.run(from, to);
+        }
+    }
+}
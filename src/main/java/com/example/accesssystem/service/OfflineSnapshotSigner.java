@@ -0,0 +1,95 @@
+package com.example.accesssystem.service;
+
+import org.bouncycastle.crypto.params.Ed25519PrivateKeyParameters;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Signs offline decision snapshots with Ed25519.
+ * <p>
+ * The private key is the 32-byte seed from {@code access-system.offline-snapshots.signing-key} (base64);
+ * checkpoints are provisioned with the public key ({@link #publicKey()}) and the key id, which every
+ * snapshot carries so keys can be rotated. Without a signing key offline snapshots are disabled.
+ */
+@Component
+public class OfflineSnapshotSigner {
+
+    static final int SIGNATURE_LENGTH = Ed25519PrivateKeyParameters.SIGNATURE_SIZE;
+
+    private final Ed25519PrivateKeyParameters privateKey;
+    private final String keyId;
+
+    OfflineSnapshotSigner(@Value("${access-system.offline-snapshots.signing-key:}") String signingKeyBase64,
+                          @Value("${access-system.offline-snapshots.key-id:snapshot-1}") String keyId) {
+        this.keyId = keyId;
+        if (signingKeyBase64 == null || signingKeyBase64.isBlank()) {
+            this.privateKey = null;
+            return;
+        }
+        byte[] seed = Base64.getDecoder().decode(signingKeyBase64.trim());
+        try {
+            if (seed.length != Ed25519PrivateKeyParameters.KEY_SIZE) {
+                throw new IllegalStateException("access-system.offline-snapshots.signing-key must be "
+                    + Ed25519PrivateKeyParameters.KEY_SIZE + " bytes, got " + seed.length);
+            }
+            this.privateKey = new Ed25519PrivateKeyParameters(seed, 0);
+        } finally {
+            Arrays.fill(seed, (byte) 0);
+        }
+        if (keyId.isEmpty() || keyId.length() > 64) {
+            throw new IllegalStateException("access-system.offline-snapshots.key-id must be 1-64 characters");
+        }
+    }
+
+    /**
+     * Whether offline snapshots can be signed.
+     */
+    public boolean isEnabled() {
+        return privateKey != null;
+    }
+
+    public String keyId() {
+        return keyId;
+    }
+
+    /**
+     * Raw 32-byte Ed25519 public key.
+     */
+    public byte[] publicKey() {
+        requireEnabled();
+        return privateKey.generatePublicKey().getEncoded();
+    }
+
+    /**
+     * Ed25519 signature ({@value #SIGNATURE_LENGTH} bytes) of {@code data[0, length)}.
+     */
+    public byte[] sign(byte[] data, int length) {
+        requireEnabled();
+        // Signers are cheap and not thread-safe; snapshots are signed once per version
+        Ed25519Signer signer = new Ed25519Signer();
+        signer.init(true, privateKey);
+        signer.update(data, 0, length);
+        return signer.generateSignature();
+    }
+
+    /**
+     * Checks a signature made by {@link #sign} against a raw public key (as a checkpoint would).
+     */
+    static boolean verify(byte[] publicKey, byte[] data, int length, byte[] signature) {
+        Ed25519Signer verifier = new Ed25519Signer();
+        verifier.init(false, new Ed25519PublicKeyParameters(publicKey, 0));
+        verifier.update(data, 0, length);
+        return verifier.verifySignature(signature);
+    }
+
+    private void requireEnabled() {
+        if (privateKey == null) {
+            throw new IllegalStateException("Offline snapshots are disabled: signing key is not configured");
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.accesssystem.service;
+
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.edec.EdECObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
+import org.bouncycastle.asn1.x9.X9ObjectIdentifiers;
+import org.bouncycastle.openssl.PEMParser;
+import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+
+/**
+ * Parses PEM-encoded public keys ({@code -----BEGIN PUBLIC KEY-----}).
+ * Common key algorithms are decoded with the pinned, pooled key factories of {@link JcaInstancePool}.
+ */
+final class PemKeys {
+
+    private PemKeys() {
+    }
+
+    static PublicKey parsePublicKey(String publicKeyPem, JcaInstancePool jcaPool) throws IOException, GeneralSecurityException {
+        try (PEMParser pemParser = new PEMParser(new StringReader(publicKeyPem))) {
+            Object keyObject = pemParser.readObject();
+            if (!(keyObject instanceof SubjectPublicKeyInfo info)) {
+                throw new IllegalArgumentException("Failed to parse public key");
+            }
+            String keyAlgorithm = keyAlgorithm(info.getAlgorithm().getAlgorithm());
+            if (keyAlgorithm != null) {
+                return jcaPool.generatePublic(keyAlgorithm, info.getEncoded());
+            }
+            return new JcaPEMKeyConverter().getPublicKey(info);
+        }
+    }
+
+    private static String keyAlgorithm(ASN1ObjectIdentifier oid) {
+        if (PKCSObjectIdentifiers.rsaEncryption.equals(oid)) {
+            return "RSA";
+        }
+        if (X9ObjectIdentifiers.id_ecPublicKey.equals(oid)) {
+            return "EC";
+        }
+        if (EdECObjectIdentifiers.id_Ed25519.equals(oid)) {
+            return "Ed25519";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CodeDictionary.Entry;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads (id, code) pairs of users, zones and checkpoints for the code dictionaries.
+ */
+public interface ReferenceCodeRepository {
+
+    /**
+     * Kind of reference entity; each maps to its table.
+     */
+    enum Kind {
+        USERS("users"),
+        ZONES("zones"),
+        CHECKPOINTS("checkpoints");
+
+        private final String table;
+
+        Kind(String table) {
+            this.table = table;
+        }
+
+        public String table() {
+            return table;
+        }
+    }
+
+    /**
+     * Loads every entity of the given kind.
+     */
+    List<Entry> findAll(Kind kind);
+
+    /**
+     * Loads the entities with the given ids; ids that do not exist are omitted.
+     */
+    List<Entry> findByIds(Kind kind, Collection<UUID> ids);
+
+    /**
+     * Loads the entities with the given codes; codes that do not exist are omitted.
+     */
+    List<Entry> findByCodes(Kind kind, Collection<String> codes);
+}
@@ -0,0 +1,56 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Implementation of ReferenceCodeRepository using JdbcTemplate.
+ */
+@Repository
+public class ReferenceCodeRepositoryImpl implements ReferenceCodeRepository {
+
+    private static final RowMapper<Entry> ENTRY_MAPPER =
+        (rs, rowNum) -> new Entry(rs.getObject("id", UUID.class), rs.getString("code"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReferenceCodeRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Entry> findAll(Kind kind) {
+        // Table names come from the enum, never from input
+        return jdbcTemplate.query("SELECT id, code FROM " + kind.table() + " ORDER BY created_at, id", ENTRY_MAPPER);
+    }
+
+    @Override
+    public List<Entry> findByIds(Kind kind, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            "SELECT id, code FROM " + kind.table() + " WHERE id = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+            ENTRY_MAPPER
+        );
+    }
+
+    @Override
+    public List<Entry> findByCodes(Kind kind, Collection<String> codes) {
+        if (codes.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            "SELECT id, code FROM " + kind.table() + " WHERE code = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar", codes.toArray())),
+            ENTRY_MAPPER
+        );
+    }
+}
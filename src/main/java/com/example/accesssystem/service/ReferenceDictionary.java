@@ -0,0 +1,144 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dense {@code int} ids for user, zone and checkpoint codes, one {@link CodeDictionary} per kind.
+ * <p>
+ * Loaded on startup and kept current by the reference data change feed (users and zones are keyed by
+ * id, checkpoints by code). Ids are stable for the lifetime of the process, also across full reloads,
+ * so in-memory structures indexed by them (such as {@link AccessMatrix}) stay valid.
+ */
+@Component
+public class ReferenceDictionary implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDictionary.class);
+
+    private final ReferenceCodeRepository referenceCodeRepository;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Map<Kind, AtomicReference<CodeDictionary>> dictionaries = new EnumMap<>(Kind.class);
+    private final Object updateLock = new Object();
+
+    ReferenceDictionary(ReferenceCodeRepository referenceCodeRepository, ReferenceDataChangeFeed changeFeed,
+                        MeterRegistry meterRegistry) {
+        this.referenceCodeRepository = referenceCodeRepository;
+        this.changeFeed = changeFeed;
+        for (Kind kind : Kind.values()) {
+            AtomicReference<CodeDictionary> dictionary = new AtomicReference<>(CodeDictionary.empty());
+            dictionaries.put(kind, dictionary);
+            Gauge.builder("reference_dictionary_entries", dictionary, ref -> ref.get().liveCount())
+                .description("Codes with a dense id in the reference dictionary")
+                .tag("kind", kind.table())
+                .register(meterRegistry);
+            Gauge.builder("reference_dictionary_bytes", dictionary, ref -> ref.get().footprintBytes())
+                .description("Approximate heap footprint of the reference dictionary")
+                .tag("kind", kind.table())
+                .register(meterRegistry);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Current dictionary of the given kind.
+     */
+    public CodeDictionary get(Kind kind) {
+        changeFeed.ensureFresh();
+        return snapshot(kind);
+    }
+
+    /**
+     * Current dictionary of the given kind without waiting for the change feed; for other listeners,
+     * which run inside a feed poll.
+     */
+    public CodeDictionary snapshot(Kind kind) {
+        return dictionaries.get(kind).get();
+    }
+
+    /**
+     * Reloads the given entities (for example ones written a moment ago and not yet seen by the feed).
+     */
+    public void refresh(Kind kind, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Entry> loaded = referenceCodeRepository.findByIds(kind, ids);
+        Set<UUID> deleted = new HashSet<>(ids);
+        loaded.forEach(entry -> deleted.remove(entry.id()));
+        update(kind, loaded, deleted);
+    }
+
+    @Override
+    public String name() {
+        return "reference_dictionary";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of(Kind.USERS.table(), Kind.ZONES.table(), Kind.CHECKPOINTS.table());
+    }
+
+    @Override
+    public void reloadAll() {
+        for (Kind kind : Kind.values()) {
+            List<Entry> loaded = referenceCodeRepository.findAll(kind);
+            synchronized (updateLock) {
+                AtomicReference<CodeDictionary> dictionary = dictionaries.get(kind);
+                dictionary.set(dictionary.get().withExactly(loaded));
+            }
+            log.info("Reference dictionary '{}' loaded: {} codes", kind.table(), loaded.size());
+        }
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        if (Kind.CHECKPOINTS.table().equals(table)) {
+            // The checkpoints feed is keyed by code: a code that is gone belongs to a deleted or renamed row
+            List<Entry> loaded = referenceCodeRepository.findByCodes(Kind.CHECKPOINTS, keys);
+            CodeDictionary current = snapshot(Kind.CHECKPOINTS);
+            Set<UUID> deleted = new HashSet<>();
+            for (String code : keys) {
+                UUID id = current.uuidOf(current.idOf(code));
+                if (id != null) {
+                    deleted.add(id);
+                }
+            }
+            loaded.forEach(entry -> deleted.remove(entry.id()));
+            update(Kind.CHECKPOINTS, loaded, deleted);
+            return;
+        }
+        Kind kind = Kind.USERS.table().equals(table) ? Kind.USERS : Kind.ZONES;
+        List<UUID> ids = new ArrayList<>(keys.size());
+        keys.forEach(key -> ids.add(UUID.fromString(key)));
+        refresh(kind, ids);
+    }
+
+    private void update(Kind kind, Collection<Entry> upserts, Collection<UUID> deletions) {
+        synchronized (updateLock) {
+            AtomicReference<CodeDictionary> dictionary = dictionaries.get(kind);
+            dictionary.set(dictionary.get().with(upserts, deletions));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.accesssystem.service;
+
+import java.util.Arrays;
+
+/**
+ * Sliding-window replay check over a monotonically increasing sequence number (as in IPsec, RFC 4303).
+ * <p>
+ * The window remembers the highest sequence seen and a bitmap of the {@code size} sequences below it.
+ * A sequence above the highest one slides the window forward; one inside the window is accepted once;
+ * one below the window is rejected as too old. Memory is {@code size / 8} bytes per window, whatever
+ * the event rate.
+ */
+public final class SequenceReplayWindow {
+
+    /**
+     * Outcome of {@link #accept(long)}.
+     */
+    public enum Verdict { ACCEPTED, REPLAYED, TOO_OLD }
+
+    private final int size;
+    private final long[] bitmap;
+    private long highest;
+
+    /**
+     * @param size number of sequences tracked below the highest one (a positive multiple of 64)
+     * @param highWaterMark highest sequence already used (every sequence up to it counts as seen),
+     *                      or -1 if the checkpoint has no history
+     */
+    public SequenceReplayWindow(int size, long highWaterMark) {
+        if (size <= 0 || size % 64 != 0) {
+            throw new IllegalArgumentException("Window size must be a positive multiple of 64: " + size);
+        }
+        this.size = size;
+        this.bitmap = new long[size / 64];
+        this.highest = highWaterMark;
+        if (highWaterMark >= 0) {
+            Arrays.fill(bitmap, -1L);
+        }
+    }
+
+    /**
+     * Checks a sequence number and marks it as used if it was not.
+     */
+    public synchronized Verdict accept(long sequence) {
+        if (sequence < 0) {
+            throw new IllegalArgumentException("Sequence must not be negative: " + sequence);
+        }
+        if (sequence > highest) {
+            slide(sequence - highest);
+            highest = sequence;
+            set(0);
+            return Verdict.ACCEPTED;
+        }
+        long offset = highest - sequence;
+        if (offset >= size) {
+            return Verdict.TOO_OLD;
+        }
+        if (isSet((int) offset)) {
+            return Verdict.REPLAYED;
+        }
+        set((int) offset);
+        return Verdict.ACCEPTED;
+    }
+
+    /**
+     * Highest sequence accepted so far (-1 if none).
+     */
+    public synchronized long highWaterMark() {
+        return highest;
+    }
+
+    // Bit i stands for sequence (highest - i); sliding by n moves every bit n positions up
+    private void slide(long distance) {
+        if (distance >= size) {
+            Arrays.fill(bitmap, 0L);
+            return;
+        }
+        int words = (int) (distance >>> 6);
+        int bits = (int) (distance & 63);
+        for (int i = bitmap.length - 1; i >= 0; i--) {
+            int source = i - words;
+            long value = source >= 0 ? bitmap[source] << bits : 0L;
+            if (bits != 0 && source - 1 >= 0) {
+                value |= bitmap[source - 1] >>> (64 - bits);
+            }
+            bitmap[i] = value;
+        }
+    }
+
+    private void set(int offset) {
+        bitmap[offset >>> 6] |= 1L << (offset & 63);
+    }
+
+    private boolean isSet(int offset) {
+        return (bitmap[offset >>> 6] & (1L << (offset & 63))) != 0;
+    }
+}
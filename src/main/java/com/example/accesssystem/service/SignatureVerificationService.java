@@ -3,56 +3,71 @@ package com.example.accesssystem.service;
 import com.example.accesssystem.domain.Identifiers.CheckpointId;
 import com.example.accesssystem.domain.PassageModels.SignedPayload;
 import com.example.accesssystem.domain.contracts.SecurityContracts;
-import org.bouncycastle.asn1.x509.SubjectPublicKeyInfo;
-import org.bouncycastle.openssl.PEMParser;
-import org.bouncycastle.openssl.jcajce.JcaPEMKeyConverter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
-import java.security.spec.*;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Service for verifying checkpoint message signatures.
+ * Keys come from the in-memory {@link CheckpointKeyRing}; when the message does not name a key,
+ * all keys of the checkpoint are tried newest first so that rotation causes no rejections.
+ * <p>
+ * Checkpoints opted into {@code key_type = 'HMAC'} are verified with HMAC-SHA256 and a constant-time
+ * comparison instead of a public key operation; {@code checkpoint_signature_verifications_total{scheme}}
+ * shows how much traffic takes the cheaper path.
  */
 @Service
 public class SignatureVerificationService implements SecurityContracts.CheckpointMessageVerifier {
     
     private static final Logger log = LoggerFactory.getLogger(SignatureVerificationService.class);
     
-    private final CheckpointKeyRepository keyRepository;
+    static final String HMAC = "HMAC";
+    
+    private final CheckpointKeyRing keyRing;
     private final CanonicalPayloadBuilder canonicalBuilder;
+    private final JcaInstancePool jcaPool;
+    private final MeterRegistry meterRegistry;
     
-    SignatureVerificationService(CheckpointKeyRepository keyRepository, 
-                                 CanonicalPayloadBuilder canonicalBuilder) {
-        this.keyRepository = keyRepository;
+    SignatureVerificationService(CheckpointKeyRing keyRing, 
+                                 CanonicalPayloadBuilder canonicalBuilder,
+                                 JcaInstancePool jcaPool,
+                                 MeterRegistry meterRegistry) {
+        this.keyRing = keyRing;
         this.canonicalBuilder = canonicalBuilder;
+        this.jcaPool = jcaPool;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("checkpoint_keys_hmac_checkpoints", keyRing, CheckpointKeyRing::hmacCheckpointCount)
+            .description("Checkpoints authenticated with symmetric HMAC-SHA256 keys")
+            .register(meterRegistry);
     }
     
     @Override
     public SecurityContracts.VerificationResult verifyCheckpointMessage(
             CheckpointId checkpointId, SignedPayload payload) {
+        return verifyCheckpointMessage(checkpointId, null, payload);
+    }
+    
+    @Override
+    public SecurityContracts.VerificationResult verifyCheckpointMessage(
+            CheckpointId checkpointId, String keyId, SignedPayload payload) {
         
         try {
-            // Get public key for checkpoint
-            Optional<String> publicKeyPemOpt = keyRepository.findPublicKeyByCheckpointCode(checkpointId.value());
-            if (publicKeyPemOpt.isEmpty()) {
-                log.warn("Checkpoint public key not found: {}", checkpointId.value());
+            // Get public keys for checkpoint
+            Optional<KeyRing> ring = keyRing.find(checkpointId.value());
+            List<KeyRing.Entry> candidates = ring.map(r -> r.candidates(keyId)).orElse(List.of());
+            if (candidates.isEmpty()) {
+                log.warn("Checkpoint public key not found: {} (kid={})", checkpointId.value(), keyId);
                 return SecurityContracts.VerificationResult.failed("Checkpoint key not found");
             }
             
-            Optional<String> keyTypeOpt = keyRepository.findKeyTypeByCheckpointCode(checkpointId.value());
-            String keyType = keyTypeOpt.orElse("RSA");
-            
-            // Parse public key
-            PublicKey publicKey = parsePublicKey(publicKeyPemOpt.get(), keyType);
-            
             // Extract signature and payload from signed payload
             // Format: base64(canonical_payload) + "|" + base64(signature)
             String payloadString = new String(payload.bytes(), StandardCharsets.UTF_8);
@@ -68,16 +83,30 @@ public class SignatureVerificationService implements SecurityContracts.Checkpoin
             byte[] canonicalPayload = Base64.getDecoder().decode(canonicalPayloadBase64);
             byte[] signature = Base64.getDecoder().decode(signatureBase64);
             
-            // Verify signature
-            boolean valid = verifySignature(publicKey, canonicalPayload, signature, keyType);
-            
-            if (!valid) {
-                log.warn("Signature verification failed for checkpoint: {}", checkpointId.value());
-                return SecurityContracts.VerificationResult.failed("Signature verification failed");
+            // Verify signature against the candidate keys
+            GeneralSecurityException lastError = null;
+            boolean anyCompared = false;
+            for (KeyRing.Entry key : candidates) {
+                try {
+                    if (verifySignature(key, canonicalPayload, signature)) {
+                        log.debug("Signature verification successful for checkpoint: {} (kid={})",
+                            checkpointId.value(), key.kid());
+                        record(key, "ok");
+                        return SecurityContracts.VerificationResult.ok();
+                    }
+                    anyCompared = true;
+                } catch (SignatureException | InvalidKeyException e) {
+                    lastError = e;
+                }
+            }
+            if (!anyCompared && lastError != null) {
+                // The signature could not be checked against any key (malformed signature, key type mismatch)
+                throw lastError;
             }
             
-            log.debug("Signature verification successful for checkpoint: {}", checkpointId.value());
-            return SecurityContracts.VerificationResult.ok();
+            log.warn("Signature verification failed for checkpoint: {}", checkpointId.value());
+            record(candidates.get(0), "failed");
+            return SecurityContracts.VerificationResult.failed("Signature verification failed");
             
         } catch (Exception e) {
             log.error("Error verifying signature for checkpoint: {}", checkpointId.value(), e);
@@ -85,39 +114,28 @@ public class SignatureVerificationService implements SecurityContracts.Checkpoin
         }
     }
     
-    private PublicKey parsePublicKey(String publicKeyPem, String keyType) throws IOException, GeneralSecurityException {
-        try (PEMParser pemParser = new PEMParser(new StringReader(publicKeyPem))) {
-            Object keyObject = pemParser.readObject();
-            JcaPEMKeyConverter converter = new JcaPEMKeyConverter();
-            
-            if (keyObject instanceof SubjectPublicKeyInfo) {
-                return converter.getPublicKey((SubjectPublicKeyInfo) keyObject);
-            }
-            
-            // Try to convert using JcaPEMKeyConverter
-            try {
-                return converter.getPublicKey((org.bouncycastle.asn1.x509.SubjectPublicKeyInfo) keyObject);
-            } catch (Exception e) {
-                throw new IllegalArgumentException("Failed to parse public key. Key type: " + keyType, e);
-            }
-        }
-    }
-    
-    private boolean verifySignature(PublicKey publicKey, byte[] data, byte[] signature, String keyType) 
+    private boolean verifySignature(KeyRing.Entry key, byte[] data, byte[] signature) 
             throws GeneralSecurityException {
         
-        Signature sig;
+        String keyType = key.keyType();
+        if (key.hmacKey() != null) {
+            return key.hmacKey().verify(data, signature);
+        }
+        String algorithm;
         if ("RSA".equalsIgnoreCase(keyType)) {
-            sig = Signature.getInstance("SHA256withRSA");
+            algorithm = "SHA256withRSA";
         } else if ("ECDSA".equalsIgnoreCase(keyType)) {
-            sig = Signature.getInstance("SHA256withECDSA");
+            algorithm = "SHA256withECDSA";
         } else {
             throw new IllegalArgumentException("Unsupported key type for verification: " + keyType);
         }
         
-        sig.initVerify(publicKey);
-        sig.update(data);
-        return sig.verify(signature);
+        return jcaPool.verify(algorithm, key.publicKey(), data, signature);
+    }
+    
+    private void record(KeyRing.Entry key, String result) {
+        meterRegistry.counter("checkpoint_signature_verifications_total",
+            "scheme", key.keyType().toLowerCase(), "result", result).increment();
     }
 }
 
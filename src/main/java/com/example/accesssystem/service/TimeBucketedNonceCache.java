@@ -0,0 +1,169 @@
+package com.example.accesssystem.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory set of used nonces, partitioned into buckets by expiry time.
+ * <p>
+ * Each bucket covers one {@code bucketWidthSeconds} slice of expiry times; once the whole slice is in
+ * the past the bucket is dropped in one step, so expiry needs no per-entry work. Every bucket has a
+ * Bloom filter in front of its set: a lookup only touches the sets of buckets whose filter reports a
+ * possible match, which for fresh nonces is (almost) none.
+ * <p>
+ * A nonce may be added with different expiries (e.g. a replay with another timestamp), so the
+ * check-then-add over all buckets runs under a lock striped by the nonce hash. Lookups of different
+ * nonces do not contend.
+ */
+public final class TimeBucketedNonceCache {
+
+    private static final int LOCK_STRIPES = 64;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final long bucketWidthSeconds;
+    private final int expectedPerBucket;
+    private final ConcurrentSkipListMap<Long, Bucket> buckets = new ConcurrentSkipListMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[LOCK_STRIPES];
+
+    public TimeBucketedNonceCache(long bucketWidthSeconds, int expectedPerBucket) {
+        if (bucketWidthSeconds <= 0 || expectedPerBucket <= 0) {
+            throw new IllegalArgumentException("Bucket width and expected size must be positive");
+        }
+        this.bucketWidthSeconds = bucketWidthSeconds;
+        this.expectedPerBucket = expectedPerBucket;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Records a nonce unless it is already present.
+     *
+     * @param nonce the nonce
+     * @param expiresAtEpochSecond when the nonce may be forgotten
+     * @param nowEpochSecond current time, used to drop expired buckets
+     * @return true if the nonce was new, false if it had been seen before
+     */
+    public boolean add(String nonce, long expiresAtEpochSecond, long nowEpochSecond) {
+        evictExpired(nowEpochSecond);
+        long hash = hash(nonce);
+        ReentrantLock lock = stripes[(int) (hash >>> 58)];
+        lock.lock();
+        try {
+            if (containsHashed(nonce, hash)) {
+                return false;
+            }
+            long index = Math.floorDiv(Math.max(expiresAtEpochSecond, nowEpochSecond), bucketWidthSeconds);
+            buckets.computeIfAbsent(index, i -> new Bucket(expectedPerBucket)).add(nonce, hash);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks whether a nonce has been recorded and has not been dropped yet.
+     */
+    public boolean contains(String nonce, long nowEpochSecond) {
+        evictExpired(nowEpochSecond);
+        return containsHashed(nonce, hash(nonce));
+    }
+
+    /**
+     * Number of nonces held (including those whose bucket is not dropped yet).
+     */
+    public long size() {
+        long size = 0;
+        for (Bucket bucket : buckets.values()) {
+            size += bucket.nonces.size();
+        }
+        return size;
+    }
+
+    /**
+     * Number of live buckets.
+     */
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    private boolean containsHashed(String nonce, long hash) {
+        for (Bucket bucket : buckets.values()) {
+            if (bucket.mightContain(hash) && bucket.nonces.contains(nonce)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictExpired(long nowEpochSecond) {
+        // Bucket i covers expiries [i * width, (i + 1) * width): all expired once now reaches (i + 1) * width
+        ConcurrentNavigableMap<Long, Bucket> expired = buckets.headMap(Math.floorDiv(nowEpochSecond, bucketWidthSeconds));
+        if (!expired.isEmpty()) {
+            expired.clear();
+        }
+    }
+
+    static long hash(String nonce) {
+        // FNV-1a over UTF-8 bytes, finished with the MurmurHash3 64-bit mixer
+        long h = 0xcbf29ce484222325L;
+        for (byte b : nonce.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Bucket {
+        private final Set<String> nonces;
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        Bucket(int expected) {
+            this.nonces = ConcurrentHashMap.newKeySet(Math.min(expected, 1 << 16));
+            long m = (long) Math.ceil(-expected * Math.log(FALSE_POSITIVE_RATE) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (m + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / expected * Math.log(2)));
+        }
+
+        void add(String nonce, long hash) {
+            nonces.add(nonce);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // retry
+                }
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.accesssystem.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each slot of a level spanning a full turn of the
+ * level below.
+ * <p>
+ * With a one second tick the levels cover about a minute, an hour, three days and half a year; later
+ * deadlines wait in an overflow list. Scheduling is O(1), and advancing costs O(1) per tick plus the
+ * timers that fire or move down a level, however many timers are pending. Timers never fire early: a
+ * timer is due at the first tick at or after its deadline. There is no cancellation; owners ignore timers
+ * for items that are already gone.
+ * <p>
+ * Not thread-safe; callers synchronize.
+ */
+public final class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final List<List<Timer<T>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final List<Timer<T>> overflow = new ArrayList<>();
+    // Scheduled with a deadline in an already processed tick
+    private final List<T> overdue = new ArrayList<>();
+    // Next tick to process
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param tickMillis resolution of the wheel
+     * @param startMillis current time; nothing before it is ever processed
+     */
+    public TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Schedules the item to fire at the first {@link #advance} to a time at or after the deadline.
+     */
+    public void schedule(T item, long deadlineMillis) {
+        long deadlineTick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (deadlineTick < currentTick) {
+            overdue.add(item);
+        } else {
+            place(new Timer<>(item, deadlineTick));
+        }
+        size++;
+    }
+
+    /**
+     * Processes every tick up to the given time and hands the due items to the consumer.
+     *
+     * @return the number of items fired
+     */
+    public int advance(long nowMillis, Consumer<T> fired) {
+        long nowTick = Math.floorDiv(nowMillis, tickMillis);
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick + 1);
+            return 0;
+        }
+        int count = overdue.size();
+        if (count > 0) {
+            List<T> due = new ArrayList<>(overdue);
+            overdue.clear();
+            size -= count;
+            due.forEach(fired);
+        }
+        while (currentTick <= nowTick) {
+            cascade();
+            List<Timer<T>> slot = slots.get((int) (currentTick & SLOT_MASK));
+            if (!slot.isEmpty()) {
+                List<Timer<T>> due = new ArrayList<>(slot);
+                slot.clear();
+                for (Timer<T> timer : due) {
+                    fired.accept(timer.item());
+                }
+                size -= due.size();
+                count += due.size();
+            }
+            currentTick++;
+        }
+        return count;
+    }
+
+    /**
+     * Pending timers.
+     */
+    public int size() {
+        return size;
+    }
+
+    // At the start of every turn of a level, redistribute the next slot of the level above
+    private void cascade() {
+        if ((currentTick & SLOT_MASK) != 0) {
+            return;
+        }
+        int topLevel = 1;
+        while (topLevel < LEVELS && (currentTick & ((1L << (SLOT_BITS * (topLevel + 1))) - 1)) == 0) {
+            topLevel++;
+        }
+        if (topLevel == LEVELS && !overflow.isEmpty()) {
+            List<Timer<T>> waiting = new ArrayList<>(overflow);
+            overflow.clear();
+            waiting.forEach(this::place);
+        }
+        for (int level = Math.min(topLevel, LEVELS - 1); level >= 1; level--) {
+            List<Timer<T>> slot = slot(level, currentTick);
+            if (!slot.isEmpty()) {
+                List<Timer<T>> moving = new ArrayList<>(slot);
+                slot.clear();
+                moving.forEach(this::place);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long deadline = timer.deadlineTick();
+        long delta = deadline - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (SLOT_BITS * (level + 1))) {
+                slot(level, deadline).add(timer);
+                return;
+            }
+        }
+        overflow.add(timer);
+    }
+
+    private List<Timer<T>> slot(int level, long tick) {
+        return slots.get(level * SLOTS + (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK));
+    }
+
+    private record Timer<T>(T item, long deadlineTick) {}
+}
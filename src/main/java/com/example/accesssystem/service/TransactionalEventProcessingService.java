@@ -7,6 +7,7 @@ import com.example.accesssystem.domain.contracts.AccessControlContracts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,25 +29,28 @@ public class TransactionalEventProcessingService {
     
     private final AccessControlContracts.AccessRuleEvaluator accessRuleEvaluator;
     private final AccessControlContracts.UserStateService userStateService;
-    private final CheckpointRepository checkpointRepository;
+    private final ZoneTopology zoneTopology;
     private final EventRepository eventRepository;
     private final DenialRepository denialRepository;
     private final MeterRegistry meterRegistry;
+    private final boolean enforceCheckpointEdges;
     
     TransactionalEventProcessingService(
         AccessControlContracts.AccessRuleEvaluator accessRuleEvaluator,
         AccessControlContracts.UserStateService userStateService,
-        CheckpointRepository checkpointRepository,
+        ZoneTopology zoneTopology,
         EventRepository eventRepository,
         DenialRepository denialRepository,
-        MeterRegistry meterRegistry
+        MeterRegistry meterRegistry,
+        @Value("${access-system.topology.enforce-checkpoint-edges:false}") boolean enforceCheckpointEdges
     ) {
         this.accessRuleEvaluator = accessRuleEvaluator;
         this.userStateService = userStateService;
-        this.checkpointRepository = checkpointRepository;
+        this.zoneTopology = zoneTopology;
         this.eventRepository = eventRepository;
         this.denialRepository = denialRepository;
         this.meterRegistry = meterRegistry;
+        this.enforceCheckpointEdges = enforceCheckpointEdges;
     }
     
     /**
@@ -148,8 +152,9 @@ public class TransactionalEventProcessingService {
         ZoneId fromZoneObj = normalizedFromZone != null ? new ZoneId(normalizedFromZone) : null;
         ZoneId toZoneObj = (toZoneCode != null && !toZoneCode.equals("OUT")) ? new ZoneId(toZoneCode) : null;
         boolean exitAttempt = (toZoneCode == null || "OUT".equals(toZoneCode));
+        ZoneGraph topology = zoneTopology.current();
         if (exitAttempt) {
-            if (fromZoneId == null || !checkpointRepository.hasExit(fromZoneId)) {
+            if (!topology.hasExit(fromZoneId)) {
                 String message = String.format(
                     "Zone '%s' has no configured exit to OUT",
                     fromZoneCode != null && !fromZoneCode.isBlank() ? fromZoneCode : "UNKNOWN"
@@ -171,10 +176,39 @@ public class TransactionalEventProcessingService {
                 return ProcessingResult.denied("no_exit_path", message);
             }
         }
+
+        // The transition must be the edge the checkpoint is configured for (denied only when enforced)
+        if (!topology.isConfiguredEdge(checkpointId, fromZoneId, toZoneId)) {
+            meterRegistry.counter("checkpoint_edge_mismatches_total",
+                "action", enforceCheckpointEdges ? "denied" : "allowed").increment();
+            String message = String.format(
+                "Checkpoint '%s' is not configured for transition '%s' -> '%s'",
+                checkpointCode, normalizedFromZone != null ? normalizedFromZone : "OUT",
+                toZoneObj != null ? toZoneCode : "OUT"
+            );
+            if (enforceCheckpointEdges) {
+                log.info("Transition denied: {}", message);
+                denialRepository.recordDenial(
+                    eventId,
+                    checkpointId,
+                    checkpointCode,
+                    userId,
+                    userCode,
+                    fromZoneId,
+                    fromZoneCode,
+                    toZoneId,
+                    toZoneCode,
+                    DenialReason.ACCESS_DENIED,
+                    message
+                );
+                return ProcessingResult.denied("checkpoint_edge_mismatch", message);
+            }
+            log.debug("Edge mismatch ignored: {}", message);
+        }
         
         // Check access rules
         AccessControlContracts.AccessDecision decision = 
-            accessRuleEvaluator.canTransit(userIdObj, fromZoneObj, toZoneObj);
+            accessRuleEvaluator.canTransit(userIdObj, fromZoneObj, toZoneObj, eventTimestamp);
         
         if (decision != ALLOW) {
             log.info("Access denied for event: eventId={}, user={}, from={}, to={}",
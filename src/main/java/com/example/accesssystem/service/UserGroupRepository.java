@@ -0,0 +1,148 @@
+package com.example.accesssystem.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for user groups, their members and their access rules.
+ * A group access rule lets every member of the group enter the zone.
+ */
+public interface UserGroupRepository {
+
+    /**
+     * Creates a new group.
+     *
+     * @param code the group code (must be unique)
+     * @return the created group's ID
+     */
+    UUID create(String code);
+
+    /**
+     * Finds a group by ID.
+     *
+     * @param id the group ID
+     * @return the group record if found
+     */
+    Optional<GroupRecord> findById(UUID id);
+
+    /**
+     * Lists all groups with pagination.
+     *
+     * @param offset the offset for pagination
+     * @param limit the maximum number of records to return
+     * @return list of group records
+     */
+    List<GroupRecord> findAll(int offset, int limit);
+
+    /**
+     * Counts total number of groups.
+     *
+     * @return total count
+     */
+    long count();
+
+    /**
+     * Updates a group's code.
+     *
+     * @param id the group ID
+     * @param newCode the new code
+     * @return true if updated, false if not found
+     */
+    boolean update(UUID id, String newCode);
+
+    /**
+     * Deletes a group together with its memberships and rules.
+     *
+     * @param id the group ID
+     * @return true if deleted, false if not found
+     */
+    boolean deleteById(UUID id);
+
+    /**
+     * Adds users to a group; users that are already members are skipped.
+     *
+     * @param groupId the group ID
+     * @param userIds the user IDs
+     * @return number of users added
+     */
+    int addMembers(UUID groupId, Collection<UUID> userIds);
+
+    /**
+     * Removes a user from a group.
+     *
+     * @param groupId the group ID
+     * @param userId the user ID
+     * @return true if removed, false if the user was not a member
+     */
+    boolean removeMember(UUID groupId, UUID userId);
+
+    /**
+     * Lists the members of a group with pagination.
+     *
+     * @param groupId the group ID
+     * @param offset the offset for pagination
+     * @param limit the maximum number of records to return
+     * @return list of membership records
+     */
+    List<MemberRecord> findMembers(UUID groupId, int offset, int limit);
+
+    /**
+     * Counts the members of a group.
+     *
+     * @param groupId the group ID
+     * @return member count
+     */
+    long countMembers(UUID groupId);
+
+    /**
+     * Lists the IDs of all members of the given groups.
+     *
+     * @param groupIds the group IDs
+     * @return distinct user IDs
+     */
+    List<UUID> findMemberIds(Collection<UUID> groupIds);
+
+    /**
+     * Creates a group access rule.
+     *
+     * @param groupId the group ID
+     * @param toZoneId the destination zone ID
+     * @return the created rule's ID
+     */
+    UUID createRule(UUID groupId, UUID toZoneId);
+
+    /**
+     * Lists the access rules of a group.
+     *
+     * @param groupId the group ID
+     * @return list of rule records
+     */
+    List<GroupRuleRecord> findRules(UUID groupId);
+
+    /**
+     * Deletes a group access rule.
+     *
+     * @param groupId the group ID
+     * @param ruleId the rule ID
+     * @return true if deleted, false if not found in the group
+     */
+    boolean deleteRule(UUID groupId, UUID ruleId);
+
+    /**
+     * Group record from database.
+     */
+    record GroupRecord(UUID id, String code, Instant createdAt) {}
+
+    /**
+     * Group membership record from database.
+     */
+    record MemberRecord(UUID userId, Instant createdAt) {}
+
+    /**
+     * Group access rule record from database.
+     */
+    record GroupRuleRecord(UUID id, UUID groupId, UUID toZoneId, Instant createdAt) {}
+}
@@ -0,0 +1,200 @@
+package com.example.accesssystem.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Implementation of UserGroupRepository using JdbcTemplate.
+ */
+@Repository
+public class UserGroupRepositoryImpl implements UserGroupRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserGroupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public UUID create(String code) {
+        UUID id = UUID.randomUUID();
+        String sql = "INSERT INTO user_groups (id, code) VALUES (?, ?)";
+        try {
+            jdbcTemplate.update(sql, id, code);
+            return id;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Group with code '" + code + "' already exists", e);
+        }
+    }
+
+    @Override
+    public Optional<GroupRecord> findById(UUID id) {
+        String sql = "SELECT id, code, created_at FROM user_groups WHERE id = ?";
+        try {
+            GroupRecord result = jdbcTemplate.queryForObject(
+                sql,
+                (rs, rowNum) -> new GroupRecord(
+                    rs.getObject("id", UUID.class),
+                    rs.getString("code"),
+                    rs.getTimestamp("created_at").toInstant()
+                ),
+                id
+            );
+            return Optional.ofNullable(result);
+        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public List<GroupRecord> findAll(int offset, int limit) {
+        String sql = "SELECT id, code, created_at FROM user_groups ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(
+            sql,
+            (rs, rowNum) -> new GroupRecord(
+                rs.getObject("id", UUID.class),
+                rs.getString("code"),
+                rs.getTimestamp("created_at").toInstant()
+            ),
+            limit,
+            offset
+        );
+    }
+
+    @Override
+    public long count() {
+        String sql = "SELECT COUNT(*) FROM user_groups";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public boolean update(UUID id, String newCode) {
+        String sql = "UPDATE user_groups SET code = ? WHERE id = ?";
+        try {
+            int rowsAffected = jdbcTemplate.update(sql, newCode, id);
+            return rowsAffected > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Group with code '" + newCode + "' already exists", e);
+        }
+    }
+
+    @Override
+    public boolean deleteById(UUID id) {
+        String sql = "DELETE FROM user_groups WHERE id = ?";
+        int rowsAffected = jdbcTemplate.update(sql, id);
+        return rowsAffected > 0;
+    }
+
+    @Override
+    public int addMembers(UUID groupId, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) {
+            return 0;
+        }
+        String sql = """
+            INSERT INTO user_group_members (group_id, user_id)
+            SELECT ?, user_id FROM unnest(?::uuid[]) AS user_id
+            ON CONFLICT DO NOTHING
+            """;
+        try {
+            return jdbcTemplate.update(sql, ps -> {
+                ps.setObject(1, groupId);
+                ps.setArray(2, ps.getConnection().createArrayOf("uuid", userIds.toArray()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Invalid group or user reference", e);
+        }
+    }
+
+    @Override
+    public boolean removeMember(UUID groupId, UUID userId) {
+        String sql = "DELETE FROM user_group_members WHERE group_id = ? AND user_id = ?";
+        return jdbcTemplate.update(sql, groupId, userId) > 0;
+    }
+
+    @Override
+    public List<MemberRecord> findMembers(UUID groupId, int offset, int limit) {
+        String sql = """
+            SELECT user_id, created_at
+            FROM user_group_members
+            WHERE group_id = ?
+            ORDER BY created_at DESC, user_id
+            LIMIT ? OFFSET ?
+            """;
+        return jdbcTemplate.query(
+            sql,
+            (rs, rowNum) -> new MemberRecord(
+                rs.getObject("user_id", UUID.class),
+                rs.getTimestamp("created_at").toInstant()
+            ),
+            groupId,
+            limit,
+            offset
+        );
+    }
+
+    @Override
+    public long countMembers(UUID groupId) {
+        String sql = "SELECT COUNT(*) FROM user_group_members WHERE group_id = ?";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, groupId);
+        return count != null ? count : 0L;
+    }
+
+    @Override
+    public List<UUID> findMemberIds(Collection<UUID> groupIds) {
+        if (groupIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            "SELECT DISTINCT user_id FROM user_group_members WHERE group_id = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", groupIds.toArray())),
+            (rs, rowNum) -> rs.getObject("user_id", UUID.class)
+        );
+    }
+
+    @Override
+    public UUID createRule(UUID groupId, UUID toZoneId) {
+        String sql = "INSERT INTO group_access_rules (group_id, to_zone_id) VALUES (?, ?) RETURNING id";
+        try {
+            UUID id = jdbcTemplate.queryForObject(sql, UUID.class, groupId, toZoneId);
+            return id != null ? id : UUID.randomUUID();
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains("unique")) {
+                throw new IllegalArgumentException("Group access rule already exists", e);
+            }
+            throw new IllegalArgumentException("Invalid group or zone reference", e);
+        }
+    }
+
+    @Override
+    public List<GroupRuleRecord> findRules(UUID groupId) {
+        String sql = """
+            SELECT id, group_id, to_zone_id, created_at
+            FROM group_access_rules
+            WHERE group_id = ?
+            ORDER BY created_at DESC
+            """;
+        return jdbcTemplate.query(
+            sql,
+            (rs, rowNum) -> new GroupRuleRecord(
+                rs.getObject("id", UUID.class),
+                rs.getObject("group_id", UUID.class),
+                rs.getObject("to_zone_id", UUID.class),
+                rs.getTimestamp("created_at").toInstant()
+            ),
+            groupId
+        );
+    }
+
+    @Override
+    public boolean deleteRule(UUID groupId, UUID ruleId) {
+        String sql = "DELETE FROM group_access_rules WHERE id = ? AND group_id = ?";
+        return jdbcTemplate.update(sql, ruleId, groupId) > 0;
+    }
+}
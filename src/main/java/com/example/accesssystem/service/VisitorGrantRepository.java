@@ -0,0 +1,83 @@
+package com.example.accesssystem.service;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Audit trail of temporary visitor grants.
+ * Grants are enforced from memory by {@link VisitorGrantStore}; rows are written on issue and revoke only.
+ */
+public interface VisitorGrantRepository {
+    
+    /**
+     * Records an issued grant.
+     * 
+     * @param userId the visitor
+     * @param toZoneId the zone the visitor may enter (and its descendants)
+     * @param validFrom start of validity
+     * @param validUntil end of validity, exclusive
+     * @return the grant ID
+     * @throws IllegalArgumentException if the user or zone does not exist
+     */
+    UUID create(UUID userId, UUID toZoneId, Instant validFrom, Instant validUntil);
+    
+    /**
+     * Finds a grant by ID, including expired and revoked ones.
+     * 
+     * @param id the grant ID
+     * @return the grant record if found
+     */
+    Optional<VisitorGrantRecord> findById(UUID id);
+    
+    /**
+     * Lists grants that are neither expired nor revoked, soonest expiry first.
+     * 
+     * @param now the current time
+     * @param offset the offset for pagination
+     * @param limit the maximum number of records to return
+     * @return list of grant records
+     */
+    List<VisitorGrantRecord> findActive(Instant now, int offset, int limit);
+    
+    /**
+     * Counts grants that are neither expired nor revoked.
+     * 
+     * @param now the current time
+     * @return active count
+     */
+    long countActive(Instant now);
+    
+    /**
+     * All grants that are neither expired nor revoked.
+     */
+    List<VisitorGrantRecord> findAllActive(Instant now);
+    
+    /**
+     * Grants with the given IDs; deleted ones are omitted.
+     */
+    List<VisitorGrantRecord> findByIds(Collection<UUID> ids);
+    
+    /**
+     * Marks a grant as revoked.
+     * 
+     * @param id the grant ID
+     * @return true if revoked, false if not found or already revoked
+     */
+    boolean revoke(UUID id);
+    
+    /**
+     * Visitor grant record from database.
+     */
+    record VisitorGrantRecord(
+        UUID id,
+        UUID userId,
+        UUID toZoneId,
+        Instant validFrom,
+        Instant validUntil,
+        Instant issuedAt,
+        Instant revokedAt
+    ) {}
+}
@@ -0,0 +1,104 @@
+package com.example.accesssystem.service;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Implementation of VisitorGrantRepository using JdbcTemplate.
+ */
+@Repository
+public class VisitorGrantRepositoryImpl implements VisitorGrantRepository {
+    
+    private static final String COLUMNS =
+        "id, user_id, to_zone_id, valid_from, valid_until, issued_at, revoked_at";
+    
+    private final JdbcTemplate jdbcTemplate;
+    
+    VisitorGrantRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public UUID create(UUID userId, UUID toZoneId, Instant validFrom, Instant validUntil) {
+        UUID id = UUID.randomUUID();
+        String sql = """
+            INSERT INTO visitor_grants (id, user_id, to_zone_id, valid_from, valid_until)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+        try {
+            jdbcTemplate.update(sql, id, userId, toZoneId, Timestamp.from(validFrom), Timestamp.from(validUntil));
+            return id;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Invalid user or zone reference", e);
+        }
+    }
+    
+    @Override
+    public Optional<VisitorGrantRecord> findById(UUID id) {
+        String sql = "SELECT " + COLUMNS + " FROM visitor_grants WHERE id = ?";
+        return jdbcTemplate.query(sql, this::mapRecord, id).stream().findFirst();
+    }
+    
+    @Override
+    public List<VisitorGrantRecord> findActive(Instant now, int offset, int limit) {
+        String sql = "SELECT " + COLUMNS + " FROM visitor_grants"
+            + " WHERE revoked_at IS NULL AND valid_until > ?"
+            + " ORDER BY valid_until, id LIMIT ? OFFSET ?";
+        return jdbcTemplate.query(sql, this::mapRecord, Timestamp.from(now), limit, offset);
+    }
+    
+    @Override
+    public long countActive(Instant now) {
+        String sql = "SELECT COUNT(*) FROM visitor_grants WHERE revoked_at IS NULL AND valid_until > ?";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, Timestamp.from(now));
+        return count != null ? count : 0;
+    }
+    
+    @Override
+    public List<VisitorGrantRecord> findAllActive(Instant now) {
+        String sql = "SELECT " + COLUMNS + " FROM visitor_grants WHERE revoked_at IS NULL AND valid_until > ?";
+        return jdbcTemplate.query(sql, this::mapRecord, Timestamp.from(now));
+    }
+    
+    @Override
+    public List<VisitorGrantRecord> findByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Object[] array = ids.toArray();
+        return jdbcTemplate.query(
+            "SELECT " + COLUMNS + " FROM visitor_grants WHERE id = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", array)),
+            this::mapRecord
+        );
+    }
+    
+    @Override
+    public boolean revoke(UUID id) {
+        String sql = "UPDATE visitor_grants SET revoked_at = NOW() WHERE id = ? AND revoked_at IS NULL";
+        return jdbcTemplate.update(sql, id) > 0;
+    }
+    
+    private VisitorGrantRecord mapRecord(ResultSet rs, int rowNum) throws SQLException {
+        Timestamp revokedAt = rs.getTimestamp("revoked_at");
+        return new VisitorGrantRecord(
+            rs.getObject("id", UUID.class),
+            rs.getObject("user_id", UUID.class),
+            rs.getObject("to_zone_id", UUID.class),
+            rs.getTimestamp("valid_from").toInstant(),
+            rs.getTimestamp("valid_until").toInstant(),
+            rs.getTimestamp("issued_at").toInstant(),
+            revokedAt != null ? revokedAt.toInstant() : null
+        );
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.VisitorGrantRepository.VisitorGrantRecord;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporary visitor grants held in memory and expired by a {@link TimingWheel}.
+ * <p>
+ * Grants are kept per dense user id as small immutable arrays, so a check is a map lookup and a scan of
+ * the visitor's few grants; grants on a parent zone cover its descendants like access rules do. Each
+ * check compares the event time with the grant's validity period, so a grant stops working the moment it
+ * expires, whatever the wheel has processed. The wheel only drops expired grants from memory, without a
+ * database sweep or a reload. The {@code visitor_grants} table is the audit trail (written on issue and
+ * revoke); it is read on startup and its change feed delivers grants issued or revoked on other nodes.
+ */
+@Component
+public class VisitorGrantStore implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(VisitorGrantStore.class);
+    private static final VisitorGrant[] NONE = new VisitorGrant[0];
+
+    private final VisitorGrantRepository visitorGrantRepository;
+    private final ReferenceDictionary dictionary;
+    private final ZoneHierarchyIndex zoneHierarchy;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Counter expiredCounter;
+    private final Map<Integer, VisitorGrant[]> grantsByUser = new ConcurrentHashMap<>();
+    // Grant id to user id, for revocation and expiry
+    private final Map<UUID, Integer> users = new HashMap<>();
+    private final Object updateLock = new Object();
+    private final TimingWheel<UUID> wheel;
+
+    VisitorGrantStore(VisitorGrantRepository visitorGrantRepository, ReferenceDictionary dictionary,
+                      ZoneHierarchyIndex zoneHierarchy, ReferenceDataChangeFeed changeFeed,
+                      @Value("${access-system.visitor-grants.tick-ms:1000}") long tickMillis,
+                      MeterRegistry meterRegistry) {
+        this.visitorGrantRepository = visitorGrantRepository;
+        this.dictionary = dictionary;
+        this.zoneHierarchy = zoneHierarchy;
+        this.changeFeed = changeFeed;
+        this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+        this.expiredCounter = Counter.builder("visitor_grants_expired_total")
+            .description("Visitor grants dropped from memory by the expiry timing wheel")
+            .register(meterRegistry);
+        Gauge.builder("visitor_grants_active", this, store -> store.activeCount())
+            .description("Visitor grants held in memory (not yet expired or revoked)")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Whether a visitor grant of the user covers the zone (or one of its ancestors) at the given time.
+     */
+    public boolean allows(int user, int zone, ZoneHierarchy hierarchy, Instant at) {
+        if (user < 0 || zone < 0) {
+            return false;
+        }
+        VisitorGrant[] grants = grantsByUser.get(user);
+        if (grants == null) {
+            return false;
+        }
+        long atMillis = at.toEpochMilli();
+        for (VisitorGrant grant : grants) {
+            if (grant.validFromMillis() <= atMillis && atMillis < grant.validUntilMillis()
+                    && hierarchy.covers(grant.zone(), zone)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same as {@link #allows(int, int, ZoneHierarchy, Instant)} by user and zone code.
+     */
+    public boolean allows(String userCode, String zoneCode, Instant at) {
+        if (grantsByUser.isEmpty()) {
+            return false;
+        }
+        int user = dictionary.get(Kind.USERS).idOf(userCode);
+        int zone = dictionary.snapshot(Kind.ZONES).idOf(zoneCode);
+        return allows(user, zone, zoneHierarchy.snapshot(), at);
+    }
+
+    /**
+     * Loads the given grants (issued or revoked a moment ago) into memory; revoked, expired and deleted
+     * ones are dropped.
+     */
+    public void refresh(Collection<UUID> grantIds) {
+        if (grantIds.isEmpty()) {
+            return;
+        }
+        List<VisitorGrantRecord> loaded = visitorGrantRepository.findByIds(grantIds);
+        synchronized (updateLock) {
+            Set<UUID> missing = new HashSet<>(grantIds);
+            for (VisitorGrantRecord record : loaded) {
+                missing.remove(record.id());
+                if (record.revokedAt() != null) {
+                    remove(record.id());
+                } else {
+                    add(record);
+                }
+            }
+            missing.forEach(this::remove);
+        }
+    }
+
+    /**
+     * Visitor grants held in memory.
+     */
+    public int activeCount() {
+        synchronized (updateLock) {
+            return users.size();
+        }
+    }
+
+    /**
+     * Drops grants whose validity has ended.
+     */
+    @Scheduled(fixedDelayString = "${access-system.visitor-grants.tick-ms:1000}")
+    public void expire() {
+        expire(Instant.now());
+    }
+
+    /**
+     * Drops grants whose validity ended at or before the given time.
+     *
+     * @return the number of grants dropped
+     */
+    public int expire(Instant now) {
+        int[] expired = new int[1];
+        synchronized (updateLock) {
+            wheel.advance(now.toEpochMilli(), grantId -> {
+                if (remove(grantId)) {
+                    expired[0]++;
+                }
+            });
+        }
+        expiredCounter.increment(expired[0]);
+        return expired[0];
+    }
+
+    @Override
+    public String name() {
+        return "visitor_grants";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of("visitor_grants");
+    }
+
+    @Override
+    public void reloadAll() {
+        List<VisitorGrantRecord> active = visitorGrantRepository.findAllActive(Instant.now());
+        synchronized (updateLock) {
+            for (UUID grantId : Set.copyOf(users.keySet())) {
+                remove(grantId);
+            }
+            active.forEach(this::add);
+        }
+        log.info("Visitor grants loaded: {} active", active.size());
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        refresh(keys.stream().map(UUID::fromString).toList());
+    }
+
+    // Caller holds updateLock; grants never change after issue, only revocation removes them
+    private void add(VisitorGrantRecord record) {
+        if (users.containsKey(record.id())) {
+            return;
+        }
+        if (record.validUntil().toEpochMilli() <= System.currentTimeMillis()) {
+            return;
+        }
+        // Inside a feed poll, where the dictionary must not poll again
+        int user = dictionary.snapshot(Kind.USERS).idOf(record.userId());
+        int zone = dictionary.snapshot(Kind.ZONES).idOf(record.toZoneId());
+        if (user < 0 || zone < 0) {
+            dictionary.refresh(Kind.USERS, List.of(record.userId()));
+            dictionary.refresh(Kind.ZONES, List.of(record.toZoneId()));
+            user = dictionary.snapshot(Kind.USERS).idOf(record.userId());
+            zone = dictionary.snapshot(Kind.ZONES).idOf(record.toZoneId());
+            if (user < 0 || zone < 0) {
+                return;
+            }
+        }
+        VisitorGrant grant = new VisitorGrant(record.id(), zone,
+            record.validFrom().toEpochMilli(), record.validUntil().toEpochMilli());
+        VisitorGrant[] current = grantsByUser.getOrDefault(user, NONE);
+        VisitorGrant[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = grant;
+        grantsByUser.put(user, updated);
+        users.put(record.id(), user);
+        wheel.schedule(record.id(), grant.validUntilMillis());
+    }
+
+    // Caller holds updateLock
+    private boolean remove(UUID grantId) {
+        Integer user = users.remove(grantId);
+        if (user == null) {
+            return false;
+        }
+        VisitorGrant[] current = grantsByUser.getOrDefault(user, NONE);
+        VisitorGrant[] updated = Arrays.stream(current)
+            .filter(grant -> !grant.id().equals(grantId))
+            .toArray(VisitorGrant[]::new);
+        if (updated.length == 0) {
+            grantsByUser.remove(user);
+        } else {
+            grantsByUser.put(user, updated);
+        }
+        return true;
+    }
+
+    private record VisitorGrant(UUID id, int zone, long validFromMillis, long validUntilMillis) {}
+}
@@ -0,0 +1,86 @@
+package com.example.accesssystem.service;
+
+import java.time.Instant;
+import java.time.zone.ZoneRules;
+import java.util.List;
+
+/**
+ * Immutable weekly schedule compiled into a bitmap with one bit per minute of the week
+ * (10080 bits, 158 {@code long} words, about 1.3 KB).
+ * <p>
+ * Minute 0 is Monday 00:00 local time. {@link #minuteOfWeek} converts an instant using the site's
+ * time zone rules without allocating, so checking a schedule is an offset lookup, some arithmetic and
+ * a bit test.
+ */
+public final class WeeklySchedule {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+    public static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private static final WeeklySchedule CLOSED = new WeeklySchedule(new long[(MINUTES_PER_WEEK + 63) >>> 6]);
+
+    private final long[] minutes;
+
+    private WeeklySchedule(long[] minutes) {
+        this.minutes = minutes;
+    }
+
+    /**
+     * Schedule that is never open (used for unknown or deleted schedules).
+     */
+    public static WeeklySchedule closed() {
+        return CLOSED;
+    }
+
+    /**
+     * Compiles the windows into a bitmap.
+     *
+     * @throws IllegalArgumentException if a window is outside its day or ends before it starts
+     */
+    public static WeeklySchedule of(List<Window> windows) {
+        long[] minutes = new long[CLOSED.minutes.length];
+        for (Window window : windows) {
+            int start = (window.dayOfWeek() - 1) * MINUTES_PER_DAY + window.startMinute();
+            int end = (window.dayOfWeek() - 1) * MINUTES_PER_DAY + window.endMinute();
+            for (int minute = start; minute < end; minute++) {
+                minutes[minute >>> 6] |= 1L << minute;
+            }
+        }
+        return new WeeklySchedule(minutes);
+    }
+
+    /**
+     * Whether the schedule is open during the given minute of the week.
+     */
+    public boolean isOpen(int minuteOfWeek) {
+        return minuteOfWeek >= 0 && minuteOfWeek < MINUTES_PER_WEEK
+            && (minutes[minuteOfWeek >>> 6] & (1L << minuteOfWeek)) != 0;
+    }
+
+    /**
+     * Minute of the week (Monday 00:00 = 0) of the instant in the given time zone.
+     */
+    public static int minuteOfWeek(Instant at, ZoneRules zone) {
+        long localSeconds = at.getEpochSecond() + zone.getOffset(at).getTotalSeconds();
+        long localDay = Math.floorDiv(localSeconds, 86_400L);
+        // 1970-01-01 was a Thursday, three days after Monday
+        int dayOfWeek = (int) Math.floorMod(localDay + 3, 7L);
+        int minuteOfDay = (int) (Math.floorMod(localSeconds, 86_400L) / 60);
+        return dayOfWeek * MINUTES_PER_DAY + minuteOfDay;
+    }
+
+    /**
+     * Weekly window: ISO day of week (1 = Monday), minutes since local midnight, end exclusive.
+     */
+    public record Window(int dayOfWeek, int startMinute, int endMinute) {
+        public Window {
+            if (dayOfWeek < 1 || dayOfWeek > 7) {
+                throw new IllegalArgumentException("Day of week must be between 1 and 7: " + dayOfWeek);
+            }
+            if (startMinute < 0 || endMinute > MINUTES_PER_DAY || startMinute >= endMinute) {
+                throw new IllegalArgumentException(
+                    "Window must start before it ends within one day: " + startMinute + "-" + endMinute);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+import com.example.accesssystem.service.CodeDictionary.Entry;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Immutable snapshot of the zone graph: zones are nodes, checkpoints are directed edges, and a
+ * {@code null} zone id stands for OUT (outside the system).
+ * <p>
+ * Built once per change of {@code zones} or {@code checkpoints}; every query is a hash lookup.
+ */
+public final class ZoneGraph {
+
+    private static final ZoneGraph EMPTY = new ZoneGraph(List.of(), List.of());
+
+    private final List<Entry> zones;
+    private final List<CheckpointEdge> checkpoints;
+    private final Map<UUID, String> zoneCodes = new HashMap<>();
+    private final Map<UUID, CheckpointEdge> edgesByCheckpoint = new HashMap<>();
+    private final Set<UUID> zonesWithExit = new HashSet<>();
+
+    public ZoneGraph(List<Entry> zones, List<CheckpointEdge> checkpoints) {
+        this.zones = List.copyOf(zones);
+        this.checkpoints = List.copyOf(checkpoints);
+        for (Entry zone : this.zones) {
+            zoneCodes.put(zone.id(), zone.code());
+        }
+        for (CheckpointEdge edge : this.checkpoints) {
+            edgesByCheckpoint.put(edge.id(), edge);
+            if (edge.fromZoneId() != null && edge.toZoneId() == null) {
+                zonesWithExit.add(edge.fromZoneId());
+            }
+        }
+    }
+
+    public static ZoneGraph empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Whether at least one checkpoint leads from the zone to OUT.
+     */
+    public boolean hasExit(UUID zoneId) {
+        return zoneId != null && zonesWithExit.contains(zoneId);
+    }
+
+    /**
+     * Whether the checkpoint is configured for exactly this transition ({@code null} = OUT).
+     */
+    public boolean isConfiguredEdge(UUID checkpointId, UUID fromZoneId, UUID toZoneId) {
+        CheckpointEdge edge = edgesByCheckpoint.get(checkpointId);
+        return edge != null
+            && Objects.equals(edge.fromZoneId(), fromZoneId)
+            && Objects.equals(edge.toZoneId(), toZoneId);
+    }
+
+    /**
+     * Edge the given checkpoint is configured for.
+     */
+    public Optional<CheckpointEdge> edgeOf(UUID checkpointId) {
+        return Optional.ofNullable(edgesByCheckpoint.get(checkpointId));
+    }
+
+    /**
+     * Code of the zone, or {@code null} for OUT and unknown ids.
+     */
+    public String zoneCode(UUID zoneId) {
+        return zoneId == null ? null : zoneCodes.get(zoneId);
+    }
+
+    public List<Entry> zones() {
+        return zones;
+    }
+
+    public List<CheckpointEdge> checkpoints() {
+        return checkpoints;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.accesssystem.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of the zone hierarchy with its transitive closure precompiled.
+ * <p>
+ * Zones are indexed by their dense id from {@link ReferenceDictionary}. Every zone that has a parent
+ * owns a bitset of itself and all its ancestors, so "does a grant on any ancestor cover this zone" is
+ * an AND over a few words of two bitsets, whatever the depth. Top-level zones have no bitset and fall
+ * back to a single bit test. {@link #withParents} recompiles only the subtrees below the changed zones
+ * and shares every other bitset with the previous snapshot.
+ */
+public final class ZoneHierarchy {
+
+    public static final int ROOT = -1;
+
+    private static final ZoneHierarchy EMPTY = new ZoneHierarchy(new int[0], new long[0][], 0, 0);
+
+    private final int[] parents;
+    private final long[][] ancestors;
+    private final int recompiled;
+    private final int brokenCycles;
+
+    private ZoneHierarchy(int[] parents, long[][] ancestors, int recompiled, int brokenCycles) {
+        this.parents = parents;
+        this.ancestors = ancestors;
+        this.recompiled = recompiled;
+        this.brokenCycles = brokenCycles;
+    }
+
+    public static ZoneHierarchy empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Whether a grant on any zone of the bitset covers the zone: the zone itself or one of its ancestors
+     * is granted. Negative ids (unknown codes) are never covered.
+     */
+    public boolean covers(long[] granted, int zone) {
+        if (granted == null || zone < 0) {
+            return false;
+        }
+        long[] path = zone < ancestors.length ? ancestors[zone] : null;
+        if (path == null) {
+            int word = zone >>> 6;
+            return word < granted.length && (granted[word] & (1L << zone)) != 0;
+        }
+        int words = Math.min(path.length, granted.length);
+        for (int i = 0; i < words; i++) {
+            if ((path[i] & granted[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a grant on {@code grantedZone} covers the zone: it is the zone itself or one of its ancestors.
+     */
+    public boolean covers(int grantedZone, int zone) {
+        if (grantedZone < 0 || zone < 0) {
+            return false;
+        }
+        if (grantedZone == zone) {
+            return true;
+        }
+        long[] path = zone < ancestors.length ? ancestors[zone] : null;
+        int word = grantedZone >>> 6;
+        return path != null && word < path.length && (path[word] & (1L << grantedZone)) != 0;
+    }
+
+    /**
+     * Parent of the zone, or {@link #ROOT} for top-level and unknown zones.
+     */
+    public int parentOf(int zone) {
+        return zone >= 0 && zone < parents.length ? parents[zone] : ROOT;
+    }
+
+    /**
+     * The zone followed by its ancestors, nearest first.
+     */
+    public int[] selfAndAncestors(int zone) {
+        if (zone < 0) {
+            return new int[0];
+        }
+        List<Integer> path = new ArrayList<>();
+        for (int current = zone; current != ROOT && path.size() <= parents.length; current = parentOf(current)) {
+            path.add(current);
+        }
+        return path.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Direct children of the zone.
+     */
+    public int[] childrenOf(int zone) {
+        if (zone < 0) {
+            return new int[0];
+        }
+        int count = 0;
+        int[] children = new int[8];
+        for (int child = 0; child < parents.length; child++) {
+            if (parents[child] == zone) {
+                if (count == children.length) {
+                    children = Arrays.copyOf(children, count * 2);
+                }
+                children[count++] = child;
+            }
+        }
+        return Arrays.copyOf(children, count);
+    }
+
+    /**
+     * Zones whose closure was compiled when this snapshot was built.
+     */
+    public int recompiledCount() {
+        return recompiled;
+    }
+
+    /**
+     * Parent links dropped when this snapshot was built because they closed a cycle.
+     */
+    public int brokenCycleCount() {
+        return brokenCycles;
+    }
+
+    /**
+     * Zones that have a parent.
+     */
+    public int nestedCount() {
+        int count = 0;
+        for (int parent : parents) {
+            if (parent != ROOT) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns a snapshot in which the given zones have the given parents.
+     * <p>
+     * Only the changed zones and their descendants are recompiled. A parent link that would close a
+     * cycle (possible only through concurrent writes) is dropped, so the zone becomes top-level.
+     *
+     * @param parentsByZone zone id to parent id, {@link #ROOT} for top-level (also for deleted zones)
+     */
+    public ZoneHierarchy withParents(Map<Integer, Integer> parentsByZone) {
+        if (parentsByZone.isEmpty()) {
+            return this;
+        }
+        int length = parents.length;
+        for (Map.Entry<Integer, Integer> entry : parentsByZone.entrySet()) {
+            length = Math.max(length, Math.max(entry.getKey(), entry.getValue()) + 1);
+        }
+        int[] newParents = Arrays.copyOf(parents, length);
+        Arrays.fill(newParents, parents.length, length, ROOT);
+        long[][] newAncestors = Arrays.copyOf(ancestors, length);
+        for (Map.Entry<Integer, Integer> entry : parentsByZone.entrySet()) {
+            int zone = entry.getKey();
+            int parent = entry.getValue();
+            newParents[zone] = parent == zone || parent < 0 ? ROOT : parent;
+        }
+
+        // Children as linked lists over two int arrays
+        int[] firstChild = new int[length];
+        int[] nextSibling = new int[length];
+        Arrays.fill(firstChild, ROOT);
+        for (int zone = length - 1; zone >= 0; zone--) {
+            int parent = newParents[zone];
+            if (parent != ROOT) {
+                nextSibling[zone] = firstChild[parent];
+                firstChild[parent] = zone;
+            }
+        }
+
+        boolean[] affected = new boolean[length];
+        ArrayDeque<Integer> pending = new ArrayDeque<>();
+        for (int zone : parentsByZone.keySet()) {
+            if (zone >= 0) {
+                pending.push(zone);
+            }
+        }
+        List<Integer> affectedZones = new ArrayList<>();
+        while (!pending.isEmpty()) {
+            int zone = pending.pop();
+            if (affected[zone]) {
+                continue;
+            }
+            affected[zone] = true;
+            affectedZones.add(zone);
+            for (int child = firstChild[zone]; child != ROOT; child = nextSibling[child]) {
+                pending.push(child);
+            }
+        }
+
+        // Compile top-down from the affected zones whose parent closure is already final
+        boolean[] compiled = new boolean[length];
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int zone : affectedZones) {
+            int parent = newParents[zone];
+            if (parent == ROOT || !affected[parent]) {
+                ready.add(zone);
+            }
+        }
+        int brokenCycleCount = 0;
+        int next = 0;
+        while (true) {
+            while (!ready.isEmpty()) {
+                int zone = ready.poll();
+                if (compiled[zone]) {
+                    continue;
+                }
+                newAncestors[zone] = closure(newAncestors, newParents[zone], zone);
+                compiled[zone] = true;
+                for (int child = firstChild[zone]; child != ROOT; child = nextSibling[child]) {
+                    if (newParents[child] == zone) {
+                        ready.add(child);
+                    }
+                }
+            }
+            // Whatever is left is on (or below) a cycle: cut the cycle at the first such zone
+            while (next < affectedZones.size() && compiled[affectedZones.get(next)]) {
+                next++;
+            }
+            if (next == affectedZones.size()) {
+                break;
+            }
+            int zone = affectedZones.get(next);
+            newParents[zone] = ROOT;
+            brokenCycleCount++;
+            ready.add(zone);
+        }
+        return new ZoneHierarchy(newParents, newAncestors, affectedZones.size(), brokenCycleCount);
+    }
+
+    private static long[] closure(long[][] ancestors, int parent, int zone) {
+        if (parent == ROOT) {
+            return null;
+        }
+        long[] parentClosure = ancestors[parent];
+        int maxZone = Math.max(zone, parentClosure == null ? parent : (parentClosure.length << 6) - 1);
+        long[] words = new long[(maxZone >>> 6) + 1];
+        if (parentClosure == null) {
+            words[parent >>> 6] |= 1L << parent;
+        } else {
+            System.arraycopy(parentClosure, 0, words, 0, parentClosure.length);
+        }
+        words[zone >>> 6] |= 1L << zone;
+        return words;
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.ZoneRepository.ZoneParent;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory {@link ZoneHierarchy} built from {@code zones.parent_zone_id}.
+ * <p>
+ * Loaded on startup; a change of zones recompiles only the changed zones and their subtrees.
+ * {@code ZoneAdminController} refreshes the affected zones right after its writes, and the reference
+ * data change feed (zones are keyed by id) delivers changes made elsewhere.
+ */
+@Component
+public class ZoneHierarchyIndex implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ZoneHierarchyIndex.class);
+
+    private final ZoneRepository zoneRepository;
+    private final ReferenceDictionary dictionary;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Counter recompiledZones;
+    private final Object updateLock = new Object();
+    private volatile ZoneHierarchy hierarchy = ZoneHierarchy.empty();
+
+    ZoneHierarchyIndex(ZoneRepository zoneRepository, ReferenceDictionary dictionary,
+                       ReferenceDataChangeFeed changeFeed, MeterRegistry meterRegistry) {
+        this.zoneRepository = zoneRepository;
+        this.dictionary = dictionary;
+        this.changeFeed = changeFeed;
+        this.recompiledZones = Counter.builder("zone_hierarchy_recompiled_zones_total")
+            .description("Zones whose ancestor closure was recompiled")
+            .register(meterRegistry);
+        Gauge.builder("zone_hierarchy_nested_zones", this, index -> index.hierarchy.nestedCount())
+            .description("Zones that have a parent zone")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Current snapshot of the hierarchy.
+     */
+    public ZoneHierarchy current() {
+        changeFeed.ensureFresh();
+        return hierarchy;
+    }
+
+    /**
+     * Current snapshot without waiting for the change feed; for callers that already did.
+     */
+    public ZoneHierarchy snapshot() {
+        return hierarchy;
+    }
+
+    /**
+     * Codes of the zone and its ancestors, nearest first; just the code itself for unknown zones.
+     */
+    public List<String> selfAndAncestorCodes(String zoneCode) {
+        CodeDictionary zones = dictionary.get(Kind.ZONES);
+        int[] path = hierarchy.selfAndAncestors(zones.idOf(zoneCode));
+        if (path.length == 0) {
+            return List.of(zoneCode);
+        }
+        List<String> codes = new ArrayList<>(path.length);
+        for (int zone : path) {
+            String code = zones.codeOf(zone);
+            if (code != null) {
+                codes.add(code);
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Reloads the parents of the given zones (and of their current children, whose parent may have
+     * been deleted) and recompiles their subtrees.
+     */
+    public void refresh(Collection<UUID> zoneIds) {
+        if (zoneIds.isEmpty()) {
+            return;
+        }
+        synchronized (updateLock) {
+            CodeDictionary zones = dictionary.snapshot(Kind.ZONES);
+            Set<UUID> ids = new LinkedHashSet<>(zoneIds);
+            for (UUID zoneId : zoneIds) {
+                for (int child : hierarchy.childrenOf(zones.idOf(zoneId))) {
+                    UUID childId = zones.uuidOf(child);
+                    if (childId != null) {
+                        ids.add(childId);
+                    }
+                }
+            }
+            List<ZoneParent> loaded = zoneRepository.findParents(ids);
+            Set<UUID> deleted = new HashSet<>(ids);
+            loaded.forEach(link -> deleted.remove(link.id()));
+            apply(loaded, deleted);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "zone_hierarchy";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of(Kind.ZONES.table());
+    }
+
+    @Override
+    public void reloadAll() {
+        synchronized (updateLock) {
+            hierarchy = ZoneHierarchy.empty();
+            apply(zoneRepository.findAllParents(), List.of());
+        }
+        log.info("Zone hierarchy loaded: {} nested zones", hierarchy.nestedCount());
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        refresh(keys.stream().map(UUID::fromString).toList());
+    }
+
+    private void apply(List<ZoneParent> links, Collection<UUID> deleted) {
+        // Zones created a moment ago may not have reached the dictionary through the feed yet
+        CodeDictionary zones = dictionary.snapshot(Kind.ZONES);
+        Set<UUID> unknown = new HashSet<>();
+        for (ZoneParent link : links) {
+            if (zones.idOf(link.id()) < 0) {
+                unknown.add(link.id());
+            }
+            if (link.parentZoneId() != null && zones.idOf(link.parentZoneId()) < 0) {
+                unknown.add(link.parentZoneId());
+            }
+        }
+        if (!unknown.isEmpty()) {
+            dictionary.refresh(Kind.ZONES, unknown);
+            zones = dictionary.snapshot(Kind.ZONES);
+        }
+
+        Map<Integer, Integer> parents = new HashMap<>();
+        for (ZoneParent link : links) {
+            int zone = zones.idOf(link.id());
+            if (zone >= 0) {
+                int parent = link.parentZoneId() == null ? ZoneHierarchy.ROOT : zones.idOf(link.parentZoneId());
+                parents.put(zone, Math.max(parent, ZoneHierarchy.ROOT));
+            }
+        }
+        for (UUID zoneId : deleted) {
+            int zone = zones.idOf(zoneId);
+            if (zone >= 0) {
+                parents.put(zone, ZoneHierarchy.ROOT);
+            }
+        }
+        if (parents.isEmpty()) {
+            return;
+        }
+        hierarchy = hierarchy.withParents(parents);
+        recompiledZones.increment(hierarchy.recompiledCount());
+        if (hierarchy.brokenCycleCount() > 0) {
+            log.warn("Zone hierarchy contains cycles; {} parent link(s) ignored until fixed",
+                hierarchy.brokenCycleCount());
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Checkpoint topology compiled for reachability searches over dense zone ids.
+ * <p>
+ * Zones are nodes and checkpoints directed edges; edges from OUT are the entry points. A user reaches a
+ * zone when a path of checkpoints leads there from OUT and the user may enter every zone on the path.
+ * Immutable and shared; each thread runs its own {@link Search}, which reuses its buffers from user to
+ * user, so a search allocates nothing but its result.
+ */
+public final class ZoneReachability {
+
+    private static final int[] NONE = new int[0];
+
+    private final int[] entries;
+    private final int[][] successors;
+
+    private ZoneReachability(int[] entries, int[][] successors) {
+        this.entries = entries;
+        this.successors = successors;
+    }
+
+    /**
+     * Compiles the edges; edges whose zones have no dense id are skipped.
+     *
+     * @param zoneIds dense id of a zone, negative if unknown
+     */
+    public static ZoneReachability compile(Collection<CheckpointEdge> edges, ToIntFunction<UUID> zoneIds) {
+        List<Integer> entryList = new ArrayList<>();
+        List<int[]> links = new ArrayList<>();
+        int zoneCount = 0;
+        for (CheckpointEdge edge : edges) {
+            if (edge.toZoneId() == null) {
+                continue;
+            }
+            int to = zoneIds.applyAsInt(edge.toZoneId());
+            if (to < 0) {
+                continue;
+            }
+            zoneCount = Math.max(zoneCount, to + 1);
+            if (edge.fromZoneId() == null) {
+                entryList.add(to);
+                continue;
+            }
+            int from = zoneIds.applyAsInt(edge.fromZoneId());
+            if (from >= 0) {
+                zoneCount = Math.max(zoneCount, from + 1);
+                links.add(new int[] {from, to});
+            }
+        }
+        int[] outDegree = new int[zoneCount];
+        links.forEach(link -> outDegree[link[0]]++);
+        int[][] successors = new int[zoneCount][];
+        for (int zone = 0; zone < zoneCount; zone++) {
+            successors[zone] = outDegree[zone] == 0 ? NONE : new int[outDegree[zone]];
+        }
+        int[] filled = new int[zoneCount];
+        for (int[] link : links) {
+            successors[link[0]][filled[link[0]]++] = link[1];
+        }
+        int[] entries = entryList.stream().mapToInt(Integer::intValue).distinct().toArray();
+        return new ZoneReachability(entries, successors);
+    }
+
+    /**
+     * Zones that appear in the topology (the highest dense id plus one).
+     */
+    public int zoneCount() {
+        return successors.length;
+    }
+
+    /**
+     * A search for the given target zones, for use by one thread at a time.
+     */
+    public Search search(int[] targets) {
+        return new Search(targets);
+    }
+
+    /**
+     * Who may enter which zone.
+     */
+    @FunctionalInterface
+    public interface Admission {
+        boolean allows(int user, int zone);
+    }
+
+    /**
+     * Breadth-first search from OUT that stops as soon as every target is reached. Not thread-safe.
+     */
+    public final class Search {
+
+        private final int targetCount;
+        // Zone id to target index, -1 for other zones
+        private final int[] targetIndex;
+        private final long[] visited;
+        private final int[] queue;
+
+        private Search(int[] targets) {
+            this.targetCount = targets.length;
+            this.targetIndex = new int[successors.length];
+            Arrays.fill(targetIndex, -1);
+            for (int i = 0; i < targets.length; i++) {
+                int zone = targets[i];
+                if (zone >= 0 && zone < successors.length && targetIndex[zone] < 0) {
+                    targetIndex[zone] = i;
+                }
+            }
+            this.visited = new long[(successors.length + 63) >>> 6];
+            this.queue = new int[successors.length];
+        }
+
+        /**
+         * Which targets the user can reach from OUT, by target index. A target listed twice is reported
+         * at its first index only.
+         */
+        public boolean[] reachable(int user, Admission admission) {
+            boolean[] reached = new boolean[targetCount];
+            int found = 0;
+            int tail = 0;
+            for (int entry : entries) {
+                if (!isVisited(entry) && admission.allows(user, entry)) {
+                    visit(entry);
+                    queue[tail++] = entry;
+                    found += markTarget(entry, reached);
+                }
+            }
+            int head = 0;
+            while (head < tail && found < targetCount) {
+                for (int next : successors[queue[head++]]) {
+                    if (!isVisited(next) && admission.allows(user, next)) {
+                        visit(next);
+                        queue[tail++] = next;
+                        found += markTarget(next, reached);
+                    }
+                }
+            }
+            for (int i = 0; i < tail; i++) {
+                visited[queue[i] >>> 6] = 0;
+            }
+            return reached;
+        }
+
+        private int markTarget(int zone, boolean[] reached) {
+            int index = targetIndex[zone];
+            if (index < 0 || reached[index]) {
+                return 0;
+            }
+            reached[index] = true;
+            return 1;
+        }
+
+        private boolean isVisited(int zone) {
+            return (visited[zone >>> 6] & (1L << zone)) != 0;
+        }
+
+        private void visit(int zone) {
+            visited[zone >>> 6] |= 1L << zone;
+        }
+    }
+}
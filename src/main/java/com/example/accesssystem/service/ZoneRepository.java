@@ -1,6 +1,7 @@
 package com.example.accesssystem.service;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,6 +19,15 @@ public interface ZoneRepository {
      */
     UUID create(String code);
     
+    /**
+     * Creates a new zone below the given parent.
+     * 
+     * @param code the unique zone code
+     * @param parentZoneId the parent zone ID, or null for a top-level zone
+     * @return the created zone's ID
+     */
+    UUID create(String code, UUID parentZoneId);
+    
     /**
      * Finds a zone by ID.
      * 
@@ -59,6 +69,26 @@ public interface ZoneRepository {
      */
     boolean update(UUID id, String newCode);
     
+    /**
+     * Moves a zone below another zone.
+     * 
+     * @param id the zone ID
+     * @param parentZoneId the new parent zone ID, or null for a top-level zone
+     * @return true if updated, false if not found
+     * @throws IllegalArgumentException if the parent does not exist or is the zone itself or one of its descendants
+     */
+    boolean updateParent(UUID id, UUID parentZoneId);
+    
+    /**
+     * Parent links of all zones.
+     */
+    List<ZoneParent> findAllParents();
+    
+    /**
+     * Parent links of the given zones; zones that no longer exist are omitted.
+     */
+    List<ZoneParent> findParents(Collection<UUID> ids);
+    
     /**
      * Deletes a zone by ID.
      * 
@@ -70,6 +100,11 @@ public interface ZoneRepository {
     /**
      * Zone record from database.
      */
-    record ZoneRecord(UUID id, String code, Instant createdAt) {}
+    record ZoneRecord(UUID id, String code, UUID parentZoneId, Instant createdAt) {}
+    
+    /**
+     * Parent link of a zone ({@code parentZoneId} is null for top-level zones).
+     */
+    record ZoneParent(UUID id, UUID parentZoneId) {}
 }
 
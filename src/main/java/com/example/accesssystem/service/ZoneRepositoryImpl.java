@@ -4,6 +4,9 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,27 +25,31 @@ public class ZoneRepositoryImpl implements ZoneRepository {
     
     @Override
     public UUID create(String code) {
+        return create(code, null);
+    }
+    
+    @Override
+    public UUID create(String code, UUID parentZoneId) {
         UUID id = UUID.randomUUID();
-        String sql = "INSERT INTO zones (id, code) VALUES (?, ?)";
+        String sql = "INSERT INTO zones (id, code, parent_zone_id) VALUES (?, ?, ?)";
         try {
-            jdbcTemplate.update(sql, id, code);
+            jdbcTemplate.update(sql, id, code, parentZoneId);
             return id;
         } catch (DataIntegrityViolationException e) {
+            if (e.getMessage() != null && e.getMessage().contains("fk_zones_parent")) {
+                throw new IllegalArgumentException("Parent zone not found", e);
+            }
             throw new IllegalArgumentException("Zone with code '" + code + "' already exists", e);
         }
     }
     
     @Override
     public Optional<ZoneRecord> findById(UUID id) {
-        String sql = "SELECT id, code, created_at FROM zones WHERE id = ?";
+        String sql = "SELECT id, code, parent_zone_id, created_at FROM zones WHERE id = ?";
         try {
             ZoneRecord result = jdbcTemplate.queryForObject(
                 sql,
-                (rs, rowNum) -> new ZoneRecord(
-                    rs.getObject("id", UUID.class),
-                    rs.getString("code"),
-                    rs.getTimestamp("created_at").toInstant()
-                ),
+                this::mapZone,
                 id
             );
             return Optional.ofNullable(result);
@@ -53,15 +60,11 @@ public class ZoneRepositoryImpl implements ZoneRepository {
     
     @Override
     public Optional<ZoneRecord> findByCode(String code) {
-        String sql = "SELECT id, code, created_at FROM zones WHERE code = ?";
+        String sql = "SELECT id, code, parent_zone_id, created_at FROM zones WHERE code = ?";
         try {
             ZoneRecord result = jdbcTemplate.queryForObject(
                 sql,
-                (rs, rowNum) -> new ZoneRecord(
-                    rs.getObject("id", UUID.class),
-                    rs.getString("code"),
-                    rs.getTimestamp("created_at").toInstant()
-                ),
+                this::mapZone,
                 code
             );
             return Optional.ofNullable(result);
@@ -72,14 +75,10 @@ public class ZoneRepositoryImpl implements ZoneRepository {
     
     @Override
     public List<ZoneRecord> findAll(int offset, int limit) {
-        String sql = "SELECT id, code, created_at FROM zones ORDER BY created_at DESC LIMIT ? OFFSET ?";
+        String sql = "SELECT id, code, parent_zone_id, created_at FROM zones ORDER BY created_at DESC LIMIT ? OFFSET ?";
         return jdbcTemplate.query(
             sql,
-            (rs, rowNum) -> new ZoneRecord(
-                rs.getObject("id", UUID.class),
-                rs.getString("code"),
-                rs.getTimestamp("created_at").toInstant()
-            ),
+            this::mapZone,
             limit,
             offset
         );
@@ -103,11 +102,65 @@ public class ZoneRepositoryImpl implements ZoneRepository {
         }
     }
     
+    @Override
+    public boolean updateParent(UUID id, UUID parentZoneId) {
+        if (parentZoneId != null) {
+            // Walk up from the new parent; meeting the zone itself means the move would close a cycle
+            String cycleSql = """
+                WITH RECURSIVE chain AS (
+                    SELECT id, parent_zone_id FROM zones WHERE id = ?
+                    UNION
+                    SELECT z.id, z.parent_zone_id FROM zones z INNER JOIN chain c ON z.id = c.parent_zone_id
+                )
+                SELECT EXISTS (SELECT 1 FROM chain WHERE id = ?)
+                """;
+            Boolean cycle = jdbcTemplate.queryForObject(cycleSql, Boolean.class, parentZoneId, id);
+            if (Boolean.TRUE.equals(cycle)) {
+                throw new IllegalArgumentException("Zone cannot be placed below itself or its descendants");
+            }
+        }
+        String sql = "UPDATE zones SET parent_zone_id = ? WHERE id = ?";
+        try {
+            return jdbcTemplate.update(sql, parentZoneId, id) > 0;
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Parent zone not found", e);
+        }
+    }
+    
+    @Override
+    public List<ZoneParent> findAllParents() {
+        return jdbcTemplate.query("SELECT id, parent_zone_id FROM zones", this::mapParent);
+    }
+    
+    @Override
+    public List<ZoneParent> findParents(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(
+            "SELECT id, parent_zone_id FROM zones WHERE id = ANY(?)",
+            ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", ids.toArray())),
+            this::mapParent
+        );
+    }
+    
     @Override
     public boolean deleteById(UUID id) {
         String sql = "DELETE FROM zones WHERE id = ?";
         int rowsAffected = jdbcTemplate.update(sql, id);
         return rowsAffected > 0;
     }
+    
+    private ZoneRecord mapZone(ResultSet rs, int rowNum) throws SQLException {
+        return new ZoneRecord(
+            rs.getObject("id", UUID.class),
+            rs.getString("code"),
+            rs.getObject("parent_zone_id", UUID.class),
+            rs.getTimestamp("created_at").toInstant()
+        );
+    }
+    
+    private ZoneParent mapParent(ResultSet rs, int rowNum) throws SQLException {
+        return new ZoneParent(rs.getObject("id", UUID.class), rs.getObject("parent_zone_id", UUID.class));
+    }
 }
-
@@ -0,0 +1,91 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import com.example.accesssystem.service.refdata.ReferenceDataListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * In-memory {@link ZoneGraph} built from {@code zones} and {@code checkpoints}.
+ * <p>
+ * Both tables are small, so every change rebuilds the whole snapshot. {@code CheckpointAdminController}
+ * and {@code ZoneAdminController} rebuild it right after their writes; the reference data change feed
+ * delivers changes made elsewhere.
+ */
+@Component
+public class ZoneTopology implements ReferenceDataListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ZoneTopology.class);
+
+    private final CheckpointRepository checkpointRepository;
+    private final ReferenceCodeRepository referenceCodeRepository;
+    private final ReferenceDataChangeFeed changeFeed;
+    private final Object updateLock = new Object();
+    private volatile ZoneGraph graph = ZoneGraph.empty();
+
+    ZoneTopology(CheckpointRepository checkpointRepository, ReferenceCodeRepository referenceCodeRepository,
+                 ReferenceDataChangeFeed changeFeed, MeterRegistry meterRegistry) {
+        this.checkpointRepository = checkpointRepository;
+        this.referenceCodeRepository = referenceCodeRepository;
+        this.changeFeed = changeFeed;
+        Gauge.builder("zone_topology_zones", this, topology -> topology.graph.zones().size())
+            .description("Zones in the in-memory zone topology")
+            .register(meterRegistry);
+        Gauge.builder("zone_topology_checkpoints", this, topology -> topology.graph.checkpoints().size())
+            .description("Checkpoints (edges) in the in-memory zone topology")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        changeFeed.register(this);
+    }
+
+    /**
+     * Current snapshot of the zone graph.
+     */
+    public ZoneGraph current() {
+        changeFeed.ensureFresh();
+        return graph;
+    }
+
+    /**
+     * Rebuilds the snapshot from the database.
+     */
+    public void refresh() {
+        synchronized (updateLock) {
+            graph = new ZoneGraph(
+                referenceCodeRepository.findAll(Kind.ZONES),
+                checkpointRepository.findAllEdges()
+            );
+        }
+    }
+
+    @Override
+    public String name() {
+        return "zone_topology";
+    }
+
+    @Override
+    public Set<String> tables() {
+        return Set.of(Kind.ZONES.table(), Kind.CHECKPOINTS.table());
+    }
+
+    @Override
+    public void reloadAll() {
+        refresh();
+        log.info("Zone topology loaded: {} zones, {} checkpoints", graph.zones().size(), graph.checkpoints().size());
+    }
+
+    @Override
+    public void reload(String table, Set<String> keys) {
+        refresh();
+    }
+}
@@ -5,6 +5,8 @@ import org.springframework.boot.actuate.health.HealthIndicator;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component("keys")
 public class KeysHealthIndicator implements HealthIndicator {
 
@@ -19,6 +21,10 @@ public class KeysHealthIndicator implements HealthIndicator {
         try {
             Integer issuerCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM issuer_keys", Integer.class);
             Integer checkpointCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM checkpoint_keys", Integer.class);
+            // Doors on the cheaper symmetric scheme should be visible at a glance
+            List<String> hmacCheckpoints = jdbcTemplate.queryForList(
+                "SELECT DISTINCT checkpoint_code FROM checkpoint_keys WHERE key_type = 'HMAC' ORDER BY checkpoint_code",
+                String.class);
 
             boolean ok = issuerCount != null && issuerCount > 0 && checkpointCount != null && checkpointCount > 0;
 
@@ -26,6 +32,7 @@ public class KeysHealthIndicator implements HealthIndicator {
             return builder
                 .withDetail("issuer_keys.count", issuerCount)
                 .withDetail("checkpoint_keys.count", checkpointCount)
+                .withDetail("checkpoint_keys.hmac", hmacCheckpoints)
                 .build();
         } catch (Exception e) {
             return Health.down(e).build();
@@ -0,0 +1,234 @@
+package com.example.accesssystem.service.refdata;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls {@code reference_data_changes} and pushes changed keys to registered
+ * {@link ReferenceDataListener}s.
+ * <p>
+ * Each poll reads the change rows together with the current snapshot's {@code xmin} in a single
+ * statement. Transactions below {@code xmin} are finished, so the next poll starts there; committed
+ * transactions at or above it that were already applied are remembered by txid and skipped. Every
+ * committed change is therefore applied exactly once, even when transactions commit out of order.
+ * <p>
+ * Polling runs in the background every {@code poll-interval-ms}. Readers that need read-your-writes
+ * semantics call {@link #ensureFresh()}, which polls synchronously when the last successful poll is
+ * older than {@code max-staleness-ms} (negative = never block, 0 = poll on every read).
+ */
+@Component
+public class ReferenceDataChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataChangeFeed.class);
+
+    private static final String POLL_SQL = """
+        SELECT s.xmin, c.table_name, c.row_key, c.tx_id
+        FROM (SELECT txid_snapshot_xmin(txid_current_snapshot()) AS xmin) s
+        LEFT JOIN reference_data_changes c ON c.tx_id >= ?
+        ORDER BY c.seq
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long maxStalenessNanos;
+    private final int maxIncrementalChanges;
+    private final long retentionMillis;
+    private final List<ReferenceDataListener> listeners = new CopyOnWriteArrayList<>();
+    private final Counter pollFailures;
+
+    private final Object pollLock = new Object();
+    // Guarded by pollLock
+    private long lastXmin;
+    private final Set<Long> appliedTxIds = new HashSet<>();
+    private final Set<ReferenceDataListener> pendingFullReload = new LinkedHashSet<>();
+    private long lastPruneMillis;
+
+    private volatile long lastSuccessNanos = System.nanoTime();
+    private volatile long lastSuccessMillis = System.currentTimeMillis();
+
+    ReferenceDataChangeFeed(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${access-system.reference-data.max-staleness-ms:-1}") long maxStalenessMs,
+            @Value("${access-system.reference-data.max-incremental-changes:1000}") int maxIncrementalChanges,
+            @Value("${access-system.reference-data.retention-seconds:3600}") long retentionSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.maxStalenessNanos = maxStalenessMs < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(maxStalenessMs);
+        this.maxIncrementalChanges = maxIncrementalChanges;
+        this.retentionMillis = TimeUnit.SECONDS.toMillis(retentionSeconds);
+        this.pollFailures = Counter.builder("reference_data_poll_failures_total")
+            .description("Failed polls of the reference data change feed")
+            .register(meterRegistry);
+        Gauge.builder("reference_data_staleness_seconds", this,
+                feed -> (System.nanoTime() - feed.lastSuccessNanos) / 1_000_000_000.0)
+            .description("Time since the reference data caches were last synchronized")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() {
+        // Start from the current snapshot: listeners load everything when they register, and
+        // changes committed concurrently with that load are replayed (reloads are idempotent).
+        Long xmin = jdbcTemplate.queryForObject("SELECT txid_snapshot_xmin(txid_current_snapshot())", Long.class);
+        synchronized (pollLock) {
+            lastXmin = xmin != null ? xmin : 0L;
+        }
+    }
+
+    /**
+     * Registers a cache and performs its initial full load.
+     */
+    public void register(ReferenceDataListener listener) {
+        long started = System.nanoTime();
+        // Under the poll lock so an incremental reload cannot be overwritten by this older full load
+        synchronized (pollLock) {
+            listeners.add(listener);
+            listener.reloadAll();
+        }
+        log.info("Reference data cache '{}' loaded in {} ms", listener.name(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    /**
+     * Blocks for a synchronous poll if the caches may be older than the configured staleness bound.
+     */
+    public void ensureFresh() {
+        if (maxStalenessNanos < 0) {
+            return;
+        }
+        if (maxStalenessNanos > 0 && System.nanoTime() - lastSuccessNanos < maxStalenessNanos) {
+            return;
+        }
+        poll();
+    }
+
+    @Scheduled(fixedDelayString = "${access-system.reference-data.poll-interval-ms:1000}")
+    void scheduledPoll() {
+        try {
+            poll();
+            pruneIfDue();
+        } catch (DataAccessException e) {
+            pollFailures.increment();
+            log.warn("Reference data change feed poll failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Applies all changes committed since the previous poll.
+     */
+    public void poll() {
+        synchronized (pollLock) {
+            long startedNanos = System.nanoTime();
+            long startedMillis = System.currentTimeMillis();
+            boolean gap = startedMillis - lastSuccessMillis > retentionMillis;
+
+            List<ChangeRow> rows = jdbcTemplate.query(POLL_SQL, (rs, rowNum) -> new ChangeRow(
+                rs.getLong("xmin"),
+                rs.getString("table_name"),
+                rs.getString("row_key"),
+                (Long) rs.getObject("tx_id")
+            ), lastXmin);
+            if (rows.isEmpty()) {
+                return;
+            }
+
+            long newXmin = Math.max(lastXmin, rows.get(0).xmin());
+            Map<String, Set<String>> changedKeys = new LinkedHashMap<>();
+            Set<Long> newTxIds = new HashSet<>();
+            for (ChangeRow row : rows) {
+                if (row.txId() == null || appliedTxIds.contains(row.txId())) {
+                    continue;
+                }
+                changedKeys.computeIfAbsent(row.table(), t -> new LinkedHashSet<>()).add(row.key());
+                newTxIds.add(row.txId());
+            }
+
+            if (gap) {
+                // Change rows may have been pruned while we were not polling
+                log.warn("Reference data change feed was not polled for longer than retention; reloading all caches");
+                pendingFullReload.addAll(listeners);
+            }
+            dispatch(changedKeys);
+
+            appliedTxIds.addAll(newTxIds);
+            appliedTxIds.removeIf(txId -> txId < newXmin);
+            lastXmin = newXmin;
+            lastSuccessNanos = startedNanos;
+            lastSuccessMillis = startedMillis;
+        }
+    }
+
+    private void dispatch(Map<String, Set<String>> changedKeys) {
+        List<ReferenceDataListener> retry = new ArrayList<>();
+        for (ReferenceDataListener listener : listeners) {
+            try {
+                if (pendingFullReload.contains(listener)) {
+                    reloadAll(listener);
+                    continue;
+                }
+                for (String table : listener.tables()) {
+                    Set<String> keys = changedKeys.get(table);
+                    if (keys == null) {
+                        continue;
+                    }
+                    if (keys.size() > maxIncrementalChanges) {
+                        reloadAll(listener);
+                        break;
+                    }
+                    listener.reload(table, keys);
+                    meterRegistry.counter("reference_data_changes_applied_total",
+                        "cache", listener.name(), "table", table).increment(keys.size());
+                }
+            } catch (RuntimeException e) {
+                // Do not hold the feed back for everyone; rebuild this cache on the next poll
+                log.error("Failed to apply reference data changes to cache '{}'", listener.name(), e);
+                retry.add(listener);
+            }
+        }
+        pendingFullReload.clear();
+        pendingFullReload.addAll(retry);
+    }
+
+    private void reloadAll(ReferenceDataListener listener) {
+        listener.reloadAll();
+        meterRegistry.counter("reference_data_full_reloads_total", "cache", listener.name()).increment();
+    }
+
+    private void pruneIfDue() {
+        long now = System.currentTimeMillis();
+        if (now - lastPruneMillis < Math.max(60_000L, retentionMillis / 10)) {
+            return;
+        }
+        lastPruneMillis = now;
+        int deleted = jdbcTemplate.update(
+            "DELETE FROM reference_data_changes WHERE changed_at < NOW() - make_interval(secs => ?)",
+            retentionMillis / 1000.0
+        );
+        if (deleted > 0) {
+            log.debug("Pruned {} reference data change rows", deleted);
+        }
+    }
+
+    private record ChangeRow(long xmin, String table, String key, Long txId) {
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.accesssystem.service.refdata;
+
+import java.util.Set;
+
+/**
+ * In-memory cache of reference data that is kept current by {@link ReferenceDataChangeFeed}.
+ * <p>
+ * Implementations load everything once when they register and afterwards reload only the
+ * entries reported by the feed. Both methods may be called from the feed's polling thread
+ * while readers are active, so implementations must publish updates safely.
+ */
+public interface ReferenceDataListener {
+
+    /**
+     * Short name used in logs and metrics.
+     */
+    String name();
+
+    /**
+     * Tables (as recorded in {@code reference_data_changes.table_name}) this cache is built from.
+     */
+    Set<String> tables();
+
+    /**
+     * Rebuilds the whole cache from the database.
+     */
+    void reloadAll();
+
+    /**
+     * Reloads the entries identified by the given row keys of one table.
+     * Keys that no longer exist in the database must be evicted.
+     */
+    void reload(String table, Set<String> keys);
+}
@@ -0,0 +1,69 @@
+-- Key rings: several keys per checkpoint/issuer, selected by kid.
+-- Existing rows become the 'default' key of their ring.
+
+ALTER TABLE checkpoint_keys
+    ADD COLUMN IF NOT EXISTS kid VARCHAR(64) NOT NULL DEFAULT 'default';
+
+ALTER TABLE checkpoint_keys
+    DROP CONSTRAINT IF EXISTS checkpoint_keys_checkpoint_code_key;
+
+ALTER TABLE checkpoint_keys
+    ADD CONSTRAINT ux_checkpoint_keys_code_kid UNIQUE (checkpoint_code, kid);
+
+ALTER TABLE issuer_keys
+    ADD COLUMN IF NOT EXISTS kid VARCHAR(64) NOT NULL DEFAULT 'default';
+
+ALTER TABLE issuer_keys
+    DROP CONSTRAINT IF EXISTS issuer_keys_issuer_code_key;
+
+ALTER TABLE issuer_keys
+    ADD CONSTRAINT ux_issuer_keys_code_kid UNIQUE (issuer_code, kid);
+
+-- Reference data change feed.
+-- Row-level triggers append (table, key) for every change; application instances poll the feed
+-- and reload only the affected entries of their in-memory caches.
+-- tx_id lets readers consume each committed transaction exactly once regardless of commit order.
+CREATE TABLE IF NOT EXISTS reference_data_changes (
+    seq         BIGSERIAL    PRIMARY KEY,
+    table_name  VARCHAR(64)  NOT NULL,
+    row_key     VARCHAR(512) NOT NULL,
+    tx_id       BIGINT       NOT NULL DEFAULT txid_current(),
+    changed_at  TIMESTAMPTZ  NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_reference_data_changes_tx_id ON reference_data_changes(tx_id);
+CREATE INDEX IF NOT EXISTS idx_reference_data_changes_changed_at ON reference_data_changes(changed_at);
+
+-- TG_ARGV[0] names the column that identifies the cached entry (e.g. checkpoint_code)
+CREATE OR REPLACE FUNCTION record_reference_data_change() RETURNS trigger AS $$
+DECLARE
+    key_column TEXT := TG_ARGV[0];
+    old_key    TEXT;
+    new_key    TEXT;
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        old_key := to_jsonb(OLD) ->> key_column;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        new_key := to_jsonb(NEW) ->> key_column;
+    END IF;
+
+    IF old_key IS NOT NULL THEN
+        INSERT INTO reference_data_changes (table_name, row_key) VALUES (TG_TABLE_NAME, old_key);
+    END IF;
+    IF new_key IS NOT NULL AND new_key IS DISTINCT FROM old_key THEN
+        INSERT INTO reference_data_changes (table_name, row_key) VALUES (TG_TABLE_NAME, new_key);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_checkpoint_keys_changes ON checkpoint_keys;
+CREATE TRIGGER trg_checkpoint_keys_changes
+    AFTER INSERT OR UPDATE OR DELETE ON checkpoint_keys
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('checkpoint_code');
+
+DROP TRIGGER IF EXISTS trg_issuer_keys_changes ON issuer_keys;
+CREATE TRIGGER trg_issuer_keys_changes
+    AFTER INSERT OR UPDATE OR DELETE ON issuer_keys
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('issuer_code');
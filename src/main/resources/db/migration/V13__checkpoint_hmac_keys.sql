@@ -0,0 +1,15 @@
+-- Opt-in symmetric checkpoint authentication: key_type = 'HMAC' (HMAC-SHA256).
+-- The secret is stored encrypted with the application master key (AES-GCM, see Docs/crypto.md);
+-- HMAC rows carry no public key, asymmetric rows carry no secret.
+
+ALTER TABLE checkpoint_keys
+    ALTER COLUMN public_key_pem DROP NOT NULL;
+
+ALTER TABLE checkpoint_keys
+    ADD COLUMN IF NOT EXISTS secret_ciphertext BYTEA;
+
+ALTER TABLE checkpoint_keys
+    ADD CONSTRAINT ck_checkpoint_keys_material CHECK (
+        (key_type = 'HMAC' AND secret_ciphertext IS NOT NULL AND public_key_pem IS NULL)
+        OR (key_type <> 'HMAC' AND public_key_pem IS NOT NULL AND secret_ciphertext IS NULL)
+    );
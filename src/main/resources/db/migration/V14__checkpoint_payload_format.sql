@@ -0,0 +1,14 @@
+-- Canonical payload format signed by each checkpoint:
+--   1 = legacy "|"-joined string, 2 = length-prefixed binary (see Docs/crypto.md).
+-- Existing checkpoints keep format 1; the value is cached in memory and follows the change feed.
+
+ALTER TABLE checkpoints
+    ADD COLUMN IF NOT EXISTS payload_format SMALLINT NOT NULL DEFAULT 1;
+
+ALTER TABLE checkpoints
+    ADD CONSTRAINT ck_checkpoints_payload_format CHECK (payload_format IN (1, 2));
+
+DROP TRIGGER IF EXISTS trg_checkpoints_changes ON checkpoints;
+CREATE TRIGGER trg_checkpoints_changes
+    AFTER INSERT OR UPDATE OR DELETE ON checkpoints
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('code');
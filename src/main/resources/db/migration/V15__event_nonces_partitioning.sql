@@ -0,0 +1,98 @@
+-- Optional storage layouts for event_nonces (see Docs/security.md, "Очистка данных"):
+--   event_nonces_partitioned = true  -> range-partitioned by expires_at, expiry is a partition drop
+--   event_nonces_unlogged    = true  -> no WAL for nonces (lost on crash; acceptable for some sites)
+-- Both default to false; the functions below can also be run by hand later.
+
+-- Creates missing partitions covering [now, now + horizon) and drops partitions that are fully expired.
+-- New partitions inherit the persistence (logged/unlogged) of the default partition.
+CREATE OR REPLACE FUNCTION event_nonces_maintain_partitions(width INTERVAL, horizon INTERVAL) RETURNS INTEGER AS $$
+DECLARE
+    width_secs  BIGINT := EXTRACT(EPOCH FROM width)::BIGINT;
+    from_epoch  BIGINT := floor(EXTRACT(EPOCH FROM NOW()) / width_secs)::BIGINT * width_secs;
+    to_epoch    BIGINT := EXTRACT(EPOCH FROM NOW() + horizon)::BIGINT;
+    persistence TEXT;
+    part_name   TEXT;
+    part        RECORD;
+    upper_bound TIMESTAMPTZ;
+    dropped     INTEGER := 0;
+BEGIN
+    IF to_regclass('event_nonces_default') IS NULL THEN
+        RAISE EXCEPTION 'event_nonces is not partitioned';
+    END IF;
+    SELECT CASE c.relpersistence WHEN 'u' THEN 'UNLOGGED' ELSE '' END INTO persistence
+    FROM pg_class c WHERE c.oid = 'event_nonces_default'::regclass;
+
+    WHILE from_epoch < to_epoch LOOP
+        part_name := 'event_nonces_p' || to_char(to_timestamp(from_epoch) AT TIME ZONE 'UTC', 'YYYYMMDD"t"HH24MISS');
+        IF to_regclass(part_name) IS NULL THEN
+            BEGIN
+                EXECUTE format('CREATE %s TABLE %I PARTITION OF event_nonces FOR VALUES FROM (%L) TO (%L)',
+                    persistence, part_name, to_timestamp(from_epoch), to_timestamp(from_epoch + width_secs));
+            EXCEPTION WHEN check_violation THEN
+                RAISE NOTICE 'event_nonces_default holds rows for %, partition not created', part_name;
+            END;
+        END IF;
+        from_epoch := from_epoch + width_secs;
+    END LOOP;
+
+    FOR part IN
+        SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) AS bound
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'event_nonces'::regclass
+          AND c.relname <> 'event_nonces_default'
+    LOOP
+        upper_bound := substring(part.bound FROM 'TO \(''([^'']+)''\)')::TIMESTAMPTZ;
+        IF upper_bound <= NOW() THEN
+            EXECUTE format('DROP TABLE %I', part.relname);
+            dropped := dropped + 1;
+        END IF;
+    END LOOP;
+    RETURN dropped;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rebuilds event_nonces as a table partitioned by expires_at, keeping the nonces that have not expired.
+-- The primary key has to include the partition key: (event_id, expires_at), so the database no longer
+-- rejects one event_id stored with two expiries; AntiReplayService checks by event_id before storing.
+CREATE OR REPLACE FUNCTION event_nonces_convert_to_partitioned(unlogged_partitions BOOLEAN) RETURNS VOID AS $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'event_nonces'::regclass) THEN
+        RETURN;
+    END IF;
+    ALTER TABLE event_nonces RENAME TO event_nonces_unpartitioned;
+    ALTER INDEX IF EXISTS event_nonces_pkey RENAME TO event_nonces_unpartitioned_pkey;
+    ALTER INDEX IF EXISTS idx_event_nonces_checkpoint RENAME TO idx_event_nonces_unpartitioned_checkpoint;
+    ALTER INDEX IF EXISTS idx_event_nonces_expires_at RENAME TO idx_event_nonces_unpartitioned_expires_at;
+
+    CREATE TABLE event_nonces (
+        event_id        VARCHAR(512) NOT NULL,
+        checkpoint_id   VARCHAR(128) NOT NULL,
+        event_timestamp TIMESTAMPTZ  NOT NULL,
+        expires_at      TIMESTAMPTZ  NOT NULL,
+        created_at      TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+        PRIMARY KEY (event_id, expires_at)
+    ) PARTITION BY RANGE (expires_at);
+    CREATE INDEX idx_event_nonces_checkpoint ON event_nonces(checkpoint_id);
+    CREATE INDEX idx_event_nonces_expires_at ON event_nonces(expires_at);
+    EXECUTE format('CREATE %s TABLE event_nonces_default PARTITION OF event_nonces DEFAULT',
+        CASE WHEN unlogged_partitions THEN 'UNLOGGED' ELSE '' END);
+    PERFORM event_nonces_maintain_partitions(INTERVAL '1 hour', INTERVAL '2 days');
+
+    INSERT INTO event_nonces (event_id, checkpoint_id, event_timestamp, expires_at, created_at)
+    SELECT event_id, checkpoint_id, event_timestamp, expires_at, created_at
+    FROM event_nonces_unpartitioned
+    WHERE expires_at > NOW();
+    DROP TABLE event_nonces_unpartitioned;
+END;
+$$ LANGUAGE plpgsql;
+
+DO $$
+BEGIN
+    IF '${event_nonces_partitioned}' = 'true' THEN
+        PERFORM event_nonces_convert_to_partitioned('${event_nonces_unlogged}' = 'true');
+    ELSIF '${event_nonces_unlogged}' = 'true' THEN
+        ALTER TABLE event_nonces SET UNLOGGED;
+    END IF;
+END;
+$$;
@@ -0,0 +1,16 @@
+-- Replay protection scheme per checkpoint:
+--   nonce    = every eventId is remembered in event_nonces (default)
+--   sequence = the checkpoint sends an increasing sequence number, checked against an in-memory
+--              sliding window; only the high-water mark is stored (see Docs/security.md)
+
+ALTER TABLE checkpoints
+    ADD COLUMN IF NOT EXISTS replay_protection VARCHAR(16) NOT NULL DEFAULT 'nonce';
+
+ALTER TABLE checkpoints
+    ADD CONSTRAINT ck_checkpoints_replay_protection CHECK (replay_protection IN ('nonce', 'sequence'));
+
+CREATE TABLE IF NOT EXISTS checkpoint_sequences (
+    checkpoint_code VARCHAR(128) PRIMARY KEY,
+    high_water      BIGINT       NOT NULL,
+    updated_at      TIMESTAMPTZ  NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,18 @@
+-- Access rules are evaluated from an in-memory matrix (user -> zone bitset).
+-- Rule rows are keyed by user_id so a change reloads that user's row; users and zones are keyed by id
+-- so renames and deletions reach the matrix on every node.
+
+DROP TRIGGER IF EXISTS trg_access_rules_changes ON access_rules;
+CREATE TRIGGER trg_access_rules_changes
+    AFTER INSERT OR UPDATE OR DELETE ON access_rules
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('user_id');
+
+DROP TRIGGER IF EXISTS trg_users_changes ON users;
+CREATE TRIGGER trg_users_changes
+    AFTER INSERT OR UPDATE OR DELETE ON users
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('id');
+
+DROP TRIGGER IF EXISTS trg_zones_changes ON zones;
+CREATE TRIGGER trg_zones_changes
+    AFTER INSERT OR UPDATE OR DELETE ON zones
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('id');
@@ -0,0 +1,44 @@
+-- User groups: access granted to a group applies to every member, so a department needs one rule
+-- per zone instead of one per (user, zone).
+
+CREATE TABLE IF NOT EXISTS user_groups (
+    id              UUID PRIMARY KEY,
+    code            VARCHAR(128) NOT NULL UNIQUE,
+    created_at      TIMESTAMPTZ  NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS user_group_members (
+    group_id        UUID        NOT NULL,
+    user_id         UUID        NOT NULL,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT pk_user_group_members PRIMARY KEY (group_id, user_id),
+    CONSTRAINT fk_user_group_members_group FOREIGN KEY (group_id) REFERENCES user_groups(id) ON DELETE CASCADE,
+    CONSTRAINT fk_user_group_members_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Groups of a user (rule evaluation and compilation start from the user)
+CREATE INDEX IF NOT EXISTS idx_user_group_members_user ON user_group_members(user_id);
+
+CREATE TABLE IF NOT EXISTS group_access_rules (
+    id              UUID        PRIMARY KEY DEFAULT gen_random_uuid(),
+    group_id        UUID        NOT NULL,
+    to_zone_id      UUID        NOT NULL,
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    CONSTRAINT fk_group_access_rules_group FOREIGN KEY (group_id) REFERENCES user_groups(id) ON DELETE CASCADE,
+    CONSTRAINT fk_group_access_rules_to_zone FOREIGN KEY (to_zone_id) REFERENCES zones(id),
+    CONSTRAINT uk_group_access_rules_group_to UNIQUE (group_id, to_zone_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_group_access_rules_to_zone ON group_access_rules(to_zone_id);
+
+-- Change feed for the in-memory access matrix: a membership change recompiles that user,
+-- a group rule change recompiles the group's members. Deleting a group cascades to both tables.
+DROP TRIGGER IF EXISTS trg_user_group_members_changes ON user_group_members;
+CREATE TRIGGER trg_user_group_members_changes
+    AFTER INSERT OR UPDATE OR DELETE ON user_group_members
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('user_id');
+
+DROP TRIGGER IF EXISTS trg_group_access_rules_changes ON group_access_rules;
+CREATE TRIGGER trg_group_access_rules_changes
+    AFTER INSERT OR UPDATE OR DELETE ON group_access_rules
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('group_id');
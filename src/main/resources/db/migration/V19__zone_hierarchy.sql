@@ -0,0 +1,14 @@
+-- Optional zone hierarchy: a rule on a zone also grants every zone below it.
+-- The transitive closure is compiled in memory (ancestor bitset per zone, see Docs/access.md);
+-- zones stays flat otherwise. Parent changes reach other nodes through trg_zones_changes (key id).
+
+ALTER TABLE zones
+    ADD COLUMN IF NOT EXISTS parent_zone_id UUID;
+
+ALTER TABLE zones
+    ADD CONSTRAINT fk_zones_parent FOREIGN KEY (parent_zone_id) REFERENCES zones(id) ON DELETE SET NULL;
+
+ALTER TABLE zones
+    ADD CONSTRAINT ck_zones_parent_not_self CHECK (parent_zone_id IS NULL OR parent_zone_id <> id);
+
+CREATE INDEX IF NOT EXISTS idx_zones_parent ON zones(parent_zone_id);
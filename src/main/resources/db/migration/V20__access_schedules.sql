@@ -0,0 +1,46 @@
+-- Time-scheduled access rules: a rule with a schedule applies only inside the schedule's weekly windows,
+-- evaluated in the site time zone (access-system.schedules.time-zone). Schedules are compiled in memory
+-- into weekly bitmaps at minute granularity (see Docs/access.md).
+
+CREATE TABLE IF NOT EXISTS access_schedules (
+    id         UUID PRIMARY KEY,
+    code       VARCHAR(128) NOT NULL,
+    created_at TIMESTAMPTZ  NOT NULL DEFAULT NOW(),
+    CONSTRAINT ux_access_schedules_code UNIQUE (code)
+);
+
+-- day_of_week: ISO (1 = Monday ... 7 = Sunday); minutes since local midnight, end exclusive.
+-- Windows that cross midnight are stored as two rows.
+CREATE TABLE IF NOT EXISTS access_schedule_windows (
+    schedule_id  UUID     NOT NULL,
+    day_of_week  SMALLINT NOT NULL,
+    start_minute SMALLINT NOT NULL,
+    end_minute   SMALLINT NOT NULL,
+    CONSTRAINT fk_access_schedule_windows_schedule FOREIGN KEY (schedule_id)
+        REFERENCES access_schedules(id) ON DELETE CASCADE,
+    CONSTRAINT ck_access_schedule_windows_day CHECK (day_of_week BETWEEN 1 AND 7),
+    CONSTRAINT ck_access_schedule_windows_minutes
+        CHECK (start_minute >= 0 AND end_minute <= 1440 AND start_minute < end_minute)
+);
+
+CREATE INDEX IF NOT EXISTS idx_access_schedule_windows_schedule ON access_schedule_windows(schedule_id);
+
+-- NULL = the rule applies at any time (previous behaviour)
+ALTER TABLE access_rules
+    ADD COLUMN IF NOT EXISTS schedule_id UUID;
+
+ALTER TABLE access_rules
+    ADD CONSTRAINT fk_access_rules_schedule FOREIGN KEY (schedule_id) REFERENCES access_schedules(id);
+
+CREATE INDEX IF NOT EXISTS idx_access_rules_schedule ON access_rules(schedule_id) WHERE schedule_id IS NOT NULL;
+
+-- Schedule definitions reach the compiled bitmaps on every node through the change feed
+DROP TRIGGER IF EXISTS trg_access_schedules_changes ON access_schedules;
+CREATE TRIGGER trg_access_schedules_changes
+    AFTER INSERT OR UPDATE OR DELETE ON access_schedules
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('id');
+
+DROP TRIGGER IF EXISTS trg_access_schedule_windows_changes ON access_schedule_windows;
+CREATE TRIGGER trg_access_schedule_windows_changes
+    AFTER INSERT OR UPDATE OR DELETE ON access_schedule_windows
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('schedule_id');
@@ -0,0 +1,25 @@
+-- Temporary visitor access: grants are enforced from memory and expired by a timing wheel
+-- (see Docs/access.md). Rows here are the audit trail: written on issue and on revoke, never on expiry.
+-- Active rows are also read on startup and delivered to other nodes through the change feed.
+
+CREATE TABLE IF NOT EXISTS visitor_grants (
+    id          UUID PRIMARY KEY,
+    user_id     UUID        NOT NULL,
+    to_zone_id  UUID        NOT NULL,
+    valid_from  TIMESTAMPTZ NOT NULL,
+    valid_until TIMESTAMPTZ NOT NULL,
+    issued_at   TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    revoked_at  TIMESTAMPTZ,
+    CONSTRAINT fk_visitor_grants_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_visitor_grants_to_zone FOREIGN KEY (to_zone_id) REFERENCES zones(id) ON DELETE CASCADE,
+    CONSTRAINT ck_visitor_grants_period CHECK (valid_from < valid_until)
+);
+
+-- Startup load of grants that have not expired yet
+CREATE INDEX IF NOT EXISTS idx_visitor_grants_valid_until ON visitor_grants(valid_until) WHERE revoked_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_visitor_grants_user ON visitor_grants(user_id);
+
+DROP TRIGGER IF EXISTS trg_visitor_grants_changes ON visitor_grants;
+CREATE TRIGGER trg_visitor_grants_changes
+    AFTER INSERT OR UPDATE OR DELETE ON visitor_grants
+    FOR EACH ROW EXECUTE FUNCTION record_reference_data_change('id');
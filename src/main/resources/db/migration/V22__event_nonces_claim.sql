@@ -0,0 +1,28 @@
+-- Nonce claims in one round trip that stay exclusive on a partitioned event_nonces (V15).
+-- The partitioned primary key is (event_id, expires_at), so two concurrent claims of one event_id with
+-- different expiries would both pass a NOT EXISTS check under READ COMMITTED and both insert. Claims
+-- therefore take a transaction-scoped advisory lock per event_id first; the INSERT, a separate statement
+-- with a fresh snapshot, then sees any row committed by the previous holder of the lock.
+-- Locks are taken in key order, so concurrent batches cannot deadlock on each other.
+
+CREATE OR REPLACE FUNCTION event_nonces_claim(
+    event_ids        VARCHAR[],
+    checkpoint_ids   VARCHAR[],
+    event_timestamps TIMESTAMPTZ[],
+    expiries         TIMESTAMPTZ[]
+) RETURNS SETOF VARCHAR AS $$
+BEGIN
+    PERFORM pg_advisory_xact_lock(k.lock_key)
+    FROM (SELECT DISTINCT hashtext(id) AS lock_key FROM unnest(event_ids) AS id ORDER BY 1) k;
+
+    RETURN QUERY
+    INSERT INTO event_nonces (event_id, checkpoint_id, event_timestamp, expires_at)
+    SELECT DISTINCT ON (n.event_id) n.event_id, n.checkpoint_id, n.event_timestamp, n.expires_at
+    FROM unnest(event_ids, checkpoint_ids, event_timestamps, expiries)
+        AS n(event_id, checkpoint_id, event_timestamp, expires_at)
+    WHERE NOT EXISTS (SELECT 1 FROM event_nonces e WHERE e.event_id = n.event_id)
+    ORDER BY n.event_id
+    ON CONFLICT DO NOTHING
+    RETURNING event_nonces.event_id;
+END;
+$$ LANGUAGE plpgsql;
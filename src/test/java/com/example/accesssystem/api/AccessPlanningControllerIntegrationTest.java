@@ -0,0 +1,168 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.ReachabilityRequest;
+import com.example.accesssystem.api.dto.ReachabilityResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for what-if reachability over the checkpoint topology.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class AccessPlanningControllerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String baseUrl;
+    private UUID lobbyId;
+    private UUID officeId;
+    private UUID labId;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/admin/access-planning/reachability";
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM checkpoints");
+        jdbcTemplate.update("DELETE FROM zones");
+
+        // OUT -> lobby -> office -> lab
+        lobbyId = zone("lobby");
+        officeId = zone("office");
+        labId = zone("lab");
+        checkpoint("cp-lobby", null, lobbyId);
+        checkpoint("cp-office", lobbyId, officeId);
+        checkpoint("cp-lab", officeId, labId);
+        checkpoint("cp-exit", lobbyId, null);
+    }
+
+    @Test
+    void reachability_shouldRequireAccessToEveryZoneOnThePath() throws Exception {
+        grant(user("alice"), lobbyId, officeId, labId);
+        grant(user("bob"), lobbyId, officeId);
+        // May enter the lab, but not the office in front of it
+        grant(user("carol"), lobbyId, labId);
+
+        List<ReachabilityResponse> lines = evaluate(new ReachabilityRequest(
+            List.of("alice", "bob", "carol", "ghost"), List.of("lab", "office"), null));
+
+        assertThat(lines).containsExactly(
+            new ReachabilityResponse("alice", true, List.of("lab", "office")),
+            new ReachabilityResponse("bob", true, List.of("office")),
+            new ReachabilityResponse("carol", true, List.of()),
+            new ReachabilityResponse("ghost", false, List.of()));
+    }
+
+    @Test
+    void reachability_shouldStreamManyUsersInRequestOrder() throws Exception {
+        int users = 2500;
+        jdbcTemplate.update("INSERT INTO users (id, code) SELECT gen_random_uuid(), 'bulk-' || i "
+            + "FROM generate_series(0, ?) i", users - 1);
+        // Even users may enter every zone, odd users only the lobby
+        jdbcTemplate.update("""
+            INSERT INTO access_rules (user_id, to_zone_id)
+            SELECT u.id, z.id
+            FROM users u CROSS JOIN zones z
+            WHERE u.code LIKE 'bulk-%'
+              AND (z.code = 'lobby' OR substring(u.code FROM 6)::int % 2 = 0)
+            """);
+        List<String> userCodes = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            userCodes.add("bulk-" + i);
+        }
+
+        List<ReachabilityResponse> lines = evaluate(new ReachabilityRequest(userCodes, List.of("lab"), Instant.now()));
+
+        assertThat(lines).hasSize(users);
+        for (int i = 0; i < users; i++) {
+            assertThat(lines.get(i).userCode()).isEqualTo("bulk-" + i);
+            assertThat(lines.get(i).reachableZoneCodes()).isEqualTo(i % 2 == 0 ? List.of("lab") : List.of());
+        }
+    }
+
+    @Test
+    void reachability_unknownZone_shouldReturnBadRequest() {
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl,
+            new ReachabilityRequest(List.of("alice"), List.of("nowhere"), null), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private List<ReachabilityResponse> evaluate(ReachabilityRequest request) throws Exception {
+        ResponseEntity<String> response = restTemplate.postForEntity(baseUrl, request, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType().toString()).isEqualTo("application/x-ndjson");
+        List<ReachabilityResponse> lines = new ArrayList<>();
+        for (String line : response.getBody().split("\n")) {
+            lines.add(objectMapper.readValue(line, ReachabilityResponse.class));
+        }
+        return lines;
+    }
+
+    private UUID zone(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+
+    private void checkpoint(String code, UUID fromZoneId, UUID toZoneId) {
+        jdbcTemplate.update(
+            "INSERT INTO checkpoints (id, code, from_zone_id, to_zone_id) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), code, fromZoneId, toZoneId);
+    }
+
+    private UUID user(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+
+    private void grant(UUID userId, UUID... zoneIds) {
+        for (UUID zoneId : zoneIds) {
+            jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", userId, zoneId);
+        }
+    }
+}
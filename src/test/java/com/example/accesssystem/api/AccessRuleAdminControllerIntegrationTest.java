@@ -1,9 +1,13 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.api.dto.AccessRuleImportResponse;
 import com.example.accesssystem.api.dto.AccessRuleResponse;
 import com.example.accesssystem.api.dto.CreateAccessRuleRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateAccessRuleRequest;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,8 +15,11 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
@@ -24,6 +31,8 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.UUID;
 
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -53,6 +62,9 @@ class AccessRuleAdminControllerIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private AccessMatrixEvaluator accessMatrix;
+
     private String baseUrl;
     private UUID userId;
     private UUID zoneBId;
@@ -193,5 +205,102 @@ class AccessRuleAdminControllerIntegrationTest {
             baseUrl + "/" + ruleId, AccessRuleResponse.class);
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
-}
 
+    @Test
+    void accessRuleChanges_shouldBeVisibleInAccessMatrix() {
+        UserId user = new UserId("user-1");
+        ZoneId zoneB = new ZoneId("zone-b");
+        ZoneId zoneC = new ZoneId("zone-c");
+        assertThat(accessMatrix.canTransit(user, null, zoneB)).isEqualTo(DENY);
+
+        ResponseEntity<AccessRuleResponse> created = restTemplate.postForEntity(
+            baseUrl, new CreateAccessRuleRequest(userId, zoneBId), AccessRuleResponse.class);
+        UUID ruleId = created.getBody().id();
+        assertThat(accessMatrix.canTransit(user, null, zoneB)).isEqualTo(ALLOW);
+        assertThat(accessMatrix.canTransit(user, zoneB, zoneC)).isEqualTo(DENY);
+
+        restTemplate.put(baseUrl + "/" + ruleId, new UpdateAccessRuleRequest(zoneCId));
+        assertThat(accessMatrix.canTransit(user, null, zoneB)).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(user, zoneB, zoneC)).isEqualTo(ALLOW);
+
+        restTemplate.delete(baseUrl + "/" + ruleId);
+        assertThat(accessMatrix.canTransit(user, zoneB, zoneC)).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(user, zoneC, null)).isEqualTo(ALLOW);
+    }
+
+    @Test
+    void importCsv_shouldCreateRulesAndReportDuplicatesAndUnknownCodes() {
+        String csv = """
+            user_code,zone_code
+            user-1,zone-b
+            user-1,zone-c
+            user-1,zone-b
+            ghost,zone-b
+            user-1,nowhere
+            ,zone-b
+            """;
+
+        ResponseEntity<AccessRuleImportResponse> response = importRules(csv, "text/csv");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        AccessRuleImportResponse report = response.getBody();
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.created()).isEqualTo(2);
+        assertThat(report.duplicates()).isEqualTo(1);
+        assertThat(report.invalidRows()).isEqualTo(1);
+        assertThat(report.unknownUserRows()).isEqualTo(1);
+        assertThat(report.unknownZoneRows()).isEqualTo(1);
+        assertThat(report.unknownUserCodes()).containsExactly("ghost");
+        assertThat(report.unknownZoneCodes()).containsExactly("nowhere");
+        assertThat(accessMatrix.canTransit(new UserId("user-1"), null, new ZoneId("zone-c"))).isEqualTo(ALLOW);
+
+        AccessRuleImportResponse again = importRules(csv, "text/csv").getBody();
+        assertThat(again.created()).isZero();
+        assertThat(again.duplicates()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM access_rules", Long.class)).isEqualTo(2);
+    }
+
+    @Test
+    void importNdjson_shouldCreateRulesInBulk() {
+        int users = 2000;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < users; i++) {
+            ndjson.append("{\"userCode\":\"bulk-").append(i).append("\",\"zoneCode\":\"zone-b\"}\n");
+            ndjson.append("{\"userCode\":\"bulk-").append(i).append("\",\"zoneCode\":\"zone-c\"}\n");
+        }
+        jdbcTemplate.update("INSERT INTO users (id, code) SELECT gen_random_uuid(), 'bulk-' || i "
+            + "FROM generate_series(0, ?) i", users - 1);
+
+        ResponseEntity<AccessRuleImportResponse> response = importRules(ndjson.toString(), "application/x-ndjson");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().rows()).isEqualTo(2L * users);
+        assertThat(response.getBody().created()).isEqualTo(2L * users);
+        assertThat(accessMatrix.canTransit(new UserId("bulk-1999"), new ZoneId("zone-b"), new ZoneId("zone-c")))
+            .isEqualTo(ALLOW);
+    }
+
+    @Test
+    void importMalformedRows_shouldReturnBadRequestAndImportNothing() {
+        ResponseEntity<String> csv = restTemplate.exchange(baseUrl + "/import?header=false", HttpMethod.POST,
+            body("user-1,zone-b\nuser-1,zone-c,extra\n", "text/csv"), String.class);
+        ResponseEntity<String> ndjson = restTemplate.exchange(baseUrl + "/import", HttpMethod.POST,
+            body("{\"userCode\":\"user-1\",\"zoneCode\":\"zone-b\"}\nnot json\n", "application/x-ndjson"),
+            String.class);
+
+        assertThat(csv.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(ndjson.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM access_rules", Long.class)).isZero();
+    }
+
+    private ResponseEntity<AccessRuleImportResponse> importRules(String content, String contentType) {
+        return restTemplate.exchange(baseUrl + "/import", HttpMethod.POST, body(content, contentType),
+            AccessRuleImportResponse.class);
+    }
+
+    private static HttpEntity<String> body(String content, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return new HttpEntity<>(content, headers);
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.AccessRuleResponse;
+import com.example.accesssystem.api.dto.CreateAccessRuleRequest;
+import com.example.accesssystem.api.dto.CreateScheduleRequest;
+import com.example.accesssystem.api.dto.ScheduleResponse;
+import com.example.accesssystem.api.dto.ScheduleWindowDto;
+import com.example.accesssystem.api.dto.UpdateScheduleRequest;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleEvaluatorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for access schedule CRUD operations and time-scheduled access rules.
+ * The test profile evaluates schedules in UTC.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class AccessScheduleAdminControllerIntegrationTest {
+
+    // Monday 2024-01-01
+    private static final Instant MONDAY_10_00 = Instant.parse("2024-01-01T10:00:00Z");
+    private static final Instant MONDAY_20_00 = Instant.parse("2024-01-01T20:00:00Z");
+    private static final Instant TUESDAY_10_00 = Instant.parse("2024-01-02T10:00:00Z");
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccessMatrixEvaluator accessMatrix;
+
+    @Autowired
+    private AccessRuleEvaluatorImpl databaseEvaluator;
+
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/admin/schedules";
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM access_schedules");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM checkpoints");
+        jdbcTemplate.update("DELETE FROM zones");
+    }
+
+    @Test
+    void createSchedule_shouldReturnCreatedScheduleWithWindows() {
+        ResponseEntity<ScheduleResponse> response = restTemplate.postForEntity(
+            baseUrl, officeHours("office-hours"), ScheduleResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody().code()).isEqualTo("office-hours");
+        assertThat(response.getBody().windows()).containsExactly(
+            new ScheduleWindowDto(DayOfWeek.MONDAY, "09:00", "18:00"),
+            new ScheduleWindowDto(DayOfWeek.SATURDAY, "22:00", "24:00"));
+    }
+
+    @Test
+    void createSchedule_invalidWindow_shouldReturnBadRequest() {
+        ResponseEntity<String> reversed = restTemplate.postForEntity(baseUrl, new CreateScheduleRequest(
+            "reversed", List.of(new ScheduleWindowDto(DayOfWeek.MONDAY, "18:00", "09:00"))), String.class);
+        ResponseEntity<String> malformed = restTemplate.postForEntity(baseUrl, new CreateScheduleRequest(
+            "malformed", List.of(new ScheduleWindowDto(DayOfWeek.MONDAY, "9:00", "25:00"))), String.class);
+        ResponseEntity<String> empty = restTemplate.postForEntity(baseUrl, new CreateScheduleRequest(
+            "empty", List.of()), String.class);
+
+        assertThat(reversed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(malformed.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void createSchedule_duplicateCode_shouldReturnBadRequest() {
+        restTemplate.postForEntity(baseUrl, officeHours("office-hours"), ScheduleResponse.class);
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            baseUrl, officeHours("office-hours"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void scheduledRule_shouldAllowOnlyInsideWindows() {
+        UUID scheduleId = restTemplate.postForEntity(
+            baseUrl, officeHours("office-hours"), ScheduleResponse.class).getBody().id();
+        UUID userId = createUser("user-s");
+        UUID zoneId = createZone("lab");
+        ResponseEntity<AccessRuleResponse> rule = restTemplate.postForEntity(
+            "http://localhost:" + port + "/admin/access-rules",
+            new CreateAccessRuleRequest(userId, zoneId, scheduleId), AccessRuleResponse.class);
+        assertThat(rule.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(rule.getBody().scheduleId()).isEqualTo(scheduleId);
+        UserId user = new UserId("user-s");
+        ZoneId lab = new ZoneId("lab");
+
+        assertThat(accessMatrix.canTransit(user, null, lab, MONDAY_10_00)).isEqualTo(ALLOW);
+        assertThat(databaseEvaluator.canTransit(user, null, lab, MONDAY_10_00)).isEqualTo(ALLOW);
+        assertThat(accessMatrix.canTransit(user, null, lab, MONDAY_20_00)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(user, null, lab, MONDAY_20_00)).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(user, null, lab, TUESDAY_10_00)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(user, null, lab, TUESDAY_10_00)).isEqualTo(DENY);
+
+        // New windows apply to the rule without touching it
+        ResponseEntity<ScheduleResponse> updated = restTemplate.exchange(
+            baseUrl + "/" + scheduleId, HttpMethod.PUT,
+            new HttpEntity<>(new UpdateScheduleRequest("office-hours",
+                List.of(new ScheduleWindowDto(DayOfWeek.TUESDAY, "08:00", "12:00")))),
+            ScheduleResponse.class);
+
+        assertThat(updated.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(accessMatrix.canTransit(user, null, lab, MONDAY_10_00)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(user, null, lab, MONDAY_10_00)).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(user, null, lab, TUESDAY_10_00)).isEqualTo(ALLOW);
+        assertThat(databaseEvaluator.canTransit(user, null, lab, TUESDAY_10_00)).isEqualTo(ALLOW);
+    }
+
+    @Test
+    void deleteSchedule_inUse_shouldReturnBadRequest() {
+        UUID scheduleId = restTemplate.postForEntity(
+            baseUrl, officeHours("office-hours"), ScheduleResponse.class).getBody().id();
+        UUID userId = createUser("user-s");
+        UUID zoneId = createZone("lab");
+        jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id, schedule_id) VALUES (?, ?, ?)",
+            userId, zoneId, scheduleId);
+
+        ResponseEntity<String> inUse = restTemplate.exchange(
+            baseUrl + "/" + scheduleId, HttpMethod.DELETE, null, String.class);
+        assertThat(inUse.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+
+        jdbcTemplate.update("DELETE FROM access_rules");
+        ResponseEntity<Void> deleted = restTemplate.exchange(
+            baseUrl + "/" + scheduleId, HttpMethod.DELETE, null, Void.class);
+        assertThat(deleted.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(restTemplate.getForEntity(baseUrl + "/" + scheduleId, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    private static CreateScheduleRequest officeHours(String code) {
+        return new CreateScheduleRequest(code, List.of(
+            new ScheduleWindowDto(DayOfWeek.MONDAY, "09:00", "18:00"),
+            new ScheduleWindowDto(DayOfWeek.SATURDAY, "22:00", "24:00")));
+    }
+
+    private UUID createUser(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+
+    private UUID createZone(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+}
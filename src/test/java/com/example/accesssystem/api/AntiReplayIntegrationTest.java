@@ -1,5 +1,6 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.service.CanonicalPayloadBuilder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -264,6 +265,16 @@ class AntiReplayIntegrationTest {
         assertThat(secondResponse.getBody()).isNotNull();
         assertThat(secondResponse.getBody().get("status")).isEqualTo("rejected");
         assertThat(secondResponse.getBody().get("reason")).isEqualTo("duplicate_event_id");
+
+        // The nonce is stored in event_nonces, kept only while its timestamp is in the window
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_nonces WHERE event_id = ?", Integer.class, eventId) == 0) {
+            assertThat(System.currentTimeMillis()).as("nonce persisted within 10s").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+        Instant expiresAt = jdbcTemplate.queryForObject(
+            "SELECT expires_at FROM event_nonces WHERE event_id = ?", java.sql.Timestamp.class, eventId).toInstant();
+        assertThat(expiresAt).isBefore(Instant.parse(timestamp).plusSeconds(62));
     }
 
     @Test
@@ -308,6 +319,77 @@ class AntiReplayIntegrationTest {
         assertThat(response.getBody().get("checkpointId")).isEqualTo("cp-1");
     }
 
+    @Test
+    void ingest_sequenceCheckpoint_rejectsReusedSequenceWithoutStoringNonces() throws Exception {
+        jdbcTemplate.update("UPDATE checkpoints SET replay_protection = 'sequence' WHERE code = ?", "cp-1");
+        String timestamp = Instant.now().toString();
+        String userToken = createJWTToken(issuerCode, "user-123", Date.from(Instant.now().plusSeconds(3600)));
+        long sequence = System.nanoTime();
+
+        ResponseEntity<Map> first = post(sequencedEventJson(timestamp, userToken, sequence));
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+
+        // A fresh eventId does not help: the sequence decides
+        ResponseEntity<Map> replay = post(sequencedEventJson(timestamp, userToken, sequence));
+        assertThat(replay.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(replay.getBody().get("reason")).isEqualTo("duplicate_sequence");
+
+        ResponseEntity<Map> missing = post(sequencedEventJson(timestamp, userToken, null));
+        assertThat(missing.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(missing.getBody().get("reason")).isEqualTo("missing_sequence");
+
+        // Only the high-water mark is persisted, no per-event nonce
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (jdbcTemplate.queryForList(
+                "SELECT high_water FROM checkpoint_sequences WHERE checkpoint_code = ? AND high_water >= ?",
+                Long.class, "cp-1", sequence).isEmpty()) {
+            assertThat(System.currentTimeMillis()).as("high-water mark persisted within 10s").isLessThan(deadline);
+            Thread.sleep(100);
+        }
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM event_nonces WHERE event_timestamp = ?",
+            Integer.class, java.sql.Timestamp.from(Instant.parse(timestamp)))).isZero();
+    }
+
+    @Test
+    void ingest_sequenceCheckpoint_unsignedSequenceDoesNotAdvanceWindow() throws Exception {
+        jdbcTemplate.update("UPDATE checkpoints SET replay_protection = 'sequence' WHERE code = ?", "cp-1");
+        String timestamp = Instant.now().toString();
+        String userToken = createJWTToken(issuerCode, "user-123", Date.from(Instant.now().plusSeconds(3600)));
+        long sequence = System.nanoTime();
+
+        // Signed for one sequence, sent with another: the signature covers the sequence
+        ResponseEntity<Map> forged = post(sequencedEventJson(timestamp, userToken, Long.MAX_VALUE - 1, sequence));
+        assertThat(forged.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(forged.getBody().get("reason")).isEqualTo("signature_verification_failed");
+
+        // The forged request moved nothing: the genuine event is still accepted
+        ResponseEntity<Map> genuine = post(sequencedEventJson(timestamp, userToken, sequence));
+        assertThat(genuine.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+    }
+
+    private String sequencedEventJson(String timestamp, String userToken, Long sequence) throws Exception {
+        return sequencedEventJson(timestamp, userToken, sequence, sequence != null ? sequence : 0L);
+    }
+
+    /**
+     * Event of a sequence checkpoint: signed in canonical format 3, which covers {@code signedSequence}.
+     */
+    private String sequencedEventJson(String timestamp, String userToken, Long sequence, long signedSequence)
+            throws Exception {
+        byte[] canonical = new CanonicalPayloadBuilder().buildCanonicalPayload(CanonicalPayloadBuilder.FORMAT_V3,
+            "cp-1", timestamp, "zone-a", "zone-b", userToken, signedSequence);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(testKeyPair.getPrivate());
+        signature.update(canonical);
+        String signatureBase64 = Base64.getEncoder().encodeToString(signature.sign());
+        return String.format(
+            "{\"checkpointId\":\"cp-1\",\"eventId\":\"%s\",\"timestamp\":\"%s\",\"fromZone\":\"zone-a\"," +
+            "\"toZone\":\"zone-b\",\"userToken\":\"%s\",\"signature\":\"%s\"%s}",
+            UUID.randomUUID(), timestamp, userToken, signatureBase64,
+            sequence != null ? ",\"sequence\":" + sequence : ""
+        );
+    }
+
     private ResponseEntity<Map> post(String json) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -0,0 +1,306 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.service.CryptoPoolSaturatedException;
+import com.example.accesssystem.service.CryptoVerificationExecutor;
+import com.example.accesssystem.service.MerkleTree;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+
+/**
+ * Offline batch upload: one checkpoint signature over the Merkle root, inclusion proofs per event.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class BatchIngestIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @SpyBean
+    private CryptoVerificationExecutor cryptoExecutor;
+
+    private final String checkpointCode = "cp-batch-1";
+    private final String issuerCode = "batch-issuer";
+    private KeyPair checkpointKeyPair;
+    private KeyPair issuerKeyPair;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.update("DELETE FROM events");
+        jdbcTemplate.update("DELETE FROM denials");
+        jdbcTemplate.update("DELETE FROM user_state");
+        jdbcTemplate.update("DELETE FROM event_nonces");
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM checkpoint_keys WHERE checkpoint_code = ?", checkpointCode);
+        jdbcTemplate.update("DELETE FROM issuer_keys WHERE issuer_code = ?", issuerCode);
+        jdbcTemplate.update("DELETE FROM checkpoints WHERE code = ?", checkpointCode);
+        jdbcTemplate.update("DELETE FROM users WHERE code IN (?, ?)", "batch-user-1", "batch-user-2");
+        jdbcTemplate.update("DELETE FROM zones WHERE code IN (?, ?)", "zone-a", "zone-b");
+
+        UUID zoneAId = UUID.randomUUID();
+        UUID zoneBId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", zoneAId, "zone-a");
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", zoneBId, "zone-b");
+        jdbcTemplate.update(
+            "INSERT INTO checkpoints (id, code, from_zone_id, to_zone_id) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), checkpointCode, zoneAId, zoneBId
+        );
+        for (String user : List.of("batch-user-1", "batch-user-2")) {
+            UUID userId = UUID.randomUUID();
+            jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", userId, user);
+            jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", userId, zoneBId);
+            jdbcTemplate.update(
+                "INSERT INTO user_state (id, user_id, current_zone_id, version) VALUES (?, ?, ?, ?)",
+                UUID.randomUUID(), userId, zoneAId, 0
+            );
+        }
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        checkpointKeyPair = keyGen.generateKeyPair();
+        issuerKeyPair = keyGen.generateKeyPair();
+        jdbcTemplate.update(
+            "INSERT INTO checkpoint_keys (id, checkpoint_code, public_key_pem, key_type) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), checkpointCode, convertToPEM(checkpointKeyPair.getPublic()), "RSA"
+        );
+        jdbcTemplate.update(
+            "INSERT INTO issuer_keys (id, issuer_code, public_key_pem, key_type, algorithm) VALUES (?, ?, ?, ?, ?)",
+            UUID.randomUUID(), issuerCode, convertToPEM(issuerKeyPair.getPublic()), "RSA", "RS256"
+        );
+    }
+
+    @Test
+    void ingestBatch_validProofs_acceptsEventsAndRejectsTamperedOne() throws Exception {
+        // Offline backlog recorded an hour ago, outside the regular skew window
+        List<Map<String, Object>> events = List.of(
+            event("batch-user-1", Instant.now().minusSeconds(3600)),
+            event("batch-user-2", Instant.now().minusSeconds(3500)),
+            event("batch-user-2", Instant.now().minusSeconds(3400))
+        );
+        Map<String, Object> batch = signedBatch(events);
+        // Tamper with the third event after signing: its proof no longer matches
+        List<Map<String, Object>> uploaded = eventsOf(batch);
+        uploaded.get(2).put("toZone", "zone-a");
+
+        ResponseEntity<Map> response = post(batch);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("accepted")).isEqualTo(2);
+        assertThat(response.getBody().get("rejected")).isEqualTo(1);
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertThat(results.get(0).get("status")).isEqualTo("accepted");
+        assertThat(results.get(1).get("status")).isEqualTo("accepted");
+        assertThat(results.get(2).get("reason")).isEqualTo("inclusion_proof_invalid");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM events", Integer.class)).isEqualTo(2);
+
+        // Re-uploading the same batch is a replay
+        uploaded.get(2).put("toZone", "zone-b");
+        ResponseEntity<Map> replay = post(batch);
+        List<Map<String, Object>> replayResults = (List<Map<String, Object>>) replay.getBody().get("results");
+        assertThat(replayResults.get(0).get("reason")).isEqualTo("duplicate_event_id");
+    }
+
+    @Test
+    void ingestBatch_eventUnderFreshEventId_failsInclusionProof() throws Exception {
+        Map<String, Object> batch = signedBatch(List.of(
+            event("batch-user-1", Instant.now().minusSeconds(3600)),
+            event("batch-user-2", Instant.now().minusSeconds(3500))
+        ));
+        assertThat(post(batch).getBody().get("accepted")).isEqualTo(2);
+
+        // Replaying the captured batch with new eventIds must not pass the proofs
+        eventsOf(batch).forEach(event -> event.put("eventId", UUID.randomUUID().toString()));
+        ResponseEntity<Map> replay = post(batch);
+
+        assertThat(replay.getBody().get("accepted")).isEqualTo(0);
+        List<Map<String, Object>> results = (List<Map<String, Object>>) replay.getBody().get("results");
+        assertThat(results).allSatisfy(result -> assertThat(result.get("reason")).isEqualTo("inclusion_proof_invalid"));
+    }
+
+    @Test
+    void ingestBatch_cryptoPoolSaturatedMidBatch_reportsRemainingEventsForRetry() throws Exception {
+        Map<String, Object> batch = signedBatch(List.of(
+            event("batch-user-1", Instant.now().minusSeconds(120)),
+            event("batch-user-2", Instant.now().minusSeconds(60))
+        ));
+        // The pool gives up on the second event's token, after the first event has been processed
+        doCallRealMethod()
+            .doThrow(new CryptoPoolSaturatedException("Crypto verification timed out"))
+            .doCallRealMethod()
+            .when(cryptoExecutor).verify(eq("user token"), any());
+
+        ResponseEntity<Map> response = post(batch);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+        assertThat(response.getBody().get("accepted")).isEqualTo(1);
+        assertThat(response.getBody().get("retry")).isEqualTo(1);
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.getBody().get("results");
+        assertThat(results.get(0).get("status")).isEqualTo("accepted");
+        assertThat(results.get(1).get("status")).isEqualTo("retry");
+        assertThat(results.get(1).get("reason")).isEqualTo("crypto_pool_saturated");
+
+        // The re-upload tells which event was taken and processes the one that was not
+        List<Map<String, Object>> retried = (List<Map<String, Object>>) post(batch).getBody().get("results");
+        assertThat(retried.get(0).get("reason")).isEqualTo("duplicate_event_id");
+        assertThat(retried.get(1).get("status")).isEqualTo("accepted");
+    }
+
+    @Test
+    void ingestBatch_subsetOfSignedTree_isAccepted() throws Exception {
+        Map<String, Object> batch = signedBatch(List.of(
+            event("batch-user-1", Instant.now().minusSeconds(60)),
+            event("batch-user-2", Instant.now().minusSeconds(30))
+        ));
+        eventsOf(batch).remove(0);
+
+        ResponseEntity<Map> response = post(batch);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().get("accepted")).isEqualTo(1);
+    }
+
+    @Test
+    void ingestBatch_invalidRootSignature_rejectsWholeBatch() throws Exception {
+        Map<String, Object> batch = signedBatch(List.of(event("batch-user-1", Instant.now())));
+        Object signedRoot = batch.get("merkleRoot");
+        byte[] otherRoot = MerkleTree.leafHash("other".getBytes(StandardCharsets.UTF_8));
+        batch.put("merkleRoot", Base64.getEncoder().encodeToString(otherRoot));
+
+        ResponseEntity<Map> response = post(batch);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(response.getBody().get("reason")).isEqualTo("signature_verification_failed");
+        // Nonces of earlier tests may still be persisted in the background, so check this batch only
+        Object eventId = eventsOf(batch).get(0).get("eventId");
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM event_nonces WHERE event_id = ?", Integer.class, eventId)).isZero();
+
+        // The rejected batch did not burn its nonces
+        batch.put("merkleRoot", signedRoot);
+        assertThat(post(batch).getBody().get("accepted")).isEqualTo(1);
+    }
+
+    private Map<String, Object> event(String user, Instant timestamp) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("eventId", UUID.randomUUID().toString());
+        event.put("timestamp", timestamp.toString());
+        event.put("fromZone", "zone-a");
+        event.put("toZone", "zone-b");
+        event.put("userToken", Jwts.builder()
+            .issuer(issuerCode)
+            .subject(user)
+            .claim("userId", user)
+            .expiration(Date.from(Instant.now().plusSeconds(3600)))
+            .signWith(issuerKeyPair.getPrivate())
+            .compact());
+        return event;
+    }
+
+    /**
+     * Does what the checkpoint does: hash canonical payloads, sign the root once, attach proofs.
+     */
+    private Map<String, Object> signedBatch(List<Map<String, Object>> events) throws Exception {
+        List<byte[]> leaves = new ArrayList<>();
+        for (Map<String, Object> event : events) {
+            byte[] canonical = String.join("|", checkpointCode, (String) event.get("timestamp"),
+                (String) event.get("fromZone"), (String) event.get("toZone"), (String) event.get("userToken"))
+                .getBytes(StandardCharsets.UTF_8);
+            // Leaf: eventId (u32 length + UTF-8), then the canonical payload
+            byte[] eventId = ((String) event.get("eventId")).getBytes(StandardCharsets.UTF_8);
+            leaves.add(MerkleTree.leafHash(ByteBuffer.allocate(4 + eventId.length + canonical.length)
+                .putInt(eventId.length).put(eventId).put(canonical).array()));
+        }
+        byte[] root = MerkleTree.root(leaves);
+        String rootBase64 = Base64.getEncoder().encodeToString(root);
+
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(checkpointKeyPair.getPrivate());
+        signature.update(String.join("|", "merkle-batch-v2", checkpointCode, Integer.toString(leaves.size()), rootBase64)
+            .getBytes(StandardCharsets.UTF_8));
+
+        List<Map<String, Object>> withProofs = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Map<String, Object> event = new HashMap<>(events.get(i));
+            event.put("leafIndex", i);
+            event.put("proof", MerkleTree.proof(leaves, i).stream()
+                .map(h -> Base64.getEncoder().encodeToString(h)).toList());
+            withProofs.add(event);
+        }
+
+        Map<String, Object> batch = new HashMap<>();
+        batch.put("checkpointId", checkpointCode);
+        batch.put("treeSize", leaves.size());
+        batch.put("merkleRoot", rootBase64);
+        batch.put("signature", Base64.getEncoder().encodeToString(signature.sign()));
+        batch.put("events", withProofs);
+        return batch;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> eventsOf(Map<String, Object> batch) {
+        return (List<Map<String, Object>>) batch.get("events");
+    }
+
+    private ResponseEntity<Map> post(Map<String, Object> batch) {
+        return restTemplate.postForEntity("http://localhost:" + port + "/ingest/batch", batch, Map.class);
+    }
+
+    private static String convertToPEM(PublicKey publicKey) {
+        String base64 = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(publicKey.getEncoded());
+        return "-----BEGIN PUBLIC KEY-----\n" + base64 + "\n-----END PUBLIC KEY-----";
+    }
+}
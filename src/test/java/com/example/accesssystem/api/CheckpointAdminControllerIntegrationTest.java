@@ -2,7 +2,11 @@ package com.example.accesssystem.api;
 
 import com.example.accesssystem.api.dto.CheckpointResponse;
 import com.example.accesssystem.api.dto.CreateCheckpointRequest;
+import com.example.accesssystem.api.dto.HmacKeyRequest;
 import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.PayloadFormatRequest;
+import com.example.accesssystem.api.dto.ReplayProtectionRequest;
+import com.example.accesssystem.api.dto.TopologyResponse;
 import com.example.accesssystem.api.dto.UpdateCheckpointRequest;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -23,6 +27,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * Integration tests for Checkpoint CRUD operations.
@@ -167,5 +172,112 @@ class CheckpointAdminControllerIntegrationTest {
             baseUrl + "/" + checkpointId, CheckpointResponse.class);
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
-}
 
+    @Test
+    void putHmacKey_shouldStoreEncryptedSecret() {
+        jdbcTemplate.update("DELETE FROM checkpoint_keys WHERE checkpoint_code = ?", "cp-hmac");
+        CreateCheckpointRequest createRequest = new CreateCheckpointRequest("cp-hmac", zoneAId, zoneBId);
+        UUID checkpointId = restTemplate.postForEntity(baseUrl, createRequest, CheckpointResponse.class).getBody().id();
+        byte[] secret = new byte[32];
+        java.util.Arrays.fill(secret, (byte) 7);
+        HmacKeyRequest request = new HmacKeyRequest(java.util.Base64.getEncoder().encodeToString(secret));
+
+        ResponseEntity<Void> response = restTemplate.exchange(
+            baseUrl + "/" + checkpointId + "/hmac-keys/door-1",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(request),
+            Void.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        var row = jdbcTemplate.queryForMap(
+            "SELECT key_type, public_key_pem, secret_ciphertext FROM checkpoint_keys WHERE checkpoint_code = ? AND kid = ?",
+            "cp-hmac", "door-1");
+        assertThat(row.get("key_type")).isEqualTo("HMAC");
+        assertThat(row.get("public_key_pem")).isNull();
+        assertThat((byte[]) row.get("secret_ciphertext")).hasSizeGreaterThan(secret.length).isNotEqualTo(secret);
+
+        // Too short secrets are rejected
+        ResponseEntity<String> shortSecret = restTemplate.exchange(
+            baseUrl + "/" + checkpointId + "/hmac-keys/door-2",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(new HmacKeyRequest("c2hvcnQ=")),
+            String.class);
+        assertThat(shortSecret.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void putPayloadFormat_shouldSwitchCheckpointFormat() {
+        CreateCheckpointRequest createRequest = new CreateCheckpointRequest("cp-format", zoneAId, zoneBId);
+        CheckpointResponse created = restTemplate.postForEntity(baseUrl, createRequest, CheckpointResponse.class).getBody();
+        assertThat(created.payloadFormat()).isEqualTo(1);
+
+        ResponseEntity<CheckpointResponse> response = restTemplate.exchange(
+            baseUrl + "/" + created.id() + "/payload-format",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(new PayloadFormatRequest(2)),
+            CheckpointResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().payloadFormat()).isEqualTo(2);
+
+        ResponseEntity<String> unsupported = restTemplate.exchange(
+            baseUrl + "/" + created.id() + "/payload-format",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(new PayloadFormatRequest(3)),
+            String.class);
+        assertThat(unsupported.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void putReplayProtection_shouldSwitchCheckpointScheme() {
+        CreateCheckpointRequest createRequest = new CreateCheckpointRequest("cp-sequence", zoneAId, zoneBId);
+        CheckpointResponse created = restTemplate.postForEntity(baseUrl, createRequest, CheckpointResponse.class).getBody();
+        assertThat(created.replayProtection()).isEqualTo("nonce");
+
+        ResponseEntity<CheckpointResponse> response = restTemplate.exchange(
+            baseUrl + "/" + created.id() + "/replay-protection",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(new ReplayProtectionRequest("sequence")),
+            CheckpointResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().replayProtection()).isEqualTo("sequence");
+
+        ResponseEntity<String> unsupported = restTemplate.exchange(
+            baseUrl + "/" + created.id() + "/replay-protection",
+            org.springframework.http.HttpMethod.PUT,
+            new org.springframework.http.HttpEntity<>(new ReplayProtectionRequest("counter")),
+            String.class);
+        assertThat(unsupported.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void checkpointChanges_shouldBeVisibleInTopology() {
+        ResponseEntity<CheckpointResponse> created = restTemplate.postForEntity(baseUrl,
+            new CreateCheckpointRequest("cp-1", zoneAId, zoneBId), CheckpointResponse.class);
+        restTemplate.postForEntity(baseUrl,
+            new CreateCheckpointRequest("cp-entry", null, zoneAId), CheckpointResponse.class);
+
+        TopologyResponse topology = restTemplate.getForObject(
+            "http://localhost:" + port + "/admin/topology", TopologyResponse.class);
+        assertThat(topology.zones()).extracting(TopologyResponse.ZoneNode::code)
+            .containsExactlyInAnyOrder("zone-a", "zone-b", "OUT");
+        assertThat(topology.checkpoints())
+            .extracting(TopologyResponse.CheckpointLink::code, TopologyResponse.CheckpointLink::fromZoneCode,
+                TopologyResponse.CheckpointLink::toZoneCode)
+            .containsExactlyInAnyOrder(
+                tuple("cp-1", "zone-a", "zone-b"),
+                tuple("cp-entry", "OUT", "zone-a"));
+
+        restTemplate.put(baseUrl + "/" + created.getBody().id(),
+            new UpdateCheckpointRequest("cp-1", zoneBId, zoneAId));
+        topology = restTemplate.getForObject("http://localhost:" + port + "/admin/topology", TopologyResponse.class);
+        assertThat(topology.checkpoints())
+            .filteredOn(link -> link.code().equals("cp-1"))
+            .singleElement()
+            .satisfies(link -> {
+                assertThat(link.fromZoneCode()).isEqualTo("zone-b");
+                assertThat(link.toZoneCode()).isEqualTo("zone-a");
+            });
+    }
+}
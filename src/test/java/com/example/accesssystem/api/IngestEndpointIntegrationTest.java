@@ -1,9 +1,12 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.service.CryptoPoolSaturatedException;
+import com.example.accesssystem.service.CryptoVerificationExecutor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
@@ -25,6 +28,9 @@ import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Testcontainers
@@ -50,6 +56,9 @@ class IngestEndpointIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @SpyBean
+    private CryptoVerificationExecutor cryptoExecutor;
+
     private KeyPair testKeyPair;
     private String testPublicKeyPem;
     private KeyPair issuerKeyPair;
@@ -177,6 +186,35 @@ class IngestEndpointIntegrationTest {
         assertThat(response.getBody().get("userId")).isEqualTo("user-123");
     }
 
+    @Test
+    void ingest_cryptoPoolSaturated_returns503AndRetryIsAccepted() throws Exception {
+        String timestamp = Instant.now().toString();
+        String userToken = createJWTToken(issuerCode, "user-123", Date.from(Instant.now().plusSeconds(3600)));
+        String canonical = String.join("|", "cp-1", timestamp, "zone-a", "zone-b", userToken);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(testKeyPair.getPrivate());
+        signature.update(canonical.getBytes(StandardCharsets.UTF_8));
+        String json = String.format(
+            "{\"checkpointId\":\"cp-1\",\"eventId\":\"%s\",\"timestamp\":\"%s\",\"fromZone\":\"zone-a\"," +
+            "\"toZone\":\"zone-b\",\"userToken\":\"%s\",\"signature\":\"%s\"}",
+            UUID.randomUUID(), timestamp, userToken, Base64.getEncoder().encodeToString(signature.sign())
+        );
+
+        // The pool gives up on the last crypto task, after the checkpoint signature has passed
+        doThrow(new CryptoPoolSaturatedException("Crypto verification timed out"))
+            .doCallRealMethod()
+            .when(cryptoExecutor).verify(eq("user token"), any());
+
+        ResponseEntity<Map> saturated = post(json);
+        assertThat(saturated.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(saturated.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isNotNull();
+
+        // The eventId was not used up: the retry is processed
+        ResponseEntity<Map> retry = post(json);
+        assertThat(retry.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(retry.getBody().get("status")).isEqualTo("accepted");
+    }
+
     @Test
     void ingest_missingField_returns400() {
         String json = "{" +
@@ -0,0 +1,183 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.OfflineSnapshotSummaryResponse;
+import com.example.accesssystem.api.dto.SnapshotSigningKeyResponse;
+import com.example.accesssystem.service.OfflineSnapshot;
+import org.bouncycastle.crypto.params.Ed25519PublicKeyParameters;
+import org.bouncycastle.crypto.signers.Ed25519Signer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for signed offline decision snapshots.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class OfflineSnapshotControllerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private String baseUrl;
+    private UUID lobbyId;
+    private UUID officeId;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/offline-snapshots";
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM checkpoints");
+        jdbcTemplate.update("DELETE FROM zones");
+
+        lobbyId = zone("lobby");
+        officeId = zone("office");
+        checkpoint("cp-lobby", null, lobbyId);
+        checkpoint("cp-office", lobbyId, officeId);
+        checkpoint("cp-exit", lobbyId, null);
+    }
+
+    @Test
+    void snapshot_shouldListUsersWithAccessAndVerifyWithPublishedKey() {
+        grant(user("alice"), lobbyId, officeId);
+        grant(user("bob"), lobbyId);
+
+        ResponseEntity<byte[]> response = download("cp-office", null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(OfflineSnapshotController.SNAPSHOT_TYPE_HEADER)).isEqualTo("full");
+        byte[] body = response.getBody();
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        assertThat(response.getHeaders().getETag())
+            .isEqualTo("\"" + OfflineSnapshot.versionTag(buffer.getLong(32)) + "\"");
+        assertThat(buffer.getInt(48)).isEqualTo(1);
+        assertThat(buffer.getLong(56)).isEqualTo(OfflineSnapshot.userHash("alice"));
+
+        SnapshotSigningKeyResponse key = restTemplate.getForObject(baseUrl + "/signing-key",
+            SnapshotSigningKeyResponse.class);
+        assertThat(key.keyId()).isEqualTo("test-1");
+        Ed25519Signer verifier = new Ed25519Signer();
+        verifier.init(false, new Ed25519PublicKeyParameters(Base64.getDecoder().decode(key.publicKey()), 0));
+        verifier.update(body, 0, body.length - 64);
+        assertThat(verifier.verifySignature(Arrays.copyOfRange(body, body.length - 64, body.length))).isTrue();
+
+        ResponseEntity<byte[]> lobby = download("cp-lobby", null, null);
+        assertThat(ByteBuffer.wrap(lobby.getBody()).getInt(48)).isEqualTo(2);
+        ResponseEntity<byte[]> exit = download("cp-exit", null, null);
+        assertThat(exit.getBody()[6]).isEqualTo((byte) 1);
+        assertThat(ByteBuffer.wrap(exit.getBody()).getInt(48)).isZero();
+    }
+
+    @Test
+    void snapshot_shouldRevalidateByEtagAndServeDeltas() {
+        grant(user("alice"), lobbyId, officeId);
+        ResponseEntity<byte[]> first = download("cp-office", null, null);
+        String etag = first.getHeaders().getETag();
+        String version = etag.substring(1, 17);
+
+        assertThat(download("cp-office", etag, null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        grant(user("carol"), lobbyId, officeId);
+        ResponseEntity<byte[]> delta = download("cp-office", etag, version);
+
+        assertThat(delta.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(delta.getHeaders().getFirst(OfflineSnapshotController.SNAPSHOT_TYPE_HEADER)).isEqualTo("delta");
+        assertThat(delta.getHeaders().getETag()).isNotEqualTo(etag);
+        ByteBuffer buffer = ByteBuffer.wrap(delta.getBody());
+        assertThat(buffer.getLong(40)).isEqualTo(OfflineSnapshot.parseVersionTag(version));
+        assertThat(buffer.getInt(48)).isEqualTo(1);
+        assertThat(buffer.getInt(52)).isZero();
+        assertThat(buffer.getLong(56)).isEqualTo(OfflineSnapshot.userHash("carol"));
+
+        // Unknown base version: full snapshot instead
+        ResponseEntity<byte[]> full = download("cp-office", null, "0123456789abcdef");
+        assertThat(full.getHeaders().getFirst(OfflineSnapshotController.SNAPSHOT_TYPE_HEADER)).isEqualTo("full");
+        assertThat(ByteBuffer.wrap(full.getBody()).getInt(48)).isEqualTo(2);
+
+        OfflineSnapshotSummaryResponse[] summaries = restTemplate.getForObject(baseUrl + "/checkpoints",
+            OfflineSnapshotSummaryResponse[].class);
+        assertThat(summaries).extracting(OfflineSnapshotSummaryResponse::checkpointCode)
+            .containsExactly("cp-exit", "cp-lobby", "cp-office");
+        assertThat(summaries[2].users()).isEqualTo(2);
+        assertThat(summaries[2].version()).isEqualTo(delta.getHeaders().getETag().substring(1, 17));
+    }
+
+    @Test
+    void snapshot_unknownCheckpointOrMalformedVersion_shouldBeRejected() {
+        assertThat(download("cp-nowhere", null, null).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(download("cp-lobby", null, "not-a-version").getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<byte[]> download(String checkpointCode, String ifNoneMatch, String since) {
+        HttpHeaders headers = new HttpHeaders();
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        String url = baseUrl + "/checkpoints/" + checkpointCode + (since != null ? "?since=" + since : "");
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    private UUID zone(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+
+    private void checkpoint(String code, UUID fromZoneId, UUID toZoneId) {
+        jdbcTemplate.update(
+            "INSERT INTO checkpoints (id, code, from_zone_id, to_zone_id) VALUES (?, ?, ?, ?)",
+            UUID.randomUUID(), code, fromZoneId, toZoneId);
+    }
+
+    private UUID user(String code) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", id, code);
+        return id;
+    }
+
+    private void grant(UUID userId, UUID... zoneIds) {
+        for (UUID zoneId : zoneIds) {
+            jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", userId, zoneId);
+        }
+    }
+}
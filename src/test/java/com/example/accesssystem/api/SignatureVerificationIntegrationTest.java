@@ -173,6 +173,25 @@ class SignatureVerificationIntegrationTest {
         assertThat(response.getBody().get("userId")).isEqualTo("user-123");
     }
 
+    @Test
+    void ingestEvent_checkpointOnPayloadFormatV2_acceptsOnlyV2Signatures() throws Exception {
+        jdbcTemplate.update("UPDATE checkpoints SET payload_format = 2 WHERE code = ?", "cp-test-1");
+        String timestamp = Instant.now().toString();
+        String userToken = createJWTToken(issuerCode, "user-123", Date.from(Instant.now().plusSeconds(3600)));
+
+        // Legacy "|"-joined signature is no longer accepted for this checkpoint
+        byte[] legacy = String.join("|", "cp-test-1", timestamp, "zone-a", "zone-b", userToken)
+            .getBytes(StandardCharsets.UTF_8);
+        ResponseEntity<Map> rejected = post(eventJson(timestamp, userToken, sign(legacy)));
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(rejected.getBody().get("reason")).isEqualTo("signature_verification_failed");
+
+        ResponseEntity<Map> accepted = post(eventJson(timestamp, userToken,
+            sign(canonicalV2("cp-test-1", timestamp, "zone-a", "zone-b", userToken))));
+        assertThat(accepted.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(accepted.getBody().get("status")).isEqualTo("accepted");
+    }
+
     @Test
     void ingestEvent_withInvalidSignature_returns403() throws Exception {
         String checkpointId = "cp-test-1";
@@ -287,6 +306,34 @@ class SignatureVerificationIntegrationTest {
         assertThat(response.getBody().get("reason")).isEqualTo("token_verification_failed");
     }
 
+    private String eventJson(String timestamp, String userToken, String signatureBase64) {
+        return String.format(
+            "{\"checkpointId\":\"cp-test-1\",\"eventId\":\"%s\",\"timestamp\":\"%s\","
+                + "\"fromZone\":\"zone-a\",\"toZone\":\"zone-b\",\"userToken\":\"%s\",\"signature\":\"%s\"}",
+            UUID.randomUUID(), timestamp, userToken, signatureBase64
+        );
+    }
+
+    private String sign(byte[] canonical) throws Exception {
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(rsaKeyPair.getPrivate());
+        signature.update(canonical);
+        return Base64.getEncoder().encodeToString(signature.sign());
+    }
+
+    // Canonical format 2 as produced by checkpoints: 0x02, then u32 length + UTF-8 bytes per field
+    private static byte[] canonicalV2(String... fields) throws Exception {
+        java.io.ByteArrayOutputStream buffer = new java.io.ByteArrayOutputStream();
+        java.io.DataOutputStream out = new java.io.DataOutputStream(buffer);
+        out.writeByte(2);
+        for (String field : fields) {
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+
     private ResponseEntity<Map> post(String json) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -1,15 +1,25 @@
 package com.example.accesssystem.api;
 
+import com.example.accesssystem.api.dto.BulkUserAccessRequest;
 import com.example.accesssystem.api.dto.CreateUserRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateUserRequest;
+import com.example.accesssystem.api.dto.UserAccessRequest;
+import com.example.accesssystem.api.dto.UserAccessSyncResponse;
 import com.example.accesssystem.api.dto.UserResponse;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.domain.contracts.AccessControlContracts;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.ReferenceDictionary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -20,8 +30,12 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -51,6 +65,12 @@ class UserAdminControllerIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private ReferenceDictionary dictionary;
+
+    @Autowired
+    private AccessControlContracts.AccessRuleEvaluator accessRuleEvaluator;
+
     private String baseUrl;
 
     @BeforeEach
@@ -188,5 +208,116 @@ class UserAdminControllerIntegrationTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
-}
 
+    @Test
+    void updateUser_shouldKeepDictionaryIdAndAccessRules() {
+        ResponseEntity<UserResponse> created = restTemplate.postForEntity(
+            baseUrl, new CreateUserRequest("user-1"), UserResponse.class);
+        UUID userId = created.getBody().id();
+        UUID zoneId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?) ON CONFLICT (code) DO NOTHING", zoneId, "zone-dict");
+        zoneId = jdbcTemplate.queryForObject("SELECT id FROM zones WHERE code = 'zone-dict'", UUID.class);
+        jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", userId, zoneId);
+        ZoneId zone = new ZoneId("zone-dict");
+        assertThat(accessRuleEvaluator.canTransit(new UserId("user-1"), null, zone)).isEqualTo(ALLOW);
+        int denseId = dictionary.get(Kind.USERS).idOf("user-1");
+
+        restTemplate.put(baseUrl + "/" + userId, new UpdateUserRequest("user-1-renamed"));
+
+        assertThat(dictionary.get(Kind.USERS).idOf("user-1-renamed")).isEqualTo(denseId);
+        assertThat(dictionary.get(Kind.USERS).idOf("user-1")).isNegative();
+        assertThat(accessRuleEvaluator.canTransit(new UserId("user-1-renamed"), null, zone)).isEqualTo(ALLOW);
+        assertThat(accessRuleEvaluator.canTransit(new UserId("user-1"), null, zone)).isEqualTo(DENY);
+    }
+
+    @Test
+    void syncUserAccess_shouldApplyOnlyTheDifference() {
+        UUID userId = restTemplate.postForEntity(
+            baseUrl, new CreateUserRequest("user-1"), UserResponse.class).getBody().id();
+        UUID zoneA = zone("sync-a");
+        UUID zoneB = zone("sync-b");
+        UUID zoneC = zone("sync-c");
+        jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?), (?, ?)",
+            userId, zoneA, userId, zoneB);
+        UUID keptRuleId = jdbcTemplate.queryForObject(
+            "SELECT id FROM access_rules WHERE user_id = ? AND to_zone_id = ?", UUID.class, userId, zoneB);
+        UserId user = new UserId("user-1");
+        assertThat(accessRuleEvaluator.canTransit(user, null, new ZoneId("sync-a"))).isEqualTo(ALLOW);
+
+        ResponseEntity<UserAccessSyncResponse> response = syncUser(userId, Set.of(zoneB, zoneC));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().added()).isEqualTo(1);
+        assertThat(response.getBody().removed()).isEqualTo(1);
+        assertThat(response.getBody().changedUserIds()).containsExactly(userId);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT id FROM access_rules WHERE user_id = ? AND to_zone_id = ?", UUID.class, userId, zoneB))
+            .isEqualTo(keptRuleId);
+        assertThat(accessRuleEvaluator.canTransit(user, null, new ZoneId("sync-a"))).isEqualTo(DENY);
+        assertThat(accessRuleEvaluator.canTransit(user, null, new ZoneId("sync-c"))).isEqualTo(ALLOW);
+
+        UserAccessSyncResponse unchanged = syncUser(userId, Set.of(zoneB, zoneC)).getBody();
+        assertThat(unchanged.added()).isZero();
+        assertThat(unchanged.removed()).isZero();
+        assertThat(unchanged.changedUserIds()).isEmpty();
+    }
+
+    @Test
+    void syncUserAccess_unknownUserOrZone_shouldBeRejected() {
+        UUID userId = restTemplate.postForEntity(
+            baseUrl, new CreateUserRequest("user-1"), UserResponse.class).getBody().id();
+
+        ResponseEntity<String> unknownUser = restTemplate.exchange(baseUrl + "/" + UUID.randomUUID() + "/access",
+            HttpMethod.PUT, new HttpEntity<>(new UserAccessRequest(Set.of())), String.class);
+        ResponseEntity<String> unknownZone = restTemplate.exchange(baseUrl + "/" + userId + "/access",
+            HttpMethod.PUT, new HttpEntity<>(new UserAccessRequest(Set.of(UUID.randomUUID()))), String.class);
+
+        assertThat(unknownUser.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(unknownZone.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void syncUsersAccess_shouldSyncManyUsersInOneTransaction() {
+        UUID first = restTemplate.postForEntity(
+            baseUrl, new CreateUserRequest("user-1"), UserResponse.class).getBody().id();
+        UUID second = restTemplate.postForEntity(
+            baseUrl, new CreateUserRequest("user-2"), UserResponse.class).getBody().id();
+        UUID zoneA = zone("sync-a");
+        UUID zoneB = zone("sync-b");
+        jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", second, zoneA);
+
+        BulkUserAccessRequest request = new BulkUserAccessRequest(List.of(
+            new BulkUserAccessRequest.Entry(first, Set.of(zoneA, zoneB)),
+            new BulkUserAccessRequest.Entry(second, Set.of())));
+        ResponseEntity<UserAccessSyncResponse> response = restTemplate.exchange(baseUrl + "/access",
+            HttpMethod.PUT, new HttpEntity<>(request), UserAccessSyncResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().users()).isEqualTo(2);
+        assertThat(response.getBody().added()).isEqualTo(2);
+        assertThat(response.getBody().removed()).isEqualTo(1);
+        assertThat(response.getBody().changedUserIds()).containsExactlyInAnyOrder(first, second);
+        assertThat(accessRuleEvaluator.canTransit(new UserId("user-2"), null, new ZoneId("sync-a")))
+            .isEqualTo(DENY);
+
+        BulkUserAccessRequest invalid = new BulkUserAccessRequest(List.of(
+            new BulkUserAccessRequest.Entry(first, Set.of()),
+            new BulkUserAccessRequest.Entry(second, Set.of(UUID.randomUUID()))));
+        ResponseEntity<String> rejected = restTemplate.exchange(baseUrl + "/access",
+            HttpMethod.PUT, new HttpEntity<>(invalid), String.class);
+        assertThat(rejected.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM access_rules WHERE user_id = ?", Long.class, first)).isEqualTo(2);
+    }
+
+    private ResponseEntity<UserAccessSyncResponse> syncUser(UUID userId, Set<UUID> zoneIds) {
+        return restTemplate.exchange(baseUrl + "/" + userId + "/access", HttpMethod.PUT,
+            new HttpEntity<>(new UserAccessRequest(zoneIds)), UserAccessSyncResponse.class);
+    }
+
+    private UUID zone(String code) {
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?) ON CONFLICT (code) DO NOTHING",
+            UUID.randomUUID(), code);
+        return jdbcTemplate.queryForObject("SELECT id FROM zones WHERE code = ?", UUID.class, code);
+    }
+}
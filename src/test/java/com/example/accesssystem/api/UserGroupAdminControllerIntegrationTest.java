@@ -0,0 +1,246 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.AddGroupMembersRequest;
+import com.example.accesssystem.api.dto.AddGroupMembersResponse;
+import com.example.accesssystem.api.dto.CreateGroupRequest;
+import com.example.accesssystem.api.dto.CreateGroupRuleRequest;
+import com.example.accesssystem.api.dto.GroupMemberResponse;
+import com.example.accesssystem.api.dto.GroupResponse;
+import com.example.accesssystem.api.dto.GroupRuleResponse;
+import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.UpdateGroupRequest;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleEvaluatorImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for user groups, memberships and group access rules.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class UserGroupAdminControllerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccessMatrixEvaluator accessMatrix;
+
+    @Autowired
+    private AccessRuleEvaluatorImpl databaseEvaluator;
+
+    private String baseUrl;
+    private UUID user1Id;
+    private UUID user2Id;
+    private UUID zoneBId;
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/admin/groups";
+        // Clean up before each test (memberships and group rules cascade)
+        jdbcTemplate.update("DELETE FROM user_groups");
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM zones");
+        jdbcTemplate.update("DELETE FROM users");
+
+        user1Id = UUID.randomUUID();
+        user2Id = UUID.randomUUID();
+        zoneBId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", user1Id, "user-1");
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, ?)", user2Id, "user-2");
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, ?)", zoneBId, "zone-b");
+    }
+
+    @Test
+    void createGroup_shouldReturnCreatedGroup() {
+        ResponseEntity<GroupResponse> response = restTemplate.postForEntity(
+            baseUrl, new CreateGroupRequest("staff"), GroupResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getBody().code()).isEqualTo("staff");
+        assertThat(response.getBody().id()).isNotNull();
+    }
+
+    @Test
+    void createGroup_withDuplicateCode_shouldReturnBadRequest() {
+        restTemplate.postForEntity(baseUrl, new CreateGroupRequest("staff"), GroupResponse.class);
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            baseUrl, new CreateGroupRequest("staff"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void updateGroup_shouldRenameGroup() {
+        UUID groupId = createGroup("staff");
+
+        restTemplate.put(baseUrl + "/" + groupId, new UpdateGroupRequest("employees"));
+
+        ResponseEntity<GroupResponse> response = restTemplate.getForEntity(
+            baseUrl + "/" + groupId, GroupResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().code()).isEqualTo("employees");
+    }
+
+    @Test
+    void addMembers_shouldSkipExistingMembersAndListThem() {
+        UUID groupId = createGroup("staff");
+
+        ResponseEntity<AddGroupMembersResponse> first = restTemplate.postForEntity(
+            baseUrl + "/" + groupId + "/members", new AddGroupMembersRequest(List.of(user1Id)),
+            AddGroupMembersResponse.class);
+        ResponseEntity<AddGroupMembersResponse> second = restTemplate.postForEntity(
+            baseUrl + "/" + groupId + "/members", new AddGroupMembersRequest(List.of(user1Id, user2Id)),
+            AddGroupMembersResponse.class);
+
+        assertThat(first.getBody().added()).isEqualTo(1);
+        assertThat(second.getBody().added()).isEqualTo(1);
+        ResponseEntity<PageResponse<GroupMemberResponse>> members = restTemplate.exchange(
+            baseUrl + "/" + groupId + "/members",
+            HttpMethod.GET,
+            null,
+            new ParameterizedTypeReference<>() {}
+        );
+        assertThat(members.getBody().total()).isEqualTo(2);
+        assertThat(members.getBody().items()).extracting(GroupMemberResponse::userId)
+            .containsExactlyInAnyOrder(user1Id, user2Id);
+    }
+
+    @Test
+    void addMembers_withUnknownUser_shouldReturnBadRequest() {
+        UUID groupId = createGroup("staff");
+
+        ResponseEntity<String> response = restTemplate.postForEntity(
+            baseUrl + "/" + groupId + "/members", new AddGroupMembersRequest(List.of(UUID.randomUUID())),
+            String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void subresources_ofUnknownGroup_shouldReturnNotFound() {
+        UUID unknown = UUID.randomUUID();
+
+        ResponseEntity<String> members = restTemplate.postForEntity(
+            baseUrl + "/" + unknown + "/members", new AddGroupMembersRequest(List.of(user1Id)), String.class);
+        ResponseEntity<String> rules = restTemplate.postForEntity(
+            baseUrl + "/" + unknown + "/rules", new CreateGroupRuleRequest(zoneBId), String.class);
+
+        assertThat(members.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(rules.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void groupRule_shouldGrantAccessToMembersOnly() {
+        UUID groupId = createGroup("staff");
+        restTemplate.postForEntity(baseUrl + "/" + groupId + "/members",
+            new AddGroupMembersRequest(List.of(user1Id)), AddGroupMembersResponse.class);
+        ZoneId zoneB = new ZoneId("zone-b");
+        assertThat(accessMatrix.canTransit(new UserId("user-1"), null, zoneB)).isEqualTo(DENY);
+
+        ResponseEntity<GroupRuleResponse> rule = restTemplate.postForEntity(
+            baseUrl + "/" + groupId + "/rules", new CreateGroupRuleRequest(zoneBId), GroupRuleResponse.class);
+
+        assertThat(rule.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(rule.getBody().toZoneId()).isEqualTo(zoneBId);
+        assertThat(accessMatrix.canTransit(new UserId("user-1"), null, zoneB)).isEqualTo(ALLOW);
+        assertThat(accessMatrix.canTransit(new UserId("user-2"), null, zoneB)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(new UserId("user-1"), null, zoneB)).isEqualTo(ALLOW);
+        assertThat(databaseEvaluator.canTransit(new UserId("user-2"), null, zoneB)).isEqualTo(DENY);
+        // One rule row regardless of the number of members
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM access_rules", Long.class)).isZero();
+    }
+
+    @Test
+    void membershipAndRuleChanges_shouldBeVisibleInAccessMatrix() {
+        UUID groupId = createGroup("staff");
+        UUID ruleId = restTemplate.postForEntity(baseUrl + "/" + groupId + "/rules",
+            new CreateGroupRuleRequest(zoneBId), GroupRuleResponse.class).getBody().id();
+        UserId user2 = new UserId("user-2");
+        ZoneId zoneB = new ZoneId("zone-b");
+
+        restTemplate.postForEntity(baseUrl + "/" + groupId + "/members",
+            new AddGroupMembersRequest(List.of(user2Id)), AddGroupMembersResponse.class);
+        assertThat(accessMatrix.canTransit(user2, null, zoneB)).isEqualTo(ALLOW);
+
+        restTemplate.delete(baseUrl + "/" + groupId + "/members/" + user2Id);
+        assertThat(accessMatrix.canTransit(user2, null, zoneB)).isEqualTo(DENY);
+
+        restTemplate.postForEntity(baseUrl + "/" + groupId + "/members",
+            new AddGroupMembersRequest(List.of(user2Id)), AddGroupMembersResponse.class);
+        restTemplate.delete(baseUrl + "/" + groupId + "/rules/" + ruleId);
+        assertThat(accessMatrix.canTransit(user2, null, zoneB)).isEqualTo(DENY);
+
+        restTemplate.postForEntity(baseUrl + "/" + groupId + "/rules",
+            new CreateGroupRuleRequest(zoneBId), GroupRuleResponse.class);
+        assertThat(accessMatrix.canTransit(user2, null, zoneB)).isEqualTo(ALLOW);
+
+        restTemplate.delete(baseUrl + "/" + groupId);
+        assertThat(accessMatrix.canTransit(user2, null, zoneB)).isEqualTo(DENY);
+        assertThat(restTemplate.getForEntity(baseUrl + "/" + groupId, String.class).getStatusCode())
+            .isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void directDatabaseChanges_shouldReachAccessMatrixThroughChangeFeed() {
+        UUID groupId = createGroup("staff");
+        UserId user1 = new UserId("user-1");
+        ZoneId zoneB = new ZoneId("zone-b");
+
+        jdbcTemplate.update("INSERT INTO user_group_members (group_id, user_id) VALUES (?, ?)", groupId, user1Id);
+        jdbcTemplate.update("INSERT INTO group_access_rules (group_id, to_zone_id) VALUES (?, ?)", groupId, zoneBId);
+        assertThat(accessMatrix.canTransit(user1, null, zoneB)).isEqualTo(ALLOW);
+
+        jdbcTemplate.update("DELETE FROM group_access_rules WHERE group_id = ?", groupId);
+        assertThat(accessMatrix.canTransit(user1, null, zoneB)).isEqualTo(DENY);
+    }
+
+    private UUID createGroup(String code) {
+        return restTemplate.postForEntity(baseUrl, new CreateGroupRequest(code), GroupResponse.class)
+            .getBody().id();
+    }
+}
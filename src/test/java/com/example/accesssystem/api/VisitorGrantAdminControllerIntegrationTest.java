@@ -0,0 +1,186 @@
+package com.example.accesssystem.api;
+
+import com.example.accesssystem.api.dto.CreateVisitorGrantRequest;
+import com.example.accesssystem.api.dto.PageResponse;
+import com.example.accesssystem.api.dto.VisitorGrantResponse;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleEvaluatorImpl;
+import com.example.accesssystem.service.VisitorGrantStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for temporary visitor grants: issue, enforcement by both evaluators, expiry and revocation.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@ActiveProfiles("test")
+class VisitorGrantAdminControllerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccessMatrixEvaluator accessMatrix;
+
+    @Autowired
+    private AccessRuleEvaluatorImpl databaseEvaluator;
+
+    @Autowired
+    private VisitorGrantStore visitorGrantStore;
+
+    private String baseUrl;
+    private UUID visitorId;
+    private UUID buildingId;
+    private final UserId visitor = new UserId("visitor-1");
+    private final ZoneId room = new ZoneId("room-1");
+
+    @BeforeEach
+    void setUp() {
+        baseUrl = "http://localhost:" + port + "/admin/visitor-grants";
+        jdbcTemplate.update("DELETE FROM visitor_grants");
+        jdbcTemplate.update("DELETE FROM access_rules");
+        jdbcTemplate.update("DELETE FROM users");
+        jdbcTemplate.update("DELETE FROM checkpoints");
+        jdbcTemplate.update("DELETE FROM zones");
+        visitorGrantStore.reloadAll();
+
+        visitorId = UUID.randomUUID();
+        buildingId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, 'visitor-1')", visitorId);
+        jdbcTemplate.update("INSERT INTO zones (id, code) VALUES (?, 'building-1')", buildingId);
+        jdbcTemplate.update("INSERT INTO zones (id, code, parent_zone_id) VALUES (gen_random_uuid(), 'room-1', ?)",
+            buildingId);
+    }
+
+    @Test
+    void issuedGrant_shouldAllowOnlyWithinValidity() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Instant validUntil = now.plus(Duration.ofHours(2));
+
+        ResponseEntity<VisitorGrantResponse> response = restTemplate.postForEntity(
+            baseUrl, new CreateVisitorGrantRequest(visitorId, buildingId, now, validUntil),
+            VisitorGrantResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody().validUntil()).isEqualTo(validUntil);
+        assertThat(response.getBody().revokedAt()).isNull();
+        // The grant covers the building's rooms, never through access_rules
+        assertThat(accessMatrix.canTransit(visitor, null, room, now.plusSeconds(60))).isEqualTo(ALLOW);
+        assertThat(databaseEvaluator.canTransit(visitor, null, room, now.plusSeconds(60))).isEqualTo(ALLOW);
+        assertThat(accessMatrix.canTransit(visitor, null, room, validUntil)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(visitor, null, room, validUntil)).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(visitor, null, room, now.minusSeconds(1))).isEqualTo(DENY);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM access_rules", Long.class)).isZero();
+    }
+
+    @Test
+    void expiredGrant_shouldBeDroppedByWheelAndKeptInAudit() {
+        Instant validUntil = Instant.now().plusSeconds(30);
+        UUID grantId = restTemplate.postForEntity(
+            baseUrl, new CreateVisitorGrantRequest(visitorId, buildingId, null, validUntil),
+            VisitorGrantResponse.class).getBody().id();
+        assertThat(visitorGrantStore.activeCount()).isEqualTo(1);
+
+        assertThat(visitorGrantStore.expire(validUntil.plusSeconds(1))).isEqualTo(1);
+
+        assertThat(visitorGrantStore.activeCount()).isZero();
+        assertThat(accessMatrix.canTransit(visitor, null, room, validUntil.plusSeconds(1))).isEqualTo(DENY);
+        ResponseEntity<VisitorGrantResponse> audit = restTemplate.getForEntity(
+            baseUrl + "/" + grantId, VisitorGrantResponse.class);
+        assertThat(audit.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(audit.getBody().revokedAt()).isNull();
+    }
+
+    @Test
+    void revokedGrant_shouldDenyImmediately() {
+        UUID grantId = restTemplate.postForEntity(
+            baseUrl, new CreateVisitorGrantRequest(visitorId, buildingId, null, Instant.now().plusSeconds(3600)),
+            VisitorGrantResponse.class).getBody().id();
+        assertThat(accessMatrix.canTransit(visitor, null, room)).isEqualTo(ALLOW);
+
+        ResponseEntity<Void> revoked = restTemplate.exchange(
+            baseUrl + "/" + grantId, HttpMethod.DELETE, null, Void.class);
+
+        assertThat(revoked.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(accessMatrix.canTransit(visitor, null, room)).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(visitor, null, room)).isEqualTo(DENY);
+        assertThat(restTemplate.getForEntity(baseUrl + "/" + grantId, VisitorGrantResponse.class)
+            .getBody().revokedAt()).isNotNull();
+        assertThat(restTemplate.exchange(baseUrl + "/" + grantId, HttpMethod.DELETE, null, Void.class)
+            .getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void listActiveGrants_shouldExcludeRevoked() {
+        restTemplate.postForEntity(baseUrl,
+            new CreateVisitorGrantRequest(visitorId, buildingId, null, Instant.now().plusSeconds(3600)),
+            VisitorGrantResponse.class);
+        UUID revokedId = restTemplate.postForEntity(baseUrl,
+            new CreateVisitorGrantRequest(visitorId, buildingId, null, Instant.now().plusSeconds(7200)),
+            VisitorGrantResponse.class).getBody().id();
+        restTemplate.delete(baseUrl + "/" + revokedId);
+
+        ResponseEntity<PageResponse> response = restTemplate.getForEntity(
+            baseUrl + "?offset=0&limit=10", PageResponse.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().total()).isEqualTo(1);
+    }
+
+    @Test
+    void createGrant_invalidPeriodOrReference_shouldReturnBadRequest() {
+        Instant now = Instant.now();
+        ResponseEntity<String> past = restTemplate.postForEntity(baseUrl,
+            new CreateVisitorGrantRequest(visitorId, buildingId, null, now.minusSeconds(60)), String.class);
+        ResponseEntity<String> tooLong = restTemplate.postForEntity(baseUrl,
+            new CreateVisitorGrantRequest(visitorId, buildingId, now, now.plus(Duration.ofHours(25))), String.class);
+        ResponseEntity<String> unknownUser = restTemplate.postForEntity(baseUrl,
+            new CreateVisitorGrantRequest(UUID.randomUUID(), buildingId, null, now.plusSeconds(60)), String.class);
+
+        assertThat(past.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLong.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(unknownUser.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+}
@@ -3,13 +3,20 @@ package com.example.accesssystem.api;
 import com.example.accesssystem.api.dto.CreateZoneRequest;
 import com.example.accesssystem.api.dto.PageResponse;
 import com.example.accesssystem.api.dto.UpdateZoneRequest;
+import com.example.accesssystem.api.dto.ZoneParentRequest;
 import com.example.accesssystem.api.dto.ZoneResponse;
+import com.example.accesssystem.domain.Identifiers.UserId;
+import com.example.accesssystem.domain.Identifiers.ZoneId;
+import com.example.accesssystem.service.AccessMatrixEvaluator;
+import com.example.accesssystem.service.AccessRuleEvaluatorImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -20,8 +27,11 @@ import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.util.List;
 import java.util.UUID;
 
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.ALLOW;
+import static com.example.accesssystem.domain.contracts.AccessControlContracts.AccessDecision.DENY;
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -51,6 +61,12 @@ class ZoneAdminControllerIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private AccessMatrixEvaluator accessMatrix;
+
+    @Autowired
+    private AccessRuleEvaluatorImpl databaseEvaluator;
+
     private String baseUrl;
 
     @BeforeEach
@@ -152,5 +168,75 @@ class ZoneAdminControllerIntegrationTest {
             baseUrl + "/" + zoneId, ZoneResponse.class);
         assertThat(getResponse.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
-}
 
+    @Test
+    void ruleOnParentZone_shouldGrantDescendants() {
+        UUID building = createZone("building-a", null);
+        UUID floor = createZone("floor-1", building);
+        UUID room = createZone("room-101", floor);
+        createZone("lobby", null);
+        UUID userId = UUID.randomUUID();
+        jdbcTemplate.update("DELETE FROM users WHERE code = 'user-h'");
+        jdbcTemplate.update("INSERT INTO users (id, code) VALUES (?, 'user-h')", userId);
+        jdbcTemplate.update("INSERT INTO access_rules (user_id, to_zone_id) VALUES (?, ?)", userId, building);
+        accessMatrix.refreshUsers(List.of(userId));
+        UserId user = new UserId("user-h");
+
+        assertThat(accessMatrix.canTransit(user, null, new ZoneId("room-101"))).isEqualTo(ALLOW);
+        assertThat(databaseEvaluator.canTransit(user, null, new ZoneId("room-101"))).isEqualTo(ALLOW);
+        assertThat(accessMatrix.canTransit(user, null, new ZoneId("lobby"))).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(user, null, new ZoneId("lobby"))).isEqualTo(DENY);
+
+        // Moving the floor out of the building revokes the inherited access of its whole subtree
+        ResponseEntity<ZoneResponse> moved = restTemplate.exchange(
+            baseUrl + "/" + floor + "/parent", HttpMethod.PUT,
+            new HttpEntity<>(new ZoneParentRequest(null)), ZoneResponse.class);
+
+        assertThat(moved.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(moved.getBody().parentZoneId()).isNull();
+        assertThat(accessMatrix.canTransit(user, null, new ZoneId("room-101"))).isEqualTo(DENY);
+        assertThat(databaseEvaluator.canTransit(user, null, new ZoneId("room-101"))).isEqualTo(DENY);
+        assertThat(accessMatrix.canTransit(user, null, new ZoneId("building-a"))).isEqualTo(ALLOW);
+        assertThat(restTemplate.getForEntity(baseUrl + "/" + room, ZoneResponse.class).getBody().parentZoneId())
+            .isEqualTo(floor);
+    }
+
+    @Test
+    void putParent_withCycle_shouldReturnBadRequest() {
+        UUID building = createZone("building-a", null);
+        UUID floor = createZone("floor-1", building);
+
+        ResponseEntity<String> cycle = restTemplate.exchange(
+            baseUrl + "/" + building + "/parent", HttpMethod.PUT,
+            new HttpEntity<>(new ZoneParentRequest(floor)), String.class);
+        ResponseEntity<String> self = restTemplate.exchange(
+            baseUrl + "/" + building + "/parent", HttpMethod.PUT,
+            new HttpEntity<>(new ZoneParentRequest(building)), String.class);
+        ResponseEntity<String> unknownParent = restTemplate.postForEntity(
+            baseUrl, new CreateZoneRequest("zone-x", UUID.randomUUID()), String.class);
+
+        assertThat(cycle.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(self.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(unknownParent.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void deleteParentZone_shouldMakeChildrenTopLevel() {
+        UUID building = createZone("building-a", null);
+        UUID floor = createZone("floor-1", building);
+
+        restTemplate.delete(baseUrl + "/" + building);
+
+        ResponseEntity<ZoneResponse> response = restTemplate.getForEntity(baseUrl + "/" + floor, ZoneResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody().parentZoneId()).isNull();
+    }
+
+    private UUID createZone(String code, UUID parentZoneId) {
+        ResponseEntity<ZoneResponse> response = restTemplate.postForEntity(
+            baseUrl, new CreateZoneRequest(code, parentZoneId), ZoneResponse.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getBody().parentZoneId()).isEqualTo(parentZoneId);
+        return response.getBody().id();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.accesssystem.benchmark;
+
+import com.example.accesssystem.service.CanonicalPayloadBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the canonical payload per format, alone and followed by the SHA-256 digest that
+ * every signature verification (and every Merkle leaf) computes over it.
+ * Run instructions and reference results: Docs/Testing.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanonicalPayloadBenchmark {
+
+    @Param({"1", "2"})
+    public int format;
+
+    private final CanonicalPayloadBuilder builder = new CanonicalPayloadBuilder();
+    private MessageDigest sha256;
+    private String timestamp;
+    private String userToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        sha256 = MessageDigest.getInstance("SHA-256");
+        timestamp = "2025-01-01T12:00:00.123456Z";
+        // RS256 JWT of typical size (header.payload.256-byte signature)
+        userToken = "eyJhbGciOiJSUzI1NiIsImtpZCI6IjIwMjUtMDEifQ."
+            + "eyJpc3MiOiJpc3N1ZXItMSIsInN1YiI6InVzZXItMTIzIiwidXNlcklkIjoidXNlci0xMjMiLCJleHAiOjE3MzU3MzMyMDB9."
+            + "x".repeat(342);
+    }
+
+    @Benchmark
+    public byte[] build() {
+        return builder.buildCanonicalPayload(format, "cp-a-b", timestamp, "zone-a", "zone-b", userToken);
+    }
+
+    @Benchmark
+    public byte[] buildAndDigest() {
+        return sha256.digest(builder.buildCanonicalPayload(format, "cp-a-b", timestamp, "zone-a", "zone-b", userToken));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(CanonicalPayloadBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.accesssystem.benchmark;
+
+import com.example.accesssystem.service.AccessMatrix;
+import com.example.accesssystem.service.WeeklySchedule;
+import com.example.accesssystem.service.ZoneHierarchy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an access matrix decision for a zone reached only through time-scheduled grants: converting the
+ * event time to the site's minute of the week and testing the schedule bitmaps, by the number of scheduled
+ * grants per user. Zones are nested three levels deep, so every grant is also checked against the hierarchy.
+ * Run instructions and reference results: Docs/Testing.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduledAccessBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final int ZONES = 500;
+    private static final int SCHEDULES = 50;
+
+    @Param({"1", "4", "16"})
+    public int scheduledGrantsPerUser;
+
+    private AccessMatrix matrix;
+    private ZoneHierarchy hierarchy;
+    private WeeklySchedule[] schedules;
+    private ZoneRules siteZone;
+    private int[] users;
+    private int[] zones;
+    private Instant[] times;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        siteZone = ZoneId.of("Europe/Moscow").getRules();
+
+        // 10 buildings, 5 floors each, rooms below the floors
+        Map<Integer, Integer> parents = new HashMap<>();
+        for (int zone = 0; zone < ZONES; zone++) {
+            parents.put(zone, zone < 10 ? ZoneHierarchy.ROOT : zone < 60 ? zone % 10 : 10 + zone % 50);
+        }
+        hierarchy = ZoneHierarchy.empty().withParents(parents);
+
+        schedules = new WeeklySchedule[SCHEDULES];
+        for (int i = 0; i < SCHEDULES; i++) {
+            int start = 6 * 60 + random.nextInt(6 * 60);
+            int end = start + 4 * 60 + random.nextInt(6 * 60);
+            schedules[i] = WeeklySchedule.of(List.of(
+                new WeeklySchedule.Window(1, start, end), new WeeklySchedule.Window(2, start, end),
+                new WeeklySchedule.Window(3, start, end), new WeeklySchedule.Window(4, start, end),
+                new WeeklySchedule.Window(5, start, end)));
+        }
+
+        Map<Integer, int[]> unscheduled = new HashMap<>();
+        Map<Integer, int[]> scheduled = new HashMap<>();
+        for (int user = 0; user < USERS; user++) {
+            // Unscheduled grants only on rooms of the lower half, probes go to the upper half
+            unscheduled.put(user, new int[] {60 + random.nextInt(220), 60 + random.nextInt(220)});
+            int[] pairs = new int[scheduledGrantsPerUser * 2];
+            for (int i = 0; i < scheduledGrantsPerUser; i++) {
+                pairs[2 * i] = random.nextInt(ZONES);
+                pairs[2 * i + 1] = random.nextInt(SCHEDULES);
+            }
+            scheduled.put(user, pairs);
+        }
+        matrix = AccessMatrix.empty().withRows(unscheduled, scheduled);
+
+        users = new int[1024];
+        zones = new int[1024];
+        times = new Instant[1024];
+        long monday = Instant.parse("2025-01-06T00:00:00Z").getEpochSecond();
+        for (int i = 0; i < users.length; i++) {
+            users[i] = random.nextInt(USERS);
+            zones[i] = 280 + random.nextInt(ZONES - 280);
+            times[i] = Instant.ofEpochSecond(monday + random.nextInt(7 * 86_400));
+        }
+    }
+
+    @Benchmark
+    public boolean allows() {
+        int i = next++ & 1023;
+        return matrix.allows(users[i], zones[i], hierarchy, schedules, i * 9);
+    }
+
+    @Benchmark
+    public boolean minuteOfWeekAndAllows() {
+        int i = next++ & 1023;
+        int minute = WeeklySchedule.minuteOfWeek(times[i], siteZone);
+        return matrix.allows(users[i], zones[i], hierarchy, schedules, minute);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ScheduledAccessBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.accesssystem.benchmark;
+
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Provider;
+import java.security.Security;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkpoint signature verification throughput per key type and JCA provider.
+ * <p>
+ * {@code lookup=getInstance} reproduces the old code path ({@code Signature.getInstance(alg)} per event,
+ * default provider walk); {@code lookup=pooled} reuses one instance of the pinned provider, which is
+ * what {@code JcaInstancePool} does. Run instructions and reference results: Docs/Testing.md.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SignatureProviderBenchmark {
+
+    @Param({"RSA2048", "EC_P256", "Ed25519"})
+    public String keyType;
+
+    @Param({"JDK", "BC"})
+    public String provider;
+
+    @Param({"getInstance", "pooled"})
+    public String lookup;
+
+    private String algorithm;
+    private Provider jcaProvider;
+    private KeyPair keyPair;
+    private byte[] payload;
+    private byte[] signature;
+    private Signature pooled;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if (Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) == null) {
+            Security.addProvider(new BouncyCastleProvider());
+        }
+        KeyPairGenerator generator;
+        switch (keyType) {
+            case "RSA2048" -> {
+                algorithm = "SHA256withRSA";
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+                jcaProvider = Security.getProvider("BC".equals(provider) ? "BC" : "SunRsaSign");
+            }
+            case "EC_P256" -> {
+                algorithm = "SHA256withECDSA";
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                jcaProvider = Security.getProvider("BC".equals(provider) ? "BC" : "SunEC");
+            }
+            case "Ed25519" -> {
+                algorithm = "Ed25519";
+                generator = KeyPairGenerator.getInstance("Ed25519");
+                jcaProvider = Security.getProvider("BC".equals(provider) ? "BC" : "SunEC");
+            }
+            default -> throw new IllegalArgumentException(keyType);
+        }
+        keyPair = generator.generateKeyPair();
+        payload = "cp-1|2025-01-01T12:00:00Z|zone-a|zone-b|eyJhbGciOiJSUzI1NiJ9.eyJzdWIiOiJ1c2VyLTEifQ.c2ln"
+            .getBytes(StandardCharsets.UTF_8);
+        Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(payload);
+        signature = signer.sign();
+        pooled = Signature.getInstance(algorithm, jcaProvider);
+    }
+
+    @Benchmark
+    public boolean verify() throws Exception {
+        Signature verifier = "pooled".equals(lookup)
+            ? pooled
+            : ("BC".equals(provider) ? Signature.getInstance(algorithm, jcaProvider) : Signature.getInstance(algorithm));
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(payload);
+        return verifier.verify(signature);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(SignatureProviderBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
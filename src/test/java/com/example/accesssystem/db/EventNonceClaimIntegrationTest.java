@@ -0,0 +1,105 @@
+package com.example.accesssystem.db;
+
+import com.example.accesssystem.service.EventNonceRepository;
+import com.example.accesssystem.service.EventNonceRepository.NonceRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Nonce claims are decided by one INSERT ... RETURNING: no window between check and store.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class EventNonceClaimIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private EventNonceRepository eventNonceRepository;
+
+    @Test
+    void claim_shouldSucceedOnlyOnce() {
+        String eventId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+
+        assertThat(eventNonceRepository.claim(eventId, "cp-1", now, now.plusSeconds(60))).isTrue();
+        assertThat(eventNonceRepository.claim(eventId, "cp-1", now, now.plusSeconds(60))).isFalse();
+        // A replay with another timestamp (hence another expiry) is still the same nonce
+        assertThat(eventNonceRepository.claim(eventId, "cp-2", now.plusSeconds(5), now.plusSeconds(65))).isFalse();
+    }
+
+    @Test
+    void concurrentClaims_shouldHaveExactlyOneWinner() throws Exception {
+        String eventId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return eventNonceRepository.claim(eventId, "cp-1", now, now.plusSeconds(60));
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    winners++;
+                }
+            }
+            assertThat(winners).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimAll_shouldReturnOnlyNewNonces() {
+        Instant now = Instant.now();
+        String existing = UUID.randomUUID().toString();
+        String fresh = UUID.randomUUID().toString();
+        String repeated = UUID.randomUUID().toString();
+        eventNonceRepository.claim(existing, "cp-1", now, now.plusSeconds(60));
+
+        var claimed = eventNonceRepository.claimAll(List.of(
+            new NonceRecord(existing, "cp-1", now, now.plusSeconds(60)),
+            new NonceRecord(fresh, "cp-1", now, now.plusSeconds(60)),
+            new NonceRecord(repeated, "cp-1", now, now.plusSeconds(60)),
+            new NonceRecord(repeated, "cp-1", now, now.plusSeconds(60))
+        ));
+
+        assertThat(claimed).containsExactlyInAnyOrder(fresh, repeated);
+        assertThat(eventNonceRepository.claim(fresh, "cp-1", now, now.plusSeconds(60))).isFalse();
+        assertThat(eventNonceRepository.claimAll(List.of())).isEmpty();
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.accesssystem.db;
+
+import com.example.accesssystem.service.EventNonceRepository;
+import com.example.accesssystem.service.EventNonceRepository.NonceRecord;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * On the partitioned layout the primary key is (event_id, expires_at), so only the per-eventId lock in
+ * event_nonces_claim keeps replays with different expiries from being stored twice.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+class EventNoncePartitionedClaimIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.flyway.placeholders.event_nonces_partitioned", () -> "true");
+    }
+
+    @Autowired
+    private EventNonceRepository eventNonceRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void eventNonces_shouldBePartitioned() {
+        Integer partitioned = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_partitioned_table WHERE partrelid = 'event_nonces'::regclass", Integer.class);
+        assertThat(partitioned).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentClaimsWithDifferentExpiries_shouldHaveExactlyOneWinner() throws Exception {
+        String eventId = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                Instant expiresAt = now.plusSeconds(60 + i);
+                boolean batch = i % 2 == 0;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    if (batch) {
+                        return !eventNonceRepository.claimAll(
+                            List.of(new NonceRecord(eventId, "cp-1", now, expiresAt))).isEmpty();
+                    }
+                    return eventNonceRepository.claim(eventId, "cp-1", now, expiresAt);
+                }));
+            }
+            start.countDown();
+            int winners = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    winners++;
+                }
+            }
+            assertThat(winners).isEqualTo(1);
+            Integer stored = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM event_nonces WHERE event_id = ?", Integer.class, eventId);
+            assertThat(stored).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void claimAll_shouldSkipNoncesStoredWithAnotherExpiry() {
+        Instant now = Instant.now();
+        String existing = UUID.randomUUID().toString();
+        String fresh = UUID.randomUUID().toString();
+        eventNonceRepository.claim(existing, "cp-1", now, now.plusSeconds(60));
+
+        var claimed = eventNonceRepository.claimAll(List.of(
+            new NonceRecord(existing, "cp-2", now.plusSeconds(5), now.plusSeconds(3600)),
+            new NonceRecord(fresh, "cp-1", now, now.plusSeconds(60))
+        ));
+
+        assertThat(claimed).containsExactly(fresh);
+    }
+}
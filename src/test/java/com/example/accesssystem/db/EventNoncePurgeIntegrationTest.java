@@ -0,0 +1,125 @@
+package com.example.accesssystem.db;
+
+import com.example.accesssystem.service.EventNoncePurgeJob;
+import com.example.accesssystem.service.EventNonceRepository;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Expiry of anti-replay nonces: batched deletes on the plain table, then partition drops after the
+ * table has been converted with the V15 helper function.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class EventNoncePurgeIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("access-system.anti-replay.purge.batch-size", () -> "7");
+        registry.add("access-system.anti-replay.purge.pause-ms", () -> "0");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EventNonceRepository eventNonceRepository;
+
+    @Autowired
+    private EventNoncePurgeJob purgeJob;
+
+    @Test
+    @Order(1)
+    void purge_shouldDeleteExpiredNoncesInBatches() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 20; i++) {
+            insertNonce("expired-" + i, now.minus(2, ChronoUnit.HOURS));
+        }
+        insertNonce("active-1", now.plus(1, ChronoUnit.HOURS));
+
+        assertThat(eventNonceRepository.isPartitioned()).isFalse();
+        assertThat(eventNonceRepository.purgeExpired(7)).isEqualTo(7);
+        assertThat(purgeJob.purge()).isEqualTo(13);
+
+        assertThat(count("expired-%")).isZero();
+        assertThat(count("active-1")).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    void partitionedTable_shouldKeepActiveNoncesAndDropExpiredPartitions() {
+        Instant now = Instant.now();
+        insertNonce("expired-before-convert", now.minus(1, ChronoUnit.HOURS));
+
+        jdbcTemplate.execute("SELECT event_nonces_convert_to_partitioned(true)");
+
+        assertThat(eventNonceRepository.isPartitioned()).isTrue();
+        assertThat(count("active-1")).isEqualTo(1);
+        assertThat(count("expired-before-convert")).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT relpersistence FROM pg_class WHERE relname = 'event_nonces_default'", String.class))
+            .isEqualTo("u");
+
+        // Partitions cover the horizon, new partitions follow the default partition's persistence
+        eventNonceRepository.maintainPartitions(3600, 86400);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'event_nonces'::regclass AND c.relpersistence = 'u'", Integer.class))
+            .isGreaterThan(24);
+
+        assertThat(eventNonceRepository.claim("partitioned-1", "cp-1", now, now.plus(30, ChronoUnit.MINUTES))).isTrue();
+        assertThat(eventNonceRepository.claim("partitioned-1", "cp-1", now, now.plus(30, ChronoUnit.MINUTES))).isFalse();
+        assertThat(count("partitioned-1")).isEqualTo(1);
+
+        // An already expired partition is dropped as a whole
+        Instant hourAgo = now.minus(2, ChronoUnit.HOURS).truncatedTo(ChronoUnit.HOURS);
+        jdbcTemplate.execute("CREATE TABLE event_nonces_expired_test PARTITION OF event_nonces FOR VALUES FROM ('"
+            + hourAgo + "') TO ('" + hourAgo.plus(1, ChronoUnit.HOURS) + "')");
+        insertNonce("in-expired-partition", hourAgo.plus(10, ChronoUnit.MINUTES));
+
+        assertThat(eventNonceRepository.maintainPartitions(3600, 86400)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('event_nonces_expired_test') IS NULL", Boolean.class))
+            .isTrue();
+        assertThat(count("in-expired-partition")).isZero();
+        assertThat(count("active-1")).isEqualTo(1);
+    }
+
+    private void insertNonce(String eventId, Instant expiresAt) {
+        jdbcTemplate.update(
+            "INSERT INTO event_nonces (event_id, checkpoint_id, event_timestamp, expires_at) VALUES (?, ?, ?, ?)",
+            eventId, "cp-" + UUID.randomUUID(), Timestamp.from(expiresAt.minus(1, ChronoUnit.MINUTES)),
+            Timestamp.from(expiresAt));
+    }
+
+    private int count(String eventIdPattern) {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM event_nonces WHERE event_id LIKE ?", Integer.class, eventIdPattern);
+        return count != null ? count : 0;
+    }
+}
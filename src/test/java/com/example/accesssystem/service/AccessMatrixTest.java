@@ -0,0 +1,122 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessMatrixTest {
+
+    @Test
+    void allows_testsZoneBitOfUser() {
+        AccessMatrix matrix = AccessMatrix.empty().withRows(Map.of(
+            0, new int[] {0, 1},
+            1, new int[] {1}
+        ));
+
+        assertThat(matrix.allows(0, 0)).isTrue();
+        assertThat(matrix.allows(0, 1)).isTrue();
+        assertThat(matrix.allows(1, 0)).isFalse();
+        assertThat(matrix.allows(1, 1)).isTrue();
+        assertThat(matrix.allows(2, 1)).isFalse();
+        assertThat(matrix.allows(0, 7)).isFalse();
+        assertThat(matrix.allows(CodeDictionary.NOT_FOUND, 0)).isFalse();
+        assertThat(matrix.allows(0, CodeDictionary.NOT_FOUND)).isFalse();
+        assertThat(matrix.userCount()).isEqualTo(2);
+    }
+
+    @Test
+    void withRows_returnsNewSnapshotAndKeepsOldOne() {
+        AccessMatrix before = AccessMatrix.empty().withRows(Map.of(0, new int[] {0}));
+
+        AccessMatrix after = before.withRows(Map.of(
+            0, new int[] {2},
+            5, new int[] {0}
+        ));
+
+        assertThat(before.allows(0, 0)).isTrue();
+        assertThat(before.allows(5, 0)).isFalse();
+        assertThat(after.allows(0, 0)).isFalse();
+        assertThat(after.allows(0, 2)).isTrue();
+        assertThat(after.allows(5, 0)).isTrue();
+        assertThat(after.userCount()).isEqualTo(2);
+
+        AccessMatrix removed = after.withRows(Map.of(0, new int[0]));
+        assertThat(removed.allows(0, 2)).isFalse();
+        assertThat(removed.userCount()).isEqualTo(1);
+    }
+
+    @Test
+    void allows_worksBeyondFirstBitsetWord() {
+        int[] zones = new int[200];
+        for (int i = 0; i < zones.length; i++) {
+            zones[i] = i;
+        }
+        AccessMatrix matrix = AccessMatrix.empty().withRows(Map.of(
+            0, zones,
+            1, new int[] {150}
+        ));
+
+        assertThat(matrix.allows(0, 199)).isTrue();
+        assertThat(matrix.allows(1, 150)).isTrue();
+        assertThat(matrix.allows(1, 7)).isFalse();
+        assertThat(matrix.allows(1, 199)).isFalse();
+    }
+
+    @Test
+    void allows_scheduledGrantOnlyInsideWindow() {
+        // Schedule 0: Monday 09:00-18:00; schedule 1 was deleted
+        WeeklySchedule[] schedules = {
+            WeeklySchedule.of(List.of(new WeeklySchedule.Window(1, 9 * 60, 18 * 60))),
+            WeeklySchedule.closed()
+        };
+        ZoneHierarchy hierarchy = ZoneHierarchy.empty().withParents(Map.of(1, 0));
+        AccessMatrix matrix = AccessMatrix.empty().withRows(
+            Map.of(0, new int[] {2}),
+            Map.of(0, new int[] {0, 0}, 1, new int[] {3, 1})
+        );
+
+        assertThat(matrix.allows(0, 2, hierarchy, schedules, 0)).isTrue();
+        assertThat(matrix.allows(0, 1, hierarchy, schedules, 10 * 60)).isTrue();
+        assertThat(matrix.allows(0, 1, hierarchy, schedules, 8 * 60)).isFalse();
+        assertThat(matrix.allows(0, 1, hierarchy, schedules, WeeklySchedule.MINUTES_PER_DAY + 10 * 60)).isFalse();
+        assertThat(matrix.allows(1, 3, hierarchy, schedules, 10 * 60)).isFalse();
+        assertThat(matrix.userCount()).isEqualTo(2);
+
+        AccessMatrix unscheduled = matrix.withRows(Map.of(), Map.of(0, new int[0], 1, new int[0]));
+        assertThat(unscheduled.allows(0, 1, hierarchy, schedules, 10 * 60)).isFalse();
+        assertThat(unscheduled.allows(0, 2, hierarchy, schedules, 0)).isTrue();
+        assertThat(unscheduled.userCount()).isEqualTo(1);
+    }
+
+    @Test
+    void usersCovering_listsUnscheduledGrantsOnZoneOrAncestors() {
+        // Zone 1 is inside zone 0
+        ZoneHierarchy hierarchy = ZoneHierarchy.empty().withParents(Map.of(1, 0));
+        AccessMatrix matrix = AccessMatrix.empty().withRows(
+            Map.of(0, new int[] {0}, 2, new int[] {1}, 3, new int[] {2}),
+            Map.of(4, new int[] {1, 0})
+        );
+
+        assertThat(matrix.usersCovering(1, hierarchy)).containsExactly(0, 2);
+        assertThat(matrix.usersCovering(0, hierarchy)).containsExactly(0);
+        assertThat(matrix.usersCovering(-1, hierarchy)).isEmpty();
+    }
+
+    @Test
+    void withRows_acrossRowChunks_keepsOtherUsersAndOldSnapshot() {
+        ZoneHierarchy hierarchy = ZoneHierarchy.empty();
+        AccessMatrix before = AccessMatrix.empty().withRows(Map.of(3, new int[] {1}, 5_000, new int[] {1}));
+        AccessMatrix after = before.withRows(Map.of(3, new int[0], 1_500, new int[] {1}));
+
+        assertThat(after.allows(5_000, 1)).isTrue();
+        assertThat(after.allows(3, 1)).isFalse();
+        assertThat(after.allows(2_000, 1)).isFalse();
+        assertThat(after.allows(9_000, 1)).isFalse();
+        assertThat(after.usersCovering(1, hierarchy)).containsExactly(1_500, 5_000);
+        assertThat(after.userCount()).isEqualTo(2);
+        assertThat(before.usersCovering(1, hierarchy)).containsExactly(3, 5_000);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.accesssystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class AntiReplayServiceTest {
+
+    private static final long SKEW_SECONDS = 1;
+    private static final long BATCH_MAX_AGE_SECONDS = 60;
+
+    @Mock
+    private EventNonceRepository repository;
+
+    @Mock
+    private CheckpointSequenceWindows sequenceWindows;
+
+    private AntiReplayService service;
+
+    @BeforeEach
+    void setUp() {
+        EventNonceCache cache = new EventNonceCache(repository, new SimpleMeterRegistry(), SKEW_SECONDS, "memory",
+            1024, 500, 1000, "unused", 1024);
+        service = new AntiReplayService(cache, sequenceWindows, SKEW_SECONDS, 86400, BATCH_MAX_AGE_SECONDS);
+    }
+
+    @Test
+    void futureStampedBatchEvent_isStillAReplayAfterTheSkewHasPassed() throws Exception {
+        String timestamp = Instant.now().plusSeconds(SKEW_SECONDS).toString();
+
+        assertThat(service.validateEvent("evt-1", "cp-1", timestamp, BATCH_MAX_AGE_SECONDS, null).isAccepted())
+            .isTrue();
+        // Now in the past, within the batch max age: only the nonce can tell it is a replay
+        Thread.sleep((SKEW_SECONDS + 2) * 1000 + 500);
+
+        AntiReplayService.ValidationResult replay =
+            service.validateEvent("evt-1", "cp-1", timestamp, BATCH_MAX_AGE_SECONDS, null);
+        assertThat(replay.isAccepted()).isFalse();
+        assertThat(replay.getReason()).isEqualTo("duplicate_event_id");
+    }
+
+    @Test
+    void singleEventNonce_isKeptForTheBatchWindowToo() throws Exception {
+        String timestamp = Instant.now().toString();
+
+        assertThat(service.validateEvent("evt-2", "cp-1", timestamp, SKEW_SECONDS, null).isAccepted()).isTrue();
+        Thread.sleep((SKEW_SECONDS + 2) * 1000 + 500);
+
+        // Too old for /ingest/event, still young enough for /ingest/batch
+        assertThat(service.validateEvent("evt-2", "cp-1", timestamp, SKEW_SECONDS, null).getReason())
+            .isEqualTo("timestamp_out_of_window");
+        assertThat(service.validateEvent("evt-2", "cp-1", timestamp, BATCH_MAX_AGE_SECONDS, null).getReason())
+            .isEqualTo("duplicate_event_id");
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import com.example.accesssystem.service.ReferenceCodeRepository.Kind;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingEventRepositoryTest {
+
+    private static final UUID USER_ID = UUID.randomUUID();
+
+    @Mock
+    private EventRepositoryImpl delegate;
+
+    @Mock
+    private ReferenceCodeRepository referenceCodeRepository;
+
+    @Mock
+    private ReferenceDataChangeFeed changeFeed;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceDictionary dictionary;
+    private CachingEventRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(referenceCodeRepository.findAll(Kind.USERS)).thenReturn(List.of(new Entry(USER_ID, "U-1")));
+        lenient().when(referenceCodeRepository.findAll(Kind.ZONES)).thenReturn(List.of());
+        lenient().when(referenceCodeRepository.findAll(Kind.CHECKPOINTS)).thenReturn(List.of());
+        meterRegistry = new SimpleMeterRegistry();
+        dictionary = new ReferenceDictionary(referenceCodeRepository, changeFeed, meterRegistry);
+        dictionary.reloadAll();
+        repository = new CachingEventRepository(delegate, dictionary, meterRegistry, 60_000, 100);
+    }
+
+    @Test
+    void knownCode_isAnsweredFromDictionary() {
+        assertThat(repository.findUserIdByCode("U-1")).contains(USER_ID);
+        assertThat(repository.findUserIdByCode("U-1")).contains(USER_ID);
+
+        verify(delegate, never()).findUserIdByCode(anyString());
+        assertThat(lookups("users", "hit")).isEqualTo(2.0);
+    }
+
+    @Test
+    void unknownCode_isQueriedOnceAndThenCachedAsNegative() {
+        when(delegate.findUserIdByCode("BOGUS")).thenReturn(Optional.empty());
+
+        assertThat(repository.findUserIdByCode("BOGUS")).isEmpty();
+        assertThat(repository.findUserIdByCode("BOGUS")).isEmpty();
+        assertThat(repository.findUserIdByCode("BOGUS")).isEmpty();
+
+        verify(delegate, times(1)).findUserIdByCode("BOGUS");
+        assertThat(lookups("users", "miss")).isEqualTo(1.0);
+        assertThat(lookups("users", "negative_hit")).isEqualTo(2.0);
+    }
+
+    @Test
+    void codeCreatedElsewhere_isLoadedIntoDictionary() {
+        UUID zoneId = UUID.randomUUID();
+        when(delegate.findZoneIdByCode("Z-NEW")).thenReturn(Optional.of(zoneId));
+        when(referenceCodeRepository.findByIds(any(), any())).thenReturn(List.of(new Entry(zoneId, "Z-NEW")));
+
+        assertThat(repository.findZoneIdByCode("Z-NEW")).contains(zoneId);
+        assertThat(repository.findZoneIdByCode("Z-NEW")).contains(zoneId);
+
+        verify(delegate, times(1)).findZoneIdByCode("Z-NEW");
+        assertThat(repository.findZoneIdByCode(null)).isEmpty();
+    }
+
+    @Test
+    void invalidate_dropsNegativeEntries() {
+        UUID checkpointId = UUID.randomUUID();
+        when(delegate.findCheckpointIdByCode("CP-1")).thenReturn(Optional.empty());
+        assertThat(repository.findCheckpointIdByCode("CP-1")).isEmpty();
+
+        when(referenceCodeRepository.findByIds(Kind.CHECKPOINTS, List.of(checkpointId)))
+            .thenReturn(List.of(new Entry(checkpointId, "CP-1")));
+        repository.invalidate(Kind.CHECKPOINTS, checkpointId);
+
+        assertThat(repository.findCheckpointIdByCode("CP-1")).contains(checkpointId);
+        verify(delegate, times(1)).findCheckpointIdByCode("CP-1");
+    }
+
+    private double lookups(String kind, String result) {
+        return meterRegistry.get("reference_code_lookups_total").tag("kind", kind).tag("result", result)
+            .counter().count();
+    }
+}
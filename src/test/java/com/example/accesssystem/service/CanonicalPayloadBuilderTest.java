@@ -0,0 +1,110 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compatibility of the canonical payload formats. The v2 and v3 test vectors are shared with the event
+ * generator's {@code EventPayloadBuilderTest}, so a checkpoint signing with either implementation
+ * produces bytes the server accepts.
+ */
+class CanonicalPayloadBuilderTest {
+
+    static final String V2_TEST_VECTOR = "020000000463702d3100000014323032352d30312d30315431323a30303a30305a"
+        + "000000067a6f6e652d61000000067a6f6e652d6200000008746f6b656e313233";
+
+    static final String V3_TEST_VECTOR = "030000000463702d3100000014323032352d30312d30315431323a30303a30305a"
+        + "000000067a6f6e652d61000000067a6f6e652d6200000008746f6b656e313233000000000000002a";
+
+    private final CanonicalPayloadBuilder builder = new CanonicalPayloadBuilder();
+
+    @Test
+    void v1_isUnchangedLegacyString() {
+        byte[] legacy = builder.buildCanonicalPayload("cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123");
+
+        assertThat(new String(legacy, StandardCharsets.UTF_8))
+            .isEqualTo("cp-1|2025-01-01T12:00:00Z|zone-a|zone-b|token123");
+        assertThat(builder.buildCanonicalPayload(CanonicalPayloadBuilder.FORMAT_V1,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123")).isEqualTo(legacy);
+    }
+
+    @Test
+    void v2_matchesTestVector() {
+        byte[] v2 = builder.buildCanonicalPayload(CanonicalPayloadBuilder.FORMAT_V2,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123");
+
+        assertThat(HexFormat.of().formatHex(v2)).isEqualTo(V2_TEST_VECTOR);
+    }
+
+    @Test
+    void v2_isUnambiguousAndEncodesAnyUtf8LikeReference() throws Exception {
+        // Same v1 bytes for different field splits: the ambiguity v2 removes
+        assertThat(builder.buildCanonicalPayload(1, "cp|1", "t", "a", "b", "tok"))
+            .isEqualTo(builder.buildCanonicalPayload(1, "cp", "1|t", "a", "b", "tok"));
+        assertThat(builder.buildCanonicalPayload(2, "cp|1", "t", "a", "b", "tok"))
+            .isNotEqualTo(builder.buildCanonicalPayload(2, "cp", "1|t", "a", "b", "tok"));
+
+        String[][] cases = {
+            {"cp-1", "2025-01-01T12:00:00Z", "OUT", "zone-b", ""},
+            {"пункт-1", "2025-01-01T12:00:00Z", "zone-ä", "зона-б", "tok|en"},
+            {"cp-€", "t", "🚪", "lone-\uD800-surrogate", "end\uDC00"},
+        };
+        for (String[] f : cases) {
+            assertThat(builder.buildCanonicalPayload(2, f[0], f[1], f[2], f[3], f[4]))
+                .as("fields %s", String.join(",", f))
+                .isEqualTo(referenceV2(f));
+        }
+    }
+
+    @Test
+    void v3_appendsSignedSequenceToV2Fields() {
+        byte[] v3 = builder.buildCanonicalPayload(CanonicalPayloadBuilder.FORMAT_V3,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123", 42L);
+
+        assertThat(HexFormat.of().formatHex(v3)).isEqualTo(V3_TEST_VECTOR);
+        assertThat(builder.buildCanonicalPayload(3, "cp-1", "t", "a", "b", "tok", Long.MAX_VALUE))
+            .isNotEqualTo(builder.buildCanonicalPayload(3, "cp-1", "t", "a", "b", "tok", 1L));
+        assertThatThrownBy(() -> builder.buildCanonicalPayload(3, "cp-1", "t", "a", "b", "tok"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("sequence");
+    }
+
+    @Test
+    void batchLeaf_prefixesEventIdToCanonicalPayload() {
+        byte[] canonical = builder.buildCanonicalPayload(CanonicalPayloadBuilder.FORMAT_V2,
+            "cp-1", "2025-01-01T12:00:00Z", "zone-a", "zone-b", "token123");
+
+        byte[] leaf = builder.buildBatchLeafPayload("evt-1", canonical);
+
+        assertThat(HexFormat.of().formatHex(leaf)).isEqualTo("000000056576742d31" + V2_TEST_VECTOR);
+        assertThat(builder.buildBatchLeafPayload("evt-2", canonical)).isNotEqualTo(leaf);
+        assertThat(new String(builder.buildBatchRootPayload("cp-1", 3, new byte[32]), StandardCharsets.UTF_8))
+            .startsWith("merkle-batch-v2|cp-1|3|");
+    }
+
+    @Test
+    void unknownFormat_isRejected() {
+        assertThatThrownBy(() -> builder.buildCanonicalPayload(4, "cp-1", "t", "a", "b", "tok"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("4");
+    }
+
+    private static byte[] referenceV2(String... fields) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeByte(2);
+        for (String field : fields) {
+            byte[] bytes = field.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CodeDictionaryTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    @Test
+    void with_assignsDenseStableIds() {
+        CodeDictionary dictionary = CodeDictionary.empty().with(List.of(
+            new Entry(alice, "alice"),
+            new Entry(bob, "bob")
+        ), List.of());
+
+        assertThat(dictionary.idOf("alice")).isZero();
+        assertThat(dictionary.idOf("bob")).isEqualTo(1);
+        assertThat(dictionary.idOf(bob)).isEqualTo(1);
+        assertThat(dictionary.codeOf(1)).isEqualTo("bob");
+        assertThat(dictionary.uuidOf(0)).isEqualTo(alice);
+        assertThat(dictionary.idOf("carol")).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(dictionary.idOf((String) null)).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(dictionary.size()).isEqualTo(2);
+    }
+
+    @Test
+    void renamesKeepIdsAndDeletionsLeaveHoles() {
+        UUID carol = UUID.randomUUID();
+        CodeDictionary dictionary = CodeDictionary.empty().with(List.of(
+            new Entry(alice, "alice"),
+            new Entry(bob, "bob"),
+            new Entry(carol, "carol")
+        ), List.of());
+
+        // Swap codes in one update
+        CodeDictionary swapped = dictionary.with(List.of(new Entry(alice, "bob"), new Entry(bob, "alice")), List.of());
+        assertThat(swapped.idOf("bob")).isZero();
+        assertThat(swapped.idOf("alice")).isEqualTo(1);
+        assertThat(dictionary.idOf("alice")).as("old snapshot unchanged").isZero();
+
+        CodeDictionary deleted = swapped.with(List.of(), List.of(alice));
+        assertThat(deleted.idOf("bob")).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(deleted.codeOf(0)).isNull();
+        assertThat(deleted.liveCount()).isEqualTo(2);
+
+        UUID dave = UUID.randomUUID();
+        CodeDictionary exact = deleted.withExactly(List.of(
+            new Entry(carol, "carol"),
+            new Entry(dave, "bob")
+        ));
+        assertThat(exact.idOf("carol")).isEqualTo(2);
+        assertThat(exact.idOf("bob")).as("new entity gets a new id").isEqualTo(3);
+        assertThat(exact.idOf(bob)).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(exact.liveCount()).isEqualTo(2);
+    }
+
+    @Test
+    void lookups_handleNonAsciiCodesAndManyEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            entries.add(new Entry(UUID.randomUUID(), "user-" + i));
+        }
+        entries.add(new Entry(alice, "пользователь-ä"));
+        CodeDictionary dictionary = CodeDictionary.empty().with(entries, List.of());
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(dictionary.idOf("user-" + i)).isEqualTo(i);
+            assertThat(dictionary.idOf(entries.get(i).id())).isEqualTo(i);
+        }
+        assertThat(dictionary.idOf("пользователь-ä")).isEqualTo(10_000);
+        assertThat(dictionary.codeOf(10_000)).isEqualTo("пользователь-ä");
+        assertThat(dictionary.footprintBytes()).isLessThan(10_001L * 64);
+    }
+
+    @Test
+    void repeatedRenames_doNotGrowCodeStorageWithoutBound() {
+        CodeDictionary dictionary = CodeDictionary.empty().with(List.of(new Entry(alice, "alice")), List.of());
+        for (int i = 0; i < 1_000; i++) {
+            dictionary = dictionary.with(List.of(new Entry(alice, "alice-renamed-" + i)), List.of());
+        }
+        assertThat(dictionary.idOf("alice-renamed-999")).isZero();
+        assertThat(dictionary.footprintBytes()).isLessThan(4_096);
+    }
+
+    @Test
+    void singleUpdate_sharesUntouchedChunksAndKeepsOlderSnapshotsIntact() {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 3 * CodeDictionary.CHUNK_IDS; i++) {
+            entries.add(new Entry(UUID.randomUUID(), "user-" + i));
+        }
+        CodeDictionary base = CodeDictionary.empty().with(entries, List.of());
+        UUID renamed = entries.get(CodeDictionary.CHUNK_IDS).id();
+        CodeDictionary next = base.with(List.of(new Entry(renamed, "renamed"), new Entry(alice, "alice")), List.of());
+
+        assertThat(next.sameChunk(base, 0)).isTrue();
+        assertThat(next.sameChunk(base, 1)).as("renamed entity's chunk").isFalse();
+        assertThat(next.sameChunk(base, 2)).isTrue();
+        assertThat(next.idOf("renamed")).isEqualTo(CodeDictionary.CHUNK_IDS);
+        assertThat(next.idOf("user-" + CodeDictionary.CHUNK_IDS)).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(next.idOf(alice)).isEqualTo(3 * CodeDictionary.CHUNK_IDS);
+
+        // Updates written in place by the newest snapshot stay invisible to the older one
+        assertThat(base.idOf("renamed")).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(base.idOf("user-" + CodeDictionary.CHUNK_IDS)).isEqualTo(CodeDictionary.CHUNK_IDS);
+        assertThat(base.idOf(alice)).isEqualTo(CodeDictionary.NOT_FOUND);
+
+        // Updating the older snapshot again forks instead of writing over the newer one
+        CodeDictionary fork = base.with(List.of(new Entry(bob, "alice")), List.of());
+        assertThat(fork.idOf("alice")).isEqualTo(3 * CodeDictionary.CHUNK_IDS);
+        assertThat(fork.idOf(bob)).isEqualTo(3 * CodeDictionary.CHUNK_IDS);
+        assertThat(next.idOf(bob)).isEqualTo(CodeDictionary.NOT_FOUND);
+        assertThat(next.uuidOf(3 * CodeDictionary.CHUNK_IDS)).isEqualTo(alice);
+        assertThat(next.with(List.of(new Entry(alice, "alice")), List.of())).isSameAs(next);
+    }
+}
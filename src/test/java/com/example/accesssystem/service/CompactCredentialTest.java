@@ -0,0 +1,53 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCredentialTest {
+
+    @Test
+    void parse_roundTripsAllFields() {
+        byte[] input = CompactCredential.signingInput("issuer-1", "2025-01", "user-123", 1_900_000_000L);
+        String token = CompactCredential.format(input, new byte[64]);
+
+        CompactCredential credential = CompactCredential.parse(token);
+
+        assertThat(CompactCredential.isCompact(token)).isTrue();
+        assertThat(credential.issuer()).isEqualTo("issuer-1");
+        assertThat(credential.keyId()).isEqualTo("2025-01");
+        assertThat(credential.userCode()).isEqualTo("user-123");
+        assertThat(credential.expiresAt()).isEqualTo(1_900_000_000L);
+        assertThat(credential.signingInput()).isEqualTo(input);
+        assertThat(token.length()).isLessThan(140);
+    }
+
+    @Test
+    void parse_withoutKid_returnsNullKeyId() {
+        String token = CompactCredential.format(
+            CompactCredential.signingInput("issuer-1", null, "user-123", 1_900_000_000L), new byte[64]);
+
+        assertThat(CompactCredential.parse(token).keyId()).isNull();
+    }
+
+    @Test
+    void parse_rejectsMalformedCredentials() {
+        String valid = CompactCredential.format(
+            CompactCredential.signingInput("issuer-1", null, "user-123", 1_900_000_000L), new byte[64]);
+        byte[] raw = Base64.getUrlDecoder().decode(valid.substring(3));
+
+        assertThatThrownBy(() -> CompactCredential.parse(valid.substring(0, valid.length() - 4)))
+            .isInstanceOf(IllegalArgumentException.class);
+        raw[0] = 2;
+        assertThatThrownBy(() -> CompactCredential.parse("c1." + Base64.getUrlEncoder().encodeToString(raw)))
+            .hasMessageContaining("version");
+        assertThatThrownBy(() -> CompactCredential.parse("c1.%%%"))
+            .hasMessageContaining("base64url");
+        assertThatThrownBy(() -> CompactCredential.parse("c1.AQE"))
+            .hasMessageContaining("truncated");
+        assertThat(CompactCredential.isCompact("eyJhbGciOiJSUzI1NiJ9.e30.c2ln")).isFalse();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.accesssystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CryptoVerificationExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private CryptoVerificationExecutor executor;
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (executor != null) {
+            executor.destroy();
+        }
+    }
+
+    @Test
+    void verify_returnsResultFromWorkerThread() {
+        executor = new CryptoVerificationExecutor(2, 4, 1000, registry);
+
+        String thread = executor.verify("test", () -> Thread.currentThread().getName());
+
+        assertThat(thread).startsWith("crypto-verify-");
+    }
+
+    @Test
+    void verify_propagatesRuntimeExceptions() {
+        executor = new CryptoVerificationExecutor(1, 1, 1000, registry);
+
+        assertThatThrownBy(() -> executor.verify("test", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("boom");
+    }
+
+    @Test
+    void verify_whenQueueFull_rejectsAndCounts() throws Exception {
+        executor = new CryptoVerificationExecutor(1, 1, 5000, registry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the single worker and the single queue slot
+        callers.submit(() -> executor.verify("blocker", () -> {
+            started.countDown();
+            release.await();
+            return true;
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> executor.verify("queued", () -> true));
+        waitUntil(() -> !executor.hasCapacity());
+
+        assertThatThrownBy(() -> executor.verify("overflow", () -> true))
+            .isInstanceOf(CryptoPoolSaturatedException.class)
+            .hasMessageContaining("saturated");
+        assertThat(registry.get("crypto_pool_rejected_total").tag("reason", "queue_full").counter().count())
+            .isEqualTo(1.0);
+
+        release.countDown();
+    }
+
+    @Test
+    void verify_whenResultTooSlow_timesOut() {
+        executor = new CryptoVerificationExecutor(1, 1, 50, registry);
+
+        assertThatThrownBy(() -> executor.verify("slow", () -> {
+            Thread.sleep(5000);
+            return true;
+        })).isInstanceOf(CryptoPoolSaturatedException.class).hasMessageContaining("timed out");
+        assertThat(registry.get("crypto_pool_rejected_total").tag("reason", "timeout").counter().count())
+            .isEqualTo(1.0);
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+}
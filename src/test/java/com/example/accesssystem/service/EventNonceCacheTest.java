@@ -0,0 +1,77 @@
+package com.example.accesssystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class EventNonceCacheTest {
+
+    @Mock
+    private EventNonceRepository repository;
+
+    @Test
+    void databaseMode_claimsEveryNewNonceInTheSharedTable() {
+        EventNonceCache cache = cache("database", 10);
+        Instant now = Instant.now();
+        when(repository.claim(eq("evt-1"), eq("cp-1"), any(), any())).thenReturn(true);
+        when(repository.claim(eq("evt-2"), eq("cp-1"), any(), any())).thenReturn(false);
+
+        assertThat(cache.claim("evt-1", "cp-1", now, now.plusSeconds(60))).isTrue();
+        // Stored by another node: rejected, not just counted
+        assertThat(cache.claim("evt-2", "cp-1", now, now.plusSeconds(60))).isFalse();
+        // Known locally: no round trip
+        assertThat(cache.claim("evt-1", "cp-1", now, now.plusSeconds(60))).isFalse();
+    }
+
+    @Test
+    void memoryMode_failsClosedWhenPendingWritesAreFull() {
+        EventNonceCache cache = cache("memory", 2);
+        Instant now = Instant.now();
+        when(repository.claimAll(anyList())).thenThrow(new DataAccessResourceFailureException("database down"));
+
+        assertThat(cache.claim("evt-1", "cp-1", now, now.plusSeconds(60))).isTrue();
+        assertThat(cache.claim("evt-2", "cp-1", now, now.plusSeconds(60))).isTrue();
+        cache.persistPending();
+
+        assertThatThrownBy(() -> cache.claim("evt-3", "cp-1", now, now.plusSeconds(60)))
+            .isInstanceOf(NonceStoreUnavailableException.class);
+        verify(repository, never()).claim(any(), any(), any(), any());
+    }
+
+    @Test
+    void memoryMode_refusedNonceIsNotUsedUp() {
+        EventNonceCache cache = cache("memory", 1);
+        Instant now = Instant.now();
+
+        assertThat(cache.claim("evt-1", "cp-1", now, now.plusSeconds(60))).isTrue();
+        assertThatThrownBy(() -> cache.claim("evt-2", "cp-1", now, now.plusSeconds(60)))
+            .isInstanceOf(NonceStoreUnavailableException.class);
+
+        when(repository.claimAll(anyList())).thenReturn(Set.of("evt-1"));
+        cache.persistPending();
+
+        // The retry of the refused event is accepted once the queue has drained
+        assertThat(cache.claim("evt-2", "cp-1", now, now.plusSeconds(60))).isTrue();
+    }
+
+    private EventNonceCache cache(String mode, long maxPending) {
+        return new EventNonceCache(repository, new SimpleMeterRegistry(), 300, mode, 1024, 500, maxPending,
+            "unused", 1024);
+    }
+}
@@ -202,5 +202,46 @@ class IssuerTokenVerificationServiceTest {
         pem.append("-----END ").append(type).append("-----");
         return pem.toString();
     }
-}
 
+    @Test
+    void verifyToken_compactCredential_verifiedWithEd25519Key() throws Exception {
+        KeyPair edKey = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        jdbcTemplate.update("DELETE FROM issuer_keys WHERE issuer_code = ?", "issuer-compact");
+        jdbcTemplate.update(
+            "INSERT INTO issuer_keys (id, issuer_code, kid, public_key_pem, key_type, algorithm) VALUES (?, ?, ?, ?, ?, ?)",
+            UUID.randomUUID(), "issuer-compact", "ed-1", convertToPEM(edKey.getPublic(), "PUBLIC KEY"), "Ed25519", "EdDSA"
+        );
+        long exp = Instant.now().plusSeconds(3600).getEpochSecond();
+
+        String token = compactCredential(edKey, "issuer-compact", "ed-1", "user-123", exp);
+        IssuerTokenVerificationService.TokenVerificationResult result =
+            tokenVerificationService.verifyAndDecodeToken(token);
+
+        assertThat(result.isValid()).isTrue();
+        assertThat(result.getUserId().get().value()).isEqualTo("user-123");
+        assertThat(result.getIssuerId().get().value()).isEqualTo("issuer-compact");
+
+        // Tampered user code
+        byte[] forgedInput = CompactCredential.signingInput("issuer-compact", "ed-1", "user-999", exp);
+        String forged = CompactCredential.format(forgedInput, CompactCredential.parse(token).tag());
+        assertThat(tokenVerificationService.verifyAndDecodeToken(forged).getReason()).contains("signature mismatch");
+
+        // Expired
+        String expired = compactCredential(edKey, "issuer-compact", "ed-1", "user-123",
+            Instant.now().minusSeconds(60).getEpochSecond());
+        assertThat(tokenVerificationService.verifyAndDecodeToken(expired).getReason()).contains("expired");
+
+        // RSA/JWT issuer keys are not accepted for compact credentials
+        String wrongIssuer = compactCredential(edKey, issuerCode, null, "user-123", exp);
+        assertThat(tokenVerificationService.verifyAndDecodeToken(wrongIssuer).getReason())
+            .contains("not allowed for issuer");
+    }
+
+    private String compactCredential(KeyPair keyPair, String issuer, String kid, String user, long exp) throws Exception {
+        byte[] input = CompactCredential.signingInput(issuer, kid, user, exp);
+        java.security.Signature signer = java.security.Signature.getInstance("Ed25519");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(input);
+        return CompactCredential.format(input, signer.sign());
+    }
+}
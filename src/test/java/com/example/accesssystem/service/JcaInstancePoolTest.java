@@ -0,0 +1,103 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JcaInstancePoolTest {
+
+    @Test
+    void providers_arePinnedPerKeyFamily() {
+        JcaInstancePool pool = new JcaInstancePool("SunRsaSign", "BC", "");
+
+        assertThat(pool.providerFor("SHA256withRSA").getName()).isEqualTo("SunRsaSign");
+        assertThat(pool.providerFor("RSA").getName()).isEqualTo("SunRsaSign");
+        assertThat(pool.providerFor("SHA256withECDSA").getName()).isEqualTo("BC");
+        assertThat(pool.providerFor("Ed25519")).isNull();
+    }
+
+    @Test
+    void unknownProvider_failsFast() {
+        assertThatThrownBy(() -> new JcaInstancePool("NoSuchProvider", "SunEC", "SunEC"))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("NoSuchProvider");
+    }
+
+    @Test
+    void generatePublic_decodesKeysWithPinnedFactory() throws Exception {
+        JcaInstancePool pool = new JcaInstancePool("SunRsaSign", "SunEC", "SunEC");
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("EC");
+        gen.initialize(new ECGenParameterSpec("secp256r1"));
+        PublicKey original = gen.generateKeyPair().getPublic();
+
+        PublicKey decoded = pool.generatePublic("EC", original.getEncoded());
+
+        assertThat(decoded).isEqualTo(original);
+    }
+
+    @Test
+    void bouncyCastlePin_verifiesJdkGeneratedSignatures() throws Exception {
+        // Default configuration: BC for EC and EdDSA (see SignatureProviderBenchmark)
+        JcaInstancePool pool = new JcaInstancePool("SunRsaSign", "BC", "BC");
+        byte[] data = "cp-1|2025-01-01T12:00:00Z|zone-a|zone-b|token".getBytes(StandardCharsets.UTF_8);
+
+        KeyPairGenerator ecGen = KeyPairGenerator.getInstance("EC");
+        ecGen.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair ec = ecGen.generateKeyPair();
+        PublicKey ecKey = pool.generatePublic("EC", ec.getPublic().getEncoded());
+        assertThat(pool.verify("SHA256withECDSA", ecKey, data, sign("SHA256withECDSA", ec, data))).isTrue();
+
+        KeyPair ed = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+        PublicKey edKey = pool.generatePublic("Ed25519", ed.getPublic().getEncoded());
+        assertThat(pool.verify("Ed25519", edKey, data, sign("Ed25519", ed, data))).isTrue();
+    }
+
+    @Test
+    void verify_reusesInstancesSafelyAcrossThreads() throws Exception {
+        JcaInstancePool pool = new JcaInstancePool("SunRsaSign", "SunEC", "SunEC");
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+        gen.initialize(2048);
+        KeyPair keyPair = gen.generateKeyPair();
+        byte[] data = "cp-1|2025-01-01T12:00:00Z|zone-a|zone-b|token".getBytes(StandardCharsets.UTF_8);
+        Signature signer = Signature.getInstance("SHA256withRSA");
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        byte[] good = signer.sign();
+        byte[] bad = good.clone();
+        bad[10] ^= 1;
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                byte[] sig = i % 2 == 0 ? good : bad;
+                results.add(executor.submit(() -> pool.verify("SHA256withRSA", keyPair.getPublic(), data, sig)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertThat(results.get(i).get()).isEqualTo(i % 2 == 0);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static byte[] sign(String algorithm, KeyPair keyPair, byte[] data) throws Exception {
+        Signature signer = Signature.getInstance(algorithm);
+        signer.initSign(keyPair.getPrivate());
+        signer.update(data);
+        return signer.sign();
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.accesssystem.service;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.Signature;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtPreParserTest {
+
+    private final JwtPreParser parser = new JwtPreParser();
+
+    @Test
+    void parse_extractsHeaderAndClaimsInOnePass() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        Instant exp = Instant.now().plusSeconds(600);
+        String token = Jwts.builder()
+            .header().keyId("k-2024").and()
+            .issuer("issuer-1")
+            .subject("sub-1")
+            .claim("userId", "user-123")
+            .claim("department", "IT")
+            .expiration(Date.from(exp))
+            .signWith(keyPair.getPrivate())
+            .compact();
+
+        JwtPreParser.ParsedJwt jwt = parser.parse(token);
+
+        assertThat(jwt.algorithm()).isEqualTo("RS256");
+        assertThat(jwt.keyId()).isEqualTo("k-2024");
+        assertThat(jwt.issuer()).isEqualTo("issuer-1");
+        assertThat(jwt.subject()).isEqualTo("sub-1");
+        assertThat(jwt.userId()).isEqualTo("user-123");
+        assertThat(jwt.expiresAt()).isEqualTo(exp.getEpochSecond());
+        assertThat(jwt.claims()).containsEntry("department", "IT").containsKey("iss");
+
+        // Signing input and signature are exactly what the issuer signed
+        Signature verifier = Signature.getInstance("SHA256withRSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(jwt.signingInput());
+        assertThat(verifier.verify(jwt.signature())).isTrue();
+    }
+
+    @Test
+    void parse_handlesWhitespaceAndEscapedQuotes() {
+        String header = "{ \"typ\" : \"JWT\" ,\n \"alg\" :\t\"RS256\" }";
+        String payload = "{\"note\":\"say \\\"iss\\\": \\\"evil\\\"\", \"iss\" : \"issuer-1\", \"roles\":[\"a\",\"b\"]}";
+
+        JwtPreParser.ParsedJwt jwt = parser.parse(compact(header, payload));
+
+        assertThat(jwt.algorithm()).isEqualTo("RS256");
+        assertThat(jwt.issuer()).isEqualTo("issuer-1");
+        assertThat(jwt.claims().get("note")).isEqualTo("say \"iss\": \"evil\"");
+        assertThat(jwt.claims().get("roles")).isEqualTo(java.util.List.of("a", "b"));
+    }
+
+    @Test
+    void parse_rejectsDuplicateClaims() {
+        String token = compact("{\"alg\":\"RS256\"}", "{\"iss\":\"a\",\"iss\":\"b\"}");
+
+        assertThatThrownBy(() -> parser.parse(token))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("malformed payload");
+    }
+
+    @Test
+    void parse_rejectsMalformedTokens() {
+        assertThatThrownBy(() -> parser.parse("abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parser.parse("a.b.c.d.e")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parser.parse(compact("[]", "{}"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> parser.parse(compact("{\"alg\":\"RS256\"}", "{\"exp\":\"soon\"}")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exp");
+    }
+
+    @Test
+    void joseToDer_producesSignatureAcceptedByJca() throws Exception {
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("EC");
+        gen.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = gen.generateKeyPair();
+        String token = Jwts.builder()
+            .issuer("issuer-ec")
+            .subject("user-1")
+            .signWith(keyPair.getPrivate(), Jwts.SIG.ES256)
+            .compact();
+
+        JwtPreParser.ParsedJwt jwt = parser.parse(token);
+        assertThat(jwt.algorithm()).isEqualTo("ES256");
+
+        Signature verifier = Signature.getInstance("SHA256withECDSA");
+        verifier.initVerify(keyPair.getPublic());
+        verifier.update(jwt.signingInput());
+        assertThat(verifier.verify(IssuerTokenVerificationService.joseToDer(jwt.signature(), 32))).isTrue();
+    }
+
+    private static String compact(String header, String payload) {
+        Base64.Encoder enc = Base64.getUrlEncoder().withoutPadding();
+        return enc.encodeToString(header.getBytes(StandardCharsets.UTF_8)) + "."
+            + enc.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+        gen.initialize(2048);
+        return gen.generateKeyPair();
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.accesssystem.service;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Key rings are loaded in memory and follow database changes through the change feed
+ * (background polling only: reads never block on the database here).
+ */
+@SpringBootTest
+@Testcontainers
+@ActiveProfiles("test")
+class KeyRingIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:13-alpine");
+
+    @DynamicPropertySource
+    static void registerDataSourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("access-system.reference-data.max-staleness-ms", () -> "-1");
+        registry.add("access-system.reference-data.poll-interval-ms", () -> "100");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IssuerTokenVerificationService tokenVerificationService;
+
+    @Autowired
+    private IssuerKeyRing issuerKeyRing;
+
+    @Autowired
+    private CheckpointKeyRing checkpointKeyRing;
+
+    private final String issuerCode = "ring-issuer";
+    private KeyPair oldKey;
+    private KeyPair newKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate.update("DELETE FROM issuer_keys WHERE issuer_code = ?", issuerCode);
+        jdbcTemplate.update("DELETE FROM checkpoint_keys WHERE checkpoint_code = ?", "cp-ring");
+        awaitUntil(() -> issuerKeyRing.find(issuerCode).isEmpty());
+
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        oldKey = keyGen.generateKeyPair();
+        newKey = keyGen.generateKeyPair();
+    }
+
+    @Test
+    void issuerRotation_bothKeysAcceptedUntilOldKeyRemoved() {
+        insertIssuerKey("k1", oldKey, Instant.now().minusSeconds(3600));
+        awaitUntil(() -> issuerKeyRing.find(issuerCode).isPresent());
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(oldKey, "k1")).isValid()).isTrue();
+
+        // Rotation: add the new key while the old one is still in use
+        insertIssuerKey("k2", newKey, Instant.now());
+        awaitUntil(() -> issuerKeyRing.find(issuerCode).map(r -> r.entries().size() == 2).orElse(false));
+
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(oldKey, "k1")).isValid()).isTrue();
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(newKey, "k2")).isValid()).isTrue();
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(newKey, null)).isValid()).isTrue();
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(oldKey, "k2")).getReason())
+            .contains("verification failed");
+
+        // Retire the old key
+        jdbcTemplate.update("DELETE FROM issuer_keys WHERE issuer_code = ? AND kid = ?", issuerCode, "k1");
+        awaitUntil(() -> issuerKeyRing.find(issuerCode).map(r -> r.find("k1").isEmpty()).orElse(false));
+
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(oldKey, "k1")).getReason())
+            .contains("Issuer key not found");
+        assertThat(tokenVerificationService.verifyAndDecodeToken(token(newKey, "k2")).isValid()).isTrue();
+    }
+
+    @Test
+    void checkpointKeyChanges_areReloadedInBackground() {
+        assertThat(checkpointKeyRing.find("cp-ring")).isEmpty();
+
+        jdbcTemplate.update(
+            "INSERT INTO checkpoint_keys (id, checkpoint_code, kid, public_key_pem, key_type) VALUES (?, ?, ?, ?, ?)",
+            UUID.randomUUID(), "cp-ring", "2025-01", convertToPEM(oldKey.getPublic()), "RSA"
+        );
+        awaitUntil(() -> checkpointKeyRing.find("cp-ring").isPresent());
+        assertThat(checkpointKeyRing.find("cp-ring").get().find("2025-01")).isPresent();
+
+        jdbcTemplate.update("UPDATE checkpoint_keys SET public_key_pem = ? WHERE checkpoint_code = ?",
+            convertToPEM(newKey.getPublic()), "cp-ring");
+        awaitUntil(() -> checkpointKeyRing.find("cp-ring").get().entries().get(0).publicKey()
+            .equals(newKey.getPublic()));
+
+        jdbcTemplate.update("DELETE FROM checkpoint_keys WHERE checkpoint_code = ?", "cp-ring");
+        awaitUntil(() -> checkpointKeyRing.find("cp-ring").isEmpty());
+    }
+
+    private void insertIssuerKey(String kid, KeyPair keyPair, Instant createdAt) {
+        jdbcTemplate.update(
+            "INSERT INTO issuer_keys (id, issuer_code, kid, public_key_pem, key_type, algorithm, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)",
+            UUID.randomUUID(), issuerCode, kid, convertToPEM(keyPair.getPublic()), "RSA", "RS256",
+            java.sql.Timestamp.from(createdAt)
+        );
+    }
+
+    private String token(KeyPair keyPair, String kid) {
+        var builder = Jwts.builder();
+        if (kid != null) {
+            builder.header().keyId(kid);
+        }
+        return builder
+            .issuer(issuerCode)
+            .subject("user-1")
+            .expiration(Date.from(Instant.now().plusSeconds(600)))
+            .signWith(keyPair.getPrivate())
+            .compact();
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 10s");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static String convertToPEM(PublicKey publicKey) {
+        String base64 = Base64.getMimeEncoder(64, "\n".getBytes()).encodeToString(publicKey.getEncoded());
+        return "-----BEGIN PUBLIC KEY-----\n" + base64 + "\n-----END PUBLIC KEY-----";
+    }
+}
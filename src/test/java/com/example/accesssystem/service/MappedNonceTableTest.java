@@ -0,0 +1,155 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MappedNonceTableTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void claim_acceptsNonceOnceUntilItExpires() {
+        try (MappedNonceTable table = new MappedNonceTable(dir.resolve("nonces.bin"), 64)) {
+            assertThat(table.claim("event-1", 1_100, 1_000)).isTrue();
+            assertThat(table.claim("event-1", 1_200, 1_050)).isFalse();
+            assertThat(table.contains("event-1", 1_050)).isTrue();
+            assertThat(table.claim("event-2", 1_100, 1_000)).isTrue();
+
+            // Expired entries are reused in place
+            assertThat(table.contains("event-1", 1_100)).isFalse();
+            assertThat(table.claim("event-1", 1_300, 1_100)).isTrue();
+            assertThat(table.occupiedSlots()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void table_survivesReopen() {
+        Path file = dir.resolve("nonces.bin");
+        try (MappedNonceTable table = new MappedNonceTable(file, 1024)) {
+            for (int i = 0; i < 500; i++) {
+                assertThat(table.claim("event-" + i, 2_000, 1_000)).isTrue();
+            }
+        }
+        try (MappedNonceTable table = new MappedNonceTable(file, 1024)) {
+            assertThat(table.occupiedSlots()).isEqualTo(500);
+            for (int i = 0; i < 500; i++) {
+                assertThat(table.claim("event-" + i, 2_000, 1_500)).isFalse();
+            }
+            assertThat(table.claim("event-500", 2_000, 1_500)).isTrue();
+        }
+        assertThatThrownBy(() -> new MappedNonceTable(file, 2048)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void fullTable_reusesExpiredSlotsAndRejectsWhenAllLive() {
+        try (MappedNonceTable table = new MappedNonceTable(dir.resolve("nonces.bin"), 8)) {
+            for (int i = 0; i < 8; i++) {
+                assertThat(table.claim("old-" + i, 1_010, 1_000)).isTrue();
+            }
+            assertThatThrownBy(() -> table.claim("new", 1_020, 1_005)).isInstanceOf(IllegalStateException.class);
+
+            for (int i = 0; i < 8; i++) {
+                assertThat(table.claim("new-" + i, 1_030, 1_020)).isTrue();
+            }
+            for (int i = 0; i < 8; i++) {
+                assertThat(table.claim("new-" + i, 1_030, 1_020)).isFalse();
+            }
+        }
+    }
+
+    @Test
+    void concurrentClaims_haveExactlyOneWinnerPerNonce() throws Exception {
+        int threads = 8;
+        int nonces = 20_000;
+        try (MappedNonceTable table = new MappedNonceTable(dir.resolve("nonces.bin"), 1 << 16)) {
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    results.add(executor.submit(() -> {
+                        start.await();
+                        int won = 0;
+                        for (int i = 0; i < nonces; i++) {
+                            if (table.claim("event-" + i, 2_000, 1_000)) {
+                                won++;
+                            }
+                        }
+                        return won;
+                    }));
+                }
+                start.countDown();
+                int winners = 0;
+                for (Future<Integer> result : results) {
+                    winners += result.get();
+                }
+                assertThat(winners).isEqualTo(nonces);
+                assertThat(table.occupiedSlots()).isEqualTo(nonces);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void concurrentClaimsOfOneNonce_throughExpiredSlots_haveExactlyOneWinner() throws Exception {
+        int threads = 8;
+        int nonces = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 500; round++) {
+                try (MappedNonceTable table = new MappedNonceTable(dir.resolve("nonces-" + round + ".bin"), 64)) {
+                    // Expired slots in every probe chain; threads whose clocks differ by a second disagree
+                    // on which of them are still live, so they may pick different slots for one nonce
+                    for (int i = 0; i < 48; i++) {
+                        assertThat(table.claim("old-" + i, 1_010 + i % 3, 1_000)).isTrue();
+                    }
+                    CountDownLatch start = new CountDownLatch(1);
+                    AtomicIntegerArray winners = new AtomicIntegerArray(nonces);
+                    List<Future<?>> results = new ArrayList<>();
+                    for (int t = 0; t < threads; t++) {
+                        long now = 1_010 + t % 3;
+                        results.add(executor.submit(() -> {
+                            start.await();
+                            for (int i = 0; i < nonces; i++) {
+                                if (table.claim("event-" + i, 1_100, now)) {
+                                    winners.incrementAndGet(i);
+                                }
+                            }
+                            return null;
+                        }));
+                    }
+                    start.countDown();
+                    for (Future<?> result : results) {
+                        result.get();
+                    }
+                    for (int i = 0; i < nonces; i++) {
+                        assertThat(winners.get(i)).as("winners of event-%d in round %d", i, round).isEqualTo(1);
+                        assertThat(table.contains("event-" + i, 1_050)).isTrue();
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void invalidCapacity_isRejected() {
+        assertThatThrownBy(() -> new MappedNonceTable(dir.resolve("nonces.bin"), 100))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerkleTreeTest {
+
+    @Test
+    void proofs_verifyForEveryLeafAndTreeSize() {
+        for (int size = 1; size <= 17; size++) {
+            List<byte[]> leaves = leaves(size);
+            byte[] root = MerkleTree.root(leaves);
+            for (int i = 0; i < size; i++) {
+                List<byte[]> proof = MerkleTree.proof(leaves, i);
+                assertThat(MerkleTree.verifyInclusion(leaves.get(i), i, size, proof, root))
+                    .as("size=%d index=%d", size, i)
+                    .isTrue();
+            }
+        }
+    }
+
+    @Test
+    void verifyInclusion_rejectsWrongLeafIndexOrSize() {
+        List<byte[]> leaves = leaves(7);
+        byte[] root = MerkleTree.root(leaves);
+        List<byte[]> proof = MerkleTree.proof(leaves, 3);
+
+        assertThat(MerkleTree.verifyInclusion(leaves.get(3), 2, 7, proof, root)).isFalse();
+        // treeSize only matters where it changes the tree shape; it is bound by the root signature anyway
+        assertThat(MerkleTree.verifyInclusion(leaves.get(3), 3, 4, proof, root)).isFalse();
+        assertThat(MerkleTree.verifyInclusion(leaves.get(4), 3, 7, proof, root)).isFalse();
+        assertThat(MerkleTree.verifyInclusion(leaves.get(3), 7, 7, proof, root)).isFalse();
+    }
+
+    @Test
+    void verifyInclusion_rejectsTamperedProof() {
+        List<byte[]> leaves = leaves(5);
+        byte[] root = MerkleTree.root(leaves);
+        List<byte[]> proof = new ArrayList<>(MerkleTree.proof(leaves, 1));
+        byte[] tampered = proof.get(0).clone();
+        tampered[0] ^= 1;
+        proof.set(0, tampered);
+
+        assertThat(MerkleTree.verifyInclusion(leaves.get(1), 1, 5, proof, root)).isFalse();
+        assertThat(MerkleTree.verifyInclusion(leaves.get(1), 1, 5, proof.subList(0, 1), root)).isFalse();
+    }
+
+    @Test
+    void innerNode_cannotBePassedOffAsLeaf() {
+        // Domain separation: the hash of two leaves is not a valid leaf of a smaller tree
+        List<byte[]> leaves = leaves(4);
+        byte[] root = MerkleTree.root(leaves);
+        byte[] inner = MerkleTree.nodeHash(leaves.get(0), leaves.get(1));
+
+        assertThat(MerkleTree.leafHash(inner)).isNotEqualTo(inner);
+        assertThat(MerkleTree.verifyInclusion(MerkleTree.leafHash(inner), 0, 2,
+            List.of(MerkleTree.nodeHash(leaves.get(2), leaves.get(3))), root)).isFalse();
+    }
+
+    private static List<byte[]> leaves(int size) {
+        List<byte[]> leaves = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            leaves.add(MerkleTree.leafHash(("cp-1|2025-01-01T12:00:0" + i + "Z|zone-a|zone-b|token-" + i)
+                .getBytes(StandardCharsets.UTF_8)));
+        }
+        return leaves;
+    }
+}
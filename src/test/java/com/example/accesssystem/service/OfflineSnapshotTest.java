@@ -0,0 +1,92 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OfflineSnapshotTest {
+
+    private static final String SEED = "kq2R5S0lYl9G7bTQ3x8yA1mZcVfJhN4uWp6oEe2dKsI=";
+
+    private final OfflineSnapshotSigner signer = new OfflineSnapshotSigner(SEED, "test-1");
+    private final UUID checkpointId = UUID.randomUUID();
+
+    @Test
+    void sortUnsigned_ordersHighBitLastAndDropsDuplicates() {
+        long[] hashes = {-1L, 5L, Long.MIN_VALUE, 5L, 0L, 99L};
+
+        int distinct = OfflineSnapshot.sortUnsigned(hashes, hashes.length);
+
+        assertThat(Arrays.copyOf(hashes, distinct)).containsExactly(0L, 5L, 99L, Long.MIN_VALUE, -1L);
+    }
+
+    @Test
+    void encodeFull_writesSignedHeaderAndEntries() {
+        long[] entries = {OfflineSnapshot.userHash("alice"), OfflineSnapshot.userHash("bob")};
+        int count = OfflineSnapshot.sortUnsigned(entries, entries.length);
+        long version = OfflineSnapshot.version(checkpointId, false, entries);
+
+        byte[] bytes = OfflineSnapshot.encodeFull(checkpointId, false, 1234L, version, entries, signer);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte[] magic = new byte[4];
+        buffer.get(magic);
+        assertThat(magic).isEqualTo(OfflineSnapshot.MAGIC);
+        assertThat(buffer.get()).isEqualTo(OfflineSnapshot.FORMAT_VERSION);
+        assertThat(buffer.get()).isEqualTo(OfflineSnapshot.TYPE_FULL);
+        assertThat(buffer.get()).isZero();
+        buffer.get();
+        assertThat(new UUID(buffer.getLong(), buffer.getLong())).isEqualTo(checkpointId);
+        assertThat(buffer.getLong()).isEqualTo(1234L);
+        assertThat(buffer.getLong()).isEqualTo(version);
+        assertThat(buffer.getLong()).isZero();
+        assertThat(buffer.getInt()).isEqualTo(count);
+        assertThat(buffer.getInt()).isZero();
+        assertThat(new long[] {buffer.getLong(), buffer.getLong()}).containsExactly(entries);
+        assertThat(buffer.get()).isEqualTo((byte) 6);
+        buffer.position(buffer.position() + 6);
+        assertThat(buffer.remaining()).isEqualTo(OfflineSnapshotSigner.SIGNATURE_LENGTH);
+
+        int signedLength = bytes.length - OfflineSnapshotSigner.SIGNATURE_LENGTH;
+        byte[] signature = Arrays.copyOfRange(bytes, signedLength, bytes.length);
+        assertThat(OfflineSnapshotSigner.verify(signer.publicKey(), bytes, signedLength, signature)).isTrue();
+        bytes[OfflineSnapshot.HEADER_LENGTH] ^= 1;
+        assertThat(OfflineSnapshotSigner.verify(signer.publicKey(), bytes, signedLength, signature)).isFalse();
+    }
+
+    @Test
+    void encodeDelta_listsAddedThenRemovedEntries() {
+        long[] base = {1L, 3L, 5L, -2L};
+        long[] current = {1L, 4L, 5L, -1L};
+
+        byte[] bytes = OfflineSnapshot.encodeDelta(checkpointId, false, 0L, 7L, current, 6L, base, signer);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertThat(buffer.get(5)).isEqualTo(OfflineSnapshot.TYPE_DELTA);
+        assertThat(buffer.getLong(32)).isEqualTo(7L);
+        assertThat(buffer.getLong(40)).isEqualTo(6L);
+        assertThat(buffer.getInt(48)).isEqualTo(2);
+        assertThat(buffer.getInt(52)).isEqualTo(2);
+        buffer.position(OfflineSnapshot.HEADER_LENGTH);
+        assertThat(new long[] {buffer.getLong(), buffer.getLong()}).containsExactly(4L, -1L);
+        assertThat(new long[] {buffer.getLong(), buffer.getLong()}).containsExactly(3L, -2L);
+    }
+
+    @Test
+    void version_dependsOnContentOnly() {
+        long[] entries = {1L, 2L};
+
+        assertThat(OfflineSnapshot.version(checkpointId, false, entries))
+            .isEqualTo(OfflineSnapshot.version(checkpointId, false, entries.clone()))
+            .isNotEqualTo(OfflineSnapshot.version(checkpointId, true, entries))
+            .isNotEqualTo(OfflineSnapshot.version(UUID.randomUUID(), false, entries));
+        assertThat(OfflineSnapshot.parseVersionTag(OfflineSnapshot.versionTag(-42L))).isEqualTo(-42L);
+        assertThatThrownBy(() -> OfflineSnapshot.parseVersionTag("xyz"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.SequenceReplayWindow.Verdict;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SequenceReplayWindowTest {
+
+    @Test
+    void accept_allowsReorderingInsideWindowButNoReplays() {
+        SequenceReplayWindow window = new SequenceReplayWindow(64, -1);
+
+        assertThat(window.accept(0)).isEqualTo(Verdict.ACCEPTED);
+        assertThat(window.accept(10)).isEqualTo(Verdict.ACCEPTED);
+        assertThat(window.accept(5)).isEqualTo(Verdict.ACCEPTED);
+        assertThat(window.accept(5)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.accept(10)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.accept(0)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.highWaterMark()).isEqualTo(10);
+
+        assertThat(window.accept(100)).isEqualTo(Verdict.ACCEPTED);
+        assertThat(window.accept(36)).isEqualTo(Verdict.TOO_OLD);
+        assertThat(window.accept(37)).isEqualTo(Verdict.ACCEPTED);
+    }
+
+    @Test
+    void restoredWindow_treatsEverythingUpToHighWaterMarkAsUsed() {
+        SequenceReplayWindow window = new SequenceReplayWindow(128, 1000);
+
+        assertThat(window.accept(1000)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.accept(950)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.accept(500)).isEqualTo(Verdict.TOO_OLD);
+        assertThat(window.accept(1001)).isEqualTo(Verdict.ACCEPTED);
+        // Sliding by a partial word keeps the restored bits
+        assertThat(window.accept(1070)).isEqualTo(Verdict.ACCEPTED);
+        assertThat(window.accept(999)).isEqualTo(Verdict.REPLAYED);
+        assertThat(window.accept(1050)).isEqualTo(Verdict.ACCEPTED);
+    }
+
+    @Test
+    void accept_matchesReferenceSetForRandomSequences() {
+        int size = 256;
+        SequenceReplayWindow window = new SequenceReplayWindow(size, -1);
+        Set<Long> seen = new HashSet<>();
+        long highest = -1;
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long sequence = Math.max(0, highest + random.nextInt(400) - 300);
+            Verdict expected;
+            if (sequence > highest) {
+                expected = Verdict.ACCEPTED;
+            } else if (highest - sequence >= size) {
+                expected = Verdict.TOO_OLD;
+            } else {
+                expected = seen.contains(sequence) ? Verdict.REPLAYED : Verdict.ACCEPTED;
+            }
+            assertThat(window.accept(sequence)).as("sequence %d after %d", sequence, highest).isEqualTo(expected);
+            if (expected == Verdict.ACCEPTED) {
+                seen.add(sequence);
+                highest = Math.max(highest, sequence);
+            }
+        }
+    }
+
+    @Test
+    void invalidArguments_areRejected() {
+        assertThatThrownBy(() -> new SequenceReplayWindow(100, -1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new SequenceReplayWindow(64, -1).accept(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -3,16 +3,22 @@ package com.example.accesssystem.service;
 import com.example.accesssystem.domain.Identifiers.CheckpointId;
 import com.example.accesssystem.domain.PassageModels.SignedPayload;
 import com.example.accesssystem.domain.contracts.SecurityContracts;
+import com.example.accesssystem.service.CheckpointKeyRepository.CheckpointKeyRecord;
+import com.example.accesssystem.service.refdata.ReferenceDataChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
 import java.security.*;
+import java.time.Instant;
 import java.util.Base64;
-import java.util.Optional;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -26,13 +32,25 @@ class SignatureVerificationServiceTest {
     @Mock
     private CanonicalPayloadBuilder canonicalBuilder;
 
+    @Mock
+    private ReferenceDataChangeFeed changeFeed;
+
+    private static final String HMAC_MASTER_KEY = "4dGRKgvQFUhDrNaQt6WowgxkPzj98T2OlqSAoo0Zxb4=";
+
+    private CheckpointSecretCipher secretCipher;
+    private SimpleMeterRegistry meterRegistry;
+    private CheckpointKeyRing keyRing;
     private SignatureVerificationService verificationService;
     private KeyPair rsaKeyPair;
     private String rsaPublicKeyPem;
 
     @BeforeEach
     void setUp() throws Exception {
-        verificationService = new SignatureVerificationService(keyRepository, canonicalBuilder);
+        JcaInstancePool jcaPool = new JcaInstancePool("SunRsaSign", "SunEC", "SunEC");
+        secretCipher = new CheckpointSecretCipher(HMAC_MASTER_KEY);
+        meterRegistry = new SimpleMeterRegistry();
+        keyRing = new CheckpointKeyRing(keyRepository, changeFeed, jcaPool, secretCipher);
+        verificationService = new SignatureVerificationService(keyRing, canonicalBuilder, jcaPool, meterRegistry);
         
         // Generate RSA key pair for testing
         KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
@@ -60,10 +78,7 @@ class SignatureVerificationServiceTest {
         String signedPayloadString = canonicalBase64 + "|" + signatureBase64;
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        when(keyRepository.findPublicKeyByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of(rsaPublicKeyPem));
-        when(keyRepository.findKeyTypeByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of("RSA"));
+        loadKeys(new CheckpointKeyRecord("cp-1", "default", rsaPublicKeyPem, "RSA", Instant.now()));
         
         // When
         SecurityContracts.VerificationResult result = verificationService.verifyCheckpointMessage(
@@ -94,10 +109,7 @@ class SignatureVerificationServiceTest {
         String signedPayloadString = canonicalBase64 + "|" + signatureBase64;
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        when(keyRepository.findPublicKeyByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of(rsaPublicKeyPem));
-        when(keyRepository.findKeyTypeByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of("RSA"));
+        loadKeys(new CheckpointKeyRecord("cp-1", "default", rsaPublicKeyPem, "RSA", Instant.now()));
         
         // When
         SecurityContracts.VerificationResult result = verificationService.verifyCheckpointMessage(
@@ -116,8 +128,7 @@ class SignatureVerificationServiceTest {
         String signedPayloadString = "dGVzdA==|dGVzdA==";
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        when(keyRepository.findPublicKeyByCheckpointCode("cp-unknown"))
-            .thenReturn(Optional.empty());
+        loadKeys();
         
         // When
         SecurityContracts.VerificationResult result = verificationService.verifyCheckpointMessage(
@@ -137,8 +148,7 @@ class SignatureVerificationServiceTest {
         String signedPayloadString = "invalid-format";
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        when(keyRepository.findPublicKeyByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of(rsaPublicKeyPem));
+        loadKeys(new CheckpointKeyRecord("cp-1", "default", rsaPublicKeyPem, "RSA", Instant.now()));
         
         // When
         SecurityContracts.VerificationResult result = verificationService.verifyCheckpointMessage(
@@ -158,10 +168,7 @@ class SignatureVerificationServiceTest {
         String signedPayloadString = "not-valid-base64|dGVzdA==";
         SignedPayload signedPayload = new SignedPayload(signedPayloadString.getBytes(StandardCharsets.UTF_8));
         
-        when(keyRepository.findPublicKeyByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of(rsaPublicKeyPem));
-        when(keyRepository.findKeyTypeByCheckpointCode("cp-1"))
-            .thenReturn(Optional.of("RSA"));
+        loadKeys(new CheckpointKeyRecord("cp-1", "default", rsaPublicKeyPem, "RSA", Instant.now()));
         
         // When
         SecurityContracts.VerificationResult result = verificationService.verifyCheckpointMessage(
@@ -173,6 +180,86 @@ class SignatureVerificationServiceTest {
         assertThat(result.reason()).contains("Verification error");
     }
 
+    @Test
+    void verifyCheckpointMessage_rotatedKeyRing_acceptsOldAndNewKeys() throws Exception {
+        // Given: new key added, old key still active
+        KeyPairGenerator keyGen = KeyPairGenerator.getInstance("RSA");
+        keyGen.initialize(2048);
+        KeyPair newKeyPair = keyGen.generateKeyPair();
+        loadKeys(
+            new CheckpointKeyRecord("cp-1", "k2", convertToPEM(newKeyPair.getPublic(), "PUBLIC KEY"), "RSA", Instant.now()),
+            new CheckpointKeyRecord("cp-1", "k1", rsaPublicKeyPem, "RSA", Instant.now().minusSeconds(3600))
+        );
+        CheckpointId checkpointId = new CheckpointId("cp-1");
+
+        // When / Then: without kid both keys are accepted
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, sign(rsaKeyPair, "payload-old")).valid()).isTrue();
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, sign(newKeyPair, "payload-new")).valid()).isTrue();
+
+        // With kid only the named key is used
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, "k1", sign(rsaKeyPair, "payload")).valid()).isTrue();
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, "k2", sign(rsaKeyPair, "payload")).reason())
+            .contains("Signature verification failed");
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, "k9", sign(rsaKeyPair, "payload")).reason())
+            .contains("Checkpoint key not found");
+    }
+
+    @Test
+    void verifyCheckpointMessage_hmacKey_verifiesTagInConstantTimePath() throws Exception {
+        // Given: checkpoint opted into HMAC with an encrypted secret
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        byte[] ciphertext = secretCipher.encrypt(secret.clone(), "cp-1", "hmac-1");
+        loadKeys(new CheckpointKeyRecord("cp-1", "hmac-1", null, "HMAC", Instant.now(), ciphertext));
+        CheckpointId checkpointId = new CheckpointId("cp-1");
+
+        // When / Then
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, hmac(secret, "payload")).valid()).isTrue();
+        byte[] otherSecret = secret.clone();
+        otherSecret[0] ^= 1;
+        assertThat(verificationService.verifyCheckpointMessage(checkpointId, hmac(otherSecret, "payload")).reason())
+            .contains("Signature verification failed");
+        assertThat(meterRegistry.counter("checkpoint_signature_verifications_total", "scheme", "hmac", "result", "ok").count())
+            .isEqualTo(1.0);
+        assertThat(meterRegistry.get("checkpoint_keys_hmac_checkpoints").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void verifyCheckpointMessage_hmacCiphertextOfOtherCheckpoint_isNotLoaded() throws Exception {
+        // Ciphertext is bound to (checkpoint, kid): copying it to another row must not work
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        byte[] ciphertext = secretCipher.encrypt(secret.clone(), "cp-other", "hmac-1");
+        loadKeys(new CheckpointKeyRecord("cp-1", "hmac-1", null, "HMAC", Instant.now(), ciphertext));
+
+        assertThat(verificationService.verifyCheckpointMessage(new CheckpointId("cp-1"), hmac(secret, "payload")).reason())
+            .contains("Checkpoint key not found");
+    }
+
+    private void loadKeys(CheckpointKeyRecord... keys) {
+        when(keyRepository.findAll()).thenReturn(List.of(keys));
+        keyRing.reloadAll();
+    }
+
+    private SignedPayload sign(KeyPair keyPair, String canonical) throws Exception {
+        byte[] payloadBytes = canonical.getBytes(StandardCharsets.UTF_8);
+        Signature signature = Signature.getInstance("SHA256withRSA");
+        signature.initSign(keyPair.getPrivate());
+        signature.update(payloadBytes);
+        String signed = Base64.getEncoder().encodeToString(payloadBytes) + "|"
+            + Base64.getEncoder().encodeToString(signature.sign());
+        return new SignedPayload(signed.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private SignedPayload hmac(byte[] secret, String canonical) throws Exception {
+        byte[] payloadBytes = canonical.getBytes(StandardCharsets.UTF_8);
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+        String signed = Base64.getEncoder().encodeToString(payloadBytes) + "|"
+            + Base64.getEncoder().encodeToString(mac.doFinal(payloadBytes));
+        return new SignedPayload(signed.getBytes(StandardCharsets.UTF_8));
+    }
+
     private String convertToPEM(PublicKey publicKey, String type) {
         // Convert to proper PEM format using X.509 encoding
         byte[] encoded = publicKey.getEncoded();
@@ -0,0 +1,75 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeBucketedNonceCacheTest {
+
+    private static final long NOW = 1_700_000_000L;
+
+    @Test
+    void add_rejectsDuplicatesAcrossBuckets() {
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(300, 1024);
+
+        assertThat(cache.add("evt-1", NOW + 300, NOW)).isTrue();
+        assertThat(cache.add("evt-1", NOW + 300, NOW)).isFalse();
+        // Same nonce with another timestamp lands in another bucket but is still a duplicate
+        assertThat(cache.add("evt-1", NOW + 3000, NOW)).isFalse();
+        assertThat(cache.contains("evt-1", NOW)).isTrue();
+        assertThat(cache.contains("evt-2", NOW)).isFalse();
+    }
+
+    @Test
+    void buckets_areDroppedOnceTheirWholeExpirySliceHasPassed() {
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(300, 1024);
+        long expiry = NOW + 10;
+        long bucketEnd = (Math.floorDiv(expiry, 300) + 1) * 300;
+        cache.add("evt-1", expiry, NOW);
+
+        assertThat(cache.contains("evt-1", bucketEnd - 1)).isTrue();
+        assertThat(cache.contains("evt-1", bucketEnd)).isFalse();
+        assertThat(cache.bucketCount()).isZero();
+        assertThat(cache.add("evt-1", bucketEnd + 300, bucketEnd)).isTrue();
+    }
+
+    @Test
+    void bloomFalsePositives_neverRejectFreshNonces() {
+        // Tiny filters: most lookups are false positives and must fall through to the exact set
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(60, 8);
+        for (int i = 0; i < 5_000; i++) {
+            assertThat(cache.add(UUID.randomUUID().toString(), NOW + (i % 600), NOW)).isTrue();
+        }
+        assertThat(cache.size()).isEqualTo(5_000);
+    }
+
+    @Test
+    void concurrentClaims_exactlyOneWins() throws Exception {
+        TimeBucketedNonceCache cache = new TimeBucketedNonceCache(300, 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 50; round++) {
+                String nonce = "evt-" + round;
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int t = 0; t < 16; t++) {
+                    long expiry = NOW + 60L * t; // different timestamps -> different buckets
+                    results.add(executor.submit(() -> cache.add(nonce, expiry, NOW)));
+                }
+                int winners = 0;
+                for (Future<Boolean> result : results) {
+                    winners += result.get() ? 1 : 0;
+                }
+                assertThat(winners).isEqualTo(1);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void advance_firesAtFirstTickAtOrAfterDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, START);
+        wheel.schedule("a", START + 1500);
+        wheel.schedule("b", START + 3000);
+        List<String> fired = new ArrayList<>();
+
+        assertThat(wheel.advance(START + 1999, fired::add)).isZero();
+        assertThat(wheel.advance(START + 2000, fired::add)).isEqualTo(1);
+        assertThat(fired).containsExactly("a");
+        wheel.advance(START + 10_000, fired::add);
+        assertThat(fired).containsExactly("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_pastDeadlineFiresOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(1000, START);
+        wheel.advance(START + 5000, item -> { });
+        wheel.schedule("late", START);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(START + 5000, fired::add);
+
+        assertThat(fired).containsExactly("late");
+    }
+
+    @Test
+    void advance_neverEarlyOrLateAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1000, START);
+        Random random = new Random(7);
+        // Up to ten days: every level below the top and many slot boundaries
+        int scheduled = 2000;
+        for (int i = 0; i < scheduled; i++) {
+            long deadline = START + (long) random.nextInt(10 * 86_400) * 1000 + random.nextInt(1000);
+            wheel.schedule(deadline, deadline);
+        }
+
+        long[] now = {START};
+        long[] previous = {START};
+        int fired = 0;
+        while (now[0] < START + 11L * 86_400 * 1000) {
+            previous[0] = now[0];
+            now[0] += 1000 + random.nextInt(60_000);
+            fired += wheel.advance(now[0], deadline -> {
+                assertThat(deadline).isLessThanOrEqualTo(now[0]);
+                // Not held back past the advance that reached its (rounded up) tick
+                assertThat(deadline).isGreaterThan(previous[0] - 1000);
+            });
+        }
+
+        assertThat(fired).isEqualTo(scheduled);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_overflowBeyondTopLevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        long farAway = (1L << 24) + 5;
+        wheel.schedule("far", farAway);
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(farAway - 1, fired::add);
+        assertThat(fired).isEmpty();
+        wheel.advance(farAway, fired::add);
+        assertThat(fired).containsExactly("far");
+    }
+}
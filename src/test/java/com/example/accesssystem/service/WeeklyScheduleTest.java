@@ -0,0 +1,56 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.WeeklySchedule.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WeeklyScheduleTest {
+
+    @Test
+    void isOpen_onlyInsideWindowsEndExclusive() {
+        WeeklySchedule schedule = WeeklySchedule.of(List.of(
+            new Window(1, 9 * 60, 18 * 60),
+            new Window(7, 22 * 60, WeeklySchedule.MINUTES_PER_DAY)
+        ));
+
+        assertThat(schedule.isOpen(9 * 60)).isTrue();
+        assertThat(schedule.isOpen(18 * 60 - 1)).isTrue();
+        assertThat(schedule.isOpen(18 * 60)).isFalse();
+        assertThat(schedule.isOpen(9 * 60 - 1)).isFalse();
+        assertThat(schedule.isOpen(WeeklySchedule.MINUTES_PER_WEEK - 1)).isTrue();
+        assertThat(schedule.isOpen(WeeklySchedule.MINUTES_PER_WEEK)).isFalse();
+        assertThat(schedule.isOpen(-1)).isFalse();
+        assertThat(WeeklySchedule.closed().isOpen(9 * 60)).isFalse();
+    }
+
+    @Test
+    void minuteOfWeek_usesSiteTimeZone() {
+        // Monday 2024-01-01 06:30 UTC
+        Instant at = Instant.parse("2024-01-01T06:30:00Z");
+
+        assertThat(WeeklySchedule.minuteOfWeek(at, ZoneOffset.UTC.getRules())).isEqualTo(6 * 60 + 30);
+        assertThat(WeeklySchedule.minuteOfWeek(at, ZoneId.of("Europe/Moscow").getRules()))
+            .isEqualTo(9 * 60 + 30);
+        // Still Sunday evening in New York
+        assertThat(WeeklySchedule.minuteOfWeek(Instant.parse("2024-01-01T03:00:00Z"),
+                ZoneId.of("America/New_York").getRules()))
+            .isEqualTo(6 * WeeklySchedule.MINUTES_PER_DAY + 22 * 60);
+        assertThat(WeeklySchedule.minuteOfWeek(Instant.parse("1969-12-29T00:00:00Z"), ZoneOffset.UTC.getRules()))
+            .isZero();
+    }
+
+    @Test
+    void window_rejectsInvalidBounds() {
+        assertThatThrownBy(() -> new Window(0, 0, 60)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Window(1, 60, 60)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new Window(1, 0, WeeklySchedule.MINUTES_PER_DAY + 1))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+import com.example.accesssystem.service.CodeDictionary.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneGraphTest {
+
+    private final UUID zoneA = UUID.randomUUID();
+    private final UUID zoneB = UUID.randomUUID();
+    private final UUID entry = UUID.randomUUID();
+    private final UUID transit = UUID.randomUUID();
+    private final UUID exit = UUID.randomUUID();
+
+    private final ZoneGraph graph = new ZoneGraph(
+        List.of(new Entry(zoneA, "zone-a"), new Entry(zoneB, "zone-b")),
+        List.of(
+            new CheckpointEdge(entry, "cp-in", null, zoneA),
+            new CheckpointEdge(transit, "cp-ab", zoneA, zoneB),
+            new CheckpointEdge(exit, "cp-out", zoneA, null)
+        )
+    );
+
+    @Test
+    void hasExit_onlyForZonesWithCheckpointToOut() {
+        assertThat(graph.hasExit(zoneA)).isTrue();
+        assertThat(graph.hasExit(zoneB)).isFalse();
+        assertThat(graph.hasExit(null)).isFalse();
+        assertThat(ZoneGraph.empty().hasExit(zoneA)).isFalse();
+    }
+
+    @Test
+    void isConfiguredEdge_matchesDirectionAndOutSentinel() {
+        assertThat(graph.isConfiguredEdge(entry, null, zoneA)).isTrue();
+        assertThat(graph.isConfiguredEdge(transit, zoneA, zoneB)).isTrue();
+        assertThat(graph.isConfiguredEdge(exit, zoneA, null)).isTrue();
+
+        assertThat(graph.isConfiguredEdge(transit, zoneB, zoneA)).isFalse();
+        assertThat(graph.isConfiguredEdge(entry, null, zoneB)).isFalse();
+        assertThat(graph.isConfiguredEdge(UUID.randomUUID(), zoneA, zoneB)).isFalse();
+    }
+
+    @Test
+    void zoneCode_resolvesNodesAndTreatsOutAsNull() {
+        assertThat(graph.zoneCode(zoneB)).isEqualTo("zone-b");
+        assertThat(graph.zoneCode(null)).isNull();
+        assertThat(graph.edgeOf(transit)).map(CheckpointEdge::code).contains("cp-ab");
+        assertThat(graph.checkpoints()).hasSize(3);
+    }
+}
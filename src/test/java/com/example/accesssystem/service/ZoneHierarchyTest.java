@@ -0,0 +1,73 @@
+package com.example.accesssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static com.example.accesssystem.service.ZoneHierarchy.ROOT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneHierarchyTest {
+
+    // building(0) -> floor(1) -> room(2); lobby(3) top-level; annex(70) beyond the first bitset word
+    private final ZoneHierarchy hierarchy = ZoneHierarchy.empty().withParents(Map.of(
+        0, ROOT, 1, 0, 2, 1, 3, ROOT, 70, 0
+    ));
+
+    @Test
+    void covers_grantOnAncestorCoversDescendants() {
+        long[] building = bits(0);
+        assertThat(hierarchy.covers(building, 0)).isTrue();
+        assertThat(hierarchy.covers(building, 1)).isTrue();
+        assertThat(hierarchy.covers(building, 2)).isTrue();
+        assertThat(hierarchy.covers(building, 70)).isTrue();
+        assertThat(hierarchy.covers(building, 3)).isFalse();
+
+        long[] room = bits(2);
+        assertThat(hierarchy.covers(room, 2)).isTrue();
+        assertThat(hierarchy.covers(room, 1)).isFalse();
+        assertThat(hierarchy.covers(room, 0)).isFalse();
+
+        assertThat(hierarchy.covers(bits(70), 70)).isTrue();
+        assertThat(hierarchy.covers(bits(70), -1)).isFalse();
+        assertThat(hierarchy.covers(null, 2)).isFalse();
+        assertThat(ZoneHierarchy.empty().covers(bits(5), 5)).isTrue();
+    }
+
+    @Test
+    void selfAndAncestors_nearestFirst() {
+        assertThat(hierarchy.selfAndAncestors(2)).containsExactly(2, 1, 0);
+        assertThat(hierarchy.selfAndAncestors(3)).containsExactly(3);
+        assertThat(hierarchy.selfAndAncestors(99)).containsExactly(99);
+        assertThat(hierarchy.childrenOf(0)).containsExactly(1, 70);
+    }
+
+    @Test
+    void withParents_recompilesOnlyTheMovedSubtree() {
+        ZoneHierarchy moved = hierarchy.withParents(Map.of(1, 3));
+
+        assertThat(moved.recompiledCount()).isEqualTo(2);
+        assertThat(moved.covers(bits(3), 2)).isTrue();
+        assertThat(moved.covers(bits(0), 2)).isFalse();
+        assertThat(moved.covers(bits(0), 70)).isTrue();
+        // The old snapshot is unchanged
+        assertThat(hierarchy.covers(bits(0), 2)).isTrue();
+    }
+
+    @Test
+    void withParents_cutsCycles() {
+        ZoneHierarchy cyclic = hierarchy.withParents(Map.of(0, 2));
+
+        assertThat(cyclic.brokenCycleCount()).isEqualTo(1);
+        assertThat(cyclic.selfAndAncestors(2).length).isLessThanOrEqualTo(3);
+        assertThat(cyclic.covers(bits(2), 2)).isTrue();
+    }
+
+    private static long[] bits(int... zones) {
+        long[] words = new long[2];
+        for (int zone : zones) {
+            words[zone >>> 6] |= 1L << zone;
+        }
+        return words;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.accesssystem.service;
+
+import com.example.accesssystem.service.CheckpointRepository.CheckpointEdge;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneReachabilityTest {
+
+    // Dense ids: lobby 0, office 1, lab 2, vault 3, annex 4 (no entrance)
+    private final UUID lobby = UUID.randomUUID();
+    private final UUID office = UUID.randomUUID();
+    private final UUID lab = UUID.randomUUID();
+    private final UUID vault = UUID.randomUUID();
+    private final UUID annex = UUID.randomUUID();
+    private final Map<UUID, Integer> ids = Map.of(lobby, 0, office, 1, lab, 2, vault, 3, annex, 4);
+
+    private final ZoneReachability reachability = ZoneReachability.compile(List.of(
+        edge(null, lobby),
+        edge(lobby, office),
+        edge(office, lab),
+        edge(lab, vault),
+        edge(lab, office),
+        edge(annex, vault),
+        edge(vault, null),
+        edge(UUID.randomUUID(), lab)
+    ), zone -> ids.getOrDefault(zone, -1));
+
+    @Test
+    void reachable_followsCheckpointsThroughAllowedZonesOnly() {
+        ZoneReachability.Search search = reachability.search(new int[] {2, 3});
+
+        // user 0: lobby, office, lab; user 1: everything but lab; user 2: vault only
+        Map<Integer, Set<Integer>> grants = Map.of(0, Set.of(0, 1, 2), 1, Set.of(0, 1, 3, 4), 2, Set.of(3));
+        ZoneReachability.Admission admission = (user, zone) -> grants.getOrDefault(user, Set.of()).contains(zone);
+
+        assertThat(search.reachable(0, admission)).containsExactly(true, false);
+        assertThat(search.reachable(1, admission)).containsExactly(false, false);
+        assertThat(search.reachable(2, admission)).containsExactly(false, false);
+        assertThat(search.reachable(3, (user, zone) -> true)).containsExactly(true, true);
+    }
+
+    @Test
+    void reachable_reusesBuffersAcrossUsers() {
+        ZoneReachability.Search search = reachability.search(new int[] {3});
+
+        assertThat(search.reachable(0, (user, zone) -> true)).containsExactly(true);
+        assertThat(search.reachable(1, (user, zone) -> zone != 2)).containsExactly(false);
+        assertThat(search.reachable(2, (user, zone) -> true)).containsExactly(true);
+    }
+
+    @Test
+    void reachable_zoneWithoutEntranceOrUnknownTargetIsNeverReached() {
+        ZoneReachability.Search search = reachability.search(new int[] {4, 99});
+
+        assertThat(reachability.zoneCount()).isEqualTo(5);
+        assertThat(search.reachable(0, (user, zone) -> true)).containsExactly(false, false);
+    }
+
+    private static CheckpointEdge edge(UUID from, UUID to) {
+        return new CheckpointEdge(UUID.randomUUID(), "cp", from, to);
+    }
+}
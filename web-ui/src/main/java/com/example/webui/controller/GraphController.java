@@ -4,9 +4,14 @@ import com.example.webui.repository.CheckpointRepository;
 import com.example.webui.repository.CheckpointView;
 import com.example.webui.repository.ZoneRepository;
 import com.example.webui.repository.ZoneView;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -15,22 +20,48 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Zone graph for the zones page.
+ * <p>
+ * When {@code access-system.url} is set, the graph is the topology snapshot the access system validates
+ * events against ({@code GET /admin/topology}); otherwise, or if that call fails, it is read from the database.
+ */
 @RestController
 @RequestMapping("/graph")
 public class GraphController {
 
+    private static final Logger log = LoggerFactory.getLogger(GraphController.class);
+
     private static final String OUT_ZONE_CODE = "OUT";
 
     private final ZoneRepository zoneRepository;
     private final CheckpointRepository checkpointRepository;
+    private final RestClient accessSystem;
 
-    public GraphController(ZoneRepository zoneRepository, CheckpointRepository checkpointRepository) {
+    public GraphController(ZoneRepository zoneRepository, CheckpointRepository checkpointRepository,
+                           RestClient.Builder restClientBuilder,
+                           @Value("${access-system.url:}") String accessSystemUrl) {
         this.zoneRepository = zoneRepository;
         this.checkpointRepository = checkpointRepository;
+        this.accessSystem = accessSystemUrl.isBlank() ? null : restClientBuilder.baseUrl(accessSystemUrl).build();
     }
 
     @GetMapping
     public GraphResponse graph() {
+        if (accessSystem != null) {
+            try {
+                GraphResponse topology = accessSystem.get().uri("/admin/topology").retrieve().body(GraphResponse.class);
+                if (topology != null) {
+                    return topology;
+                }
+            } catch (RestClientException e) {
+                log.warn("Topology unavailable from access system, reading the database: {}", e.getMessage());
+            }
+        }
+        return graphFromDatabase();
+    }
+
+    private GraphResponse graphFromDatabase() {
         Map<String, ZoneNode> zonesByCode = new LinkedHashMap<>();
         List<ZoneView> zoneViews = zoneRepository.findAll();
         for (ZoneView zoneView : zoneViews) {